@@ -0,0 +1,54 @@
+package bench;
+
+import model.Booking;
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking.calculateTotal với số ghế khác nhau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingTotalBenchmark {
+
+    @Param({"2", "8", "300"})
+    public int seatCount;
+
+    private Booking booking;
+    private List<Seat> seats;
+
+    @Setup
+    public void setUp() {
+        booking = new Booking();
+        seats = new ArrayList<>(seatCount);
+        SeatType[] types = SeatType.values();
+        for (int i = 0; i < seatCount; i++) {
+            seats.add(new Seat(i + 1, 1, "A" + (i + 1), types[i % types.length], SeatStatus.RESERVED, 0));
+        }
+    }
+
+    @Benchmark
+    public long calculateTotal() {
+        return booking.calculateTotal(seats);
+    }
+}
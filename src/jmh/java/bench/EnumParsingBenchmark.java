@@ -0,0 +1,79 @@
+package bench;
+
+import model.SeatStatus;
+import model.SeatType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giải mã enum từ chuỗi cột JDBC: một giá trị và cả một sơ đồ 300 ghế
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumParsingBenchmark {
+
+    private static final int ROWS = 300;
+
+    /**
+     * Giá trị đơn lẻ, mỗi enum một State riêng để @Param không nhân số lần chạy của các benchmark khác
+     */
+    @State(Scope.Benchmark)
+    public static class StatusValue {
+        @Param({"AVAILABLE", "booked"})
+        public String seatStatus;
+    }
+
+    @State(Scope.Benchmark)
+    public static class TypeValue {
+        @Param({"STANDARD", "couple"})
+        public String seatType;
+    }
+
+    private String[] statusColumn;
+    private String[] typeColumn;
+
+    @Setup
+    public void setUp() {
+        statusColumn = new String[ROWS];
+        typeColumn = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            statusColumn[i] = SeatStatus.values()[i % 3].name();
+            typeColumn[i] = SeatType.values()[i % 3].name();
+        }
+    }
+
+    @Benchmark
+    public SeatStatus seatStatusFromString(StatusValue value) {
+        return SeatStatus.fromString(value.seatStatus);
+    }
+
+    @Benchmark
+    public SeatType seatTypeFromString(TypeValue value) {
+        return SeatType.fromString(value.seatType);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void decodeSeatMapRows(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(SeatStatus.fromString(statusColumn[i]));
+            bh.consume(SeatType.fromString(typeColumn[i]));
+        }
+    }
+}
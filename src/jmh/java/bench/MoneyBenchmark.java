@@ -0,0 +1,117 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pricing.PriceCalculator;
+import util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tổng tiền của nhiều đơn: long (đồng) so với BigDecimal và double
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final long[] PRICES = {50_000, 100_000, 150_000};
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    private long[] seatPrices;
+    private double[] seatPricesDouble;
+    private BigDecimal[] seatPricesDecimal;
+    private int[] offsets;
+    private long[] totals;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        offsets = new int[bookings + 1];
+        for (int i = 0; i < bookings; i++) {
+            offsets[i + 1] = offsets[i] + 1 + random.nextInt(6);
+        }
+        int seats = offsets[bookings];
+        seatPrices = new long[seats];
+        seatPricesDouble = new double[seats];
+        seatPricesDecimal = new BigDecimal[seats];
+        for (int i = 0; i < seats; i++) {
+            seatPrices[i] = PRICES[random.nextInt(PRICES.length)];
+            seatPricesDouble[i] = seatPrices[i];
+            seatPricesDecimal[i] = BigDecimal.valueOf(seatPrices[i]);
+        }
+        totals = new long[bookings];
+    }
+
+    @Benchmark
+    public long longTotals() {
+        return PriceCalculator.bookingTotals(seatPrices, offsets, totals);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotals() {
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        for (int i = 0; i < bookings; i++) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                total = total.add(seatPricesDecimal[j]);
+            }
+            grandTotal = grandTotal.add(total);
+        }
+        return grandTotal;
+    }
+
+    @Benchmark
+    public double doubleTotals() {
+        double grandTotal = 0;
+        for (int i = 0; i < bookings; i++) {
+            double total = 0;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                total += seatPricesDouble[j];
+            }
+            grandTotal += total;
+        }
+        return grandTotal;
+    }
+
+    @Benchmark
+    public long longDiscountedTotals() {
+        long grandTotal = 0;
+        for (int i = 0; i < bookings; i++) {
+            grandTotal += PriceCalculator.applyDiscount(Money.sum(seatPrices, offsets[i], offsets[i + 1]), 1_000);
+        }
+        return grandTotal;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalDiscountedTotals() {
+        BigDecimal rate = new BigDecimal("0.10");
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        for (int i = 0; i < bookings; i++) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                total = total.add(seatPricesDecimal[j]);
+            }
+            BigDecimal discount = total.multiply(rate).setScale(0, RoundingMode.HALF_UP);
+            grandTotal = grandTotal.add(total.subtract(discount));
+        }
+        return grandTotal;
+    }
+}
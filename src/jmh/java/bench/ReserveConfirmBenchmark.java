@@ -0,0 +1,128 @@
+package bench;
+
+import dao.BookingDao;
+import dao.SeatDao;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentMethod;
+import model.SeatStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Giữ ghế rồi xác nhận đơn end-to-end trên H2 nhúng (chế độ MySQL)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Ddb.driverClassName=org.h2.Driver",
+        "-Ddb.username=sa",
+        "-Ddb.password=",
+        "-Ddb.profile.oltp.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE"
+})
+@Threads(4)
+public class ReserveConfirmBenchmark {
+
+    private static final int SHOWTIME_ID = 1;
+    private static final int CUSTOMER_ID = 1;
+    private static final int SEATS = ShowtimeSeatMap.MAX_SEATS;
+
+    private final SeatDao seatDao = new SeatDao();
+    private final BookingDao bookingDao = new BookingDao();
+    private final AtomicInteger nextSeat = new AtomicInteger();
+    private SeatMapEngine engine;
+
+    @Setup(Level.Trial)
+    public void createSchema() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS seats(seat_id INT PRIMARY KEY, showtime_id INT, "
+                    + "seat_number VARCHAR(10), seat_type VARCHAR(20), status VARCHAR(20), price BIGINT, "
+                    + "held_by INT, version INT, created_at TIMESTAMP, updated_at TIMESTAMP)");
+            st.execute("CREATE TABLE IF NOT EXISTS bookings(booking_id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "customer_id INT, showtime_id INT, total_amount BIGINT, status VARCHAR(20), "
+                    + "booking_time TIMESTAMP, confirmed_at TIMESTAMP, cancelled_at TIMESTAMP, "
+                    + "cancellation_reason VARCHAR(255))");
+            st.execute("CREATE TABLE IF NOT EXISTS booking_seats(booking_id INT, seat_id INT)");
+            st.execute("CREATE TABLE IF NOT EXISTS payments(payment_id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "booking_id INT, amount BIGINT, payment_method VARCHAR(20), transaction_id VARCHAR(64) UNIQUE, "
+                    + "payment_status VARCHAR(20), payment_time TIMESTAMP, claimed_at TIMESTAMP)");
+            conn.commit();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetSeats() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM seats");
+            st.execute("DELETE FROM booking_seats");
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO seats(seat_id, showtime_id, seat_number, seat_type, status, price, version) "
+                            + "VALUES (?, ?, ?, 'STANDARD', 'AVAILABLE', 50000, 0)")) {
+                for (int i = 1; i <= SEATS; i++) {
+                    ps.setInt(1, i);
+                    ps.setInt(2, SHOWTIME_ID);
+                    ps.setString(3, "S" + i);
+                    ps.addBatch();
+                    if (i % 1000 == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+        engine = new SeatMapEngine(seatDao);
+        engine.getOrLoad(SHOWTIME_ID);
+        nextSeat.set(0);
+    }
+
+    @Benchmark
+    public Booking reserveAndConfirm() throws SQLException {
+        int seatId = 1 + nextSeat.getAndIncrement() % SEATS;
+        if (engine.getStatus(SHOWTIME_ID, seatId) != SeatStatus.AVAILABLE || !engine.reserve(SHOWTIME_ID, seatId)) {
+            return null;
+        }
+        seatDao.reserveSeats(CUSTOMER_ID, SHOWTIME_ID, Collections.singletonList(seatId), Collections.singletonList(0));
+
+        Booking booking = new Booking(0, CUSTOMER_ID, SHOWTIME_ID, 50000, BookingStatus.PENDING);
+        booking.addSeatId(seatId);
+        Payment payment = new Payment(0, 0, 50000, PaymentMethod.CASH, UUID.randomUUID().toString());
+        bookingDao.confirmBatch(Collections.singletonList(booking), Collections.singletonList(payment));
+        engine.book(SHOWTIME_ID, seatId);
+        return booking;
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        DatabaseConnection.shutdown();
+    }
+}
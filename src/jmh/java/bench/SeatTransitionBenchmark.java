@@ -0,0 +1,83 @@
+package bench;
+
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuyển trạng thái ghế khi nhiều luồng cùng tranh một suất chiếu 80 ghế
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatTransitionBenchmark {
+
+    private static final int SHOWTIME_ID = 1;
+    private static final int SEATS = 80;
+
+    private SeatMapEngine engine;
+    private ShowtimeSeatMap seatMap;
+
+    @Setup
+    public void setUp() {
+        List<Seat> seats = new ArrayList<>(SEATS);
+        for (int i = 1; i <= SEATS; i++) {
+            seats.add(new Seat(i, SHOWTIME_ID, "A" + i, SeatType.STANDARD, SeatStatus.AVAILABLE, 0));
+        }
+        engine = new SeatMapEngine();
+        seatMap = engine.load(ShowtimeSeatMap.of(SHOWTIME_ID, seats));
+    }
+
+    /**
+     * Tất cả luồng cùng giữ rồi trả ghế ngẫu nhiên
+     */
+    @Benchmark
+    @Group("holdRelease")
+    @GroupThreads(8)
+    public boolean holdRelease() {
+        int seatId = 1 + ThreadLocalRandom.current().nextInt(SEATS);
+        if (engine.reserve(SHOWTIME_ID, seatId)) {
+            return engine.release(SHOWTIME_ID, seatId, SeatStatus.RESERVED);
+        }
+        return false;
+    }
+
+    /**
+     * Khách xem sơ đồ ghế trong khi người mua giữ/trả ghế
+     */
+    @Benchmark
+    @Group("browseWhileBuying")
+    @GroupThreads(6)
+    public int browse() {
+        return seatMap.count(SeatStatus.AVAILABLE);
+    }
+
+    @Benchmark
+    @Group("browseWhileBuying")
+    @GroupThreads(2)
+    public boolean buy() {
+        return holdRelease();
+    }
+}
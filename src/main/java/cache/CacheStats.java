@@ -0,0 +1,83 @@
+package cache;
+
+/**
+ * Ảnh chụp số liệu của cache
+ */
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadNanos;
+    private final long refreshCount;
+    private final long evictionCount;
+    private final int size;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+               long totalLoadNanos, long refreshCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadNanos = totalLoadNanos;
+        this.refreshCount = refreshCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return Thời gian nạp trung bình (ms), tính cả lần nạp lỗi
+     */
+    public double getAverageLoadMillis() {
+        long loads = loadSuccessCount + loadFailureCount;
+        return loads == 0 ? 0 : totalLoadNanos / (loads * 1_000_000.0);
+    }
+
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hitCount +
+                ", misses=" + missCount +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", loads=" + loadSuccessCount +
+                ", loadFailures=" + loadFailureCount +
+                ", avgLoadMs=" + String.format("%.2f", getAverageLoadMillis()) +
+                ", refreshes=" + refreshCount +
+                ", evictions=" + evictionCount +
+                ", size=" + size +
+                '}';
+    }
+}
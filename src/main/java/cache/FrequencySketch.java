@@ -0,0 +1,54 @@
+package cache;
+
+/**
+ * Count-Min sketch 4 bit ước lượng tần suất truy cập gần đây của một khóa (dùng cho TinyLFU).
+ * Khi số lần ghi nhận đạt ngưỡng, mọi bộ đếm bị chia đôi để tần suất cũ phai dần.
+ */
+class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final byte[] table;
+    private final int mask;
+    private final int resetThreshold;
+    private int additions;
+
+    FrequencySketch(int maximumSize) {
+        int width = Integer.highestOneBit(Math.max(64, maximumSize * 4) - 1) << 1;
+        this.table = new byte[width];
+        this.mask = width - 1;
+        this.resetThreshold = Math.max(10 * maximumSize, 100);
+    }
+
+    int frequency(int key) {
+        int min = MAX_COUNT;
+        for (int seed : SEEDS) {
+            min = Math.min(min, table[index(key, seed)]);
+        }
+        return min;
+    }
+
+    void increment(int key) {
+        boolean added = false;
+        for (int seed : SEEDS) {
+            int i = index(key, seed);
+            if (table[i] < MAX_COUNT) {
+                table[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= resetThreshold) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>= 1;
+            }
+            additions >>>= 1;
+        }
+    }
+
+    private int index(int key, int seed) {
+        int h = key * seed;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
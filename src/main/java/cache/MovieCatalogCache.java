@@ -0,0 +1,413 @@
+package cache;
+
+import dao.MovieChangeListener;
+import dao.MovieDao;
+import model.Movie;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache danh mục phim giới hạn số phần tử, chính sách loại bỏ kiểu W-TinyLFU:
+ * cửa sổ LRU nhỏ (1%) cho phần tử mới, vùng chính SLRU (probation/protected) và một
+ * FrequencySketch quyết định phần tử từ cửa sổ có được thay thế phần tử cũ ở vùng chính hay không.
+ * Phần tử hết hạn sau expireAfterWrite; khi đã qua refreshAfterWrite thì được nạp lại nền
+ * trong lúc vẫn trả giá trị cũ. Đăng ký làm MovieChangeListener để tự vô hiệu khi phim được ghi.
+ */
+public class MovieCatalogCache implements MovieChangeListener, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieCatalogCache.class.getName());
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final MovieDao movieDao;
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+    private final long expireNanos;
+    private final long refreshNanos;
+
+    private final ConcurrentMap<Integer, Node> data = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, CompletableFuture<Movie>> inFlight = new ConcurrentHashMap<>();
+    /** Phiên bản của lần nạp mới nhất theo phim; lệnh vô hiệu xóa phiên bản để lần nạp đang chạy không ghi đè */
+    private final ConcurrentMap<Integer, Long> loadVersions = new ConcurrentHashMap<>();
+    private final AtomicLong loadSequence = new AtomicLong();
+    private final ExecutorService refresher;
+
+    // Chính sách loại bỏ, chỉ truy cập khi giữ lock
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final Node[] queues = {sentinel(), sentinel(), sentinel()};
+    private final int[] queueSizes = new int[3];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MovieCatalogCache(MovieDao movieDao) {
+        this(movieDao, 10_000, TimeUnit.MINUTES.toMillis(30), TimeUnit.MINUTES.toMillis(25));
+    }
+
+    /**
+     * @param movieDao DAO dùng để nạp phim
+     * @param maximumSize Số phim tối đa trong cache
+     * @param expireAfterWriteMillis Thời gian sống của một phần tử
+     * @param refreshAfterWriteMillis Tuổi bắt đầu nạp lại nền (nhỏ hơn thời gian sống)
+     */
+    public MovieCatalogCache(MovieDao movieDao, int maximumSize,
+                             long expireAfterWriteMillis, long refreshAfterWriteMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize phải lớn hơn 0");
+        }
+        this.movieDao = movieDao;
+        this.maximumSize = maximumSize;
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (maximumSize - windowMax) * 80 / 100;
+        this.expireNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMillis);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.min(refreshAfterWriteMillis, expireAfterWriteMillis));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "movie-cache-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Lấy phim, nạp từ database nếu chưa có hoặc đã hết hạn.
+     * Nhiều luồng cùng nạp một phim chỉ tạo một truy vấn.
+     * @return Phim hoặc null nếu không tồn tại
+     */
+    public Movie get(int movieId) throws SQLException {
+        Node node = data.get(movieId);
+        long now = System.nanoTime();
+        if (node != null && now - node.writeNanos < expireNanos) {
+            hits.increment();
+            recordAccess(node);
+            if (now - node.writeNanos >= refreshNanos && node.refreshing.compareAndSet(false, true)) {
+                refresher.execute(() -> refresh(node));
+            }
+            return node.value;
+        }
+        misses.increment();
+        return load(movieId);
+    }
+
+    /**
+     * @return Phim nếu đang có trong cache và chưa hết hạn, không nạp
+     */
+    public Movie getIfPresent(int movieId) {
+        Node node = data.get(movieId);
+        if (node != null && System.nanoTime() - node.writeNanos < expireNanos) {
+            hits.increment();
+            recordAccess(node);
+            return node.value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Nạp sẵn toàn bộ danh mục khi khởi động (tối đa maximumSize phim)
+     * @return Số phim được nạp
+     */
+    public int warmUp() throws SQLException {
+        long start = System.nanoTime();
+        List<Movie> movies;
+        try {
+            movies = movieDao.findAll();
+        } catch (SQLException e) {
+            loadFailures.increment();
+            totalLoadNanos.add(System.nanoTime() - start);
+            throw e;
+        }
+        loadSuccesses.increment();
+        totalLoadNanos.add(System.nanoTime() - start);
+
+        int loaded = 0;
+        for (Movie movie : movies) {
+            if (loaded >= maximumSize) {
+                break;
+            }
+            put(movie);
+            loaded++;
+        }
+        return loaded;
+    }
+
+    public void put(Movie movie) {
+        policyLock.lock();
+        try {
+            Node node = data.get(movie.getMovieId());
+            if (node != null) {
+                node.value = movie;
+                node.writeNanos = System.nanoTime();
+                onAccess(node);
+                return;
+            }
+            node = new Node(movie.getMovieId(), movie);
+            data.put(node.key, node);
+            onInsert(node);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidate(int movieId) {
+        policyLock.lock();
+        try {
+            loadVersions.remove(movieId);
+            Node node = data.remove(movieId);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            loadVersions.clear();
+            data.clear();
+            for (Node head : queues) {
+                while (head.next != head) {
+                    unlink(head.next);
+                }
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    @Override
+    public void onMovieSaved(Movie movie) {
+        invalidate(movie.getMovieId());
+    }
+
+    @Override
+    public void onMovieDeleted(int movieId) {
+        invalidate(movieId);
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                totalLoadNanos.sum(), refreshes.sum(), evictions.sum(), data.size());
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdown();
+    }
+
+    private Movie load(int movieId) throws SQLException {
+        CompletableFuture<Movie> future = new CompletableFuture<>();
+        CompletableFuture<Movie> existing = inFlight.putIfAbsent(movieId, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            Movie movie = loadAndCache(movieId);
+            future.complete(movie);
+            return movie;
+        } catch (SQLException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(movieId, future);
+        }
+    }
+
+    private void refresh(Node node) {
+        try {
+            refreshes.increment();
+            loadAndCache(node.key);
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Nạp lại phim " + node.key + " thất bại, giữ giá trị cũ", e);
+        } finally {
+            node.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Nạp phim và đưa vào cache, trừ khi phim đó bị vô hiệu (hoặc có lần nạp mới hơn) trong lúc nạp,
+     * để không ghi đè giá trị mới. Chỉ lệnh vô hiệu của chính phim này mới làm bỏ kết quả.
+     */
+    private Movie loadAndCache(int movieId) throws SQLException {
+        long version = loadSequence.incrementAndGet();
+        loadVersions.put(movieId, version);
+        long start = System.nanoTime();
+        Movie movie;
+        try {
+            movie = movieDao.findById(movieId);
+        } catch (SQLException e) {
+            loadVersions.remove(movieId, version);
+            loadFailures.increment();
+            totalLoadNanos.add(System.nanoTime() - start);
+            throw e;
+        }
+        loadSuccesses.increment();
+        totalLoadNanos.add(System.nanoTime() - start);
+
+        if (movie == null) {
+            invalidate(movieId);
+            return null;
+        }
+        // Kiểm tra phiên bản và ghi trong cùng lock với invalidate, để lệnh vô hiệu không chen vào giữa
+        policyLock.lock();
+        try {
+            if (loadVersions.remove(movieId, version)) {
+                put(movie);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+        return movie;
+    }
+
+    private static Movie await(CompletableFuture<Movie> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi chờ nạp phim", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * Ghi nhận truy cập; nếu lock đang bận thì bỏ qua (chấp nhận mất mẫu để đọc không bị chặn)
+     */
+    private void recordAccess(Node node) {
+        if (policyLock.tryLock()) {
+            try {
+                if (node.queue >= 0) {
+                    onAccess(node);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        if (node.queue == PROBATION) {
+            unlink(node);
+            append(PROTECTED, node);
+            if (queueSizes[PROTECTED] > protectedMax) {
+                Node demoted = queues[PROTECTED].next;
+                unlink(demoted);
+                append(PROBATION, demoted);
+            }
+        } else {
+            int queue = node.queue;
+            unlink(node);
+            append(queue, node);
+        }
+    }
+
+    private void onInsert(Node node) {
+        sketch.increment(node.key);
+        append(WINDOW, node);
+        if (queueSizes[WINDOW] <= windowMax) {
+            return;
+        }
+
+        Node candidate = queues[WINDOW].next;
+        unlink(candidate);
+        append(PROBATION, candidate);
+        if (data.size() <= maximumSize) {
+            return;
+        }
+
+        Node victim = queues[PROBATION].next;
+        if (victim == candidate) {
+            victim = queues[PROTECTED].next != queues[PROTECTED] ? queues[PROTECTED].next : candidate;
+        }
+        evict(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        data.remove(node.key, node);
+        evictions.increment();
+    }
+
+    private void append(int queue, Node node) {
+        Node head = queues[queue];
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        node.queue = queue;
+        queueSizes[queue]++;
+    }
+
+    private void unlink(Node node) {
+        if (node.queue < 0) {
+            return;
+        }
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        queueSizes[node.queue]--;
+        node.queue = -1;
+    }
+
+    private static Node sentinel() {
+        Node node = new Node(0, null);
+        node.prev = node;
+        node.next = node;
+        return node;
+    }
+
+    private static class Node {
+        final int key;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile Movie value;
+        volatile long writeNanos;
+
+        Node prev;
+        Node next;
+        int queue = -1;
+
+        Node(int key, Movie value) {
+            this.key = key;
+            this.value = value;
+            this.writeNanos = System.nanoTime();
+        }
+    }
+}
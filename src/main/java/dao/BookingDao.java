@@ -0,0 +1,376 @@
+package dao;
+
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.SeatStatus;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO truy cập bảng bookings
+ */
+public class BookingDao {
+
+    // Chỉ trả ghế còn thuộc về đúng đơn PENDING đã giữ nó; ghế đã bị giữ lại bởi đơn khác không bị đụng tới.
+    // Dùng subquery thay cho UPDATE ... JOIN để chạy được cả trên H2 (test, benchmark)
+    private static final String RELEASE_HELD_SEAT_SQL =
+            "UPDATE seats SET status = 'AVAILABLE', held_by = NULL, version = version + 1 "
+                    + "WHERE seat_id = ? AND status = 'RESERVED' AND EXISTS ("
+                    + "SELECT 1 FROM booking_seats bs JOIN bookings b ON b.booking_id = bs.booking_id "
+                    + "WHERE bs.seat_id = seats.seat_id AND bs.booking_id = ? AND b.status = 'PENDING')";
+
+    private static final String CANCEL_PENDING_SQL =
+            "UPDATE bookings SET status = 'CANCELLED', cancelled_at = CURRENT_TIMESTAMP, cancellation_reason = ? "
+                    + "WHERE booking_id = ? AND status = 'PENDING'";
+
+    private static final String CONFIRM_PENDING_SQL =
+            "UPDATE bookings SET status = 'CONFIRMED', confirmed_at = ?, total_amount = ? "
+                    + "WHERE booking_id = ? AND status = 'PENDING'";
+
+    // Đơn PENDING đã có: ghế phải đang RESERVED và thuộc chính đơn đó trong booking_seats
+    private static final String BOOK_OWN_HELD_SEAT_SQL =
+            "UPDATE seats SET status = 'BOOKED', held_by = NULL, version = version + 1 "
+                    + "WHERE seat_id = ? AND showtime_id = ? AND status = 'RESERVED' AND EXISTS ("
+                    + "SELECT 1 FROM booking_seats bs WHERE bs.seat_id = seats.seat_id AND bs.booking_id = ?)";
+
+    // Đơn mới: ghế phải còn trống (lượt giữ chỉ nằm trong sơ đồ bộ nhớ) hoặc đang được chính khách hàng
+    // của đơn giữ qua SeatDao.reserveSeats, và không thuộc đơn PENDING nào khác
+    private static final String BOOK_NEW_SEAT_SQL =
+            "UPDATE seats SET status = 'BOOKED', held_by = NULL, version = version + 1 "
+                    + "WHERE seat_id = ? AND showtime_id = ? "
+                    + "AND (status = 'AVAILABLE' OR (status = 'RESERVED' AND held_by = ?)) AND NOT EXISTS ("
+                    + "SELECT 1 FROM booking_seats bs JOIN bookings b ON b.booking_id = bs.booking_id "
+                    + "WHERE bs.seat_id = seats.seat_id AND b.status = 'PENDING')";
+
+    private static final String INSERT_BOOKING_SQL =
+            "INSERT INTO bookings(customer_id, showtime_id, total_amount, status, booking_time, confirmed_at) "
+                    + "VALUES (?, ?, ?, 'CONFIRMED', ?, ?)";
+
+    private static final String INSERT_BOOKING_SEAT_SQL =
+            "INSERT INTO booking_seats(booking_id, seat_id) VALUES (?, ?)";
+
+    private static final String INSERT_PAYMENT_SQL =
+            "INSERT INTO payments(booking_id, amount, payment_method, transaction_id, payment_status, payment_time) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SET_BOOKING_STATUS_SQL =
+            "UPDATE bookings SET status = ?, confirmed_at = COALESCE(?, confirmed_at), "
+                    + "cancelled_at = COALESCE(?, cancelled_at) WHERE booking_id = ?";
+
+    private static final String SET_PAYMENT_STATUS_SQL =
+            "UPDATE payments SET payment_status = ?, payment_time = COALESCE(?, payment_time) WHERE payment_id = ?";
+
+    public static final String HOLD_EXPIRED_REASON = "Hết thời gian giữ ghế";
+
+    /**
+     * Giải phóng ghế đang giữ và hủy các đơn PENDING hết hạn giữ ghế, trong một transaction.
+     * Chỉ ghế còn RESERVED cho chính đơn đó mới được trả; đơn đã CONFIRMED hoặc ghế đã BOOKED không bị ảnh hưởng.
+     * @param seatIdsByBooking Mã đơn hết hạn -> mã các ghế của đơn
+     * @return Mã các ghế thực sự được trả về AVAILABLE
+     */
+    public List<Integer> expireHolds(Map<Integer, int[]> seatIdsByBooking) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement releaseSeats = conn.prepareStatement(RELEASE_HELD_SEAT_SQL);
+                 PreparedStatement cancelBookings = conn.prepareStatement(CANCEL_PENDING_SQL)) {
+                List<Integer> seatIds = new ArrayList<>();
+                for (Map.Entry<Integer, int[]> entry : seatIdsByBooking.entrySet()) {
+                    for (int seatId : entry.getValue()) {
+                        releaseSeats.setInt(1, seatId);
+                        releaseSeats.setInt(2, entry.getKey());
+                        releaseSeats.addBatch();
+                        seatIds.add(seatId);
+                    }
+                    cancelBookings.setString(1, HOLD_EXPIRED_REASON);
+                    cancelBookings.setInt(2, entry.getKey());
+                    cancelBookings.addBatch();
+                }
+
+                // Trả ghế trước khi hủy đơn: điều kiện b.status = 'PENDING' cần đơn chưa bị hủy
+                List<Integer> released = new ArrayList<>();
+                if (!seatIds.isEmpty()) {
+                    int[] counts = releaseSeats.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] != 0) {
+                            released.add(seatIds.get(i));
+                        }
+                    }
+                }
+                if (!seatIdsByBooking.isEmpty()) {
+                    cancelBookings.executeBatch();
+                }
+                conn.commit();
+                return released;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Ghi trạng thái mới nhất của ghế, đơn và thanh toán trong một transaction, mỗi bảng một batch.
+     * Mốc thời gian null trên Booking/Payment giữ nguyên giá trị đang có trong database.
+     * @param seatStatuses Trạng thái mới theo seat_id, lấy từ sơ đồ ghế trong bộ nhớ (xem SeatDao.addMirrorBatch)
+     * @param bookings Đơn cần cập nhật (bookingId, status, confirmedAt, cancelledAt)
+     * @param payments Thanh toán cần cập nhật (paymentId, paymentStatus, paymentTime)
+     */
+    public void applyStatusChanges(Map<Integer, SeatStatus> seatStatuses, Collection<Booking> bookings,
+                                   Collection<Payment> payments) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement seats = conn.prepareStatement(SeatDao.MIRROR_STATUS_SQL);
+                 PreparedStatement bookingStmt = conn.prepareStatement(SET_BOOKING_STATUS_SQL);
+                 PreparedStatement paymentStmt = conn.prepareStatement(SET_PAYMENT_STATUS_SQL)) {
+                // Ghế đã ở đúng trạng thái (ví dụ drain lại sau sự cố) thì không ghi và không tăng version
+                int seatCount = SeatDao.addMirrorBatch(seats, seatStatuses);
+                for (Booking booking : bookings) {
+                    bookingStmt.setString(1, booking.getStatus().name());
+                    bookingStmt.setTimestamp(2, booking.getConfirmedAt());
+                    bookingStmt.setTimestamp(3, booking.getCancelledAt());
+                    bookingStmt.setInt(4, booking.getBookingId());
+                    bookingStmt.addBatch();
+                }
+                for (Payment payment : payments) {
+                    paymentStmt.setString(1, payment.getPaymentStatus().name());
+                    paymentStmt.setTimestamp(2, payment.getPaymentTime());
+                    paymentStmt.setInt(3, payment.getPaymentId());
+                    paymentStmt.addBatch();
+                }
+
+                if (seatCount > 0) {
+                    seats.executeBatch();
+                }
+                if (!bookings.isEmpty()) {
+                    bookingStmt.executeBatch();
+                }
+                if (!payments.isEmpty()) {
+                    paymentStmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Xác nhận nhiều đơn đặt vé trong một transaction: cập nhật/ghi đơn, chuyển ghế đang giữ sang BOOKED,
+     * ghi booking_seats và payments, mỗi loại câu lệnh là một batch.
+     * Đơn có ghế không đặt được (đơn PENDING: ghế không còn giữ cho đơn hoặc đơn đã bị hủy; đơn mới: ghế đã
+     * bị đặt hoặc đang được khách hàng khác giữ) bị loại ra và phần còn lại được chạy lại,
+     * nên một đơn lỗi không kéo theo cả lô.
+     * Đơn có bookingId > 0 là đơn PENDING đã tồn tại, ngược lại sẽ được INSERT mới.
+     * @param bookings Các đơn cần xác nhận
+     * @param payments Thanh toán tương ứng (cùng vị trí, có thể null; paymentId > 0 nghĩa là đã được ghi)
+     * @return Vị trí các đơn không xác nhận được
+     */
+    public BitSet confirmBatch(List<Booking> bookings, List<Payment> payments) throws SQLException {
+        BitSet failed = new BitSet(bookings.size());
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            while (failed.cardinality() < bookings.size()) {
+                BitSet conflicts = tryConfirmBatch(conn, bookings, payments, failed);
+                if (conflicts.isEmpty()) {
+                    break;
+                }
+                failed.or(conflicts);
+            }
+        }
+        return failed;
+    }
+
+    private BitSet tryConfirmBatch(Connection conn, List<Booking> bookings, List<Payment> payments,
+                                   BitSet excluded) throws SQLException {
+        BitSet conflicts = new BitSet(bookings.size());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int[] bookingIds = new int[bookings.size()];
+        int[] paymentIds = new int[bookings.size()];
+
+        try (PreparedStatement confirmPending = conn.prepareStatement(CONFIRM_PENDING_SQL);
+             PreparedStatement bookOwnSeats = conn.prepareStatement(BOOK_OWN_HELD_SEAT_SQL);
+             PreparedStatement bookNewSeats = conn.prepareStatement(BOOK_NEW_SEAT_SQL);
+             PreparedStatement insertBookings = conn.prepareStatement(INSERT_BOOKING_SQL,
+                     Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertBookingSeats = conn.prepareStatement(INSERT_BOOKING_SEAT_SQL);
+             PreparedStatement insertPayments = conn.prepareStatement(INSERT_PAYMENT_SQL,
+                     Statement.RETURN_GENERATED_KEYS)) {
+
+            // 1. Đơn PENDING đã có và ghế đang giữ: số dòng = 0 nghĩa là xung đột
+            int[] pendingIndexes = new int[bookings.size()];
+            int pendingCount = 0;
+            int[] ownSeatOwners = new int[countSeats(bookings, excluded)];
+            int ownSeatCount = 0;
+            int[] newSeatOwners = new int[ownSeatOwners.length];
+            int newSeatCount = 0;
+            for (int i = 0; i < bookings.size(); i++) {
+                if (excluded.get(i)) {
+                    continue;
+                }
+                Booking booking = bookings.get(i);
+                if (booking.getBookingId() > 0) {
+                    confirmPending.setTimestamp(1, now);
+                    confirmPending.setLong(2, booking.getTotalAmount());
+                    confirmPending.setInt(3, booking.getBookingId());
+                    confirmPending.addBatch();
+                    pendingIndexes[pendingCount++] = i;
+                }
+                for (Integer seatId : booking.getSeatIds()) {
+                    if (booking.getBookingId() > 0) {
+                        bookOwnSeats.setInt(1, seatId);
+                        bookOwnSeats.setInt(2, booking.getShowtimeId());
+                        bookOwnSeats.setInt(3, booking.getBookingId());
+                        bookOwnSeats.addBatch();
+                        ownSeatOwners[ownSeatCount++] = i;
+                    } else {
+                        bookNewSeats.setInt(1, seatId);
+                        bookNewSeats.setInt(2, booking.getShowtimeId());
+                        bookNewSeats.setInt(3, booking.getCustomerId());
+                        bookNewSeats.addBatch();
+                        newSeatOwners[newSeatCount++] = i;
+                    }
+                }
+            }
+
+            if (pendingCount > 0) {
+                int[] counts = confirmPending.executeBatch();
+                for (int j = 0; j < pendingCount; j++) {
+                    if (counts[j] == 0) {
+                        conflicts.set(pendingIndexes[j]);
+                    }
+                }
+            }
+            markConflicts(bookOwnSeats, ownSeatOwners, ownSeatCount, conflicts);
+            markConflicts(bookNewSeats, newSeatOwners, newSeatCount, conflicts);
+            if (!conflicts.isEmpty()) {
+                conn.rollback();
+                return conflicts;
+            }
+
+            // 2. Đơn mới
+            int[] insertIndexes = new int[bookings.size()];
+            int insertCount = 0;
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking booking = bookings.get(i);
+                bookingIds[i] = booking.getBookingId();
+                if (excluded.get(i) || booking.getBookingId() > 0) {
+                    continue;
+                }
+                insertBookings.setInt(1, booking.getCustomerId());
+                insertBookings.setInt(2, booking.getShowtimeId());
+                insertBookings.setLong(3, booking.getTotalAmount());
+                insertBookings.setTimestamp(4, booking.getBookingTime() != null ? booking.getBookingTime() : now);
+                insertBookings.setTimestamp(5, now);
+                insertBookings.addBatch();
+                insertIndexes[insertCount++] = i;
+            }
+            if (insertCount > 0) {
+                insertBookings.executeBatch();
+                try (ResultSet keys = insertBookings.getGeneratedKeys()) {
+                    for (int j = 0; j < insertCount && keys.next(); j++) {
+                        bookingIds[insertIndexes[j]] = keys.getInt(1);
+                    }
+                }
+            }
+
+            // 3. Ghế của đơn mới (đơn PENDING đã có booking_seats) và thanh toán
+            int[] paymentIndexes = new int[bookings.size()];
+            int paymentCount = 0;
+            for (int i = 0; i < bookings.size(); i++) {
+                if (excluded.get(i)) {
+                    continue;
+                }
+                if (bookings.get(i).getBookingId() <= 0) {
+                    for (Integer seatId : bookings.get(i).getSeatIds()) {
+                        insertBookingSeats.setInt(1, bookingIds[i]);
+                        insertBookingSeats.setInt(2, seatId);
+                        insertBookingSeats.addBatch();
+                    }
+                }
+                Payment payment = payments.get(i);
+                if (payment != null && payment.getPaymentId() > 0) {
+                    // Thanh toán đã được PaymentProcessor ghi trước đó
+                    paymentIds[i] = payment.getPaymentId();
+                } else if (payment != null) {
+                    insertPayments.setInt(1, bookingIds[i]);
+                    insertPayments.setLong(2, payment.getAmount());
+                    insertPayments.setString(3, payment.getPaymentMethod().name());
+                    insertPayments.setString(4, payment.getTransactionId());
+                    insertPayments.setString(5, payment.getPaymentStatus().name());
+                    insertPayments.setTimestamp(6, payment.getPaymentTime());
+                    insertPayments.addBatch();
+                    paymentIndexes[paymentCount++] = i;
+                }
+            }
+            if (newSeatCount > 0) {
+                insertBookingSeats.executeBatch();
+            }
+            if (paymentCount > 0) {
+                insertPayments.executeBatch();
+                try (ResultSet keys = insertPayments.getGeneratedKeys()) {
+                    for (int j = 0; j < paymentCount && keys.next(); j++) {
+                        paymentIds[paymentIndexes[j]] = keys.getInt(1);
+                    }
+                }
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+
+        for (int i = 0; i < bookings.size(); i++) {
+            if (excluded.get(i)) {
+                continue;
+            }
+            Booking booking = bookings.get(i);
+            booking.setBookingId(bookingIds[i]);
+            booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setConfirmedAt(now);
+            Payment payment = payments.get(i);
+            if (payment != null) {
+                payment.setBookingId(bookingIds[i]);
+                payment.setPaymentId(paymentIds[i]);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Đánh dấu đơn xung đột khi câu lệnh chuyển ghế của nó không cập nhật dòng nào
+     */
+    private static void markConflicts(PreparedStatement statement, int[] owners, int count, BitSet conflicts)
+            throws SQLException {
+        if (count == 0) {
+            return;
+        }
+        int[] counts = statement.executeBatch();
+        for (int j = 0; j < count; j++) {
+            if (counts[j] == 0) {
+                conflicts.set(owners[j]);
+            }
+        }
+    }
+
+    private static int countSeats(List<Booking> bookings, BitSet excluded) {
+        int count = 0;
+        for (int i = 0; i < bookings.size(); i++) {
+            if (!excluded.get(i)) {
+                count += bookings.get(i).getSeatIds().size();
+            }
+        }
+        return count;
+    }
+}
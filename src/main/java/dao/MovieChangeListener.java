@@ -0,0 +1,19 @@
+package dao;
+
+import model.Movie;
+
+/**
+ * Nhận thông báo sau khi MovieDao ghi thành công (đã commit)
+ */
+public interface MovieChangeListener {
+
+    /**
+     * Phim vừa được thêm mới hoặc chỉnh sửa
+     */
+    void onMovieSaved(Movie movie);
+
+    /**
+     * Phim vừa bị xóa
+     */
+    void onMovieDeleted(int movieId);
+}
@@ -0,0 +1,181 @@
+package dao;
+
+import model.Movie;
+import util.AccessIntent;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DAO truy cập bảng movies. Đọc qua replica (READ_ONLY), ghi vào primary
+ * và thông báo cho các MovieChangeListener sau khi commit.
+ */
+public class MovieDao {
+
+    private static final String COLUMNS =
+            "movie_id, title, genre, duration, description, poster_url, release_date, created_at, updated_at";
+
+    private static final String FIND_BY_ID_SQL = "SELECT " + COLUMNS + " FROM movies WHERE movie_id = ?";
+
+    private static final String FIND_ALL_SQL = "SELECT " + COLUMNS + " FROM movies ORDER BY movie_id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO movies(title, genre, duration, description, poster_url, release_date) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE movies SET title = ?, genre = ?, duration = ?, description = ?, poster_url = ?, release_date = ? "
+                    + "WHERE movie_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM movies WHERE movie_id = ?";
+
+    private final List<MovieChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addChangeListener(MovieChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(MovieChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return Phim hoặc null nếu không tồn tại
+     */
+    public Movie findById(int movieId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_ONLY);
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_ID_SQL)) {
+            ps.setInt(1, movieId);
+            Movie movie = null;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    movie = mapRow(rs);
+                }
+            }
+            conn.commit();
+            return movie;
+        }
+    }
+
+    public List<Movie> findAll() throws SQLException {
+        List<Movie> movies = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_ONLY);
+             PreparedStatement ps = conn.prepareStatement(FIND_ALL_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                movies.add(mapRow(rs));
+            }
+            conn.commit();
+        }
+
+        return movies;
+    }
+
+    /**
+     * Thêm phim mới, gán movieId được sinh
+     */
+    public Movie insert(Movie movie) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_WRITE)) {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                bindMovie(ps, movie);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        movie.setMovieId(keys.getInt(1));
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        for (MovieChangeListener listener : listeners) {
+            listener.onMovieSaved(movie);
+        }
+        return movie;
+    }
+
+    /**
+     * @return true nếu có phim được cập nhật
+     */
+    public boolean update(Movie movie) throws SQLException {
+        int updated;
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_WRITE)) {
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+                bindMovie(ps, movie);
+                ps.setInt(7, movie.getMovieId());
+                updated = ps.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        if (updated > 0) {
+            for (MovieChangeListener listener : listeners) {
+                listener.onMovieSaved(movie);
+            }
+        }
+        return updated > 0;
+    }
+
+    /**
+     * @return true nếu có phim bị xóa
+     */
+    public boolean delete(int movieId) throws SQLException {
+        int deleted;
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_WRITE)) {
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
+                ps.setInt(1, movieId);
+                deleted = ps.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        if (deleted > 0) {
+            for (MovieChangeListener listener : listeners) {
+                listener.onMovieDeleted(movieId);
+            }
+        }
+        return deleted > 0;
+    }
+
+    private static void bindMovie(PreparedStatement ps, Movie movie) throws SQLException {
+        ps.setString(1, movie.getTitle());
+        ps.setString(2, movie.getGenre());
+        ps.setInt(3, movie.getDuration());
+        ps.setString(4, movie.getDescription());
+        ps.setString(5, movie.getPosterUrl());
+        ps.setDate(6, movie.getReleaseDate() != null ? new Date(movie.getReleaseDate().getTime()) : null);
+    }
+
+    static Movie mapRow(ResultSet rs) throws SQLException {
+        Movie movie = new Movie(
+                rs.getInt("movie_id"),
+                rs.getString("title"),
+                rs.getString("genre"),
+                rs.getInt("duration"),
+                rs.getString("description"),
+                rs.getString("poster_url"),
+                rs.getDate("release_date")
+        );
+        movie.setCreatedAt(rs.getTimestamp("created_at"));
+        movie.setUpdatedAt(rs.getTimestamp("updated_at"));
+        return movie;
+    }
+}
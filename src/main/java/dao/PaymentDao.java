@@ -0,0 +1,181 @@
+package dao;
+
+import model.Payment;
+import model.PaymentMethod;
+import model.PaymentStatus;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * DAO truy cập bảng payments.
+ * Cột transaction_id cần có ràng buộc UNIQUE để claim() phát hiện được giao dịch trùng;
+ * cột claimed_at (DATETIME, cho phép NULL) ghi thời điểm giữ chỗ để takeOver() nhận lại giao dịch bị bỏ dở.
+ */
+public class PaymentDao {
+
+    private static final String CLAIM_SQL =
+            "INSERT INTO payments(booking_id, amount, payment_method, transaction_id, payment_status, claimed_at) "
+                    + "VALUES (?, ?, ?, ?, 'PENDING', ?)";
+
+    private static final String TAKE_OVER_SQL =
+            "UPDATE payments SET claimed_at = ? WHERE transaction_id = ? AND payment_status = 'PENDING' "
+                    + "AND (claimed_at IS NULL OR claimed_at < ?)";
+
+    private static final String RELEASE_SQL =
+            "UPDATE payments SET claimed_at = NULL WHERE payment_id = ? AND payment_status = 'PENDING'";
+
+    private static final String FIND_ID_SQL =
+            "SELECT payment_id FROM payments WHERE transaction_id = ?";
+
+    private static final String FIND_BY_TRANSACTION_SQL =
+            "SELECT payment_id, booking_id, amount, payment_method, transaction_id, payment_status, payment_time "
+                    + "FROM payments WHERE transaction_id = ?";
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE payments SET payment_status = ?, payment_time = ? WHERE payment_id = ?";
+
+    /** Mã lỗi MySQL ER_DUP_ENTRY; SQLState 23000 còn gồm cả lỗi khóa ngoại, NOT NULL... */
+    private static final int DUPLICATE_KEY_ERROR = 1062;
+
+    /**
+     * Ghi trước một thanh toán PENDING để giữ chỗ cho transactionId
+     * @return true nếu ghi được (paymentId được gán), false nếu transactionId đã tồn tại
+     */
+    public boolean claim(Payment payment) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(CLAIM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setInt(1, payment.getBookingId());
+                ps.setLong(2, payment.getAmount());
+                ps.setString(3, payment.getPaymentMethod().name());
+                ps.setString(4, payment.getTransactionId());
+                ps.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        payment.setPaymentId(keys.getInt(1));
+                    }
+                }
+                conn.commit();
+                payment.setPaymentStatus(PaymentStatus.PENDING);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (e.getErrorCode() == DUPLICATE_KEY_ERROR) {
+                    return false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Nhận lại một thanh toán còn PENDING mà lần giữ chỗ đã quá hạn (tiến trình giữ chỗ đã chết
+     * hoặc bị treo). Chỉ một tiến trình nhận được vì điều kiện claimed_at được kiểm tra trong cùng câu UPDATE.
+     * @param leaseMillis Thời hạn của một lần giữ chỗ
+     * @return true nếu nhận được (paymentId được gán), false nếu giao dịch đã xong hoặc lần giữ chỗ còn hạn
+     */
+    public boolean takeOver(Payment payment, long leaseMillis) throws SQLException {
+        long now = System.currentTimeMillis();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement update = conn.prepareStatement(TAKE_OVER_SQL);
+                 PreparedStatement find = conn.prepareStatement(FIND_ID_SQL)) {
+                update.setTimestamp(1, new Timestamp(now));
+                update.setString(2, payment.getTransactionId());
+                update.setTimestamp(3, new Timestamp(now - leaseMillis));
+                if (update.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+                find.setString(1, payment.getTransactionId());
+                try (ResultSet rs = find.executeQuery()) {
+                    if (rs.next()) {
+                        payment.setPaymentId(rs.getInt("payment_id"));
+                    }
+                }
+                conn.commit();
+                payment.setPaymentStatus(PaymentStatus.PENDING);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Trả lại lần giữ chỗ của một thanh toán còn PENDING mà chưa tới được cổng thanh toán,
+     * để lần gửi lại nhận lại được ngay qua takeOver() thay vì chờ hết hạn giữ chỗ
+     * @return true nếu trả lại được, false nếu thanh toán không còn PENDING
+     */
+    public boolean release(Payment payment) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(RELEASE_SQL)) {
+                ps.setInt(1, payment.getPaymentId());
+                boolean released = ps.executeUpdate() > 0;
+                conn.commit();
+                return released;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Thanh toán có transactionId này, hoặc null
+     */
+    public Payment findByTransactionId(String transactionId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(FIND_BY_TRANSACTION_SQL)) {
+                ps.setString(1, transactionId);
+                Payment payment = null;
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        payment = mapRow(rs);
+                    }
+                }
+                conn.commit();
+                return payment;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Ghi trạng thái và thời điểm thanh toán
+     */
+    public void updateStatus(Payment payment) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+                ps.setString(1, payment.getPaymentStatus().name());
+                ps.setTimestamp(2, payment.getPaymentTime());
+                ps.setInt(3, payment.getPaymentId());
+                ps.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    static Payment mapRow(ResultSet rs) throws SQLException {
+        Payment payment = new Payment(
+                rs.getInt("payment_id"),
+                rs.getInt("booking_id"),
+                rs.getLong("amount"),
+                PaymentMethod.codec().decode(rs, "payment_method"),
+                rs.getString("transaction_id"),
+                PaymentStatus.codec().decode(rs, "payment_status"));
+        payment.setPaymentTime(rs.getTimestamp("payment_time"));
+        return payment;
+    }
+}
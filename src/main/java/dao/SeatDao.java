@@ -0,0 +1,270 @@
+package dao;
+
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import util.AccessIntent;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * DAO truy cập bảng seats.
+ * Cột held_by (INT, cho phép NULL) ghi khách hàng đang giữ ghế qua reserveSeats(); chỉ đơn mới của chính
+ * khách đó mới đặt được ghế RESERVED này (xem BookingDao.confirmBatch).
+ */
+public class SeatDao {
+
+    private static final String FIND_BY_SHOWTIME_SQL =
+            "SELECT seat_id, showtime_id, seat_number, seat_type, status, price, version, created_at, updated_at "
+                    + "FROM seats WHERE showtime_id = ? ORDER BY seat_id";
+
+    // Ghi lại trạng thái của sơ đồ ghế trong bộ nhớ (SeatWriteBehind, JdbcJournalSink).
+    // Không đụng tới ghế đang được khách giữ trong database; ghế đã đúng trạng thái thì không tăng version
+    static final String MIRROR_STATUS_SQL =
+            "UPDATE seats SET status = ?, version = version + 1 WHERE seat_id = ? AND status <> ? AND held_by IS NULL";
+
+    private static final String RESERVE_SQL =
+            "UPDATE seats SET status = 'RESERVED', held_by = ?, version = version + 1 "
+                    + "WHERE seat_id = ? AND showtime_id = ? AND version = ? AND status = 'AVAILABLE'";
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    /**
+     * Lấy toàn bộ ghế của một suất chiếu, đọc từ replica (độ trễ đã được ReplicaRouter giới hạn;
+     * các câu ghi ghế đều kiểm tra lại trạng thái trên primary)
+     * @param showtimeId Mã suất chiếu
+     * @return Danh sách ghế theo thứ tự seat_id
+     */
+    public List<Seat> findByShowtime(int showtimeId) throws SQLException {
+        List<Seat> seats = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_ONLY);
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_SHOWTIME_SQL)) {
+            ps.setInt(1, showtimeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    seats.add(mapRow(rs));
+                }
+            }
+            conn.commit();
+        }
+
+        return seats;
+    }
+
+    /**
+     * Ghi trạng thái của sơ đồ ghế trong bộ nhớ cho nhiều ghế trong một batch, một lần commit (xem addMirrorBatch)
+     * @param statuses seatId -> trạng thái mới
+     * @return Số dòng được cập nhật
+     */
+    public int updateStatuses(Map<Integer, SeatStatus> statuses) throws SQLException {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(MIRROR_STATUS_SQL)) {
+                if (addMirrorBatch(ps, statuses) == 0) {
+                    conn.commit();
+                    return 0;
+                }
+                int updated = 0;
+                for (int count : ps.executeBatch()) {
+                    updated += Math.max(count, 0);
+                }
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Thêm vào batch của MIRROR_STATUS_SQL trạng thái các ghế lấy từ sơ đồ trong bộ nhớ.
+     * RESERVED trong sơ đồ là lượt giữ chỉ nằm trong bộ nhớ, không có chủ trong database, nên không được ghi:
+     * nếu ghi thành RESERVED không có held_by thì không đơn nào đặt được ghế đó.
+     * @return Số câu lệnh đã thêm
+     */
+    static int addMirrorBatch(PreparedStatement ps, Map<Integer, SeatStatus> statuses) throws SQLException {
+        int added = 0;
+        for (Map.Entry<Integer, SeatStatus> entry : statuses.entrySet()) {
+            if (entry.getValue() == SeatStatus.RESERVED) {
+                continue;
+            }
+            ps.setString(1, entry.getValue().name());
+            ps.setInt(2, entry.getKey());
+            ps.setString(3, entry.getValue().name());
+            ps.addBatch();
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Giữ nhiều ghế bằng optimistic locking trên cột version, không dùng SELECT ... FOR UPDATE.
+     * Mỗi lượt gửi một batch UPDATE có điều kiện version; ghế không cập nhật được mà vẫn còn trống
+     * (version đã đổi) được đọc lại version và thử lại sau một khoảng backoff có giới hạn.
+     * Các ghế giữ được sẽ được commit (held_by = customerId), các ghế đã bị người khác giữ/đặt được báo trong kết quả.
+     * Lưu ý: updateStatuses (SeatWriteBehind) và JdbcJournalSink tăng version mỗi khi ghi trạng thái từ sơ đồ
+     * trong bộ nhớ, không kiểm tra version; ví dụ ghế được đặt rồi hủy trong bộ nhớ trở lại AVAILABLE với version
+     * đã tăng 2. Version client đọc trước đó vì vậy có thể cũ dù ghế đang trống; khi đó lượt đầu xung đột
+     * và ghế được đọc lại version.
+     * @param customerId Khách hàng giữ ghế; chỉ đơn của khách này mới đặt được các ghế đã giữ
+     * @param showtimeId Mã suất chiếu
+     * @param seatIds Mã các ghế cần giữ
+     * @param expectedVersions Version của từng ghế mà client đã đọc (cùng thứ tự với seatIds)
+     * @return Kết quả giữ ghế
+     */
+    public SeatReservationResult reserveSeats(int customerId, int showtimeId, List<Integer> seatIds,
+                                              List<Integer> expectedVersions) throws SQLException {
+        if (seatIds.size() != expectedVersions.size()) {
+            throw new IllegalArgumentException("Số ghế và số version không khớp");
+        }
+
+        Map<Integer, Integer> remaining = new LinkedHashMap<>();
+        for (int i = 0; i < seatIds.size(); i++) {
+            remaining.put(seatIds.get(i), expectedVersions.get(i));
+        }
+
+        SeatReservationResult result = new SeatReservationResult();
+        int attempt = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            while (!remaining.isEmpty()) {
+                attempt++;
+                Map<Integer, Integer> conflicts = executeReserveBatch(conn, customerId, showtimeId, remaining, result);
+                if (conflicts.isEmpty() || attempt >= MAX_RESERVE_ATTEMPTS) {
+                    for (Integer seatId : conflicts.keySet()) {
+                        result.addLost(seatId);
+                    }
+                    break;
+                }
+
+                remaining = refreshAvailableVersions(conn, showtimeId, conflicts, result);
+                if (!remaining.isEmpty()) {
+                    backoff(attempt);
+                }
+            }
+        }
+
+        result.setAttempts(attempt);
+        return result;
+    }
+
+    private Map<Integer, Integer> executeReserveBatch(Connection conn, int customerId, int showtimeId,
+                                                      Map<Integer, Integer> seats,
+                                                      SeatReservationResult result) throws SQLException {
+        Map<Integer, Integer> conflicts = new LinkedHashMap<>();
+
+        try (PreparedStatement ps = conn.prepareStatement(RESERVE_SQL)) {
+            for (Map.Entry<Integer, Integer> entry : seats.entrySet()) {
+                ps.setInt(1, customerId);
+                ps.setInt(2, entry.getKey());
+                ps.setInt(3, showtimeId);
+                ps.setInt(4, entry.getValue());
+                ps.addBatch();
+            }
+
+            // Connector/J trả về số dòng riêng cho từng câu UPDATE trong batch
+            int[] counts = ps.executeBatch();
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : seats.entrySet()) {
+                if (counts[i++] == 0) {
+                    conflicts.put(entry.getKey(), entry.getValue());
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+
+        for (Map.Entry<Integer, Integer> entry : seats.entrySet()) {
+            if (!conflicts.containsKey(entry.getKey())) {
+                result.addReserved(entry.getKey(), entry.getValue() + 1);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Đọc lại trạng thái các ghế xung đột. Ghế còn trống được trả về cùng version mới để thử lại,
+     * ghế không còn trống được ghi nhận là đã mất.
+     */
+    private Map<Integer, Integer> refreshAvailableVersions(Connection conn, int showtimeId,
+                                                           Map<Integer, Integer> conflicts,
+                                                           SeatReservationResult result) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT seat_id, status, version FROM seats WHERE showtime_id = ? AND seat_id IN (");
+        for (int i = 0; i < conflicts.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        Map<Integer, Integer> available = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            ps.setInt(index++, showtimeId);
+            for (Integer seatId : conflicts.keySet()) {
+                ps.setInt(index++, seatId);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (SeatStatus.codec().decode(rs, "status").isAvailable()) {
+                        available.put(rs.getInt("seat_id"), rs.getInt("version"));
+                    }
+                }
+            }
+            conn.commit();
+        }
+
+        Map<Integer, Integer> retry = new LinkedHashMap<>();
+        for (Integer seatId : conflicts.keySet()) {
+            Integer version = available.get(seatId);
+            if (version != null) {
+                retry.put(seatId, version);
+            } else {
+                result.addLost(seatId);
+            }
+        }
+        return retry;
+    }
+
+    private static void backoff(int attempt) throws SQLException {
+        long max = BASE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi chờ giữ ghế lại", e);
+        }
+    }
+
+    static Seat mapRow(ResultSet rs) throws SQLException {
+        Seat seat = new Seat(
+                rs.getInt("seat_id"),
+                rs.getInt("showtime_id"),
+                rs.getString("seat_number"),
+                SeatType.codec().decode(rs, "seat_type"),
+                SeatStatus.codec().decode(rs, "status"),
+                rs.getLong("price"),
+                rs.getInt("version")
+        );
+        seat.setCreatedAt(rs.getTimestamp("created_at"));
+        seat.setUpdatedAt(rs.getTimestamp("updated_at"));
+        return seat;
+    }
+}
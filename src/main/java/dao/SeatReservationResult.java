@@ -0,0 +1,69 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kết quả giữ ghế theo optimistic locking
+ */
+public class SeatReservationResult {
+    private final Map<Integer, Integer> reservedVersions = new LinkedHashMap<>();
+    private final List<Integer> lostSeatIds = new ArrayList<>();
+    private int attempts;
+
+    void addReserved(int seatId, int newVersion) {
+        reservedVersions.put(seatId, newVersion);
+    }
+
+    void addLost(int seatId) {
+        lostSeatIds.add(seatId);
+    }
+
+    void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return Mã các ghế đã giữ thành công
+     */
+    public List<Integer> getReservedSeatIds() {
+        return new ArrayList<>(reservedVersions.keySet());
+    }
+
+    /**
+     * @return seatId -> version mới sau khi giữ
+     */
+    public Map<Integer, Integer> getReservedVersions() {
+        return Collections.unmodifiableMap(reservedVersions);
+    }
+
+    /**
+     * @return Mã các ghế đã bị người khác giữ/đặt trước
+     */
+    public List<Integer> getLostSeatIds() {
+        return Collections.unmodifiableList(lostSeatIds);
+    }
+
+    public boolean isFullyReserved() {
+        return lostSeatIds.isEmpty();
+    }
+
+    /**
+     * @return Số lần gửi batch UPDATE
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatReservationResult{" +
+                "reserved=" + reservedVersions.keySet() +
+                ", lost=" + lostSeatIds +
+                ", attempts=" + attempts +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+package dao;
+
+import model.Showtime;
+import util.AccessIntent;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO truy cập bảng showtimes
+ */
+public class ShowtimeDao {
+
+    private static final String UPDATE_AVAILABLE_SEATS_SQL =
+            "UPDATE showtimes SET available_seats = ? WHERE showtime_id = ?";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT showtime_id, movie_id, show_date, show_time, room_number, total_seats, available_seats, "
+                    + "created_at, updated_at FROM showtimes";
+
+    private static final String FIND_ALL_SQL = SELECT_COLUMNS + " ORDER BY showtime_id";
+
+    private static final String FIND_UPDATED_SINCE_SQL =
+            SELECT_COLUMNS + " WHERE updated_at >= ? ORDER BY updated_at";
+
+    public List<Showtime> findAll() throws SQLException {
+        List<Showtime> showtimes = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_ONLY);
+             PreparedStatement ps = conn.prepareStatement(FIND_ALL_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                showtimes.add(mapRow(rs));
+            }
+            conn.commit();
+        }
+
+        return showtimes;
+    }
+
+    /**
+     * Lấy các suất chiếu được thêm hoặc sửa từ một thời điểm trở đi (dùng để cập nhật chỉ mục dần dần).
+     * Điều kiện là updated_at >= since, nên bên gọi nhận lại cả các dòng cùng giây với mốc
+     * và phải tự bỏ các dòng đã có.
+     * @param since Mốc updated_at bắt đầu đọc
+     * @return Danh sách suất chiếu theo thứ tự updated_at
+     */
+    public List<Showtime> findUpdatedSince(Timestamp since) throws SQLException {
+        List<Showtime> showtimes = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_ONLY);
+             PreparedStatement ps = conn.prepareStatement(FIND_UPDATED_SINCE_SQL)) {
+            ps.setTimestamp(1, since);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    showtimes.add(mapRow(rs));
+                }
+            }
+            conn.commit();
+        }
+
+        return showtimes;
+    }
+
+    /**
+     * Ghi số ghế còn trống của nhiều suất chiếu trong một batch
+     * @param availableSeats showtimeId -> số ghế còn trống
+     */
+    public void updateAvailableSeats(Map<Integer, Integer> availableSeats) throws SQLException {
+        if (availableSeats.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_AVAILABLE_SEATS_SQL)) {
+                for (Map.Entry<Integer, Integer> entry : availableSeats.entrySet()) {
+                    ps.setInt(1, entry.getValue());
+                    ps.setInt(2, entry.getKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    static Showtime mapRow(ResultSet rs) throws SQLException {
+        Showtime showtime = new Showtime(
+                rs.getInt("showtime_id"),
+                rs.getInt("movie_id"),
+                rs.getString("show_date"),
+                rs.getString("show_time"),
+                rs.getInt("room_number"),
+                rs.getInt("total_seats"),
+                rs.getInt("available_seats")
+        );
+        showtime.setCreatedAt(rs.getTimestamp("created_at"));
+        showtime.setUpdatedAt(rs.getTimestamp("updated_at"));
+        return showtime;
+    }
+}
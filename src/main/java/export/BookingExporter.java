@@ -0,0 +1,227 @@
+package export;
+
+import model.Booking;
+import model.BookingStatus;
+import util.DatabaseConnection;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Xuất đơn đặt vé kèm tên khách, tên phim, ngày/giờ chiếu trong một khoảng ngày đặt,
+ * dạng CSV hoặc JSON lines, thẳng ra một NIO channel.
+ * Dùng pool REPORTING (useCursorFetch) để MySQL trả dữ liệu theo từng đợt fetchSize dòng qua cursor
+ * phía server; mỗi dòng được đọc vào cùng một đối tượng Booking dùng lại, nên bộ nhớ không tăng theo số dòng.
+ */
+public class BookingExporter {
+
+    private static final String EXPORT_SQL =
+            "SELECT b.booking_id, b.customer_id, b.showtime_id, b.total_amount, b.status, "
+                    + "b.booking_time, b.confirmed_at, b.cancelled_at, "
+                    + "c.name AS customer_name, m.title AS movie_title, s.show_date, s.show_time "
+                    + "FROM bookings b "
+                    + "JOIN customers c ON c.customer_id = b.customer_id "
+                    + "JOIN showtimes s ON s.showtime_id = b.showtime_id "
+                    + "JOIN movies m ON m.movie_id = s.movie_id "
+                    + "WHERE b.booking_time >= ? AND b.booking_time < ? "
+                    + "ORDER BY b.booking_id";
+
+    private static final String CSV_HEADER =
+            "booking_id,customer_id,customer_name,showtime_id,movie_title,show_date,show_time,"
+                    + "total_amount,status,booking_time,confirmed_at,cancelled_at\n";
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final String poolProfile;
+    private final int fetchSize;
+    private final int bufferSize;
+
+    public BookingExporter() {
+        this(DatabaseConnection.REPORTING, DEFAULT_FETCH_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param poolProfile Profile pool dùng để đọc (nên bật useCursorFetch)
+     * @param fetchSize Số dòng mỗi lần lấy từ cursor; Integer.MIN_VALUE để đọc từng dòng (streaming)
+     * @param bufferSize Kích thước buffer ghi (byte)
+     */
+    public BookingExporter(String poolProfile, int fetchSize, int bufferSize) {
+        this.poolProfile = poolProfile;
+        this.fetchSize = fetchSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Xuất các đơn có booking_time trong [from, to] (tính theo ngày)
+     * @return Số dòng đã xuất
+     */
+    public long export(LocalDate from, LocalDate to, ExportFormat format, WritableByteChannel channel)
+            throws SQLException, IOException {
+        Booking row = new Booking();
+        long rows = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection(poolProfile);
+             PreparedStatement ps = conn.prepareStatement(EXPORT_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             Utf8ChannelWriter out = new Utf8ChannelWriter(channel, bufferSize)) {
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+
+            if (format == ExportFormat.CSV) {
+                out.append(CSV_HEADER);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    mapRow(rs, row);
+                    if (format == ExportFormat.CSV) {
+                        writeCsv(row, out);
+                    } else {
+                        writeJson(row, out);
+                    }
+                    rows++;
+                }
+            }
+            conn.commit();
+        }
+        return rows;
+    }
+
+    private static void mapRow(ResultSet rs, Booking row) throws SQLException {
+        row.setBookingId(rs.getInt("booking_id"));
+        row.setCustomerId(rs.getInt("customer_id"));
+        row.setShowtimeId(rs.getInt("showtime_id"));
+        row.setTotalAmount(rs.getLong("total_amount"));
+        row.setStatus(BookingStatus.codec().decode(rs, "status"));
+        row.setBookingTime(rs.getTimestamp("booking_time"));
+        row.setConfirmedAt(rs.getTimestamp("confirmed_at"));
+        row.setCancelledAt(rs.getTimestamp("cancelled_at"));
+        row.setCustomerName(rs.getString("customer_name"));
+        row.setMovieTitle(rs.getString("movie_title"));
+        row.setShowDate(rs.getString("show_date"));
+        row.setShowTime(rs.getString("show_time"));
+    }
+
+    /**
+     * Ghi một đơn thành một dòng CSV (RFC 4180: trường có dấu phẩy, nháy kép hoặc xuống dòng được bọc nháy kép)
+     */
+    public static void writeCsv(Booking row, Utf8ChannelWriter out) throws IOException {
+        out.append(row.getBookingId()).append(',');
+        out.append(row.getCustomerId()).append(',');
+        csvField(row.getCustomerName(), out);
+        out.append(',').append(row.getShowtimeId()).append(',');
+        csvField(row.getMovieTitle(), out);
+        out.append(',');
+        csvField(row.getShowDate(), out);
+        out.append(',');
+        csvField(row.getShowTime(), out);
+        out.append(',').append(row.getTotalAmount()).append(',');
+        csvField(row.getStatus() != null ? row.getStatus().name() : null, out);
+        out.append(',');
+        csvField(timestamp(row.getBookingTime()), out);
+        out.append(',');
+        csvField(timestamp(row.getConfirmedAt()), out);
+        out.append(',');
+        csvField(timestamp(row.getCancelledAt()), out);
+        out.append('\n');
+    }
+
+    /**
+     * Ghi một đơn thành một dòng JSON
+     */
+    public static void writeJson(Booking row, Utf8ChannelWriter out) throws IOException {
+        out.append("{\"bookingId\":").append(row.getBookingId());
+        out.append(",\"customerId\":").append(row.getCustomerId());
+        out.append(",\"customerName\":");
+        jsonString(row.getCustomerName(), out);
+        out.append(",\"showtimeId\":").append(row.getShowtimeId());
+        out.append(",\"movieTitle\":");
+        jsonString(row.getMovieTitle(), out);
+        out.append(",\"showDate\":");
+        jsonString(row.getShowDate(), out);
+        out.append(",\"showTime\":");
+        jsonString(row.getShowTime(), out);
+        out.append(",\"totalAmount\":").append(row.getTotalAmount());
+        out.append(",\"status\":");
+        jsonString(row.getStatus() != null ? row.getStatus().name() : null, out);
+        out.append(",\"bookingTime\":");
+        jsonString(timestamp(row.getBookingTime()), out);
+        out.append(",\"confirmedAt\":");
+        jsonString(timestamp(row.getConfirmedAt()), out);
+        out.append(",\"cancelledAt\":");
+        jsonString(timestamp(row.getCancelledAt()), out);
+        out.append("}\n");
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toString() : null;
+    }
+
+    private static void csvField(String value, Utf8ChannelWriter out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void jsonString(String value, Utf8ChannelWriter out) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16));
+                        out.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,9 @@
+package export;
+
+/**
+ * Định dạng file xuất
+ */
+public enum ExportFormat {
+    CSV,
+    JSON_LINES
+}
@@ -0,0 +1,138 @@
+package export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Ghi văn bản UTF-8 thẳng vào một WritableByteChannel qua một ByteBuffer cố định.
+ * Tự mã hóa UTF-8 từng ký tự nên không tạo chuỗi/mảng byte trung gian; bộ nhớ dùng không
+ * phụ thuộc lượng dữ liệu ghi. Cặp surrogate được ghép lại kể cả khi hai nửa tới qua hai lần append(char);
+ * surrogate lẻ được ghi thành '?'.
+ */
+public class Utf8ChannelWriter implements AutoCloseable {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private long bytesWritten;
+    /** Nửa đầu của cặp surrogate đang chờ nửa sau, 0 nếu không có */
+    private char highSurrogate;
+
+    public Utf8ChannelWriter(WritableByteChannel channel, int bufferSize) {
+        if (bufferSize < 8) {
+            throw new IllegalArgumentException("bufferSize quá nhỏ: " + bufferSize);
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public Utf8ChannelWriter append(CharSequence text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    public Utf8ChannelWriter append(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return this;
+            }
+            writeCodePoint('?');
+        }
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else {
+            writeCodePoint(c);
+        }
+        return this;
+    }
+
+    public Utf8ChannelWriter append(long value) throws IOException {
+        dropHighSurrogate();
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            writeByte('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            writeByte((int) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+        return this;
+    }
+
+    /**
+     * @return Tổng số byte đã ghi (kể cả phần còn trong buffer)
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Ghi phần còn lại; không đóng channel (channel thuộc về bên gọi)
+     */
+    @Override
+    public void close() throws IOException {
+        dropHighSurrogate();
+        flush();
+    }
+
+    /**
+     * Nửa đầu surrogate không có nửa sau thì ghi thành '?'
+     */
+    private void dropHighSurrogate() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeCodePoint('?');
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        if (buffer.remaining() < 4) {
+            flush();
+        }
+        if (Character.isSurrogate((char) cp) && cp <= 0xFFFF) {
+            cp = '?';
+        }
+        if (cp < 0x80) {
+            buffer.put((byte) cp);
+        } else if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | (cp >> 6)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            buffer.put((byte) (0xE0 | (cp >> 12)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) b);
+    }
+}
@@ -0,0 +1,524 @@
+package journal;
+
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentStatus;
+import model.SeatStatus;
+import service.SeatStatusPersister;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal ghi nối tiếp (append-only) các lần chuyển trạng thái của ghế, đơn và thanh toán,
+ * lưu trên các file segment được map vào bộ nhớ.
+ * Mỗi bản ghi dài cố định RECORD_SIZE byte và có CRC32C, nên số thứ tự (seq) xác định luôn vị trí trên đĩa.
+ * Một luồng nền gom các bản ghi mới và fsync một lần cho cả nhóm (group commit).
+ * File checkpoint lưu seq cuối cùng đã được ghi xuống MySQL; khi mở lại, các bản ghi sau checkpoint
+ * được giữ nguyên để JournalDrainer ghi tiếp.
+ * Khi gắn vào SeatMapEngine, journal là nguồn ghi trạng thái ghế chính và thay cho SeatWriteBehind
+ * (xem SeatStatusPersister).
+ */
+public class EventJournal implements SeatStatusPersister, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(EventJournal.class.getName());
+
+    /**
+     * Bố cục bản ghi: crc(4) kind(1) from(1) to(1) pad(1) seq(8) timestamp(8) entityId(4) ownerId(4) amount(8).
+     * Với bản ghi ghế, ô amount chứa stamp của lần chuyển trong sơ đồ ghế.
+     */
+    static final int RECORD_SIZE = 40;
+
+    private static final int DEFAULT_SEGMENT_BYTES = 8 << 20;
+    private static final long DEFAULT_GROUP_COMMIT_MILLIS = 2;
+    private static final long FORCE_RETRY_MILLIS = 100;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final JournalEntry.Kind[] KINDS = JournalEntry.Kind.values();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long groupCommitMillis;
+    private final Map<Long, MappedByteBuffer> segments = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Thread committer;
+    private long appendedSeq;
+    private volatile long durableSeq;
+    private volatile long checkpointSeq;
+    private volatile boolean running = true;
+
+    private EventJournal(Path directory, int segmentBytes, long groupCommitMillis) throws IOException {
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("segmentBytes quá nhỏ: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = segmentBytes / RECORD_SIZE;
+        this.groupCommitMillis = groupCommitMillis;
+
+        Files.createDirectories(directory);
+        this.checkpointSeq = readCheckpoint();
+        recover();
+
+        this.committer = new Thread(this::runCommitter, "event-journal-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    public static EventJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_GROUP_COMMIT_MILLIS);
+    }
+
+    /**
+     * Mở (hoặc tạo) journal, khôi phục vị trí ghi từ các segment đã có
+     * @param directory Thư mục chứa segment và checkpoint
+     * @param segmentBytes Kích thước mỗi segment (byte)
+     * @param groupCommitMillis Thời gian gom bản ghi trước mỗi lần fsync
+     */
+    public static EventJournal open(Path directory, int segmentBytes, long groupCommitMillis) throws IOException {
+        return new EventJournal(directory, segmentBytes, groupCommitMillis);
+    }
+
+    /**
+     * Ghi một bản ghi vào journal; bản ghi chỉ chắc chắn nằm trên đĩa sau lần group commit kế tiếp
+     * @return Số thứ tự của bản ghi
+     */
+    public long append(JournalEntry entry) throws IOException {
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Journal đã đóng");
+            }
+            long seq = appendedSeq + 1;
+            write(segment(segmentOf(seq)), offsetOf(seq), entry.withSeq(seq));
+            appendedSeq = seq;
+            appended.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ghi một bản ghi và chờ đến khi nó đã được fsync
+     * @return Số thứ tự của bản ghi
+     */
+    public long appendAndSync(JournalEntry entry) throws IOException {
+        long seq = append(entry);
+        awaitDurable(seq);
+        return seq;
+    }
+
+    /**
+     * Chờ đến khi mọi bản ghi có seq nhỏ hơn hoặc bằng seq đã được fsync
+     */
+    public void awaitDurable(long seq) throws IOException {
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (!committer.isAlive()) {
+                    throw new IllegalStateException("Journal đã đóng trước khi bản ghi " + seq + " được ghi xuống đĩa");
+                }
+                durable.await(FORCE_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Bị ngắt khi chờ ghi journal");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lần chuyển không qua SeatMapEngine (không có stamp): thứ tự trong journal quyết định
+     */
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        onTransition(showtimeId, seatId, from, to, 0);
+    }
+
+    /**
+     * Chuyển trạng thái ghế trong bộ nhớ thì ghi vào journal kèm stamp của lần CAS, không chờ fsync.
+     * seq được cấp lúc ghi nên có thể ngược thứ tự CAS; JdbcJournalSink dùng stamp để chọn trạng thái cuối.
+     */
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to, long stamp) {
+        try {
+            append(JournalEntry.seat(showtimeId, seatId, from, to, stamp));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Không ghi được journal cho ghế " + seatId, e);
+        }
+    }
+
+    /**
+     * Xác nhận đơn và ghi lại lần chuyển trạng thái.
+     * Không ghi được vào journal thì đơn được trả về trạng thái cũ trước khi ném lỗi.
+     * @throws util.InvalidTransitionException nếu đơn không còn PENDING
+     */
+    public void confirm(Booking booking) throws IOException {
+        BookingStatus from = booking.confirm();
+        appendOrRevert(booking, from, BookingStatus.CONFIRMED);
+    }
+
+    /**
+     * Hủy đơn và ghi lại lần chuyển trạng thái.
+     * Không ghi được vào journal thì đơn được trả về trạng thái cũ trước khi ném lỗi.
+     * @throws util.InvalidTransitionException nếu đơn đã bị hủy
+     */
+    public void cancel(Booking booking) throws IOException {
+        BookingStatus from = booking.cancel();
+        appendOrRevert(booking, from, BookingStatus.CANCELLED);
+    }
+
+    /**
+     * Thực hiện thanh toán và ghi lại lần chuyển trạng thái
+     * @return false nếu thanh toán không còn PENDING (không ghi gì)
+     */
+    public boolean processPayment(Payment payment) throws IOException {
+        // COMPLETED chỉ vào được từ PENDING nên không cần đọc trạng thái trước lần CAS
+        if (!payment.processPayment()) {
+            return false;
+        }
+        appendOrRevert(payment, PaymentStatus.PENDING, PaymentStatus.COMPLETED);
+        return true;
+    }
+
+    /**
+     * Hoàn tiền và ghi lại lần chuyển trạng thái
+     * @return false nếu thanh toán chưa hoàn thành (không ghi gì)
+     */
+    public boolean refund(Payment payment) throws IOException {
+        if (!payment.refund()) {
+            return false;
+        }
+        appendOrRevert(payment, PaymentStatus.COMPLETED, PaymentStatus.REFUNDED);
+        return true;
+    }
+
+    /**
+     * Ghi lần chuyển trạng thái rồi chờ fsync. Nếu chính lần ghi thất bại thì hoàn tác đơn,
+     * để trạng thái trong bộ nhớ không đi trước journal; lỗi khi chờ fsync không hoàn tác
+     * vì bản ghi đã nằm trong segment và sẽ được fsync ở lần group commit sau.
+     */
+    private void appendOrRevert(Booking booking, BookingStatus from, BookingStatus to) throws IOException {
+        long seq;
+        try {
+            seq = append(JournalEntry.booking(booking, from, to));
+        } catch (IOException | RuntimeException e) {
+            booking.revert(from, to);
+            throw e;
+        }
+        awaitDurable(seq);
+    }
+
+    private void appendOrRevert(Payment payment, PaymentStatus from, PaymentStatus to) throws IOException {
+        long seq;
+        try {
+            seq = append(JournalEntry.payment(payment, from, to));
+        } catch (IOException | RuntimeException e) {
+            payment.revert(from, to);
+            throw e;
+        }
+        awaitDurable(seq);
+    }
+
+    /**
+     * Đọc các bản ghi đã fsync, bắt đầu từ fromSeq
+     * @param max Số bản ghi tối đa
+     * @param out Danh sách nhận kết quả
+     * @return Số bản ghi đọc được
+     */
+    public int read(long fromSeq, int max, List<JournalEntry> out) throws IOException {
+        long toSeq = Math.min(durableSeq, fromSeq + max - 1);
+        int count = 0;
+        for (long seq = fromSeq; seq <= toSeq; seq++) {
+            JournalEntry entry = read(segment(segmentOf(seq)), offsetOf(seq), seq);
+            if (entry == null) {
+                throw new IllegalStateException("Bản ghi journal " + seq + " bị hỏng");
+            }
+            out.add(entry);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Duyệt lại các bản ghi đã fsync từ fromSeq, ví dụ để dựng lại trạng thái trong bộ nhớ sau khi khởi động
+     * @return Số bản ghi đã duyệt
+     */
+    public long replay(long fromSeq, Consumer<JournalEntry> consumer) throws IOException {
+        long seq = Math.max(fromSeq, checkpointSeq + 1);
+        long count = 0;
+        for (; seq <= durableSeq; seq++) {
+            JournalEntry entry = read(segment(segmentOf(seq)), offsetOf(seq), seq);
+            if (entry == null) {
+                throw new IllegalStateException("Bản ghi journal " + seq + " bị hỏng");
+            }
+            consumer.accept(entry);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Đánh dấu mọi bản ghi đến seq đã được ghi xuống database và xóa các segment không còn cần
+     */
+    public void checkpoint(long seq) throws IOException {
+        if (seq <= checkpointSeq) {
+            return;
+        }
+        if (seq > durableSeq) {
+            throw new IllegalArgumentException("Không thể checkpoint bản ghi chưa fsync: " + seq);
+        }
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, seq);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointSeq = seq;
+
+        long firstLive = segmentOf(seq + 1);
+        synchronized (segments) {
+            segments.keySet().removeIf(index -> index < firstLive);
+        }
+        deleteSegments(index -> index < firstLive);
+    }
+
+    public long getAppendedSeq() {
+        lock.lock();
+        try {
+            return appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    public long getCheckpointSeq() {
+        return checkpointSeq;
+    }
+
+    /**
+     * @return Số bản ghi đã fsync nhưng chưa được ghi xuống database
+     */
+    public long getPendingCount() {
+        return durableSeq - checkpointSeq;
+    }
+
+    /**
+     * Fsync các bản ghi còn lại rồi dừng luồng group commit
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            running = false;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runCommitter() {
+        while (true) {
+            lock.lock();
+            try {
+                while (running && appendedSeq == durableSeq) {
+                    appended.await();
+                }
+                if (appendedSeq == durableSeq) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            // Chờ thêm một chút để gom các bản ghi tới sau vào cùng một lần fsync
+            if (running && groupCommitMillis > 0) {
+                try {
+                    Thread.sleep(groupCommitMillis);
+                } catch (InterruptedException e) {
+                    running = false;
+                }
+            }
+
+            long target = getAppendedSeq();
+            try {
+                for (long index = segmentOf(durableSeq + 1); index <= segmentOf(target); index++) {
+                    segment(index).force();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                LOGGER.log(Level.SEVERE, "Fsync journal thất bại, thử lại", e);
+                try {
+                    Thread.sleep(FORCE_RETRY_MILLIS);
+                } catch (InterruptedException ie) {
+                    running = false;
+                }
+                continue;
+            }
+
+            lock.lock();
+            try {
+                durableSeq = target;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Tìm bản ghi hợp lệ cuối cùng sau checkpoint; phần sau đó (ghi dở khi tắt đột ngột) bị xóa trắng
+     */
+    private void recover() throws IOException {
+        long seq = checkpointSeq + 1;
+        while (Files.exists(segmentPath(segmentOf(seq)))
+                && read(segment(segmentOf(seq)), offsetOf(seq), seq) != null) {
+            seq++;
+        }
+        appendedSeq = seq - 1;
+        durableSeq = seq - 1;
+
+        long tailIndex = segmentOf(seq);
+        if (Files.exists(segmentPath(tailIndex))) {
+            MappedByteBuffer tail = segment(tailIndex);
+            for (int offset = offsetOf(seq); offset < tail.capacity(); offset += Long.BYTES) {
+                tail.putLong(offset, 0L);
+            }
+            tail.force();
+        }
+        long firstLive = segmentOf(checkpointSeq + 1);
+        deleteSegments(index -> index > tailIndex || index < firstLive);
+
+        if (appendedSeq > checkpointSeq) {
+            LOGGER.info("Journal còn " + (appendedSeq - checkpointSeq) + " bản ghi chưa ghi xuống database");
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalStateException("File checkpoint không hợp lệ: " + file);
+        }
+        return ByteBuffer.wrap(bytes).getLong();
+    }
+
+    private MappedByteBuffer segment(long index) throws IOException {
+        synchronized (segments) {
+            MappedByteBuffer buffer = segments.get(index);
+            if (buffer == null) {
+                try (FileChannel channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+                }
+                segments.put(index, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    private void deleteSegments(LongPredicate filter) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long index = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                if (filter.test(index)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private long segmentOf(long seq) {
+        return (seq - 1) / recordsPerSegment;
+    }
+
+    private int offsetOf(long seq) {
+        return (int) ((seq - 1) % recordsPerSegment) * RECORD_SIZE;
+    }
+
+    private static void write(MappedByteBuffer buffer, int offset, JournalEntry entry) {
+        buffer.put(offset + 4, (byte) (entry.getKind().ordinal() + 1));
+        buffer.put(offset + 5, (byte) entry.getFromOrdinal());
+        buffer.put(offset + 6, (byte) entry.getToOrdinal());
+        buffer.put(offset + 7, (byte) 0);
+        buffer.putLong(offset + 8, entry.getSeq());
+        buffer.putLong(offset + 16, entry.getTimestamp());
+        buffer.putInt(offset + 24, entry.getEntityId());
+        buffer.putInt(offset + 28, entry.getOwnerId());
+        buffer.putLong(offset + 32, entry.getKind() == JournalEntry.Kind.SEAT ? entry.getStamp() : entry.getAmount());
+        buffer.putInt(offset, crc(buffer, offset));
+    }
+
+    /**
+     * @return Bản ghi tại offset, hoặc null nếu trống, sai seq hoặc sai CRC
+     */
+    private static JournalEntry read(MappedByteBuffer buffer, int offset, long expectedSeq) {
+        int kind = buffer.get(offset + 4) & 0xFF;
+        if (kind < 1 || kind > KINDS.length
+                || buffer.getLong(offset + 8) != expectedSeq
+                || buffer.getInt(offset) != crc(buffer, offset)) {
+            return null;
+        }
+        return new JournalEntry(expectedSeq, KINDS[kind - 1], buffer.getLong(offset + 16),
+                buffer.getInt(offset + 24), buffer.getInt(offset + 28),
+                buffer.get(offset + 5) & 0xFF, buffer.get(offset + 6) & 0xFF, buffer.getLong(offset + 32));
+    }
+
+    private static int crc(MappedByteBuffer buffer, int offset) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(offset + RECORD_SIZE).position(offset + 4);
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
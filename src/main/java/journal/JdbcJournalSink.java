@@ -0,0 +1,84 @@
+package journal;
+
+import dao.BookingDao;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentStatus;
+import model.SeatStatus;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ghi các bản ghi journal xuống MySQL. Trong một lô, nhiều lần chuyển trạng thái của cùng một
+ * ghế/đơn/thanh toán được gộp lại, chỉ trạng thái cuối cùng được ghi, trong một transaction.
+ * Với ghế, trạng thái cuối là của bản ghi có stamp lớn nhất chứ không phải seq lớn nhất,
+ * vì seq được cấp sau lần CAS nên hai lần chuyển của cùng một ghế có thể được ghi ngược thứ tự.
+ * Bản ghi của đơn hoặc thanh toán chưa có mã (chưa được INSERT) bị bỏ qua.
+ */
+public class JdbcJournalSink implements JournalSink {
+
+    private final BookingDao bookingDao;
+
+    public JdbcJournalSink(BookingDao bookingDao) {
+        this.bookingDao = bookingDao;
+    }
+
+    @Override
+    public void apply(List<JournalEntry> entries) throws SQLException {
+        Map<Integer, JournalEntry> seatChanges = new LinkedHashMap<>();
+        Map<Integer, Booking> bookings = new LinkedHashMap<>();
+        Map<Integer, Payment> payments = new LinkedHashMap<>();
+
+        for (JournalEntry entry : entries) {
+            if (entry.getEntityId() <= 0) {
+                continue;
+            }
+            Timestamp at = new Timestamp(entry.getTimestamp());
+            switch (entry.getKind()) {
+                case SEAT:
+                    seatChanges.merge(entry.getEntityId(), entry,
+                            (current, next) -> next.isNewerSeatChangeThan(current) ? next : current);
+                    break;
+                case BOOKING:
+                    Booking booking = bookings.computeIfAbsent(entry.getEntityId(), id -> {
+                        Booking b = new Booking();
+                        b.setBookingId(id);
+                        return b;
+                    });
+                    booking.setStatus(BookingStatus.codec().fromOrdinal(entry.getToOrdinal()));
+                    if (booking.getStatus() == BookingStatus.CONFIRMED) {
+                        booking.setConfirmedAt(at);
+                    } else if (booking.getStatus() == BookingStatus.CANCELLED) {
+                        booking.setCancelledAt(at);
+                    }
+                    break;
+                case PAYMENT:
+                    Payment payment = payments.computeIfAbsent(entry.getEntityId(), id -> {
+                        Payment p = new Payment();
+                        p.setPaymentId(id);
+                        return p;
+                    });
+                    payment.setPaymentStatus(PaymentStatus.codec().fromOrdinal(entry.getToOrdinal()));
+                    if (payment.getPaymentStatus() == PaymentStatus.COMPLETED) {
+                        payment.setPaymentTime(at);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Map<Integer, SeatStatus> seats = new LinkedHashMap<>();
+        for (JournalEntry change : seatChanges.values()) {
+            seats.put(change.getEntityId(), SeatStatus.codec().fromOrdinal(change.getToOrdinal()));
+        }
+        if (!seats.isEmpty() || !bookings.isEmpty() || !payments.isEmpty()) {
+            bookingDao.applyStatusChanges(seats, bookings.values(), payments.values());
+        }
+    }
+}
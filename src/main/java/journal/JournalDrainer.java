@@ -0,0 +1,127 @@
+package journal;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Luồng nền đọc các bản ghi đã fsync trong EventJournal, ghi xuống JournalSink theo lô
+ * rồi dời checkpoint. Khi khởi động, việc đọc bắt đầu từ sau checkpoint nên các bản ghi
+ * chưa kịp ghi ở lần chạy trước được ghi lại trước tiên.
+ */
+public class JournalDrainer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(JournalDrainer.class.getName());
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final EventJournal journal;
+    private final JournalSink sink;
+    private final int batchSize;
+    private final long idleMillis;
+    private final List<JournalEntry> batch = new ArrayList<>();
+    private Thread worker;
+    private volatile boolean running;
+
+    public JournalDrainer(EventJournal journal, JournalSink sink) {
+        this(journal, sink, 1000, 20);
+    }
+
+    /**
+     * @param batchSize Số bản ghi tối đa mỗi lô
+     * @param idleMillis Thời gian nghỉ khi không có bản ghi mới
+     */
+    public JournalDrainer(EventJournal journal, JournalSink sink, int batchSize, long idleMillis) {
+        this.journal = journal;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.idleMillis = idleMillis;
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            throw new IllegalStateException("Drainer đã được khởi động");
+        }
+        running = true;
+        worker = new Thread(this::run, "event-journal-drain");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Ghi một lô bản ghi xuống sink và dời checkpoint
+     * @return Số bản ghi đã ghi, 0 nếu không còn gì
+     */
+    public synchronized int drainOnce() throws SQLException, IOException {
+        batch.clear();
+        int count = journal.read(journal.getCheckpointSeq() + 1, batchSize, batch);
+        if (count == 0) {
+            return 0;
+        }
+        sink.apply(batch);
+        journal.checkpoint(batch.get(count - 1).getSeq());
+        return count;
+    }
+
+    /**
+     * Ghi hết các bản ghi đã fsync
+     * @return Tổng số bản ghi đã ghi
+     */
+    public long drainAll() throws SQLException, IOException {
+        long total = 0;
+        int count;
+        while ((count = drainOnce()) > 0) {
+            total += count;
+        }
+        return total;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (drainOnce() == 0) {
+                    Thread.sleep(idleMillis);
+                }
+            } catch (SQLException | IOException e) {
+                LOGGER.log(Level.WARNING, "Ghi journal xuống database thất bại, thử lại sau", e);
+                sleepQuietly(RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    /**
+     * Dừng luồng nền rồi cố ghi nốt các bản ghi còn lại; bản ghi chưa ghi được vẫn nằm trong journal
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            current = worker;
+            running = false;
+        }
+        if (current != null) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            drainAll();
+        } catch (SQLException | IOException e) {
+            LOGGER.log(Level.WARNING, "Còn " + journal.getPendingCount() + " bản ghi journal chưa ghi xuống database", e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package journal;
+
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentStatus;
+import model.SeatStatus;
+
+/**
+ * Một lần chuyển trạng thái được ghi vào EventJournal.
+ * Trạng thái được lưu bằng ordinal của enum tương ứng với loại bản ghi.
+ */
+public final class JournalEntry {
+
+    public enum Kind {
+        SEAT,
+        BOOKING,
+        PAYMENT
+    }
+
+    private final long seq;
+    private final Kind kind;
+    private final long timestamp;
+    private final int entityId;
+    private final int ownerId;
+    private final int fromOrdinal;
+    private final int toOrdinal;
+    private final long amount;
+
+    JournalEntry(long seq, Kind kind, long timestamp, int entityId, int ownerId,
+                 int fromOrdinal, int toOrdinal, long amount) {
+        this.seq = seq;
+        this.kind = kind;
+        this.timestamp = timestamp;
+        this.entityId = entityId;
+        this.ownerId = ownerId;
+        this.fromOrdinal = fromOrdinal;
+        this.toOrdinal = toOrdinal;
+        this.amount = amount;
+    }
+
+    /**
+     * @param showtimeId Suất chiếu của ghế
+     */
+    public static JournalEntry seat(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        return seat(showtimeId, seatId, from, to, 0);
+    }
+
+    /**
+     * @param stamp Stamp của lần chuyển trong ShowtimeSeatMap (epoch và stamp của ô), 0 nếu không rõ
+     */
+    public static JournalEntry seat(int showtimeId, int seatId, SeatStatus from, SeatStatus to, long stamp) {
+        return new JournalEntry(0, Kind.SEAT, System.currentTimeMillis(), seatId, showtimeId,
+                from.ordinal(), to.ordinal(), stamp);
+    }
+
+    public static JournalEntry booking(Booking booking, BookingStatus from) {
+        return booking(booking, from, booking.getStatus());
+    }
+
+    public static JournalEntry booking(Booking booking, BookingStatus from, BookingStatus to) {
+        return new JournalEntry(0, Kind.BOOKING, System.currentTimeMillis(), booking.getBookingId(),
+                booking.getShowtimeId(), from.ordinal(), to.ordinal(), booking.getTotalAmount());
+    }
+
+    public static JournalEntry payment(Payment payment, PaymentStatus from) {
+        return payment(payment, from, payment.getPaymentStatus());
+    }
+
+    public static JournalEntry payment(Payment payment, PaymentStatus from, PaymentStatus to) {
+        return new JournalEntry(0, Kind.PAYMENT, System.currentTimeMillis(), payment.getPaymentId(),
+                payment.getBookingId(), from.ordinal(), to.ordinal(), payment.getAmount());
+    }
+
+    JournalEntry withSeq(long seq) {
+        return new JournalEntry(seq, kind, timestamp, entityId, ownerId, fromOrdinal, toOrdinal, amount);
+    }
+
+    /**
+     * @return Số thứ tự trong journal (bắt đầu từ 1), 0 nếu chưa được ghi
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return seat_id, booking_id hoặc payment_id tùy loại bản ghi
+     */
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * @return showtime_id với ghế và đơn, booking_id với thanh toán
+     */
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public int getFromOrdinal() {
+        return fromOrdinal;
+    }
+
+    public int getToOrdinal() {
+        return toOrdinal;
+    }
+
+    /**
+     * @return Tổng tiền đơn hoặc số tiền thanh toán (đồng), 0 với ghế
+     */
+    public long getAmount() {
+        return kind == Kind.SEAT ? 0 : amount;
+    }
+
+    /**
+     * @return Stamp của lần chuyển ghế (32 bit cao là epoch của lần nạp sơ đồ), 0 nếu không rõ hoặc không phải ghế
+     */
+    public long getStamp() {
+        return kind == Kind.SEAT ? amount : 0;
+    }
+
+    /**
+     * So sánh hai lần chuyển của cùng một ghế. Cùng epoch thì stamp lớn hơn là mới hơn;
+     * khác epoch (sơ đồ đã được nạp lại) hoặc không có stamp thì bản ghi có seq lớn hơn là mới hơn.
+     */
+    boolean isNewerSeatChangeThan(JournalEntry other) {
+        long epoch = getStamp() >>> 32;
+        if (epoch != 0 && epoch == other.getStamp() >>> 32) {
+            return (int) getStamp() > (int) other.getStamp();
+        }
+        return seq > other.seq;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEntry{" +
+                "seq=" + seq +
+                ", kind=" + kind +
+                ", entityId=" + entityId +
+                ", ownerId=" + ownerId +
+                ", from=" + fromOrdinal +
+                ", to=" + toOrdinal +
+                '}';
+    }
+}
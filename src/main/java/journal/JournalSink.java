@@ -0,0 +1,16 @@
+package journal;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Nơi nhận các bản ghi journal đã fsync (thường là MySQL)
+ */
+public interface JournalSink {
+
+    /**
+     * Ghi một lô bản ghi theo đúng thứ tự seq. Nếu ném ngoại lệ, cả lô sẽ được gửi lại ở lượt sau,
+     * nên việc ghi phải chịu được lặp lại.
+     */
+    void apply(List<JournalEntry> entries) throws SQLException;
+}
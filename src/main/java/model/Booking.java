@@ -1,15 +1,35 @@
 package model;
 
+import util.Money;
+import util.StateMachine;
+
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class Booking {
+    private static final AtomicReferenceFieldUpdater<Booking, BookingStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Booking.class, BookingStatus.class, "status");
+
+    /**
+     * Vòng đời đơn: PENDING -> CONFIRMED -> CANCELLED, PENDING -> CANCELLED
+     */
+    public static final StateMachine<Booking, BookingStatus> LIFECYCLE =
+            StateMachine.<Booking, BookingStatus>builder(BookingStatus.class, "đơn đặt vé")
+                    .allow(BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.CANCELLED)
+                    .allow(BookingStatus.CONFIRMED, BookingStatus.CANCELLED)
+                    .onEntry(BookingStatus.CONFIRMED,
+                            (booking, from, to) -> booking.confirmedAt = new Timestamp(System.currentTimeMillis()))
+                    .onEntry(BookingStatus.CANCELLED,
+                            (booking, from, to) -> booking.cancelledAt = new Timestamp(System.currentTimeMillis()))
+                    .build();
+
     private int bookingId;
     private int customerId;
     private int showtimeId;
     private List<Integer> seatIds;
-    private double totalAmount;
-    private BookingStatus status;
+    private long totalAmount;
+    private volatile BookingStatus status;
     private Timestamp bookingTime;
     private Timestamp confirmedAt;
     private Timestamp cancelledAt;
@@ -25,7 +45,7 @@ public class Booking {
     }
 
     public Booking(int bookingId, int customerId, int showtimeId,
-                   double totalAmount, BookingStatus status) {
+                   long totalAmount, BookingStatus status) {
         this.bookingId = bookingId;
         this.customerId = customerId;
         this.showtimeId = showtimeId;
@@ -73,11 +93,11 @@ public class Booking {
         this.seatIds.add(seatId);
     }
 
-    public double getTotalAmount() {
+    public long getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(long totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -153,24 +173,45 @@ public class Booking {
         this.showTime = showTime;
     }
 
-    public void confirm() {
-        if (status == BookingStatus.PENDING) {
-            status = BookingStatus.CONFIRMED;
-            confirmedAt = new Timestamp(System.currentTimeMillis());
-        }
+    /**
+     * Xác nhận đơn (PENDING -> CONFIRMED), an toàn khi nhiều luồng cùng gọi
+     * @return Trạng thái trước khi xác nhận
+     * @throws util.InvalidTransitionException nếu đơn không còn PENDING
+     */
+    public BookingStatus confirm() {
+        return LIFECYCLE.transition(this, STATUS, BookingStatus.CONFIRMED);
     }
 
-    public void cancel() {
-        if (status.canBeCancelled()) {
-            status = BookingStatus.CANCELLED;
-            cancelledAt = new Timestamp(System.currentTimeMillis());
+    /**
+     * Hủy đơn (PENDING/CONFIRMED -> CANCELLED)
+     * @return Trạng thái trước khi hủy
+     * @throws util.InvalidTransitionException nếu đơn đã bị hủy
+     */
+    public BookingStatus cancel() {
+        return LIFECYCLE.transition(this, STATUS, BookingStatus.CANCELLED);
+    }
+
+    /**
+     * Hoàn tác lần chuyển from -> to chưa được ghi nhận ở nơi khác (ví dụ ghi journal thất bại)
+     * @return false nếu luồng khác đã đổi trạng thái sau lần chuyển đó
+     */
+    public boolean revert(BookingStatus from, BookingStatus to) {
+        if (!STATUS.compareAndSet(this, to, from)) {
+            return false;
+        }
+        // CONFIRMED và CANCELLED chỉ được vào một lần nên trước đó mốc thời gian chưa có
+        if (to == BookingStatus.CONFIRMED) {
+            confirmedAt = null;
+        } else if (to == BookingStatus.CANCELLED) {
+            cancelledAt = null;
         }
+        return true;
     }
 
-    public double calculateTotal(List<Seat> seats) {
-        double total = 0;
+    public long calculateTotal(List<Seat> seats) {
+        long total = 0;
         for (Seat seat : seats) {
-            total += seat.getPrice();
+            total = Money.add(total, seat.getPrice());
         }
         this.totalAmount = total;
         return total;
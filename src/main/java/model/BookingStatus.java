@@ -1,5 +1,7 @@
 package model;
 
+import util.EnumCodec;
+
 /**
  * Enum định nghĩa trạng thái của đơn đặt vé
  * Lifecycle: PENDING -> CONFIRMED
@@ -14,6 +16,8 @@ public enum BookingStatus {
     private final String displayName;
     private final String description;
 
+    private static final EnumCodec<BookingStatus> CODEC = EnumCodec.of(BookingStatus.class, "Trạng thái booking");
+
     /**
      * Constructor
      * @param displayName Tên hiển thị
@@ -69,7 +73,7 @@ public enum BookingStatus {
      * @return true nếu có thể hủy (PENDING hoặc CONFIRMED)
      */
     public boolean canBeCancelled() {
-        return this == PENDING || this == CONFIRMED;
+        return canTransitionTo(CANCELLED);
     }
 
     /**
@@ -77,31 +81,16 @@ public enum BookingStatus {
      * @return true nếu đang PENDING
      */
     public boolean canBeConfirmed() {
-        return this == PENDING;
+        return canTransitionTo(CONFIRMED);
     }
 
     /**
-     * Kiểm tra có thể chuyển sang trạng thái mới không
+     * Kiểm tra có thể chuyển sang trạng thái mới không (theo bảng Booking.LIFECYCLE)
      * @param newStatus Trạng thái mới
      * @return true nếu chuyển đổi hợp lệ
      */
     public boolean canTransitionTo(BookingStatus newStatus) {
-        switch (this) {
-            case PENDING:
-                // Từ PENDING có thể chuyển sang CONFIRMED hoặc CANCELLED
-                return newStatus == CONFIRMED || newStatus == CANCELLED;
-
-            case CONFIRMED:
-                // Từ CONFIRMED chỉ có thể hủy
-                return newStatus == CANCELLED;
-
-            case CANCELLED:
-                // Từ CANCELLED không thể chuyển sang trạng thái nào khác
-                return false;
-
-            default:
-                return false;
-        }
+        return Booking.LIFECYCLE.canTransition(this, newStatus);
     }
 
     /**
@@ -128,17 +117,14 @@ public enum BookingStatus {
      * @throws IllegalArgumentException nếu không tìm thấy
      */
     public static BookingStatus fromString(String status) {
-        if (status == null) {
-            throw new IllegalArgumentException("Trạng thái booking không được null");
-        }
-
-        for (BookingStatus bookingStatus : BookingStatus.values()) {
-            if (bookingStatus.name().equalsIgnoreCase(status)) {
-                return bookingStatus;
-            }
-        }
+        return CODEC.fromName(status);
+    }
 
-        throw new IllegalArgumentException("Trạng thái booking không hợp lệ: " + status);
+    /**
+     * Bộ giải mã dùng chung cho các row mapper (tên hoặc ordinal)
+     */
+    public static EnumCodec<BookingStatus> codec() {
+        return CODEC;
     }
 
     /**
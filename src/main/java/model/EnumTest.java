@@ -72,6 +72,18 @@ public class EnumTest {
         System.out.println("\nCANCELLED -> CONFIRMED: " +
                 cancelled.canTransitionTo(BookingStatus.CONFIRMED));
 
+        System.out.println("\n========== TEST ENUM CODEC ==========");
+
+        System.out.println("'booked' -> " + SeatStatus.fromString("booked").name());
+        System.out.println("'Credit_Card' -> " + PaymentMethod.fromString("Credit_Card").name());
+        System.out.println("Ordinal 2 -> " + SeatType.codec().fromOrdinal(2).name());
+        System.out.println("MySQL ENUM index 1 -> " + BookingStatus.codec().fromEnumIndex(1).name());
+        try {
+            PaymentStatus.fromString("PAID");
+        } catch (IllegalArgumentException e) {
+            System.out.println("'PAID' -> " + e.getMessage());
+        }
+
         System.out.println("\n========== ALL TESTS COMPLETED ==========");
     }
 }
\ No newline at end of file
@@ -1,20 +1,39 @@
 package model;
 
+import util.StateMachine;
+
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class Payment {
+    private static final AtomicReferenceFieldUpdater<Payment, PaymentStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Payment.class, PaymentStatus.class, "paymentStatus");
+
+    /**
+     * Vòng đời thanh toán: PENDING -> COMPLETED/FAILED, COMPLETED -> REFUNDED
+     */
+    public static final StateMachine<Payment, PaymentStatus> LIFECYCLE =
+            StateMachine.<Payment, PaymentStatus>builder(PaymentStatus.class, "thanh toán")
+                    .allow(PaymentStatus.PENDING, PaymentStatus.COMPLETED, PaymentStatus.FAILED)
+                    .allow(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED)
+                    .onEntry(PaymentStatus.COMPLETED,
+                            (payment, from, to) -> payment.paymentTime = new Timestamp(System.currentTimeMillis()))
+                    .build();
+
     private int paymentId;
     private int bookingId;
-    private double amount;
+    private long amount;
     private PaymentMethod paymentMethod;
     private String transactionId;
-    private PaymentStatus paymentStatus;
+    private volatile PaymentStatus paymentStatus;
     private Timestamp paymentTime;
 
-    public Payment() {}
+    public Payment() {
+        this.paymentStatus = PaymentStatus.PENDING;
+    }
 
-    public Payment(int paymentId, int bookingId, double amount,
+    public Payment(int paymentId, int bookingId, long amount,
                    PaymentMethod paymentMethod, String transactionId) {
         this.paymentId = paymentId;
         this.bookingId = bookingId;
@@ -24,7 +43,7 @@ public class Payment {
         this.paymentStatus = PaymentStatus.PENDING;
     }
 
-    public Payment(int paymentId, int bookingId, double amount,
+    public Payment(int paymentId, int bookingId, long amount,
                    PaymentMethod paymentMethod, String transactionId,
                    PaymentStatus paymentStatus) {
         this.paymentId = paymentId;
@@ -51,11 +70,11 @@ public class Payment {
         this.bookingId = bookingId;
     }
 
-    public double getAmount() {
+    public long getAmount() {
         return amount;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(long amount) {
         this.amount = amount;
     }
 
@@ -91,18 +110,34 @@ public class Payment {
         this.paymentTime = paymentTime;
     }
 
+    /**
+     * Đánh dấu đã thanh toán (PENDING -> COMPLETED)
+     * @return false nếu thanh toán không còn PENDING
+     */
     public boolean processPayment() {
-        this.paymentStatus = PaymentStatus.COMPLETED;
-        this.paymentTime = new Timestamp(System.currentTimeMillis());
-        return true;
+        return LIFECYCLE.tryTransition(this, STATUS, PaymentStatus.COMPLETED);
     }
 
+    /**
+     * Hoàn tiền (COMPLETED -> REFUNDED)
+     * @return false nếu thanh toán chưa hoàn thành
+     */
     public boolean refund() {
-        if (paymentStatus == PaymentStatus.COMPLETED) {
-            paymentStatus = PaymentStatus.REFUNDED;
-            return true;
+        return LIFECYCLE.tryTransition(this, STATUS, PaymentStatus.REFUNDED);
+    }
+
+    /**
+     * Hoàn tác lần chuyển from -> to chưa được ghi nhận ở nơi khác (ví dụ ghi journal thất bại)
+     * @return false nếu luồng khác đã đổi trạng thái sau lần chuyển đó
+     */
+    public boolean revert(PaymentStatus from, PaymentStatus to) {
+        if (!STATUS.compareAndSet(this, to, from)) {
+            return false;
         }
-        return false;
+        if (to == PaymentStatus.COMPLETED) {
+            paymentTime = null;
+        }
+        return true;
     }
 
     @Override
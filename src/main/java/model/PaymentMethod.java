@@ -1,5 +1,7 @@
 package model;
 
+import util.EnumCodec;
+
 public enum PaymentMethod {
     CASH("Tiền mặt"),
     CREDIT_CARD("Thẻ tín dụng"),
@@ -9,6 +11,8 @@ public enum PaymentMethod {
 
     private final String displayName;
 
+    private static final EnumCodec<PaymentMethod> CODEC = EnumCodec.of(PaymentMethod.class, "Payment method");
+
     PaymentMethod(String displayName) {
         this.displayName = displayName;
     }
@@ -18,17 +22,11 @@ public enum PaymentMethod {
     }
 
     public static PaymentMethod fromString(String method) {
-        if (method == null) {
-            throw new IllegalArgumentException("Payment method không được null");
-        }
-
-        for (PaymentMethod pm : PaymentMethod.values()) {
-            if (pm.name().equalsIgnoreCase(method)) {
-                return pm;
-            }
-        }
+        return CODEC.fromName(method);
+    }
 
-        throw new IllegalArgumentException("Payment method không hợp lệ: " + method);
+    public static EnumCodec<PaymentMethod> codec() {
+        return CODEC;
     }
 
     @Override
@@ -1,5 +1,7 @@
 package model;
 
+import util.EnumCodec;
+
 public enum PaymentStatus {
     PENDING("Đang chờ"),
     COMPLETED("Hoàn thành"),
@@ -8,6 +10,8 @@ public enum PaymentStatus {
 
     private final String displayName;
 
+    private static final EnumCodec<PaymentStatus> CODEC = EnumCodec.of(PaymentStatus.class, "Payment status");
+
     PaymentStatus(String displayName) {
         this.displayName = displayName;
     }
@@ -33,17 +37,11 @@ public enum PaymentStatus {
     }
 
     public static PaymentStatus fromString(String status) {
-        if (status == null) {
-            throw new IllegalArgumentException("Payment status không được null");
-        }
-
-        for (PaymentStatus ps : PaymentStatus.values()) {
-            if (ps.name().equalsIgnoreCase(status)) {
-                return ps;
-            }
-        }
+        return CODEC.fromName(status);
+    }
 
-        throw new IllegalArgumentException("Payment status không hợp lệ: " + status);
+    public static EnumCodec<PaymentStatus> codec() {
+        return CODEC;
     }
 
     @Override
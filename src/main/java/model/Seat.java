@@ -1,15 +1,32 @@
 package model;
 
+import util.StateMachine;
+
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 public class Seat {
+    private static final AtomicReferenceFieldUpdater<Seat, SeatStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Seat.class, SeatStatus.class, "status");
+
+    /**
+     * Vòng đời ghế: AVAILABLE -> RESERVED -> BOOKED, AVAILABLE -> BOOKED,
+     * RESERVED/BOOKED -> AVAILABLE. SeatMapEngine dùng chung bảng này (không chạy hook).
+     */
+    public static final StateMachine<Seat, SeatStatus> LIFECYCLE =
+            StateMachine.<Seat, SeatStatus>builder(SeatStatus.class, "ghế")
+                    .allow(SeatStatus.AVAILABLE, SeatStatus.RESERVED, SeatStatus.BOOKED)
+                    .allow(SeatStatus.RESERVED, SeatStatus.BOOKED, SeatStatus.AVAILABLE)
+                    .allow(SeatStatus.BOOKED, SeatStatus.AVAILABLE)
+                    .build();
+
     private int seatId;
     private int showtimeId;
     private String seatNumber;
     private SeatType seatType;
-    private SeatStatus status;
-    private double price;
+    private volatile SeatStatus status;
+    private long price;
     private int version;
     private Timestamp createdAt;
     private Timestamp updatedAt;
@@ -28,7 +45,7 @@ public class Seat {
     }
 
     public Seat(int seatId, int showtimeId, String seatNumber,
-                SeatType seatType, SeatStatus status, double price, int version) {
+                SeatType seatType, SeatStatus status, long price, int version) {
         this.seatId = seatId;
         this.showtimeId = showtimeId;
         this.seatNumber = seatNumber;
@@ -79,11 +96,11 @@ public class Seat {
         this.status = status;
     }
 
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
@@ -115,20 +132,25 @@ public class Seat {
         return status == SeatStatus.AVAILABLE;
     }
 
+    /**
+     * @throws util.InvalidTransitionException nếu ghế không còn trống
+     */
     public void reserve() {
-        if (status == SeatStatus.AVAILABLE) {
-            status = SeatStatus.RESERVED;
-        }
+        LIFECYCLE.transition(this, STATUS, SeatStatus.RESERVED);
     }
 
+    /**
+     * @throws util.InvalidTransitionException nếu ghế đã được đặt
+     */
     public void book() {
-        if (status == SeatStatus.AVAILABLE || status == SeatStatus.RESERVED) {
-            status = SeatStatus.BOOKED;
-        }
+        LIFECYCLE.transition(this, STATUS, SeatStatus.BOOKED);
     }
 
+    /**
+     * @throws util.InvalidTransitionException nếu ghế đang trống
+     */
     public void release() {
-        status = SeatStatus.AVAILABLE;
+        LIFECYCLE.transition(this, STATUS, SeatStatus.AVAILABLE);
     }
 
     @Override
@@ -1,5 +1,7 @@
 package model;
 
+import util.EnumCodec;
+
 /**
  * Enum định nghĩa trạng thái của ghế
  * Lifecycle: AVAILABLE -> RESERVED -> BOOKED
@@ -14,6 +16,8 @@ public enum SeatStatus {
     private final String displayName;
     private final String description;
 
+    private static final EnumCodec<SeatStatus> CODEC = EnumCodec.of(SeatStatus.class, "Trạng thái ghế");
+
     /**
      * Constructor
      * @param displayName Tên hiển thị
@@ -65,27 +69,12 @@ public enum SeatStatus {
     }
 
     /**
-     * Kiểm tra có thể chuyển sang trạng thái mới không
+     * Kiểm tra có thể chuyển sang trạng thái mới không (theo bảng Seat.LIFECYCLE)
      * @param newStatus Trạng thái mới
      * @return true nếu chuyển đổi hợp lệ
      */
     public boolean canTransitionTo(SeatStatus newStatus) {
-        switch (this) {
-            case AVAILABLE:
-                // Từ AVAILABLE có thể chuyển sang RESERVED hoặc BOOKED
-                return newStatus == RESERVED || newStatus == BOOKED;
-
-            case RESERVED:
-                // Từ RESERVED có thể chuyển sang BOOKED hoặc quay lại AVAILABLE
-                return newStatus == BOOKED || newStatus == AVAILABLE;
-
-            case BOOKED:
-                // Từ BOOKED chỉ có thể hủy về AVAILABLE
-                return newStatus == AVAILABLE;
-
-            default:
-                return false;
-        }
+        return Seat.LIFECYCLE.canTransition(this, newStatus);
     }
 
     /**
@@ -95,17 +84,14 @@ public enum SeatStatus {
      * @throws IllegalArgumentException nếu không tìm thấy
      */
     public static SeatStatus fromString(String status) {
-        if (status == null) {
-            throw new IllegalArgumentException("Trạng thái ghế không được null");
-        }
-
-        for (SeatStatus seatStatus : SeatStatus.values()) {
-            if (seatStatus.name().equalsIgnoreCase(status)) {
-                return seatStatus;
-            }
-        }
+        return CODEC.fromName(status);
+    }
 
-        throw new IllegalArgumentException("Trạng thái ghế không hợp lệ: " + status);
+    /**
+     * Bộ giải mã dùng chung cho các row mapper (tên hoặc ordinal)
+     */
+    public static EnumCodec<SeatStatus> codec() {
+        return CODEC;
     }
 
     @Override
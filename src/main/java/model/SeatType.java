@@ -1,28 +1,33 @@
 package model;
 
+import util.EnumCodec;
+import util.Money;
+
 public enum SeatType {
     STANDARD(50000, "Ghế Thường"),
     VIP(100000, "Ghế VIP"),
     COUPLE(150000, "Ghế Đôi");
 
-    private final double price;
+    private final long price;
     private final String displayName;
 
+    private static final EnumCodec<SeatType> CODEC = EnumCodec.of(SeatType.class, "Loại ghế");
+
     /**
      * Constructor
-     * @param price Giá ghế (VNĐ)
+     * @param price Giá ghế (đồng)
      * @param displayName Tên hiển thị
      */
-    SeatType(double price, String displayName) {
+    SeatType(long price, String displayName) {
         this.price = price;
         this.displayName = displayName;
     }
 
     /**
      * Lấy giá ghế
-     * @return Giá ghế theo VNĐ
+     * @return Giá ghế theo đồng
      */
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
@@ -39,7 +44,7 @@ public enum SeatType {
      * @return Giá dạng string có format (ví dụ: "50,000 VNĐ")
      */
     public String getFormattedPrice() {
-        return String.format("%,.0f VNĐ", price);
+        return Money.format(price);
     }
 
     /**
@@ -49,17 +54,14 @@ public enum SeatType {
      * @throws IllegalArgumentException nếu không tìm thấy
      */
     public static SeatType fromString(String type) {
-        if (type == null) {
-            throw new IllegalArgumentException("Loại ghế không được null");
-        }
-
-        for (SeatType seatType : SeatType.values()) {
-            if (seatType.name().equalsIgnoreCase(type)) {
-                return seatType;
-            }
-        }
+        return CODEC.fromName(type);
+    }
 
-        throw new IllegalArgumentException("Loại ghế không hợp lệ: " + type);
+    /**
+     * Bộ giải mã dùng chung cho các row mapper (tên hoặc ordinal)
+     */
+    public static EnumCodec<SeatType> codec() {
+        return CODEC;
     }
 
     /**
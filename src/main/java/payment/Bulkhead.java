@@ -0,0 +1,91 @@
+package payment;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Giới hạn số lời gọi bất đồng bộ đang chạy; lời gọi vượt giới hạn xếp hàng trong một hàng đợi có giới hạn,
+ * hàng đợi đầy thì bị từ chối ngay. Không luồng nào bị chặn: lời gọi kế tiếp được chạy
+ * trên luồng vừa hoàn thành lời gọi trước.
+ */
+class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+    private int active;
+
+    Bulkhead(String name, int maxConcurrent, int maxQueued) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Chạy task ngay nếu còn chỗ, không thì xếp hàng.
+     * @param result Future nhận kết quả; nếu nó đã xong (ví dụ timeout) khi tới lượt thì task không được chạy
+     * @return false nếu hàng đợi đã đầy
+     */
+    <T> boolean submit(Supplier<CompletableFuture<T>> task, CompletableFuture<T> result) {
+        Runnable run = () -> {
+            if (result.isDone()) {
+                release();
+                return;
+            }
+            CompletableFuture<T> call;
+            try {
+                call = task.get();
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            call.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (active >= maxConcurrent) {
+                if (queue.size() >= maxQueued) {
+                    return false;
+                }
+                queue.addLast(run);
+                return true;
+            }
+            active++;
+        }
+        run.run();
+        return true;
+    }
+
+    synchronized int getActiveCount() {
+        return active;
+    }
+
+    synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (this) {
+            next = queue.pollFirst();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        // Giữ nguyên permit cho lời gọi kế tiếp
+        next.run();
+    }
+}
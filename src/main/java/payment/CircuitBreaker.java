@@ -0,0 +1,80 @@
+package payment;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker theo số lỗi liên tiếp.
+ * CLOSED: gọi bình thường; đủ failureThreshold lỗi liên tiếp thì chuyển OPEN.
+ * OPEN: từ chối mọi lời gọi trong openMillis, sau đó chuyển HALF_OPEN.
+ * HALF_OPEN: cho đúng một lời gọi thử; thành công thì CLOSED, lỗi thì OPEN lại.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true nếu được phép gọi
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * Trả lại lượt gọi thử đã lấy mà không gọi tới cổng thanh toán
+     */
+    synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
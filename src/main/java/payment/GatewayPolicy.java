@@ -0,0 +1,71 @@
+package payment;
+
+/**
+ * Giới hạn và chính sách gọi cổng thanh toán cho một phương thức thanh toán
+ */
+public final class GatewayPolicy {
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long timeoutMillis;
+    private final long hedgeDelayMillis;
+    private final int maxAttempts;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    /**
+     * @param maxConcurrent Số lời gọi đồng thời tối đa
+     * @param maxQueued Số lời gọi chờ tối đa, vượt quá sẽ bị từ chối ngay
+     * @param timeoutMillis Thời gian chờ mỗi lần gọi (tính cả thời gian xếp hàng)
+     * @param hedgeDelayMillis Chưa có kết quả sau khoảng này thì gửi thêm một lần gọi song song
+     * @param maxAttempts Tổng số lần gọi tối đa (kể cả gọi song song và gọi lại)
+     * @param failureThreshold Số lỗi liên tiếp để mở circuit breaker
+     * @param openMillis Thời gian circuit breaker mở trước khi cho một lời gọi thử
+     */
+    public GatewayPolicy(int maxConcurrent, int maxQueued, long timeoutMillis, long hedgeDelayMillis,
+                         int maxAttempts, int failureThreshold, long openMillis) {
+        if (maxConcurrent <= 0 || maxQueued < 0 || timeoutMillis <= 0 || hedgeDelayMillis <= 0
+                || maxAttempts <= 0 || failureThreshold <= 0 || openMillis <= 0) {
+            throw new IllegalArgumentException("Cấu hình cổng thanh toán không hợp lệ");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.timeoutMillis = timeoutMillis;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+        this.maxAttempts = maxAttempts;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public static GatewayPolicy defaults() {
+        return new GatewayPolicy(32, 64, 3000, 800, 2, 5, 10_000);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+}
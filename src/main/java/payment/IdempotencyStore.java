@@ -0,0 +1,112 @@
+package payment;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Lưu future kết quả theo khóa idempotency. Lần gửi đầu tiên đặt future của mình vào,
+ * các lần gửi trùng nhận lại đúng future đó: đang chạy thì cùng chờ, đã xong thì có kết quả ngay.
+ * Kết quả được giữ ttlMillis kể từ lúc hoàn thành; future lỗi bị xóa ngay để có thể gửi lại.
+ */
+public class IdempotencyStore<V> {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future;
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(CompletableFuture<V> future) {
+            this.future = future;
+        }
+    }
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final AtomicInteger operations = new AtomicInteger();
+
+    public IdempotencyStore(long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis);
+    }
+
+    public IdempotencyStore(long ttlMillis, LongSupplier clock) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis phải lớn hơn 0");
+        }
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Đặt future cho khóa nếu chưa có (hoặc đã hết hạn)
+     * @return Future đang có cho khóa này, hoặc null nếu future truyền vào được đặt
+     */
+    public CompletableFuture<V> putIfAbsent(String key, CompletableFuture<V> future) {
+        if ((operations.incrementAndGet() & (SWEEP_INTERVAL - 1)) == 0) {
+            evictExpired();
+        }
+
+        Entry<V> created = new Entry<>(future);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                future.whenComplete((value, error) -> {
+                    if (error != null) {
+                        entries.remove(key, created);
+                    } else {
+                        created.expiresAt = clock.getAsLong() + ttlMillis;
+                    }
+                });
+                return null;
+            }
+            if (existing.expiresAt > clock.getAsLong()) {
+                return existing.future;
+            }
+            entries.remove(key, existing);
+        }
+    }
+
+    /**
+     * @return Future còn hiệu lực cho khóa, hoặc null
+     */
+    public CompletableFuture<V> get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.expiresAt <= clock.getAsLong()) {
+            return null;
+        }
+        return entry.future;
+    }
+
+    /**
+     * Xóa khóa nếu nó vẫn trỏ tới future này
+     */
+    public boolean remove(String key, CompletableFuture<V> future) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.future == future && entries.remove(key, entry);
+    }
+
+    /**
+     * Xóa các kết quả đã hết hạn
+     * @return Số khóa bị xóa
+     */
+    public int evictExpired() {
+        long now = clock.getAsLong();
+        int evicted = 0;
+        for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext(); ) {
+            if (it.next().expiresAt <= now) {
+                it.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,18 @@
+package payment;
+
+import model.Payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cổng thanh toán bên ngoài
+ */
+public interface PaymentGateway {
+
+    /**
+     * Trừ tiền cho một thanh toán, không chặn luồng gọi.
+     * Bị từ chối (thẻ không đủ tiền...) là kết quả FAILED; lỗi kết nối/timeout là future lỗi
+     * với PaymentGatewayException.
+     */
+    CompletableFuture<PaymentResult> charge(Payment payment);
+}
@@ -0,0 +1,47 @@
+package payment;
+
+/**
+ * Không nhận được kết quả từ cổng thanh toán (lỗi kết nối, timeout, quá tải...)
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        /** Cổng thanh toán lỗi hoặc không phản hồi */
+        UNAVAILABLE,
+        /** Quá thời gian chờ */
+        TIMEOUT,
+        /** Bulkhead của phương thức thanh toán đã đầy */
+        BULKHEAD_FULL,
+        /** Circuit breaker đang mở, không gọi tới cổng thanh toán */
+        CIRCUIT_OPEN
+    }
+
+    private final Reason reason;
+
+    public PaymentGatewayException(String message) {
+        this(Reason.UNAVAILABLE, message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+        this.reason = Reason.UNAVAILABLE;
+    }
+
+    public PaymentGatewayException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return true nếu yêu cầu bị từ chối tại chỗ, chưa tới cổng thanh toán
+     */
+    public boolean isRejected() {
+        return reason == Reason.BULKHEAD_FULL || reason == Reason.CIRCUIT_OPEN;
+    }
+}
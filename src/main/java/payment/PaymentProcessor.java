@@ -0,0 +1,218 @@
+package payment;
+
+import dao.PaymentDao;
+import model.Payment;
+import model.PaymentStatus;
+import util.VirtualThreads;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Xử lý thanh toán idempotent theo transactionId.
+ * <ul>
+ *     <li>Trong bộ nhớ: IdempotencyStore gom mọi lần gửi trùng vào cùng một future.</li>
+ *     <li>Trong database: thanh toán được ghi PENDING trước khi gọi cổng thanh toán; nếu transactionId
+ *     đã tồn tại (tiến trình khác, hoặc sau khi khởi động lại) thì trả lại kết quả đã lưu.</li>
+ * </ul>
+ * Cổng thanh toán chỉ được gọi một lần cho mỗi transactionId, trừ khi bản ghi PENDING đã quá thời hạn giữ chỗ
+ * (tiến trình giữ chỗ chết giữa chừng): khi đó giao dịch được nhận lại và gọi lại cổng thanh toán với cùng
+ * transactionId để đối soát; cổng dùng transactionId làm khóa idempotency nên không trừ tiền hai lần.
+ * Chỉ quyết định thật của nhà cung cấp (COMPLETED hoặc bị từ chối) được ghi xuống database và giữ trong bộ nhớ.
+ * Lỗi của cổng thanh toán hoàn thành future bằng lỗi:
+ * <ul>
+ *     <li>Bị chặn trước khi gọi (CIRCUIT_OPEN, BULKHEAD_FULL): trả lại giữ chỗ, gửi lại được ngay.</li>
+ *     <li>Chưa rõ kết quả (TIMEOUT, UNAVAILABLE...): bản ghi giữ nguyên PENDING cùng thời hạn giữ chỗ,
+ *     được đối soát qua takeOver sau khi hết hạn.</li>
+ * </ul>
+ */
+public class PaymentProcessor implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PaymentProcessor.class.getName());
+    private static final long DEFAULT_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long DEFAULT_CLAIM_LEASE_MILLIS = 5 * 60 * 1000L;
+
+    private final PaymentDao paymentDao;
+    private final PaymentGateway gateway;
+    private final IdempotencyStore<PaymentResult> store;
+    private final ExecutorService executor;
+    private final long claimLeaseMillis;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder takeovers = new LongAdder();
+
+    public PaymentProcessor(PaymentDao paymentDao, PaymentGateway gateway) {
+        this(paymentDao, gateway, new IdempotencyStore<>(DEFAULT_TTL_MILLIS));
+    }
+
+    public PaymentProcessor(PaymentDao paymentDao, PaymentGateway gateway, IdempotencyStore<PaymentResult> store) {
+        this(paymentDao, gateway, store, DEFAULT_CLAIM_LEASE_MILLIS);
+    }
+
+    /**
+     * @param claimLeaseMillis Thời hạn giữ chỗ của bản ghi PENDING; phải dài hơn thời gian tối đa
+     *                         của một lần gọi cổng thanh toán (kể cả gọi lại)
+     */
+    public PaymentProcessor(PaymentDao paymentDao, PaymentGateway gateway, IdempotencyStore<PaymentResult> store,
+                            long claimLeaseMillis) {
+        if (claimLeaseMillis <= 0) {
+            throw new IllegalArgumentException("Thời hạn giữ chỗ phải lớn hơn 0: " + claimLeaseMillis);
+        }
+        this.paymentDao = paymentDao;
+        this.gateway = gateway;
+        this.store = store;
+        this.claimLeaseMillis = claimLeaseMillis;
+        this.executor = VirtualThreads.newPerTaskExecutor("payment-processor");
+    }
+
+    /**
+     * Xử lý thanh toán; gửi lại cùng transactionId nhận lại đúng kết quả lần đầu.
+     * Future lỗi (không ghi được database, giao dịch đang được xử lý ở tiến trình khác, cổng thanh toán
+     * không trả về quyết định) có thể gửi lại.
+     * Khi hoàn thành, trạng thái và mã thanh toán được ghi lên đối tượng payment.
+     */
+    public CompletableFuture<PaymentResult> process(Payment payment) {
+        String transactionId = payment.getTransactionId();
+        if (transactionId == null || transactionId.isEmpty()) {
+            throw new IllegalArgumentException("Thanh toán thiếu transactionId");
+        }
+
+        CompletableFuture<PaymentResult> future = new CompletableFuture<>();
+        CompletableFuture<PaymentResult> existing = store.putIfAbsent(transactionId, future);
+        if (existing != null) {
+            duplicates.increment();
+            return existing.thenApply(result -> {
+                result.applyTo(payment);
+                return result;
+            });
+        }
+
+        executor.execute(() -> start(payment, future));
+        return future.thenApply(result -> {
+            result.applyTo(payment);
+            return result;
+        });
+    }
+
+    /**
+     * @return Số thanh toán đã gọi tới cổng thanh toán
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * @return Số lần gửi trùng được trả kết quả từ bộ nhớ
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * @return Số giao dịch PENDING quá hạn giữ chỗ đã được nhận lại để đối soát
+     */
+    public long getTakeoverCount() {
+        return takeovers.sum();
+    }
+
+    private void start(Payment payment, CompletableFuture<PaymentResult> future) {
+        try {
+            if (!acquire(payment, future)) {
+                return;
+            }
+        } catch (SQLException | RuntimeException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+
+        processed.increment();
+        CompletableFuture<PaymentResult> charge;
+        try {
+            charge = gateway.charge(payment);
+        } catch (RuntimeException e) {
+            charge = CompletableFuture.failedFuture(e);
+        }
+        charge.whenCompleteAsync((result, error) -> {
+            if (error == null) {
+                record(payment, result, future);
+            } else {
+                abandon(payment, error, future);
+            }
+        }, executor);
+    }
+
+    /**
+     * Giữ chỗ transactionId trong database, hoặc nhận lại bản ghi PENDING đã quá hạn giữ chỗ
+     * @return true nếu được gọi cổng thanh toán; false nếu future đã được hoàn thành bằng kết quả đã lưu
+     *         hoặc bằng lỗi "đang được xử lý"
+     */
+    private boolean acquire(Payment payment, CompletableFuture<PaymentResult> future) throws SQLException {
+        if (paymentDao.claim(payment)) {
+            return true;
+        }
+        String transactionId = payment.getTransactionId();
+        Payment stored = paymentDao.findByTransactionId(transactionId);
+        if (stored != null && stored.getPaymentStatus() != PaymentStatus.PENDING) {
+            future.complete(PaymentResult.of(stored));
+            return false;
+        }
+        if (stored != null && paymentDao.takeOver(payment, claimLeaseMillis)) {
+            takeovers.increment();
+            LOGGER.warning("Nhận lại giao dịch " + transactionId + " quá hạn giữ chỗ, đối soát với cổng thanh toán");
+            return true;
+        }
+        future.completeExceptionally(new IllegalStateException("Giao dịch " + transactionId + " đang được xử lý"));
+        return false;
+    }
+
+    private void record(Payment payment, PaymentResult result, CompletableFuture<PaymentResult> future) {
+        Payment stored = new Payment(payment.getPaymentId(), payment.getBookingId(), payment.getAmount(),
+                payment.getPaymentMethod(), payment.getTransactionId(), result.getStatus());
+        stored.setPaymentTime(result.getProcessedAt());
+        try {
+            paymentDao.updateStatus(stored);
+        } catch (SQLException e) {
+            // Kết quả vẫn được giữ trong bộ nhớ để lần gửi lại không trừ tiền lần nữa
+            LOGGER.log(Level.SEVERE, "Không ghi được kết quả thanh toán " + payment.getTransactionId(), e);
+        }
+        future.complete(result);
+    }
+
+    /**
+     * Cổng thanh toán không trả về quyết định: không ghi FAILED, không giữ kết quả trong bộ nhớ
+     */
+    private void abandon(Payment payment, Throwable error, CompletableFuture<PaymentResult> future) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String transactionId = payment.getTransactionId();
+        if (cause instanceof PaymentGatewayException && ((PaymentGatewayException) cause).isRejected()) {
+            try {
+                paymentDao.release(payment);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Không trả lại được giữ chỗ của giao dịch " + transactionId
+                        + ", gửi lại được sau khi hết hạn giữ chỗ", e);
+            }
+        } else {
+            LOGGER.warning("Chưa rõ kết quả giao dịch " + transactionId + ", giữ PENDING để đối soát: "
+                    + rootMessage(cause));
+        }
+        future.completeExceptionally(cause);
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,59 @@
+package payment;
+
+import model.Payment;
+import model.PaymentMethod;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Giả lập các nhà cung cấp thanh toán, mỗi PaymentMethod một StubPaymentGateway với độ trễ riêng
+ */
+public class PaymentProviderSimulator implements PaymentGateway, AutoCloseable {
+
+    private final Map<PaymentMethod, StubPaymentGateway> providers = new EnumMap<>(PaymentMethod.class);
+
+    /**
+     * Độ trễ mặc định gần với thực tế: tiền mặt tức thì, thẻ nhanh, ví điện tử và chuyển khoản chậm hơn
+     */
+    public PaymentProviderSimulator() {
+        providers.put(PaymentMethod.CASH, new StubPaymentGateway(0, 2, 0, 0));
+        providers.put(PaymentMethod.CREDIT_CARD, new StubPaymentGateway(40, 120, 0.02, 0.01));
+        providers.put(PaymentMethod.DEBIT_CARD, new StubPaymentGateway(40, 120, 0.03, 0.01));
+        providers.put(PaymentMethod.E_WALLET, new StubPaymentGateway(80, 300, 0.02, 0.02));
+        providers.put(PaymentMethod.BANK_TRANSFER, new StubPaymentGateway(150, 500, 0.01, 0.02));
+    }
+
+    public PaymentProviderSimulator(Map<PaymentMethod, StubPaymentGateway> providers) {
+        this.providers.putAll(providers);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(Payment payment) {
+        return provider(payment.getPaymentMethod()).charge(payment);
+    }
+
+    public StubPaymentGateway provider(PaymentMethod method) {
+        StubPaymentGateway provider = providers.get(method);
+        if (provider == null) {
+            throw new IllegalArgumentException("Không có nhà cung cấp cho " + method);
+        }
+        return provider;
+    }
+
+    /**
+     * @return Nhà cung cấp theo phương thức, dùng để dựng ResilientPaymentGateway
+     */
+    public Map<PaymentMethod, StubPaymentGateway> getProviders() {
+        return Collections.unmodifiableMap(providers);
+    }
+
+    @Override
+    public void close() {
+        for (StubPaymentGateway provider : providers.values()) {
+            provider.close();
+        }
+    }
+}
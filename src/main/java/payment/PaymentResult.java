@@ -0,0 +1,88 @@
+package payment;
+
+import model.Payment;
+import model.PaymentStatus;
+
+import java.sql.Timestamp;
+
+/**
+ * Kết quả xử lý một thanh toán: COMPLETED hoặc FAILED, kèm lý do nếu thất bại
+ */
+public final class PaymentResult {
+
+    private final String transactionId;
+    private final int paymentId;
+    private final PaymentStatus status;
+    private final String message;
+    private final Timestamp processedAt;
+
+    public PaymentResult(String transactionId, int paymentId, PaymentStatus status,
+                         String message, Timestamp processedAt) {
+        this.transactionId = transactionId;
+        this.paymentId = paymentId;
+        this.status = status;
+        this.message = message;
+        this.processedAt = processedAt;
+    }
+
+    public static PaymentResult completed(Payment payment) {
+        return new PaymentResult(payment.getTransactionId(), payment.getPaymentId(), PaymentStatus.COMPLETED,
+                null, new Timestamp(System.currentTimeMillis()));
+    }
+
+    public static PaymentResult failed(Payment payment, String message) {
+        return new PaymentResult(payment.getTransactionId(), payment.getPaymentId(), PaymentStatus.FAILED,
+                message, new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Dựng lại kết quả từ thanh toán đã lưu
+     */
+    public static PaymentResult of(Payment payment) {
+        return new PaymentResult(payment.getTransactionId(), payment.getPaymentId(), payment.getPaymentStatus(),
+                null, payment.getPaymentTime());
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public int getPaymentId() {
+        return paymentId;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public boolean isSuccessful() {
+        return status == PaymentStatus.COMPLETED;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Timestamp getProcessedAt() {
+        return processedAt;
+    }
+
+    /**
+     * Ghi kết quả lên đối tượng Payment
+     */
+    public void applyTo(Payment payment) {
+        payment.setPaymentId(paymentId);
+        payment.setPaymentStatus(status);
+        payment.setPaymentTime(processedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentResult{" +
+                "transactionId='" + transactionId + '\'' +
+                ", paymentId=" + paymentId +
+                ", status=" + status +
+                (message != null ? ", message='" + message + '\'' : "") +
+                '}';
+    }
+}
@@ -0,0 +1,213 @@
+package payment;
+
+import model.Payment;
+import model.PaymentMethod;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bọc cổng thanh toán của từng PaymentMethod bằng bulkhead, timeout, gọi song song (hedge),
+ * gọi lại khi lỗi và circuit breaker riêng. Một nhà cung cấp chậm chỉ làm đầy bulkhead của chính nó;
+ * các phương thức khác và luồng đặt vé không bị ảnh hưởng vì không có lời gọi nào chặn luồng.
+ * Giao dịch bị từ chối (FAILED) là kết quả cuối cùng, không gọi lại.
+ * Gọi song song và gọi lại gửi cùng transactionId, nên nhà cung cấp phải dùng nó làm khóa idempotency.
+ */
+public class ResilientPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    private static final long RETRY_BACKOFF_MILLIS = 50;
+
+    private final Map<PaymentMethod, Lane> lanes = new EnumMap<>(PaymentMethod.class);
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Một cổng thanh toán và giới hạn riêng cho một phương thức thanh toán
+     */
+    private static final class Lane {
+        final PaymentGateway provider;
+        final GatewayPolicy policy;
+        final Bulkhead bulkhead;
+        final CircuitBreaker breaker;
+
+        Lane(PaymentMethod method, PaymentGateway provider, GatewayPolicy policy) {
+            this.provider = provider;
+            this.policy = policy;
+            this.bulkhead = new Bulkhead(method.name(), policy.getMaxConcurrent(), policy.getMaxQueued());
+            this.breaker = new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenMillis(),
+                    System::currentTimeMillis);
+        }
+    }
+
+    /**
+     * Dùng chung một cổng thanh toán và cấu hình mặc định cho mọi phương thức
+     */
+    public ResilientPaymentGateway(PaymentGateway provider) {
+        this(allMethods(provider), new EnumMap<>(PaymentMethod.class));
+    }
+
+    /**
+     * @param providers Cổng thanh toán theo phương thức
+     * @param policies Cấu hình theo phương thức; phương thức không có dùng GatewayPolicy.defaults()
+     */
+    public ResilientPaymentGateway(Map<PaymentMethod, ? extends PaymentGateway> providers,
+                                   Map<PaymentMethod, GatewayPolicy> policies) {
+        for (Map.Entry<PaymentMethod, ? extends PaymentGateway> entry : providers.entrySet()) {
+            GatewayPolicy policy = policies.getOrDefault(entry.getKey(), GatewayPolicy.defaults());
+            lanes.put(entry.getKey(), new Lane(entry.getKey(), entry.getValue(), policy));
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "payment-gateway-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(Payment payment) {
+        Lane lane = lanes.get(payment.getPaymentMethod());
+        if (lane == null) {
+            return CompletableFuture.failedFuture(new PaymentGatewayException(
+                    "Không có cổng thanh toán cho " + payment.getPaymentMethod()));
+        }
+        Call call = new Call(payment, lane);
+        call.launch();
+        return call.result;
+    }
+
+    /**
+     * @return Trạng thái circuit breaker của phương thức (CLOSED, OPEN, HALF_OPEN)
+     */
+    public String getCircuitState(PaymentMethod method) {
+        return lane(method).breaker.getState().name();
+    }
+
+    public int getActiveCount(PaymentMethod method) {
+        return lane(method).bulkhead.getActiveCount();
+    }
+
+    public int getQueuedCount(PaymentMethod method) {
+        return lane(method).bulkhead.getQueuedCount();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private Lane lane(PaymentMethod method) {
+        Lane lane = lanes.get(method);
+        if (lane == null) {
+            throw new IllegalArgumentException("Không có cổng thanh toán cho " + method);
+        }
+        return lane;
+    }
+
+    private static Map<PaymentMethod, PaymentGateway> allMethods(PaymentGateway provider) {
+        Map<PaymentMethod, PaymentGateway> providers = new EnumMap<>(PaymentMethod.class);
+        for (PaymentMethod method : PaymentMethod.values()) {
+            providers.put(method, provider);
+        }
+        return providers;
+    }
+
+    /**
+     * Một yêu cầu thanh toán cùng các lần gọi của nó; kết quả là lần gọi đầu tiên có kết quả
+     */
+    private final class Call {
+        final Payment payment;
+        final Lane lane;
+        final CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        int launched;
+        int failed;
+        ScheduledFuture<?> timer;
+
+        Call(Payment payment, Lane lane) {
+            this.payment = payment;
+            this.lane = lane;
+        }
+
+        synchronized void launch() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!lane.breaker.tryAcquire()) {
+                finish(new PaymentGatewayException(PaymentGatewayException.Reason.CIRCUIT_OPEN,
+                        "Cổng thanh toán " + lane.bulkhead.getName() + " đang tạm ngắt"));
+                return;
+            }
+
+            CompletableFuture<PaymentResult> attempt = new CompletableFuture<>();
+            if (!lane.bulkhead.submit(() -> lane.provider.charge(payment), attempt)) {
+                // Trả lại lượt thử của breaker: yêu cầu chưa tới cổng thanh toán
+                lane.breaker.releaseProbe();
+                finish(new PaymentGatewayException(PaymentGatewayException.Reason.BULKHEAD_FULL,
+                        "Cổng thanh toán " + lane.bulkhead.getName() + " đang quá tải"));
+                return;
+            }
+            launched++;
+            ScheduledFuture<?> timeout = scheduler.schedule(() -> attempt.completeExceptionally(
+                            new PaymentGatewayException(PaymentGatewayException.Reason.TIMEOUT,
+                                    "Cổng thanh toán " + lane.bulkhead.getName() + " không phản hồi sau "
+                                            + lane.policy.getTimeoutMillis() + " ms")),
+                    lane.policy.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            // Xử lý kết quả trên luồng timer để không lồng vào luồng đang giữ khóa của Call khác
+            attempt.whenCompleteAsync((value, error) -> {
+                timeout.cancel(false);
+                onAttempt(value, error);
+            }, scheduler);
+
+            if (launched < lane.policy.getMaxAttempts()) {
+                schedule(lane.policy.getHedgeDelayMillis());
+            }
+        }
+
+        synchronized void onAttempt(PaymentResult value, Throwable error) {
+            if (error == null) {
+                lane.breaker.onSuccess();
+                cancelTimer();
+                result.complete(value);
+                return;
+            }
+            failed++;
+            if (result.isDone()) {
+                // Lần gọi song song thua cuộc lỗi sau khi đã có kết quả: không tính vào breaker
+                return;
+            }
+            lane.breaker.onFailure();
+            if (failed < launched) {
+                return;
+            }
+            cancelTimer();
+            if (launched < lane.policy.getMaxAttempts()) {
+                schedule(RETRY_BACKOFF_MILLIS);
+            } else {
+                finish(error);
+            }
+        }
+
+        private void schedule(long delayMillis) {
+            cancelTimer();
+            timer = scheduler.schedule(this::launch, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+
+        private void finish(Throwable error) {
+            cancelTimer();
+            // Lần gọi song song còn đang chạy sẽ tự hoàn thành và bị bỏ qua
+            if (failed == launched) {
+                result.completeExceptionally(error);
+            }
+        }
+    }
+}
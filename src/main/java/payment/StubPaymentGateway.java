@@ -0,0 +1,118 @@
+package payment;
+
+import model.Payment;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cổng thanh toán giả lập để chạy thử và kiểm thử: trả kết quả sau một độ trễ ngẫu nhiên,
+ * từ chối hoặc lỗi theo tỉ lệ cấu hình. Không chặn luồng gọi.
+ * Giống nhà cung cấp thật, transactionId là khóa idempotency: gọi lại khi giao dịch đang chạy
+ * hoặc đã có kết quả thì nhận lại kết quả đó và không bị tính thêm một lần trừ tiền.
+ */
+public class StubPaymentGateway implements PaymentGateway, AutoCloseable {
+
+    private final long minLatencyMillis;
+    private final long maxLatencyMillis;
+    private final double declineRate;
+    private final double errorRate;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder charges = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final Map<String, CompletableFuture<PaymentResult>> transactions = new ConcurrentHashMap<>();
+    private volatile long extraLatencyMillis;
+
+    public StubPaymentGateway() {
+        this(20, 80, 0, 0);
+    }
+
+    /**
+     * @param minLatencyMillis Độ trễ nhỏ nhất
+     * @param maxLatencyMillis Độ trễ lớn nhất
+     * @param declineRate Tỉ lệ giao dịch bị từ chối (FAILED)
+     * @param errorRate Tỉ lệ giao dịch lỗi (PaymentGatewayException)
+     */
+    public StubPaymentGateway(long minLatencyMillis, long maxLatencyMillis, double declineRate, double errorRate) {
+        if (minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+            throw new IllegalArgumentException("Độ trễ không hợp lệ: " + minLatencyMillis + ".." + maxLatencyMillis);
+        }
+        if (declineRate < 0 || errorRate < 0 || declineRate + errorRate > 1) {
+            throw new IllegalArgumentException("Tỉ lệ lỗi không hợp lệ");
+        }
+        this.minLatencyMillis = minLatencyMillis;
+        this.maxLatencyMillis = maxLatencyMillis;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stub-payment-gateway");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(Payment payment) {
+        calls.increment();
+        CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        CompletableFuture<PaymentResult> existing = transactions.putIfAbsent(payment.getTransactionId(), result);
+        if (existing != null) {
+            return existing;
+        }
+        charges.increment();
+        result.whenComplete((value, error) -> {
+            if (error != null) {
+                transactions.remove(payment.getTransactionId(), result);
+            }
+        });
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = extraLatencyMillis + minLatencyMillis + (maxLatencyMillis > minLatencyMillis
+                ? random.nextLong(maxLatencyMillis - minLatencyMillis + 1) : 0);
+        double roll = random.nextDouble();
+
+        scheduler.schedule(() -> {
+            if (roll < errorRate) {
+                result.completeExceptionally(new PaymentGatewayException(
+                        "Cổng thanh toán không phản hồi: " + payment.getTransactionId()));
+            } else if (roll < errorRate + declineRate) {
+                result.complete(PaymentResult.failed(payment, "Giao dịch bị từ chối"));
+            } else {
+                result.complete(PaymentResult.completed(payment));
+            }
+        }, latency, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    /**
+     * Thêm độ trễ cho mọi giao dịch sau này, để giả lập nhà cung cấp đang chậm
+     */
+    public void setExtraLatencyMillis(long extraLatencyMillis) {
+        this.extraLatencyMillis = extraLatencyMillis;
+    }
+
+    /**
+     * @return Số giao dịch thực sự được xử lý (không tính lần gọi trùng transactionId)
+     */
+    public long getChargeCount() {
+        return charges.sum();
+    }
+
+    /**
+     * @return Tổng số lần cổng thanh toán bị gọi
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
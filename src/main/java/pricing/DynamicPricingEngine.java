@@ -0,0 +1,76 @@
+package pricing;
+
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import model.Showtime;
+import service.ShowtimeSeatMap;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Định giá vé theo luật. Luật được biên dịch thành PriceTable bất biến và công bố bằng
+ * một lần ghi volatile, nên việc báo giá không bao giờ chờ việc cập nhật luật và luôn thấy
+ * trọn vẹn một phiên bản bảng giá.
+ */
+public class DynamicPricingEngine {
+
+    private volatile PriceTable table = PriceTable.compile(Collections.emptyList(), 0);
+
+    /**
+     * Biên dịch và công bố bộ luật mới
+     * @return Phiên bản bảng giá mới
+     */
+    public synchronized long publish(List<PricingRule> rules) {
+        PriceTable compiled = PriceTable.compile(rules, table.getVersion() + 1);
+        table = compiled;
+        return compiled.getVersion();
+    }
+
+    public PriceTable getPriceTable() {
+        return table;
+    }
+
+    /**
+     * Báo giá toàn bộ sơ đồ ghế theo tỉ lệ lấp đầy hiện tại
+     * @return Giá theo vị trí ghế trong sơ đồ
+     */
+    public long[] quote(Showtime showtime, ShowtimeSeatMap seatMap) {
+        int size = seatMap.size();
+        int occupied = size - seatMap.count(SeatStatus.AVAILABLE);
+        int occupancyBps = size == 0 ? 0 : (int) ((long) occupied * 10_000 / size);
+
+        long[] row = new long[SeatType.values().length];
+        table.fillRow(showtime.getShowtimeId(), dayOf(showtime), minuteOf(showtime), occupancyBps, row);
+
+        long[] prices = new long[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = row[seatMap.getSeatType(i).ordinal()];
+        }
+        return prices;
+    }
+
+    /**
+     * Gán lại Seat.price cho danh sách ghế theo bảng giá hiện tại
+     */
+    public void reprice(Showtime showtime, List<Seat> seats, int occupancyBps) {
+        long[] row = new long[SeatType.values().length];
+        table.fillRow(showtime.getShowtimeId(), dayOf(showtime), minuteOf(showtime), occupancyBps, row);
+        for (Seat seat : seats) {
+            seat.setPrice(row[seat.getSeatType().ordinal()]);
+        }
+    }
+
+    static DayOfWeek dayOf(Showtime showtime) {
+        return LocalDate.parse(showtime.getShowDate()).getDayOfWeek();
+    }
+
+    static int minuteOf(Showtime showtime) {
+        LocalTime time = LocalTime.parse(showtime.getShowTime());
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
@@ -0,0 +1,84 @@
+package pricing;
+
+import model.Seat;
+import util.Money;
+
+import java.util.List;
+
+/**
+ * Tính tiền vé trên số nguyên long (đồng): tổng theo ghế, giảm giá và phụ thu theo basis point,
+ * và tổng hàng loạt cho nhiều đơn trên mảng nguyên thủy.
+ */
+public final class PriceCalculator {
+
+    private PriceCalculator() {
+    }
+
+    /**
+     * Tổng giá các ghế
+     */
+    public static long seatTotal(List<Seat> seats) {
+        long total = 0;
+        for (int i = 0; i < seats.size(); i++) {
+            total = Money.add(total, seats.get(i).getPrice());
+        }
+        return total;
+    }
+
+    /**
+     * Giảm giá theo phần trăm
+     * @param basisPoints Mức giảm, ví dụ 1000 = 10%
+     */
+    public static long applyDiscount(long amount, int basisPoints) {
+        checkBasisPoints(basisPoints);
+        return Money.subtract(amount, Money.percentOf(amount, basisPoints));
+    }
+
+    /**
+     * Phụ thu theo phần trăm
+     * @param basisPoints Mức phụ thu, ví dụ 2000 = 20%
+     */
+    public static long applySurcharge(long amount, int basisPoints) {
+        checkBasisPoints(basisPoints);
+        return Money.add(amount, Money.percentOf(amount, basisPoints));
+    }
+
+    /**
+     * Báo giá một đơn: tổng giá ghế, trừ giảm giá, cộng phụ thu cố định mỗi ghế
+     * @param seatPrices Giá từng ghế
+     * @param discountBasisPoints Mức giảm trên tổng
+     * @param surchargePerSeat Phụ thu cố định mỗi ghế (ví dụ phí dịch vụ)
+     */
+    public static long quote(long[] seatPrices, int discountBasisPoints, long surchargePerSeat) {
+        long subtotal = Money.sum(seatPrices);
+        long discounted = applyDiscount(subtotal, discountBasisPoints);
+        return Money.add(discounted, Money.multiply(surchargePerSeat, seatPrices.length));
+    }
+
+    /**
+     * Tính tổng tiền của nhiều đơn cùng lúc. Giá ghế của tất cả đơn nằm liền nhau trong seatPrices,
+     * đơn thứ i chiếm đoạn [offsets[i], offsets[i + 1]). Mỗi đoạn là một vòng cộng long[] mà JIT vector hóa được.
+     * @param seatPrices Giá ghế của mọi đơn, nối tiếp nhau
+     * @param offsets Vị trí bắt đầu của từng đơn, dài hơn số đơn 1 phần tử
+     * @param totals Mảng kết quả, dài bằng số đơn
+     * @return Tổng của tất cả đơn
+     */
+    public static long bookingTotals(long[] seatPrices, int[] offsets, long[] totals) {
+        if (offsets.length != totals.length + 1) {
+            throw new IllegalArgumentException("offsets phải dài hơn totals 1 phần tử");
+        }
+        long grandTotal = 0;
+        for (int i = 0; i < totals.length; i++) {
+            long total = Money.sum(seatPrices, offsets[i], offsets[i + 1]);
+            totals[i] = total;
+            grandTotal += total;
+        }
+        return grandTotal;
+    }
+
+    private static void checkBasisPoints(int basisPoints) {
+        if (basisPoints < 0 || basisPoints > Money.BPS_SCALE) {
+            throw new IllegalArgumentException("Tỉ lệ không hợp lệ: " + basisPoints);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package pricing;
+
+import model.SeatType;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bảng giá bất biến biên dịch từ các luật giá.
+ * Giá chung được tính sẵn cho mọi tổ hợp (ngày trong tuần, ô 30 phút, mức lấp đầy 5%, loại ghế)
+ * trong một mảng long phẳng; tra giá chỉ là một phép tính chỉ số.
+ * Suất chiếu có luật riêng được tính một lần khi tra lần đầu và ghi nhớ trong bảng.
+ */
+public final class PriceTable {
+
+    static final int TIME_BUCKET_MINUTES = 30;
+    static final int TIME_BUCKETS = 24 * 60 / TIME_BUCKET_MINUTES;
+    static final int OCCUPANCY_BUCKET_BPS = 500;
+    static final int OCCUPANCY_BUCKETS = 10_000 / OCCUPANCY_BUCKET_BPS + 1;
+
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+    private static final DayOfWeek[] DAYS = DayOfWeek.values();
+    private static final int ROW = SEAT_TYPES.length;
+
+    private final long version;
+    private final Map<Integer, List<PricingRule>> showtimeRules;
+    private final long[] prices;
+    private final ConcurrentMap<Long, long[]> showtimeBlocks = new ConcurrentHashMap<>();
+
+    private PriceTable(long version, List<PricingRule> generalRules, Map<Integer, List<PricingRule>> showtimeRules) {
+        this.version = version;
+        this.showtimeRules = showtimeRules;
+        this.prices = new long[DAYS.length * TIME_BUCKETS * OCCUPANCY_BUCKETS * ROW];
+
+        int index = 0;
+        for (DayOfWeek day : DAYS) {
+            for (int time = 0; time < TIME_BUCKETS; time++) {
+                for (int occupancy = 0; occupancy < OCCUPANCY_BUCKETS; occupancy++) {
+                    for (SeatType type : SEAT_TYPES) {
+                        prices[index++] = evaluate(generalRules, null, day, time * TIME_BUCKET_MINUTES,
+                                type, occupancy * OCCUPANCY_BUCKET_BPS);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Biên dịch danh sách luật thành bảng giá. Bảng giữ bản sao của các luật,
+     * nên sửa luật sau khi biên dịch không ảnh hưởng tới bảng.
+     */
+    public static PriceTable compile(List<PricingRule> rules, long version) {
+        List<PricingRule> sorted = new ArrayList<>(rules.size());
+        for (PricingRule rule : rules) {
+            sorted.add(rule.copy());
+        }
+        sorted.sort(Comparator.comparingInt(PricingRule::getPriority));
+
+        List<PricingRule> general = new ArrayList<>();
+        Map<Integer, List<PricingRule>> byShowtime = new HashMap<>();
+        for (PricingRule rule : sorted) {
+            if (rule.getShowtimeId() == null) {
+                general.add(rule);
+            }
+        }
+        for (PricingRule rule : sorted) {
+            if (rule.getShowtimeId() != null && !byShowtime.containsKey(rule.getShowtimeId())) {
+                // Luật chung và luật riêng của suất chiếu, giữ nguyên thứ tự priority
+                List<PricingRule> merged = new ArrayList<>();
+                for (PricingRule candidate : sorted) {
+                    if (candidate.getShowtimeId() == null || candidate.getShowtimeId().equals(rule.getShowtimeId())) {
+                        merged.add(candidate);
+                    }
+                }
+                byShowtime.put(rule.getShowtimeId(), Collections.unmodifiableList(merged));
+            }
+        }
+        return new PriceTable(version, Collections.unmodifiableList(general), byShowtime);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Giá của từng loại ghế (theo ordinal của SeatType) cho một suất chiếu ở mức lấp đầy cho trước
+     * @param showtimeId Mã suất chiếu
+     * @param day Ngày chiếu trong tuần
+     * @param minuteOfDay Giờ chiếu tính bằng phút từ 0h
+     * @param occupancyBps Tỉ lệ lấp đầy hiện tại (basis point)
+     * @param row Mảng kết quả, dài ít nhất SeatType.values().length
+     */
+    public void fillRow(int showtimeId, DayOfWeek day, int minuteOfDay, int occupancyBps, long[] row) {
+        int occupancy = occupancyBucket(occupancyBps);
+        int time = minuteOfDay / TIME_BUCKET_MINUTES;
+        List<PricingRule> specific = showtimeRules.get(showtimeId);
+        if (specific == null) {
+            int offset = (((day.ordinal() * TIME_BUCKETS) + time) * OCCUPANCY_BUCKETS + occupancy) * ROW;
+            System.arraycopy(prices, offset, row, 0, ROW);
+            return;
+        }
+
+        long key = ((long) showtimeId << 32) | ((long) day.ordinal() << 16) | time;
+        long[] block = showtimeBlocks.computeIfAbsent(key, k -> {
+            long[] computed = new long[OCCUPANCY_BUCKETS * ROW];
+            for (int occ = 0; occ < OCCUPANCY_BUCKETS; occ++) {
+                for (SeatType type : SEAT_TYPES) {
+                    computed[occ * ROW + type.ordinal()] = evaluate(specific, showtimeId, day,
+                            time * TIME_BUCKET_MINUTES, type, occ * OCCUPANCY_BUCKET_BPS);
+                }
+            }
+            return computed;
+        });
+        System.arraycopy(block, occupancy * ROW, row, 0, ROW);
+    }
+
+    /**
+     * Giá một ghế
+     */
+    public long price(int showtimeId, DayOfWeek day, int minuteOfDay, SeatType type, int occupancyBps) {
+        long[] row = new long[ROW];
+        fillRow(showtimeId, day, minuteOfDay, occupancyBps, row);
+        return row[type.ordinal()];
+    }
+
+    private static int occupancyBucket(int occupancyBps) {
+        return Math.max(0, Math.min(OCCUPANCY_BUCKETS - 1, occupancyBps / OCCUPANCY_BUCKET_BPS));
+    }
+
+    private static long evaluate(List<PricingRule> rules, Integer showtimeId, DayOfWeek day, int minuteOfDay,
+                                 SeatType type, int occupancyBps) {
+        long price = type.getPrice();
+        for (PricingRule rule : rules) {
+            if (rule.matches(showtimeId, day, minuteOfDay, type, occupancyBps)) {
+                price = rule.apply(price);
+            }
+        }
+        return Math.max(0, price);
+    }
+}
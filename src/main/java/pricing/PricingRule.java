@@ -0,0 +1,202 @@
+package pricing;
+
+import model.SeatType;
+import util.Money;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Một luật giá: điều kiện (suất chiếu, ngày trong tuần, giờ chiếu, loại ghế, tỉ lệ lấp đầy)
+ * và cách điều chỉnh giá khi thỏa. Các luật được áp dụng theo priority tăng dần.
+ * Biên khung giờ và khoảng lấp đầy phải trùng với ô của PriceTable (30 phút, 500 basis point),
+ * vì bảng giá chỉ tính một giá cho mỗi ô.
+ */
+public class PricingRule {
+
+    public enum Adjustment {
+        /**
+         * Cộng thêm value basis point (âm là giảm giá), ví dụ 2000 = +20%
+         */
+        PERCENT,
+        /**
+         * Cộng thêm value đồng (âm là giảm)
+         */
+        FIXED,
+        /**
+         * Đặt giá bằng value đồng
+         */
+        OVERRIDE
+    }
+
+    private final String name;
+    private final Adjustment adjustment;
+    private final long value;
+    private int priority;
+    private Integer showtimeId;
+    private SeatType seatType;
+    private Set<DayOfWeek> days = EnumSet.allOf(DayOfWeek.class);
+    private int fromMinute = 0;
+    private int toMinute = 24 * 60;
+    private int minOccupancyBps = 0;
+    private int maxOccupancyBps = 10_000;
+
+    /**
+     * @throws IllegalArgumentException nếu luật PERCENT giảm quá 100% hoặc vượt phạm vi int basis point
+     */
+    public PricingRule(String name, Adjustment adjustment, long value) {
+        if (adjustment == Adjustment.PERCENT && (value < -Money.BPS_SCALE || value > Integer.MAX_VALUE)) {
+            throw new IllegalArgumentException("Phần trăm điều chỉnh không hợp lệ (basis point): " + value);
+        }
+        this.name = name;
+        this.adjustment = adjustment;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Adjustment getAdjustment() {
+        return adjustment;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return Suất chiếu áp dụng, null nếu áp dụng mọi suất
+     */
+    public Integer getShowtimeId() {
+        return showtimeId;
+    }
+
+    public void setShowtimeId(Integer showtimeId) {
+        this.showtimeId = showtimeId;
+    }
+
+    /**
+     * @return Loại ghế áp dụng, null nếu áp dụng mọi loại
+     */
+    public SeatType getSeatType() {
+        return seatType;
+    }
+
+    public void setSeatType(SeatType seatType) {
+        this.seatType = seatType;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return days;
+    }
+
+    public void setDays(Set<DayOfWeek> days) {
+        this.days = days.isEmpty() ? EnumSet.allOf(DayOfWeek.class) : EnumSet.copyOf(days);
+    }
+
+    public int getFromMinute() {
+        return fromMinute;
+    }
+
+    public int getToMinute() {
+        return toMinute;
+    }
+
+    /**
+     * Khung giờ chiếu áp dụng [fromMinute, toMinute) tính từ 0h, là bội của 30 phút
+     */
+    public void setTimeOfDay(int fromMinute, int toMinute) {
+        if (fromMinute < 0 || toMinute > 24 * 60 || fromMinute >= toMinute) {
+            throw new IllegalArgumentException("Khung giờ không hợp lệ: " + fromMinute + "-" + toMinute);
+        }
+        if (fromMinute % PriceTable.TIME_BUCKET_MINUTES != 0 || toMinute % PriceTable.TIME_BUCKET_MINUTES != 0) {
+            throw new IllegalArgumentException("Khung giờ phải là bội của " + PriceTable.TIME_BUCKET_MINUTES
+                    + " phút: " + fromMinute + "-" + toMinute);
+        }
+        this.fromMinute = fromMinute;
+        this.toMinute = toMinute;
+    }
+
+    public int getMinOccupancyBps() {
+        return minOccupancyBps;
+    }
+
+    public int getMaxOccupancyBps() {
+        return maxOccupancyBps;
+    }
+
+    /**
+     * Khoảng tỉ lệ lấp đầy áp dụng [min, max) theo basis point, là bội của 500;
+     * max = 10000 (kín chỗ) thì gồm cả lúc kín chỗ
+     */
+    public void setOccupancy(int minOccupancyBps, int maxOccupancyBps) {
+        if (minOccupancyBps < 0 || maxOccupancyBps > 10_000 || minOccupancyBps >= maxOccupancyBps) {
+            throw new IllegalArgumentException("Khoảng lấp đầy không hợp lệ: " + minOccupancyBps + "-" + maxOccupancyBps);
+        }
+        if (minOccupancyBps % PriceTable.OCCUPANCY_BUCKET_BPS != 0
+                || maxOccupancyBps % PriceTable.OCCUPANCY_BUCKET_BPS != 0) {
+            throw new IllegalArgumentException("Khoảng lấp đầy phải là bội của " + PriceTable.OCCUPANCY_BUCKET_BPS
+                    + " basis point: " + minOccupancyBps + "-" + maxOccupancyBps);
+        }
+        this.minOccupancyBps = minOccupancyBps;
+        this.maxOccupancyBps = maxOccupancyBps;
+    }
+
+    boolean matches(Integer showtime, DayOfWeek day, int minuteOfDay, SeatType type, int occupancyBps) {
+        return (showtimeId == null || showtimeId.equals(showtime))
+                && (seatType == null || seatType == type)
+                && days.contains(day)
+                && minuteOfDay >= fromMinute && minuteOfDay < toMinute
+                && occupancyBps >= minOccupancyBps
+                && (occupancyBps < maxOccupancyBps || maxOccupancyBps == 10_000);
+    }
+
+    /**
+     * Bản sao độc lập, để bảng giá đã biên dịch không bị đổi theo khi luật gốc được sửa
+     */
+    PricingRule copy() {
+        PricingRule copy = new PricingRule(name, adjustment, value);
+        copy.priority = priority;
+        copy.showtimeId = showtimeId;
+        copy.seatType = seatType;
+        copy.days = EnumSet.copyOf(days);
+        copy.fromMinute = fromMinute;
+        copy.toMinute = toMinute;
+        copy.minOccupancyBps = minOccupancyBps;
+        copy.maxOccupancyBps = maxOccupancyBps;
+        return copy;
+    }
+
+    long apply(long price) {
+        switch (adjustment) {
+            case PERCENT:
+                return price + Money.percentOf(price, Math.toIntExact(value));
+            case FIXED:
+                return price + value;
+            case OVERRIDE:
+                return value;
+            default:
+                return price;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PricingRule{" +
+                "name='" + name + '\'' +
+                ", adjustment=" + adjustment +
+                ", value=" + value +
+                ", priority=" + priority +
+                '}';
+    }
+}
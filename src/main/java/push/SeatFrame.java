@@ -0,0 +1,47 @@
+package push;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Một khung sơ đồ ghế đã mã hóa sẵn thành sự kiện SSE, dùng chung cho mọi người theo dõi cùng suất chiếu
+ */
+final class SeatFrame {
+
+    private static final int KIND_OFFSET = 1;
+    private static final int VERSION_OFFSET = 6;
+    private static final int BASE_VERSION_OFFSET = 14;
+    private static final byte FULL = 1;
+
+    final boolean full;
+    final long baseVersion;
+    final long version;
+    final byte[] event;
+
+    private SeatFrame(boolean full, long baseVersion, long version, byte[] event) {
+        this.full = full;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.event = event;
+    }
+
+    /**
+     * Đọc phần đầu khung của SeatMapCodec và dựng sự kiện "event: full|delta", dữ liệu base64
+     */
+    static SeatFrame of(ByteBuffer frame) {
+        boolean full = frame.get(frame.position() + KIND_OFFSET) == FULL;
+        long version = frame.getLong(frame.position() + VERSION_OFFSET);
+        long baseVersion = full ? 0 : frame.getLong(frame.position() + BASE_VERSION_OFFSET);
+
+        ByteBuffer data = Base64.getEncoder().encode(frame.duplicate());
+        byte[] head = ("event: " + (full ? "full" : "delta") + "\nid: " + version + "\ndata: ")
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] event = new byte[head.length + data.remaining() + 2];
+        System.arraycopy(head, 0, event, 0, head.length);
+        data.get(event, head.length, data.remaining());
+        event[event.length - 2] = '\n';
+        event[event.length - 1] = '\n';
+        return new SeatFrame(full, baseVersion, version, event);
+    }
+}
@@ -0,0 +1,172 @@
+package push;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import service.SeatMapCodec;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+import util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HTTP endpoint đẩy trạng thái ghế cho client, chạy trên HttpServer của JDK, mỗi kết nối một virtual thread.
+ * <ul>
+ *     <li>GET /showtimes/{id}/seats/stream?since=V - Server-Sent Events: sự kiện "full" hoặc "delta",
+ *     id là phiên bản, data là khung SeatMapCodec dạng base64</li>
+ *     <li>GET /showtimes/{id}/seats?since=V&amp;wait=ms - long-poll: chờ tối đa wait ms đến khi sơ đồ khác V,
+ *     trả khung SeatMapCodec nhị phân, phiên bản trong header X-Seat-Version</li>
+ * </ul>
+ */
+public class SeatPushServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatPushServer.class.getName());
+    private static final long HEARTBEAT_MILLIS = 15_000;
+    private static final long MAX_WAIT_MILLIS = 30_000;
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final SeatMapEngine engine;
+    private final SeatUpdateHub hub;
+    private final SeatMapCodec codec;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile boolean running;
+
+    public SeatPushServer(SeatMapEngine engine, SeatUpdateHub hub, InetSocketAddress address) throws IOException {
+        this.engine = engine;
+        this.hub = hub;
+        this.codec = new SeatMapCodec();
+        this.server = HttpServer.create(address, 4096);
+        this.executor = VirtualThreads.newPerTaskExecutor("seat-push-http");
+        server.setExecutor(executor);
+        server.createContext("/showtimes/", this::handle);
+    }
+
+    public void start() {
+        running = true;
+        server.start();
+        LOGGER.info("Seat push server đang chạy tại cổng " + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Chỉ hỗ trợ GET");
+                return;
+            }
+            // "", "showtimes", "{id}", "seats", ["stream"]
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            if (parts.length < 4 || parts.length > 5 || !"seats".equals(parts[3])
+                    || (parts.length == 5 && !"stream".equals(parts[4]))) {
+                sendError(exchange, 404, "Không tìm thấy");
+                return;
+            }
+            int showtimeId = Integer.parseInt(parts[2]);
+            String query = exchange.getRequestURI().getRawQuery();
+            long since = parseLong(query, "since", 0);
+
+            if (parts.length == 5) {
+                stream(exchange, showtimeId, since);
+            } else {
+                poll(exchange, showtimeId, since, Math.min(parseLong(query, "wait", 0), MAX_WAIT_MILLIS));
+            }
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Tham số không hợp lệ");
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Không nạp được sơ đồ ghế", e);
+            sendError(exchange, 503, "Không nạp được sơ đồ ghế");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void stream(HttpExchange exchange, int showtimeId, long since)
+            throws IOException, SQLException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        try (SeatSubscriber subscriber = hub.subscribe(showtimeId, since)) {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            while (running && !subscriber.isClosed()) {
+                byte[] event = subscriber.next(HEARTBEAT_MILLIS);
+                out.write(event != null ? event : KEEP_ALIVE);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Client đã ngắt kết nối
+        }
+    }
+
+    private void poll(HttpExchange exchange, int showtimeId, long since, long waitMillis)
+            throws IOException, SQLException, InterruptedException {
+        ShowtimeSeatMap seatMap = engine.getOrLoad(showtimeId);
+        if (waitMillis > 0 && seatMap.getVersion() == since) {
+            try (SeatSubscriber subscriber = hub.subscribe(showtimeId, since)) {
+                // Khung đầu tiên chỉ rỗng khi chưa có gì đổi kể từ lúc kiểm tra phiên bản
+                subscriber.next(0);
+                if (subscriber.getVersion() == since) {
+                    subscriber.next(waitMillis);
+                }
+            }
+        }
+
+        ByteBuffer frame = codec.encodeChanges(seatMap, since);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            exchange.getResponseHeaders().set("X-Seat-Version", Long.toString(frame.getLong(frame.position() + 6)));
+            exchange.sendResponseHeaders(200, frame.remaining());
+            try (WritableByteChannel out = Channels.newChannel(exchange.getResponseBody())) {
+                while (frame.hasRemaining()) {
+                    out.write(frame);
+                }
+            }
+        } finally {
+            codec.release(frame);
+        }
+    }
+
+    private static long parseLong(String query, String name, long defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return Long.parseLong(pair.substring(eq + 1));
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
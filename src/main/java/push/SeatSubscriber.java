@@ -0,0 +1,108 @@
+package push;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Một người theo dõi sơ đồ ghế. Luồng của hub chỉ đặt khung vào hàng đợi (không bao giờ chờ);
+ * luồng phục vụ client (virtual thread) lấy khung ra và ghi xuống kết nối.
+ */
+public class SeatSubscriber implements AutoCloseable {
+
+    private final SeatUpdateHub hub;
+    private final int showtimeId;
+    private final BlockingQueue<SeatFrame> queue;
+    private volatile boolean lagging;
+    private volatile boolean closed;
+    private boolean started;
+    private long version;
+
+    SeatSubscriber(SeatUpdateHub hub, int showtimeId, long sinceVersion, int capacity) {
+        this.hub = hub;
+        this.showtimeId = showtimeId;
+        this.version = sinceVersion;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    /**
+     * @return Phiên bản sơ đồ client đã nhận tới
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Chờ sự kiện SSE kế tiếp cho client
+     * @return Sự kiện đã mã hóa, hoặc null nếu hết thời gian chờ (nên gửi keep-alive) hoặc đã đóng
+     */
+    public byte[] next(long timeoutMillis) throws InterruptedException, SQLException {
+        if (!started || lagging) {
+            return resync();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!closed) {
+            SeatFrame frame = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (lagging) {
+                return resync();
+            }
+            if (frame == null) {
+                return null;
+            }
+            if (frame.full) {
+                version = frame.version;
+                return frame.event;
+            }
+            if (frame.version <= version) {
+                continue;
+            }
+            if (frame.baseVersion != version) {
+                // Khung chung dựa trên phiên bản khác (vừa đăng ký hoặc vừa nhận toàn bộ sơ đồ)
+                SeatFrame own = hub.changes(showtimeId, version);
+                version = own.version;
+                return own.event;
+            }
+            version = frame.version;
+            return frame.event;
+        }
+        return null;
+    }
+
+    /**
+     * Đặt khung vào hàng đợi; hàng đợi đầy thì bỏ hết, lần đọc sau client nhận toàn bộ sơ đồ
+     */
+    void offer(SeatFrame frame) {
+        if (!queue.offer(frame)) {
+            if (!lagging) {
+                hub.onSnapshotForced();
+            }
+            lagging = true;
+            queue.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        hub.unsubscribe(this);
+    }
+
+    private byte[] resync() throws SQLException {
+        long since = started ? 0 : version;
+        started = true;
+        lagging = false;
+        queue.clear();
+        SeatFrame frame = hub.changes(showtimeId, since);
+        version = frame.version;
+        return frame.event;
+    }
+}
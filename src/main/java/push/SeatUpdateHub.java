@@ -0,0 +1,187 @@
+package push;
+
+import model.SeatStatus;
+import service.SeatMapCodec;
+import service.SeatMapEngine;
+import service.SeatTransitionListener;
+import service.ShowtimeSeatMap;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Phát thay đổi trạng thái ghế tới những người đang theo dõi từng suất chiếu.
+ * Chuyển trạng thái chỉ đánh dấu suất chiếu là có thay đổi; cứ mỗi frameMillis, mỗi suất chiếu có thay đổi
+ * được mã hóa đúng một khung delta và khung đó được chia cho mọi người theo dõi.
+ * Người theo dõi đọc chậm để hàng đợi đầy thì bị bỏ các khung đang chờ và nhận lại toàn bộ sơ đồ.
+ */
+public class SeatUpdateHub implements SeatTransitionListener, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatUpdateHub.class.getName());
+    private static final long DEFAULT_FRAME_MILLIS = 75;
+    private static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+    private final SeatMapEngine engine;
+    private final SeatMapCodec codec;
+    private final int queueCapacity;
+    private final ConcurrentMap<Integer, Topic> topics = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker;
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder snapshotsForced = new LongAdder();
+
+    /**
+     * Người theo dõi của một suất chiếu
+     */
+    static final class Topic {
+        final int showtimeId;
+        final AtomicBoolean dirty = new AtomicBoolean();
+        final Set<SeatSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        volatile long version;
+
+        Topic(int showtimeId, long version) {
+            this.showtimeId = showtimeId;
+            this.version = version;
+        }
+    }
+
+    public SeatUpdateHub(SeatMapEngine engine) {
+        this(engine, new SeatMapCodec(), DEFAULT_FRAME_MILLIS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param frameMillis Chu kỳ gom thay đổi thành một khung (nên trong khoảng 50-100 ms)
+     * @param queueCapacity Số khung tối đa chờ gửi cho mỗi người theo dõi
+     */
+    public SeatUpdateHub(SeatMapEngine engine, SeatMapCodec codec, long frameMillis, int queueCapacity) {
+        this.engine = engine;
+        this.codec = codec;
+        this.queueCapacity = queueCapacity;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seat-update-hub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleWithFixedDelay(this::tick, frameMillis, frameMillis, TimeUnit.MILLISECONDS);
+        engine.addListener(this);
+    }
+
+    /**
+     * Bắt đầu theo dõi một suất chiếu
+     * @param sinceVersion Phiên bản client đang có (0 nếu chưa có) - khung đầu tiên chỉ chứa phần thay đổi
+     */
+    public SeatSubscriber subscribe(int showtimeId, long sinceVersion) throws SQLException {
+        ShowtimeSeatMap seatMap = engine.getOrLoad(showtimeId);
+        SeatSubscriber subscriber = new SeatSubscriber(this, showtimeId, sinceVersion, queueCapacity);
+        topics.compute(showtimeId, (id, topic) -> {
+            if (topic == null) {
+                topic = new Topic(id, seatMap.getVersion());
+            }
+            topic.subscribers.add(subscriber);
+            return topic;
+        });
+        return subscriber;
+    }
+
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        Topic topic = topics.get(showtimeId);
+        if (topic != null) {
+            topic.dirty.set(true);
+        }
+    }
+
+    /**
+     * @return Số người đang theo dõi một suất chiếu
+     */
+    public int getSubscriberCount(int showtimeId) {
+        Topic topic = topics.get(showtimeId);
+        return topic == null ? 0 : topic.subscribers.size();
+    }
+
+    /**
+     * @return Số khung delta đã phát (mỗi khung tính một lần dù có nhiều người nhận)
+     */
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    /**
+     * @return Số lần người theo dõi chậm bị chuyển sang nhận toàn bộ sơ đồ
+     */
+    public long getSnapshotsForced() {
+        return snapshotsForced.sum();
+    }
+
+    @Override
+    public void close() {
+        engine.removeListener(this);
+        ticker.shutdownNow();
+        for (Topic topic : topics.values()) {
+            for (SeatSubscriber subscriber : topic.subscribers) {
+                subscriber.close();
+            }
+        }
+    }
+
+    void unsubscribe(SeatSubscriber subscriber) {
+        topics.computeIfPresent(subscriber.getShowtimeId(), (id, topic) -> {
+            topic.subscribers.remove(subscriber);
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    void onSnapshotForced() {
+        snapshotsForced.increment();
+    }
+
+    /**
+     * Khung riêng cho một người theo dõi: thay đổi kể từ phiên bản của họ, hoặc toàn bộ sơ đồ
+     */
+    SeatFrame changes(int showtimeId, long sinceVersion) throws SQLException {
+        ShowtimeSeatMap seatMap = engine.getOrLoad(showtimeId);
+        ByteBuffer buffer = codec.encodeChanges(seatMap, sinceVersion);
+        try {
+            return SeatFrame.of(buffer);
+        } finally {
+            codec.release(buffer);
+        }
+    }
+
+    private void tick() {
+        for (Topic topic : topics.values()) {
+            if (!topic.dirty.getAndSet(false)) {
+                continue;
+            }
+            try {
+                ShowtimeSeatMap seatMap = engine.get(topic.showtimeId);
+                if (seatMap == null) {
+                    continue;
+                }
+                ByteBuffer buffer = codec.encodeChanges(seatMap, topic.version);
+                SeatFrame frame;
+                try {
+                    frame = SeatFrame.of(buffer);
+                } finally {
+                    codec.release(buffer);
+                }
+                topic.version = frame.version;
+                framesSent.increment();
+                for (SeatSubscriber subscriber : topic.subscribers) {
+                    subscriber.offer(frame);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Không phát được thay đổi của suất chiếu " + topic.showtimeId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package schedule;
+
+import dao.MovieChangeListener;
+import model.Movie;
+import model.Showtime;
+import search.ShowtimeIndex;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Lịch sử dụng phòng chiếu. Mỗi suất chiếu chiếm phòng từ giờ bắt đầu đến hết Movie.duration
+ * cộng thời gian dọn phòng. Các khoảng chiếm phòng của một phòng không chồng nhau nên được giữ
+ * trong một TreeMap theo phút bắt đầu: kiểm tra trùng chỉ cần xem khoảng liền trước và liền sau, O(log n).
+ * Kiểm tra hoặc xếp cả lô suất chiếu được làm trong bộ nhớ trong một lượt, không truy vấn SQL từng cặp.
+ */
+public class RoomScheduler implements MovieChangeListener {
+
+    private static final int SLOT_MINUTES = 5;
+
+    private final int cleaningMinutes;
+    private final Map<Integer, Integer> durations = new HashMap<>();
+    private final Map<Integer, TreeMap<Integer, Slot>> rooms = new HashMap<>();
+    private final Map<Integer, Slot> slots = new HashMap<>();
+
+    /**
+     * @param cleaningMinutes Thời gian dọn phòng sau mỗi suất chiếu (phút)
+     */
+    public RoomScheduler(int cleaningMinutes) {
+        if (cleaningMinutes < 0) {
+            throw new IllegalArgumentException("Thời gian dọn phòng không được âm");
+        }
+        this.cleaningMinutes = cleaningMinutes;
+    }
+
+    /**
+     * Khai báo thời lượng phim. Suất chiếu đã xếp giữ thời lượng tại lúc xếp.
+     */
+    public synchronized void registerMovies(Collection<Movie> movies) {
+        for (Movie movie : movies) {
+            registerMovie(movie);
+        }
+    }
+
+    public synchronized void registerMovie(Movie movie) {
+        if (movie.getDuration() <= 0) {
+            throw new IllegalArgumentException("Thời lượng phim không hợp lệ: " + movie.getTitle());
+        }
+        durations.put(movie.getMovieId(), movie.getDuration());
+    }
+
+    @Override
+    public void onMovieSaved(Movie movie) {
+        registerMovie(movie);
+    }
+
+    @Override
+    public synchronized void onMovieDeleted(int movieId) {
+        durations.remove(movieId);
+    }
+
+    /**
+     * Kiểm tra một lô suất chiếu với lịch hiện tại và với nhau, không thay đổi lịch
+     * @return Các suất chiếu bị trùng (rỗng nếu cả lô hợp lệ)
+     */
+    public synchronized List<ScheduleConflict> validate(Collection<Showtime> showtimes) {
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        List<Slot> placed = new ArrayList<>();
+        List<Slot> replaced = new ArrayList<>();
+        for (Showtime showtime : showtimes) {
+            Slot slot = slotOf(showtime);
+            Slot conflict = findConflict(slot);
+            if (conflict != null) {
+                conflicts.add(new ScheduleConflict(showtime, conflict.showtime.getShowtimeId()));
+            } else {
+                // Tạm đặt vào lịch để kiểm tra các suất sau trong cùng lô
+                Slot previous = insert(slot);
+                placed.add(slot);
+                if (previous != null) {
+                    replaced.add(previous);
+                }
+            }
+        }
+        for (int i = placed.size() - 1; i >= 0; i--) {
+            delete(placed.get(i));
+        }
+        for (int i = replaced.size() - 1; i >= 0; i--) {
+            insert(replaced.get(i));
+        }
+        return conflicts;
+    }
+
+    /**
+     * Thêm một lô suất chiếu: thêm tất cả nếu không có trùng, ngược lại không thêm suất nào
+     * @return Các suất chiếu bị trùng (rỗng nếu đã thêm)
+     */
+    public synchronized List<ScheduleConflict> addAll(Collection<Showtime> showtimes) {
+        List<ScheduleConflict> conflicts = validate(showtimes);
+        if (conflicts.isEmpty()) {
+            for (Showtime showtime : showtimes) {
+                insert(slotOf(showtime));
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Thêm một suất chiếu
+     * @throws IllegalArgumentException nếu trùng giờ với suất chiếu khác trong phòng
+     */
+    public synchronized void add(Showtime showtime) {
+        Slot slot = slotOf(showtime);
+        Slot conflict = findConflict(slot);
+        if (conflict != null) {
+            throw new IllegalArgumentException("Suất chiếu " + showtime.getShowtimeId() + " trùng giờ với suất chiếu "
+                    + conflict.showtime.getShowtimeId() + " tại phòng " + showtime.getRoomNumber());
+        }
+        insert(slot);
+    }
+
+    public synchronized void remove(int showtimeId) {
+        Slot slot = slots.get(showtimeId);
+        if (slot != null) {
+            delete(slot);
+        }
+    }
+
+    /**
+     * Tìm giờ bắt đầu sớm nhất (làm tròn lên 5 phút) để chiếu phim trong phòng
+     * @param notBefore Không sớm hơn
+     * @param latestStart Giờ bắt đầu muộn nhất chấp nhận được
+     * @return Giờ bắt đầu hoặc null nếu không còn chỗ trống
+     */
+    public synchronized LocalDateTime earliestFreeSlot(int roomNumber, int movieId,
+                                                      LocalDateTime notBefore, LocalDateTime latestStart) {
+        int start = earliestStart(roomNumber, occupiedMinutes(movieId), ShowtimeIndex.toEpochMinute(notBefore),
+                ShowtimeIndex.toEpochMinute(latestStart), null);
+        return start < 0 ? null : ShowtimeIndex.fromEpochMinute(start);
+    }
+
+    /**
+     * Xếp một lô suất chiếu: mỗi suất được đặt vào giờ trống sớm nhất không trước giờ đã yêu cầu
+     * và không muộn hơn maxDelayMinutes, ưu tiên phòng đã yêu cầu rồi đến các phòng khác trong danh sách.
+     * showDate/showTime/roomNumber của suất chiếu xếp được sẽ được cập nhật.
+     * Suất chiếu đã có trong lịch được xếp lại: khoảng cũ của nó không chặn chính nó và được thay bằng khoảng mới.
+     * @param rooms Các phòng được phép dùng
+     * @return Các suất chiếu không xếp được
+     */
+    public synchronized List<Showtime> autoPlace(Collection<Showtime> showtimes, Collection<Integer> rooms,
+                                                 int maxDelayMinutes) {
+        List<Showtime> unplaced = new ArrayList<>();
+        for (Showtime showtime : showtimes) {
+            int requested = ShowtimeIndex.toEpochMinute(showtime.getShowDate(), showtime.getShowTime());
+            int occupied = occupiedMinutes(showtime.getMovieId());
+            Slot current = slots.get(showtime.getShowtimeId());
+            int bestRoom = -1;
+            int bestStart = -1;
+            List<Integer> candidates = new ArrayList<>();
+            candidates.add(showtime.getRoomNumber());
+            candidates.addAll(rooms);
+            for (int room : candidates) {
+                int start = earliestStart(room, occupied, requested, requested + maxDelayMinutes, current);
+                if (start >= 0 && (bestStart < 0 || start < bestStart)) {
+                    bestRoom = room;
+                    bestStart = start;
+                }
+            }
+            if (bestStart < 0) {
+                unplaced.add(showtime);
+                continue;
+            }
+            LocalDateTime at = ShowtimeIndex.fromEpochMinute(bestStart);
+            showtime.setRoomNumber(bestRoom);
+            showtime.setShowDate(at.toLocalDate().toString());
+            showtime.setShowTime(at.toLocalTime().toString());
+            insert(new Slot(showtime, bestStart, bestStart + occupied));
+        }
+        return unplaced;
+    }
+
+    /**
+     * Tỉ lệ thời gian phòng bị chiếm (kể cả dọn phòng) trong [from, to)
+     */
+    public synchronized double utilization(int roomNumber, LocalDateTime from, LocalDateTime to) {
+        int start = ShowtimeIndex.toEpochMinute(from);
+        int end = ShowtimeIndex.toEpochMinute(to);
+        if (end <= start) {
+            throw new IllegalArgumentException("Khoảng thời gian không hợp lệ");
+        }
+        TreeMap<Integer, Slot> room = rooms.get(roomNumber);
+        if (room == null) {
+            return 0;
+        }
+        Integer first = room.floorKey(start);
+        long busy = 0;
+        for (Slot slot : room.subMap(first != null ? first : start, true, end, false).values()) {
+            busy += Math.max(0, Math.min(slot.end, end) - Math.max(slot.start, start));
+        }
+        return (double) busy / (end - start);
+    }
+
+    /**
+     * @return Số suất chiếu đang có trong lịch
+     */
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    private int occupiedMinutes(int movieId) {
+        Integer duration = durations.get(movieId);
+        if (duration == null) {
+            throw new IllegalArgumentException("Chưa biết thời lượng của phim: " + movieId);
+        }
+        return duration + cleaningMinutes;
+    }
+
+    private Slot slotOf(Showtime showtime) {
+        int start = ShowtimeIndex.toEpochMinute(showtime.getShowDate(), showtime.getShowTime());
+        return new Slot(showtime, start, start + occupiedMinutes(showtime.getMovieId()));
+    }
+
+    /**
+     * @return Khoảng đang chiếm phòng chồng lên slot (khác chính nó), hoặc null
+     */
+    private Slot findConflict(Slot slot) {
+        TreeMap<Integer, Slot> room = rooms.get(slot.room);
+        if (room == null) {
+            return null;
+        }
+        int showtimeId = slot.showtime.getShowtimeId();
+        Map.Entry<Integer, Slot> before = room.floorEntry(slot.start);
+        if (before != null && before.getValue().showtime.getShowtimeId() == showtimeId) {
+            // Bỏ qua khoảng cũ của chính suất chiếu đang được sửa
+            before = room.lowerEntry(before.getKey());
+        }
+        if (before != null && before.getValue().end > slot.start) {
+            return before.getValue();
+        }
+        Map.Entry<Integer, Slot> after = room.higherEntry(slot.start);
+        if (after != null && after.getValue().showtime.getShowtimeId() == showtimeId) {
+            after = room.higherEntry(after.getKey());
+        }
+        if (after != null && after.getKey() < slot.end) {
+            return after.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Duyệt các khoảng trống từ notBefore, trả về giờ bắt đầu đầu tiên chứa vừa occupied phút
+     * @param ignored Khoảng cũ của chính suất chiếu đang được xếp lại (bỏ qua), hoặc null
+     */
+    private int earliestStart(int roomNumber, int occupied, int notBefore, int latestStart, Slot ignored) {
+        int candidate = roundUp(notBefore);
+        NavigableMap<Integer, Slot> room = rooms.get(roomNumber);
+        if (room != null) {
+            Map.Entry<Integer, Slot> before = room.floorEntry(candidate);
+            if (before != null && before.getValue() == ignored) {
+                before = room.lowerEntry(before.getKey());
+            }
+            if (before != null && before.getValue().end > candidate) {
+                candidate = roundUp(before.getValue().end);
+            }
+            for (Slot next : room.tailMap(candidate, true).values()) {
+                if (next == ignored) {
+                    continue;
+                }
+                if (candidate > latestStart || candidate + occupied <= next.start) {
+                    break;
+                }
+                candidate = Math.max(candidate, roundUp(next.end));
+            }
+        }
+        return candidate <= latestStart ? candidate : -1;
+    }
+
+    private static int roundUp(int minute) {
+        return Math.floorDiv(minute + SLOT_MINUTES - 1, SLOT_MINUTES) * SLOT_MINUTES;
+    }
+
+    /**
+     * @return Khoảng cũ của cùng suất chiếu đã bị thay thế, hoặc null
+     */
+    private Slot insert(Slot slot) {
+        Slot previous = slots.put(slot.showtime.getShowtimeId(), slot);
+        if (previous != null) {
+            rooms.get(previous.room).remove(previous.start, previous);
+        }
+        rooms.computeIfAbsent(slot.room, r -> new TreeMap<>()).put(slot.start, slot);
+        return previous;
+    }
+
+    private void delete(Slot slot) {
+        slots.remove(slot.showtime.getShowtimeId(), slot);
+        TreeMap<Integer, Slot> room = rooms.get(slot.room);
+        if (room != null) {
+            room.remove(slot.start, slot);
+        }
+    }
+
+    /**
+     * Khoảng chiếm phòng [start, end) tính bằng phút từ epoch
+     */
+    private static final class Slot {
+        final Showtime showtime;
+        final int room;
+        final int start;
+        final int end;
+
+        Slot(Showtime showtime, int start, int end) {
+            this.showtime = showtime;
+            this.room = showtime.getRoomNumber();
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
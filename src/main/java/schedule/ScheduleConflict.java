@@ -0,0 +1,38 @@
+package schedule;
+
+import model.Showtime;
+
+/**
+ * Một suất chiếu không xếp được vì trùng giờ với suất chiếu khác trong cùng phòng
+ */
+public class ScheduleConflict {
+    private final Showtime showtime;
+    private final int conflictingShowtimeId;
+
+    ScheduleConflict(Showtime showtime, int conflictingShowtimeId) {
+        this.showtime = showtime;
+        this.conflictingShowtimeId = conflictingShowtimeId;
+    }
+
+    public Showtime getShowtime() {
+        return showtime;
+    }
+
+    /**
+     * @return Mã suất chiếu đang chiếm phòng (đã có trong lịch hoặc đứng trước trong cùng lô)
+     */
+    public int getConflictingShowtimeId() {
+        return conflictingShowtimeId;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleConflict{" +
+                "showtimeId=" + showtime.getShowtimeId() +
+                ", roomNumber=" + showtime.getRoomNumber() +
+                ", showDate='" + showtime.getShowDate() + '\'' +
+                ", showTime='" + showtime.getShowTime() + '\'' +
+                ", conflictingShowtimeId=" + conflictingShowtimeId +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+package search;
+
+/**
+ * Bảng băm int -> float địa chỉ mở (dò tuyến tính), tránh boxing Integer/Float khi chấm điểm
+ * trên posting của nhiều từ. Xóa bằng cách dời ngược các phần tử phía sau nên không cần tombstone.
+ * Duyệt theo ô: 0 <= slot < capacity(), bỏ qua ô có isUsed(slot) == false.
+ * Không an toàn luồng.
+ */
+final class IntFloatMap {
+
+    private int[] keys;
+    private float[] values;
+    private boolean[] used;
+    private int shift;
+    private int size;
+
+    IntFloatMap() {
+        this(4);
+    }
+
+    /**
+     * @param expected Số phần tử dự kiến
+     */
+    IntFloatMap(int expected) {
+        allocate(Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Giá trị của key, hoặc missing nếu không có
+     */
+    float get(int key, float missing) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : missing;
+    }
+
+    void put(int key, float value) {
+        int slot = find(key);
+        if (!used[slot]) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                slot = find(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Ghi value nếu key chưa có hoặc giá trị hiện tại nhỏ hơn
+     */
+    void putMax(int key, float value) {
+        int slot = find(key);
+        if (!used[slot] || values[slot] < value) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * @return false nếu key không có
+     */
+    boolean remove(int key) {
+        int slot = find(key);
+        if (!used[slot]) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        // Dời ngược các phần tử phía sau trong cùng cụm để chuỗi dò không bị đứt
+        int hole = slot;
+        for (int next = (hole + 1) & mask; used[next]; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    float valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * @return Ô chứa key, hoặc ô trống đầu tiên trên chuỗi dò của key
+     */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = find(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new float[capacity];
+        used = new boolean[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /**
+     * Băm Fibonacci lấy các bit cao: mã phim liên tiếp được rải đều, và chép từ bảng này sang bảng khác
+     * theo thứ tự ô không dồn thành cụm dài như khi lấy các bit thấp
+     */
+    private int home(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+}
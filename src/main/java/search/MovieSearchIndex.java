@@ -0,0 +1,353 @@
+package search;
+
+import dao.MovieChangeListener;
+import dao.MovieDao;
+import model.Movie;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ trên title, genre và description của phim, thay cho LIKE '%...%' trên MySQL.
+ * Văn bản được bỏ dấu tiếng Việt nên "phim hanh dong" khớp "Phim Hành Động". Từ điển là một trie nén,
+ * từ cuối của truy vấn được hiểu là tiền tố để gợi ý khi đang gõ. Kết quả xếp theo độ liên quan
+ * (idf x tần suất có trọng số theo trường, bão hòa như BM25). Chỉ mục cập nhật từng phim qua MovieChangeListener;
+ * từ không còn phim nào bị xóa khỏi trie và mã của nó được dùng lại. Bên trong, mỗi phim có một số thứ tự dày đặc
+ * (doc) để posting và điểm dùng mảng/bảng băm kiểu nguyên thủy thay vì Map<Integer, Float>.
+ * Truy vấn chỉ giữ khóa đọc nên nhiều truy vấn chạy song song; cập nhật giữ khóa ghi.
+ */
+public class MovieSearchIndex implements MovieChangeListener {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float GENRE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float SATURATION = 1.2f;
+    private static final float PREFIX_PENALTY = 0.8f;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PrefixTrie trie = new PrefixTrie();
+    /** Theo mã từ; null nếu mã đã được giải phóng */
+    private final List<String> terms = new ArrayList<>();
+    /** Theo mã từ: doc -> trọng số của từ trong phim; null nếu mã đã được giải phóng */
+    private final List<IntFloatMap> postings = new ArrayList<>();
+    /** Theo doc; null nếu doc đang trống */
+    private final List<Movie> docs = new ArrayList<>();
+    /** Theo doc: mã các từ của phim */
+    private final List<int[]> termsOfDoc = new ArrayList<>();
+    private final PrefixTrie.IntList freeDocs = new PrefixTrie.IntList();
+    private final Map<Integer, Integer> docOfMovie = new HashMap<>();
+
+    /**
+     * Nạp toàn bộ phim từ database
+     * @return Số phim đã đánh chỉ mục
+     */
+    public int load(MovieDao movieDao) throws SQLException {
+        List<Movie> all = movieDao.findAll();
+        indexAll(all);
+        return all.size();
+    }
+
+    public void indexAll(Collection<Movie> movies) {
+        lock.writeLock().lock();
+        try {
+            for (Movie movie : movies) {
+                index(movie);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Thêm hoặc đánh chỉ mục lại một phim
+     */
+    public void index(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            remove(movie.getMovieId());
+            IntFloatMap weights = new IntFloatMap();
+            addField(weights, movie.getTitle(), TITLE_WEIGHT);
+            addField(weights, movie.getGenre(), GENRE_WEIGHT);
+            addField(weights, movie.getDescription(), DESCRIPTION_WEIGHT);
+
+            int doc;
+            if (freeDocs.size() > 0) {
+                doc = freeDocs.removeLast();
+            } else {
+                doc = docs.size();
+                docs.add(null);
+                termsOfDoc.add(null);
+            }
+            int[] termIds = new int[weights.size()];
+            int i = 0;
+            for (int slot = 0; slot < weights.capacity(); slot++) {
+                if (weights.isUsed(slot)) {
+                    postings.get(weights.keyAt(slot)).put(doc, weights.valueAt(slot));
+                    termIds[i++] = weights.keyAt(slot);
+                }
+            }
+            docs.set(doc, movie);
+            termsOfDoc.set(doc, termIds);
+            docOfMovie.put(movie.getMovieId(), doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int movieId) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docOfMovie.remove(movieId);
+            if (doc == null) {
+                return;
+            }
+            for (int termId : termsOfDoc.get(doc)) {
+                IntFloatMap posting = postings.get(termId);
+                posting.remove(doc);
+                if (posting.isEmpty()) {
+                    // Từ không còn phim nào: bỏ khỏi trie để gợi ý và tìm theo tiền tố không phải duyệt qua nó
+                    trie.remove(terms.get(termId));
+                    terms.set(termId, null);
+                    postings.set(termId, null);
+                }
+            }
+            docs.set(doc, null);
+            termsOfDoc.set(doc, null);
+            freeDocs.add(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onMovieSaved(Movie movie) {
+        index(movie);
+    }
+
+    @Override
+    public void onMovieDeleted(int movieId) {
+        remove(movieId);
+    }
+
+    /**
+     * Tìm phim chứa mọi từ của truy vấn. Nếu truy vấn không kết thúc bằng khoảng trắng,
+     * từ cuối được hiểu là tiền tố ("hanh d" khớp "Hành Động").
+     * @param query Truy vấn, có dấu hoặc không dấu
+     * @param limit Số kết quả tối đa
+     * @return Phim theo độ liên quan giảm dần
+     */
+    public List<Movie> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            // Mỗi từ của truy vấn ứng với một hoặc nhiều từ trong từ điển (từ cuối có thể là tiền tố)
+            List<PrefixTrie.IntList> matches = new ArrayList<>(tokens.size());
+            long[] postingSizes = new long[tokens.size()];
+            for (int t = 0; t < tokens.size(); t++) {
+                PrefixTrie.IntList termIds = new PrefixTrie.IntList();
+                if (t == tokens.size() - 1 && lastIsPrefix) {
+                    trie.collect(tokens.get(t), termIds);
+                } else {
+                    int termId = trie.get(tokens.get(t));
+                    if (termId >= 0) {
+                        termIds.add(termId);
+                    }
+                }
+                for (int i = 0; i < termIds.size(); i++) {
+                    postingSizes[t] += postings.get(termIds.get(i)).size();
+                }
+                if (postingSizes[t] == 0) {
+                    return new ArrayList<>();
+                }
+                matches.add(termIds);
+            }
+
+            // Bắt đầu từ từ hiếm nhất; các từ sau chỉ tra posting cho các phim còn lại (giao)
+            List<Integer> order = new ArrayList<>();
+            for (int t = 0; t < tokens.size(); t++) {
+                order.add(t);
+            }
+            order.sort(Comparator.comparingLong(t -> postingSizes[t]));
+
+            // Điểm cộng dồn theo doc; điểm mỗi từ luôn dương nên 0 nghĩa là doc chưa là ứng viên
+            float[] scores = new float[docs.size()];
+            PrefixTrie.IntList candidates = new PrefixTrie.IntList();
+            int first = order.get(0);
+            PrefixTrie.IntList firstTerms = matches.get(first);
+            for (int i = 0; i < firstTerms.size(); i++) {
+                int termId = firstTerms.get(i);
+                double idf = idf(termId);
+                float factor = terms.get(termId).equals(tokens.get(first)) ? 1f : PREFIX_PENALTY;
+                IntFloatMap posting = postings.get(termId);
+                for (int slot = 0; slot < posting.capacity(); slot++) {
+                    if (posting.isUsed(slot)) {
+                        int doc = posting.keyAt(slot);
+                        if (scores[doc] == 0) {
+                            candidates.add(doc);
+                        }
+                        scores[doc] = Math.max(scores[doc], score(idf, posting.valueAt(slot), factor));
+                    }
+                }
+            }
+            // Duyệt ứng viên theo thứ tự doc để truy cập mảng điểm và danh sách phim tuần tự
+            candidates.sort();
+            for (int o = 1; o < order.size() && candidates.size() > 0; o++) {
+                int t = order.get(o);
+                PrefixTrie.IntList termIds = matches.get(t);
+                IntFloatMap[] termPostings = new IntFloatMap[termIds.size()];
+                double[] idfs = new double[termIds.size()];
+                float[] factors = new float[termIds.size()];
+                for (int i = 0; i < termIds.size(); i++) {
+                    termPostings[i] = postings.get(termIds.get(i));
+                    idfs[i] = idf(termIds.get(i));
+                    factors[i] = terms.get(termIds.get(i)).equals(tokens.get(t)) ? 1f : PREFIX_PENALTY;
+                }
+                int kept = 0;
+                for (int c = 0; c < candidates.size(); c++) {
+                    int doc = candidates.get(c);
+                    float best = -1;
+                    for (int i = 0; i < termPostings.length; i++) {
+                        float weight = termPostings[i].get(doc, -1f);
+                        if (weight >= 0) {
+                            best = Math.max(best, score(idfs[i], weight, factors[i]));
+                        }
+                    }
+                    if (best >= 0) {
+                        scores[doc] += best;
+                        candidates.set(kept++, doc);
+                    }
+                }
+                candidates.truncate(kept);
+            }
+
+            // Chỉ giữ limit phim tốt nhất trong heap thay vì sắp xếp mọi phim khớp;
+            // phim có điểm thấp hơn phim kém nhất trong heap bị loại mà không cần so tên
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, Hit.RELEVANCE);
+            for (int c = 0; c < candidates.size(); c++) {
+                int doc = candidates.get(c);
+                if (top.size() == limit && scores[doc] < top.peek().score) {
+                    continue;
+                }
+                Hit hit = new Hit(docs.get(doc), scores[doc]);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (Hit.RELEVANCE.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<Movie> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(top.poll().movie);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gợi ý từ (đã bỏ dấu) bắt đầu bằng tiền tố, từ xuất hiện trong nhiều phim nhất trước
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String folded = TextNormalizer.fold(prefix.trim());
+        lock.readLock().lock();
+        try {
+            PrefixTrie.IntList termIds = new PrefixTrie.IntList();
+            trie.collect(folded, termIds);
+            List<Integer> found = new ArrayList<>(termIds.size());
+            for (int i = 0; i < termIds.size(); i++) {
+                found.add(termIds.get(i));
+            }
+            found.sort(Comparator.<Integer>comparingInt(id -> postings.get(id).size()).reversed()
+                    .thenComparing(terms::get));
+            List<String> result = new ArrayList<>(Math.min(limit, found.size()));
+            for (int i = 0; i < found.size() && i < limit; i++) {
+                result.add(terms.get(found.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOfMovie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Số từ trong từ điển (chỉ các từ còn ít nhất một phim)
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addField(IntFloatMap weights, String text, float fieldWeight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            int termId = trie.intern(token);
+            if (termId == terms.size()) {
+                terms.add(token);
+                postings.add(new IntFloatMap());
+            } else if (terms.get(termId) == null) {
+                // Mã của một từ đã bị xóa được cấp lại
+                terms.set(termId, token);
+                postings.set(termId, new IntFloatMap());
+            }
+            weights.put(termId, weights.get(termId, 0f) + fieldWeight);
+        }
+    }
+
+    private double idf(int termId) {
+        int documentFrequency = postings.get(termId).size();
+        return Math.log(1 + (docOfMovie.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Phim ứng viên trong heap kết quả
+     */
+    private static final class Hit {
+        /** Điểm tăng dần, cùng điểm thì tên xếp sau được coi là kém hơn */
+        static final Comparator<Hit> RELEVANCE = Comparator.<Hit>comparingDouble(hit -> hit.score)
+                .thenComparing(hit -> hit.movie.getTitle(), Comparator.nullsFirst(Comparator.reverseOrder()));
+
+        final Movie movie;
+        final float score;
+
+        Hit(Movie movie, float score) {
+            this.movie = movie;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Điểm của một từ trong một phim: idf x tần suất có trọng số, bão hòa dần như BM25
+     */
+    private static float score(double idf, float weight, float factor) {
+        return (float) (idf * weight * (SATURATION + 1) / (weight + SATURATION)) * factor;
+    }
+}
@@ -0,0 +1,254 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Trie nén (radix tree) ánh xạ từ sang mã từ. Mỗi cạnh mang một chuỗi thay vì một ký tự,
+ * nên số nút tỉ lệ với số từ chứ không với tổng số ký tự. Dùng cho tra cứu chính xác và gợi ý theo tiền tố.
+ * Không an toàn luồng; MovieSearchIndex bảo vệ bằng khóa đọc/ghi.
+ */
+final class PrefixTrie {
+
+    private final Node root = new Node("");
+    private final IntList freeIds = new IntList();
+    private int size;
+    private int nextId;
+
+    /**
+     * @return Mã của từ, cấp mã mới nếu từ chưa có (ưu tiên dùng lại mã của từ đã xóa, nếu không thì mã kế tiếp từ 0)
+     */
+    int intern(String term) {
+        Node node = root;
+        int pos = 0;
+        while (true) {
+            if (pos == term.length()) {
+                if (node.termId < 0) {
+                    node.termId = newId();
+                }
+                return node.termId;
+            }
+            int slot = node.find(term.charAt(pos));
+            if (slot < 0) {
+                Node leaf = new Node(term.substring(pos));
+                leaf.termId = newId();
+                node.insert(-slot - 1, leaf);
+                return leaf.termId;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, term, pos);
+            if (common < child.label.length()) {
+                // Tách cạnh: child.label = common + phần còn lại
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.insert(0, child);
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            pos += common;
+        }
+    }
+
+    /**
+     * @return Mã của từ, -1 nếu không có
+     */
+    int get(String term) {
+        Node node = root;
+        int pos = 0;
+        while (pos < term.length()) {
+            int slot = node.find(term.charAt(pos));
+            if (slot < 0 || !term.startsWith(node.children[slot].label, pos)) {
+                return -1;
+            }
+            node = node.children[slot];
+            pos += node.label.length();
+        }
+        return node.termId;
+    }
+
+    /**
+     * Thu thập mã các từ bắt đầu bằng prefix
+     */
+    void collect(String prefix, IntList out) {
+        Node node = locate(prefix);
+        if (node != null) {
+            collect(node, out);
+        }
+    }
+
+    /**
+     * Xóa từ và gộp lại các cạnh không còn rẽ nhánh; mã của từ sẽ được cấp lại cho từ mới
+     * @return Mã của từ đã xóa, -1 nếu không có
+     */
+    int remove(String term) {
+        int termId = remove(root, term, 0);
+        if (termId >= 0) {
+            freeIds.add(termId);
+            size--;
+        }
+        return termId;
+    }
+
+    /**
+     * @return Số từ đang có
+     */
+    int size() {
+        return size;
+    }
+
+    private int newId() {
+        size++;
+        return freeIds.size() > 0 ? freeIds.removeLast() : nextId++;
+    }
+
+    private static int remove(Node node, String term, int pos) {
+        if (pos == term.length()) {
+            int termId = node.termId;
+            node.termId = -1;
+            return termId;
+        }
+        int slot = node.find(term.charAt(pos));
+        if (slot < 0 || !term.startsWith(node.children[slot].label, pos)) {
+            return -1;
+        }
+        Node child = node.children[slot];
+        int termId = remove(child, term, pos + child.label.length());
+        if (termId >= 0 && child.termId < 0) {
+            if (child.count == 0) {
+                node.removeAt(slot);
+            } else if (child.count == 1) {
+                // Nút trung gian chỉ còn một con: nối hai cạnh lại làm một
+                Node only = child.children[0];
+                only.label = child.label + only.label;
+                node.children[slot] = only;
+            }
+        }
+        return termId;
+    }
+
+    /**
+     * Tìm nút cao nhất mà mọi từ trong cây con của nó đều bắt đầu bằng key
+     * (nếu key dừng giữa một cạnh thì đó là nút cuối của cạnh)
+     */
+    private Node locate(String key) {
+        Node node = root;
+        int pos = 0;
+        while (pos < key.length()) {
+            int slot = node.find(key.charAt(pos));
+            if (slot < 0) {
+                return null;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, pos);
+            if (pos + common == key.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            pos += common;
+        }
+        return root;
+    }
+
+    private static void collect(Node node, IntList out) {
+        if (node.termId >= 0) {
+            out.add(node.termId);
+        }
+        for (int i = 0; i < node.count; i++) {
+            collect(node.children[i], out);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        String label;
+        int termId = -1;
+        char[] firstChars = new char[0];
+        Node[] children = new Node[0];
+        int count;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Tìm con theo ký tự đầu của cạnh
+         * @return Vị trí, hoặc (-(vị trí chèn) - 1)
+         */
+        int find(char c) {
+            return Arrays.binarySearch(firstChars, 0, count, c);
+        }
+
+        void insert(int slot, Node child) {
+            if (count == children.length) {
+                int capacity = Math.max(2, count * 2);
+                firstChars = Arrays.copyOf(firstChars, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(firstChars, slot, firstChars, slot + 1, count - slot);
+            System.arraycopy(children, slot, children, slot + 1, count - slot);
+            firstChars[slot] = child.label.charAt(0);
+            children[slot] = child;
+            count++;
+        }
+
+        void removeAt(int slot) {
+            count--;
+            System.arraycopy(firstChars, slot + 1, firstChars, slot, count - slot);
+            System.arraycopy(children, slot + 1, children, slot, count - slot);
+            children[count] = null;
+        }
+    }
+
+    /**
+     * Danh sách int tăng dần kích thước, tránh boxing khi thu thập mã từ và doc ứng viên
+     */
+    static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        /**
+         * Giữ lại size phần tử đầu
+         */
+        void truncate(int size) {
+            this.size = size;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, size);
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package search;
+
+import dao.ShowtimeDao;
+import model.Showtime;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Chỉ mục suất chiếu trong bộ nhớ.
+ * showDate/showTime được đổi một lần thành phút tính từ epoch (theo giờ tường, không theo múi giờ) kiểu int;
+ * các suất chiếu nằm trong mảng nguyên thủy sắp theo phút bắt đầu, kèm chỉ mục phụ movieId/roomNumber
+ * là mảng vị trí (tăng dần) trỏ vào mảng chính. Tìm theo khoảng là hai lần tìm nhị phân rồi quét đoạn kết quả.
+ * Người đọc dùng ảnh chụp bất biến không khóa; thay đổi được trộn vào ảnh chụp cũ mà không sắp xếp lại toàn bộ.
+ */
+public class ShowtimeIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Đọc lùi lại từ mốc updated_at lớn nhất đã thấy: updated_at chỉ chính xác tới giây
+     * và transaction có thể commit sau khi dòng mới hơn đã được đọc
+     */
+    private static final long REFRESH_OVERLAP_MILLIS = 5_000;
+
+    private final Map<Integer, Showtime> showtimes = new HashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private Timestamp lastUpdatedAt;
+
+    /**
+     * Đổi ngày giờ sang phút tính từ epoch
+     */
+    public static int toEpochMinute(LocalDateTime dateTime) {
+        return (int) (dateTime.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /**
+     * Đổi showDate ("yyyy-MM-dd") và showTime ("HH:mm" hoặc "HH:mm:ss") sang phút tính từ epoch
+     * @throws IllegalArgumentException nếu sai định dạng
+     */
+    public static int toEpochMinute(String showDate, String showTime) {
+        try {
+            return toEpochMinute(LocalDateTime.of(LocalDate.parse(showDate), LocalTime.parse(showTime)));
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Ngày giờ suất chiếu không hợp lệ: " + showDate + " " + showTime, e);
+        }
+    }
+
+    public static LocalDateTime fromEpochMinute(int epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Nạp toàn bộ suất chiếu từ database, thay thế chỉ mục hiện tại
+     */
+    public void load(ShowtimeDao showtimeDao) throws SQLException {
+        List<Showtime> all = showtimeDao.findAll();
+        synchronized (this) {
+            showtimes.clear();
+            snapshot = Snapshot.EMPTY;
+            lastUpdatedAt = null;
+            apply(all, Collections.emptyList());
+        }
+    }
+
+    /**
+     * Đọc các suất chiếu được thêm/sửa kể từ lần nạp trước (lùi lại REFRESH_OVERLAP_MILLIS) và trộn vào chỉ mục;
+     * dòng đọc lại mà không đổi gì so với bản đang có thì bỏ qua.
+     * Suất chiếu bị xóa khỏi database cần được báo qua remove().
+     * @return Số suất chiếu được cập nhật
+     */
+    public int refresh(ShowtimeDao showtimeDao) throws SQLException {
+        Timestamp since;
+        synchronized (this) {
+            since = new Timestamp(lastUpdatedAt != null
+                    ? Math.max(0, lastUpdatedAt.getTime() - REFRESH_OVERLAP_MILLIS) : 0);
+        }
+        List<Showtime> rows = showtimeDao.findUpdatedSince(since);
+        synchronized (this) {
+            List<Showtime> changed = new ArrayList<>(rows.size());
+            for (Showtime row : rows) {
+                if (!sameRow(showtimes.get(row.getShowtimeId()), row)) {
+                    changed.add(row);
+                }
+            }
+            apply(changed, Collections.emptyList());
+            return changed.size();
+        }
+    }
+
+    private static boolean sameRow(Showtime current, Showtime row) {
+        return current != null
+                && current.getMovieId() == row.getMovieId()
+                && current.getRoomNumber() == row.getRoomNumber()
+                && current.getTotalSeats() == row.getTotalSeats()
+                && current.getAvailableSeats() == row.getAvailableSeats()
+                && Objects.equals(current.getShowDate(), row.getShowDate())
+                && Objects.equals(current.getShowTime(), row.getShowTime())
+                && Objects.equals(current.getUpdatedAt(), row.getUpdatedAt());
+    }
+
+    /**
+     * Thêm hoặc cập nhật một suất chiếu
+     */
+    public void put(Showtime showtime) {
+        apply(Collections.singletonList(showtime), Collections.emptyList());
+    }
+
+    public void remove(int showtimeId) {
+        apply(Collections.emptyList(), Collections.singletonList(showtimeId));
+    }
+
+    /**
+     * Trộn một lô thay đổi vào chỉ mục: O(n + k log k) với k là số thay đổi, thay vì sắp xếp lại n suất chiếu
+     * @param upserts Suất chiếu thêm mới hoặc đã sửa
+     * @param removedIds Mã suất chiếu đã xóa
+     */
+    public synchronized void apply(Collection<Showtime> upserts, Collection<Integer> removedIds) {
+        if (upserts.isEmpty() && removedIds.isEmpty()) {
+            return;
+        }
+        // Tính phút bắt đầu trước khi đổi gì, để một dòng sai định dạng không làm hỏng chỉ mục.
+        // Nếu một suất chiếu xuất hiện nhiều lần trong lô, phiên bản cuối cùng thắng
+        Map<Integer, Showtime> added = new HashMap<>();
+        Map<Integer, Integer> addedMinutes = new HashMap<>();
+        for (Showtime showtime : upserts) {
+            addedMinutes.put(showtime.getShowtimeId(), toEpochMinute(showtime.getShowDate(), showtime.getShowTime()));
+            added.put(showtime.getShowtimeId(), showtime);
+        }
+
+        Snapshot current = snapshot;
+        for (Showtime showtime : added.values()) {
+            showtimes.put(showtime.getShowtimeId(), showtime);
+            if (showtime.getUpdatedAt() != null
+                    && (lastUpdatedAt == null || showtime.getUpdatedAt().after(lastUpdatedAt))) {
+                lastUpdatedAt = showtime.getUpdatedAt();
+            }
+        }
+        for (Integer showtimeId : removedIds) {
+            if (!added.containsKey(showtimeId)) {
+                showtimes.remove(showtimeId);
+            }
+        }
+        // Khóa sắp xếp: phút bắt đầu ở 32 bit cao, mã suất chiếu ở 32 bit thấp
+        int n = 0;
+        long[] keys = new long[added.size()];
+        for (Map.Entry<Integer, Integer> entry : addedMinutes.entrySet()) {
+            keys[n++] = ((long) entry.getValue() << 32) | (entry.getKey() & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+
+        // Trộn: bỏ các dòng cũ bị thay thế hoặc bị xóa, chèn các dòng mới theo thứ tự phút
+        int size = current.size();
+        int capacity = size + n;
+        int[] minutes = new int[capacity];
+        int[] ids = new int[capacity];
+        int[] movies = new int[capacity];
+        int[] rooms = new int[capacity];
+        int out = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < n) {
+            boolean takeOld;
+            if (i >= size) {
+                takeOld = false;
+            } else if (j >= n) {
+                takeOld = true;
+            } else {
+                long oldKey = ((long) current.minutes[i] << 32) | (current.ids[i] & 0xFFFFFFFFL);
+                takeOld = oldKey < keys[j];
+            }
+            if (takeOld) {
+                int id = current.ids[i];
+                if (!added.containsKey(id) && showtimes.containsKey(id)) {
+                    minutes[out] = current.minutes[i];
+                    ids[out] = id;
+                    movies[out] = current.movieIds[i];
+                    rooms[out] = current.rooms[i];
+                    out++;
+                }
+                i++;
+            } else {
+                Showtime showtime = added.get((int) keys[j]);
+                minutes[out] = (int) (keys[j] >> 32);
+                ids[out] = showtime.getShowtimeId();
+                movies[out] = showtime.getMovieId();
+                rooms[out] = showtime.getRoomNumber();
+                out++;
+                j++;
+            }
+        }
+        snapshot = new Snapshot(Arrays.copyOf(minutes, out), Arrays.copyOf(ids, out),
+                Arrays.copyOf(movies, out), Arrays.copyOf(rooms, out));
+    }
+
+    /**
+     * Tìm suất chiếu theo điều kiện
+     * @return Mã các suất chiếu theo thứ tự giờ bắt đầu
+     */
+    public int[] search(ShowtimeQuery query) {
+        Snapshot s = snapshot;
+        int[] positions = query.movieId != ShowtimeQuery.ANY ? s.byMovie.get(query.movieId)
+                : query.roomNumber != ShowtimeQuery.ANY ? s.byRoom.get(query.roomNumber)
+                : null;
+        boolean filtered = query.movieId != ShowtimeQuery.ANY || query.roomNumber != ShowtimeQuery.ANY;
+        if (filtered && positions == null) {
+            return new int[0];
+        }
+
+        int from;
+        int to;
+        if (positions == null) {
+            from = s.lowerBound(query.fromMinute);
+            to = s.lowerBound(query.toMinute + 1);
+        } else {
+            from = s.lowerBound(positions, query.fromMinute);
+            to = s.lowerBound(positions, query.toMinute + 1);
+        }
+        boolean allDay = query.dayFromMinute == 0 && query.dayToMinute == MINUTES_PER_DAY - 1;
+        int[] result = new int[to - from];
+        int count = 0;
+        for (int p = from; p < to; p++) {
+            int index = positions == null ? p : positions[p];
+            if (query.roomNumber != ShowtimeQuery.ANY && s.rooms[index] != query.roomNumber) {
+                continue;
+            }
+            if (!allDay) {
+                int minuteOfDay = Math.floorMod(s.minutes[index], MINUTES_PER_DAY);
+                if (minuteOfDay < query.dayFromMinute || minuteOfDay > query.dayToMinute) {
+                    continue;
+                }
+            }
+            result[count++] = s.ids[index];
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Đổi kết quả tìm kiếm thành đối tượng Showtime
+     */
+    public synchronized List<Showtime> resolve(int[] showtimeIds) {
+        List<Showtime> result = new ArrayList<>(showtimeIds.length);
+        for (int showtimeId : showtimeIds) {
+            Showtime showtime = showtimes.get(showtimeId);
+            if (showtime != null) {
+                result.add(showtime);
+            }
+        }
+        return result;
+    }
+
+    public synchronized Showtime get(int showtimeId) {
+        return showtimes.get(showtimeId);
+    }
+
+    public int size() {
+        return snapshot.size();
+    }
+
+    /**
+     * Ảnh chụp bất biến của chỉ mục
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new int[0], new int[0], new int[0], new int[0]);
+
+        final int[] minutes;
+        final int[] ids;
+        final int[] movieIds;
+        final int[] rooms;
+        final Map<Integer, int[]> byMovie;
+        final Map<Integer, int[]> byRoom;
+
+        Snapshot(int[] minutes, int[] ids, int[] movieIds, int[] rooms) {
+            this.minutes = minutes;
+            this.ids = ids;
+            this.movieIds = movieIds;
+            this.rooms = rooms;
+            this.byMovie = positionsBy(movieIds);
+            this.byRoom = positionsBy(rooms);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * Vị trí đầu tiên có phút bắt đầu >= minute
+         */
+        int lowerBound(int minute) {
+            int low = 0;
+            int high = minutes.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minutes[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Như lowerBound nhưng trên danh sách vị trí của chỉ mục phụ
+         */
+        int lowerBound(int[] positions, int minute) {
+            int low = 0;
+            int high = positions.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minutes[positions[mid]] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static Map<Integer, int[]> positionsBy(int[] keys) {
+            Map<Integer, int[]> counts = new HashMap<>();
+            for (int key : keys) {
+                int[] count = counts.computeIfAbsent(key, x -> new int[1]);
+                count[0]++;
+            }
+            Map<Integer, int[]> positions = new HashMap<>(counts.size() * 2);
+            for (Map.Entry<Integer, int[]> entry : counts.entrySet()) {
+                positions.put(entry.getKey(), new int[entry.getValue()[0]]);
+                entry.getValue()[0] = 0;
+            }
+            for (int p = 0; p < keys.length; p++) {
+                int[] count = counts.get(keys[p]);
+                positions.get(keys[p])[count[0]++] = p;
+            }
+            return positions;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package search;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Điều kiện tìm suất chiếu: khoảng thời gian bắt buộc, phim/phòng/khung giờ trong ngày tùy chọn.
+ * Ví dụ: ShowtimeQuery.between(now, now.plusDays(7)).movie(5).timeOfDay(LocalTime.of(18, 0), LocalTime.of(22, 0))
+ */
+public class ShowtimeQuery {
+
+    static final int ANY = -1;
+
+    final int fromMinute;
+    final int toMinute;
+    int movieId = ANY;
+    int roomNumber = ANY;
+    int dayFromMinute = 0;
+    int dayToMinute = ShowtimeIndex.MINUTES_PER_DAY - 1;
+
+    private ShowtimeQuery(int fromMinute, int toMinute) {
+        if (fromMinute > toMinute) {
+            throw new IllegalArgumentException("Thời điểm bắt đầu phải trước thời điểm kết thúc");
+        }
+        this.fromMinute = fromMinute;
+        this.toMinute = toMinute;
+    }
+
+    /**
+     * Các suất chiếu bắt đầu trong [from, to] (tính cả hai đầu)
+     */
+    public static ShowtimeQuery between(LocalDateTime from, LocalDateTime to) {
+        return new ShowtimeQuery(ShowtimeIndex.toEpochMinute(from), ShowtimeIndex.toEpochMinute(to));
+    }
+
+    public ShowtimeQuery movie(int movieId) {
+        this.movieId = movieId;
+        return this;
+    }
+
+    public ShowtimeQuery room(int roomNumber) {
+        this.roomNumber = roomNumber;
+        return this;
+    }
+
+    /**
+     * Chỉ lấy suất chiếu có giờ bắt đầu trong [from, to] của mỗi ngày
+     */
+    public ShowtimeQuery timeOfDay(LocalTime from, LocalTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Khung giờ không hợp lệ: " + from + " - " + to);
+        }
+        this.dayFromMinute = from.getHour() * 60 + from.getMinute();
+        this.dayToMinute = to.getHour() * 60 + to.getMinute();
+        return this;
+    }
+}
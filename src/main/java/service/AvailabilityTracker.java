@@ -0,0 +1,238 @@
+package service;
+
+import dao.ShowtimeDao;
+import model.SeatStatus;
+import model.Showtime;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Đếm số ghế còn trống của từng suất chiếu, cập nhật theo từng lần chuyển trạng thái ghế
+ * thay vì đếm lại các dòng seats. Đọc không cần truy vấn; cột showtimes.available_seats
+ * được ghi lại định kỳ, gộp nhiều thay đổi của cùng suất chiếu thành một lần ghi.
+ * Nếu bộ đếm ra ngoài [0, tổng số ghế] (bỏ lỡ hoặc nhận trùng sự kiện chuyển trạng thái), giá trị được chặn lại,
+ * suất chiếu bị đánh dấu lệch và một cảnh báo được ghi; gọi track lại từ sơ đồ ghế để đồng bộ.
+ */
+public class AvailabilityTracker implements SeatTransitionListener, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(AvailabilityTracker.class.getName());
+
+    private final ShowtimeDao showtimeDao;
+    private final ConcurrentMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    public AvailabilityTracker(ShowtimeDao showtimeDao) {
+        this.showtimeDao = showtimeDao;
+    }
+
+    /**
+     * Bắt đầu ghi số ghế trống xuống database định kỳ
+     */
+    public synchronized void start(long flushIntervalMillis) {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "availability-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Bắt đầu theo dõi một suất chiếu với số liệu đã biết
+     */
+    public void track(int showtimeId, int totalSeats, int availableSeats) {
+        track(showtimeId, totalSeats, availableSeats, 0);
+    }
+
+    /**
+     * @param reservedSeats Số ghế đang được giữ (RESERVED) tại thời điểm bắt đầu theo dõi
+     */
+    public void track(int showtimeId, int totalSeats, int availableSeats, int reservedSeats) {
+        counters.put(showtimeId, new Counter(showtimeId, totalSeats, availableSeats, reservedSeats));
+    }
+
+    public void track(Showtime showtime) {
+        track(showtime.getShowtimeId(), showtime.getTotalSeats(), showtime.getAvailableSeats());
+    }
+
+    /**
+     * Theo dõi suất chiếu từ sơ đồ ghế trong bộ nhớ (số liệu chính xác nhất)
+     */
+    public void track(ShowtimeSeatMap seatMap) {
+        track(seatMap.getShowtimeId(), seatMap.size(), seatMap.count(SeatStatus.AVAILABLE),
+                seatMap.count(SeatStatus.RESERVED));
+    }
+
+    public void untrack(int showtimeId) {
+        counters.remove(showtimeId);
+        dirty.remove(showtimeId);
+    }
+
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        Counter counter = counters.get(showtimeId);
+        if (counter == null || from == to) {
+            return;
+        }
+        if (from == SeatStatus.RESERVED) {
+            counter.reservedDelta.decrement();
+        } else if (to == SeatStatus.RESERVED) {
+            counter.reservedDelta.increment();
+        }
+        if (from == SeatStatus.AVAILABLE) {
+            counter.delta.decrement();
+        } else if (to == SeatStatus.AVAILABLE) {
+            counter.delta.increment();
+        } else {
+            return;
+        }
+        dirty.add(showtimeId);
+    }
+
+    /**
+     * Số ghế còn trống, không truy vấn database
+     * @return Số ghế trống, -1 nếu suất chiếu chưa được theo dõi
+     */
+    public int getAvailability(int showtimeId) {
+        Counter counter = counters.get(showtimeId);
+        return counter == null ? -1 : counter.available();
+    }
+
+    /**
+     * Số ghế chưa bán: còn trống cộng đang được giữ (ghế giữ có thể được trả lại khi hết hạn)
+     * @return Số ghế chưa bán, -1 nếu suất chiếu chưa được theo dõi
+     */
+    public int getUnsold(int showtimeId) {
+        Counter counter = counters.get(showtimeId);
+        return counter == null ? -1 : counter.available() + counter.reserved();
+    }
+
+    public int getTotalSeats(int showtimeId) {
+        Counter counter = counters.get(showtimeId);
+        return counter == null ? -1 : counter.totalSeats;
+    }
+
+    public boolean isSoldOut(int showtimeId) {
+        return getAvailability(showtimeId) == 0;
+    }
+
+    /**
+     * @return true nếu bộ đếm của suất chiếu đã từng ra ngoài [0, tổng số ghế] kể từ lần track gần nhất
+     */
+    public boolean isOutOfSync(int showtimeId) {
+        Counter counter = counters.get(showtimeId);
+        if (counter == null) {
+            return false;
+        }
+        counter.available();
+        counter.reserved();
+        return counter.outOfSync;
+    }
+
+    /**
+     * Cập nhật availableSeats/totalSeats của đối tượng Showtime theo bộ đếm
+     */
+    public void apply(Showtime showtime) {
+        Counter counter = counters.get(showtime.getShowtimeId());
+        if (counter != null) {
+            showtime.setTotalSeats(counter.totalSeats);
+            showtime.setAvailableSeats(counter.available());
+        }
+    }
+
+    /**
+     * Ghi số ghế trống của các suất chiếu đã thay đổi kể từ lần ghi trước trong một batch
+     * @return Số suất chiếu được ghi
+     */
+    public int flush() throws SQLException {
+        Map<Integer, Integer> snapshot = new HashMap<>();
+        for (Iterator<Integer> it = dirty.iterator(); it.hasNext(); ) {
+            Integer showtimeId = it.next();
+            it.remove();
+            Counter counter = counters.get(showtimeId);
+            if (counter != null) {
+                snapshot.put(showtimeId, counter.available());
+            }
+        }
+
+        try {
+            showtimeDao.updateAvailableSeats(snapshot);
+        } catch (SQLException e) {
+            dirty.addAll(snapshot.keySet());
+            throw e;
+        }
+        return snapshot.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Ghi số ghế trống thất bại, sẽ thử lại", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher = null;
+        }
+        flushQuietly();
+    }
+
+    private static class Counter {
+        final int showtimeId;
+        final int totalSeats;
+        final int base;
+        final int reservedBase;
+        final LongAdder delta = new LongAdder();
+        final LongAdder reservedDelta = new LongAdder();
+        volatile boolean outOfSync;
+
+        Counter(int showtimeId, int totalSeats, int base, int reservedBase) {
+            this.showtimeId = showtimeId;
+            this.totalSeats = totalSeats;
+            this.base = base;
+            this.reservedBase = reservedBase;
+        }
+
+        int available() {
+            return clamp(base + delta.sum(), "trống");
+        }
+
+        int reserved() {
+            return clamp(reservedBase + reservedDelta.sum(), "đang giữ");
+        }
+
+        private int clamp(long value, String kind) {
+            if (value >= 0 && value <= totalSeats) {
+                return (int) value;
+            }
+            if (!outOfSync) {
+                // Chỉ cảnh báo lần đầu để không ghi log mỗi lần đọc
+                outOfSync = true;
+                LOGGER.warning("Bộ đếm ghế " + kind + " của suất chiếu " + showtimeId + " lệch: " + value
+                        + " (tổng " + totalSeats + " ghế), cần đồng bộ lại từ sơ đồ ghế");
+            }
+            return (int) Math.max(0, Math.min(totalSeats, value));
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package service;
+
+import dao.BookingDao;
+import model.Booking;
+import model.Payment;
+import util.ConnectionAdmission;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gom các lượt thanh toán đồng thời thành micro-batch và xác nhận mỗi lô bằng một transaction
+ * (Booking + các ghế + Payment), thay vì mỗi đơn mượn một kết nối và commit riêng.
+ * Đơn bị xung đột ghế chỉ làm hỏng chính nó; nếu cả lô lỗi SQL, từng đơn được chạy lại riêng lẻ.
+ * Nếu có ConnectionAdmission, mỗi lần commit chờ permit của cổng như mọi tác vụ JDBC khác.
+ */
+public class BookingCommitPipeline implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(BookingCommitPipeline.class.getName());
+
+    private final BookingDao bookingDao;
+    private final ConnectionAdmission admission;
+    private final int maxBatchSize;
+    private final long lingerMillis;
+    private final BlockingQueue<Checkout> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> committers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public BookingCommitPipeline(BookingDao bookingDao) {
+        this(bookingDao, 1, 100, 2);
+    }
+
+    /**
+     * @param bookingDao DAO dùng để ghi
+     * @param committerCount Số luồng commit (mỗi luồng dùng một kết nối tại một thời điểm)
+     * @param maxBatchSize Số đơn tối đa mỗi lô
+     * @param lingerMillis Thời gian chờ thêm đơn để lấp đầy lô
+     */
+    public BookingCommitPipeline(BookingDao bookingDao, int committerCount, int maxBatchSize, long lingerMillis) {
+        this(bookingDao, null, committerCount, maxBatchSize, lingerMillis);
+    }
+
+    /**
+     * @param admission Cổng giới hạn kết nối dùng chung với các tác vụ JDBC khác, null nếu không giới hạn
+     */
+    public BookingCommitPipeline(BookingDao bookingDao, ConnectionAdmission admission, int committerCount,
+                                 int maxBatchSize, long lingerMillis) {
+        this.bookingDao = bookingDao;
+        this.admission = admission;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerMillis = lingerMillis;
+        for (int i = 0; i < committerCount; i++) {
+            Thread committer = new Thread(this::run, "booking-commit-" + i);
+            committer.setDaemon(true);
+            committer.start();
+            committers.add(committer);
+        }
+    }
+
+    /**
+     * Gửi một đơn (ghế phải đang được giữ) cùng thanh toán để xác nhận
+     * @return Future hoàn thành với đơn đã CONFIRMED, hoặc lỗi nếu ghế không còn giữ được
+     */
+    public CompletableFuture<Booking> submit(Booking booking, Payment payment) {
+        CompletableFuture<Booking> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new IllegalStateException("Pipeline đã đóng"));
+            return future;
+        }
+        Checkout checkout = new Checkout(booking, payment, future);
+        queue.add(checkout);
+        // close() có thể đã chạy xong giữa lần kiểm tra running và lúc thêm vào hàng đợi:
+        // nếu đơn vẫn còn trong hàng đợi thì không luồng nào xử lý nữa, tự lấy ra và báo lỗi
+        if (!running && queue.remove(checkout)) {
+            future.completeExceptionally(new IllegalStateException("Pipeline đã đóng"));
+        }
+        return future;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return Cổng giới hạn kết nối của pipeline, null nếu không có
+     */
+    public ConnectionAdmission getAdmission() {
+        return admission;
+    }
+
+    private void run() {
+        List<Checkout> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Checkout first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Checkout next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Xác nhận lô " + batch.size() + " đơn lỗi", e);
+                for (Checkout checkout : batch) {
+                    checkout.future.completeExceptionally(e);
+                }
+            } catch (InterruptedException e) {
+                for (Checkout checkout : batch) {
+                    checkout.future.completeExceptionally(e);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Checkout> batch) throws InterruptedException {
+        List<Booking> bookings = new ArrayList<>(batch.size());
+        List<Payment> payments = new ArrayList<>(batch.size());
+        for (Checkout checkout : batch) {
+            bookings.add(checkout.booking);
+            payments.add(checkout.payment);
+        }
+
+        try {
+            complete(batch, confirmBatch(bookings, payments));
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            LOGGER.log(Level.WARNING, "Lô " + batch.size() + " đơn lỗi, chạy lại từng đơn", e);
+            for (Checkout checkout : batch) {
+                commit(Collections.singletonList(checkout));
+            }
+        }
+    }
+
+    private BitSet confirmBatch(List<Booking> bookings, List<Payment> payments)
+            throws SQLException, InterruptedException {
+        if (admission == null) {
+            return bookingDao.confirmBatch(bookings, payments);
+        }
+        admission.acquireBlocking();
+        try {
+            return bookingDao.confirmBatch(bookings, payments);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private static void complete(List<Checkout> batch, BitSet failed) {
+        for (int i = 0; i < batch.size(); i++) {
+            Checkout checkout = batch.get(i);
+            if (failed.get(i)) {
+                checkout.future.completeExceptionally(new IllegalStateException(
+                        "Ghế không còn được giữ hoặc đơn đã bị hủy: " + checkout.booking.getSeatIds()));
+            } else {
+                checkout.future.complete(checkout.booking);
+            }
+        }
+    }
+
+    /**
+     * Ngừng nhận đơn mới và chờ xác nhận hết các đơn đang xếp hàng.
+     * Đơn còn sót lại sau khi các luồng commit đã dừng (ví dụ luồng bị interrupt) được báo lỗi.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Thread committer : committers) {
+                committer.join();
+            }
+        } catch (InterruptedException e) {
+            // Các luồng commit vẫn xử lý nốt hàng đợi; giữ cờ interrupt cho người gọi
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Checkout leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new IllegalStateException("Pipeline đã đóng"));
+        }
+    }
+
+    private static class Checkout {
+        final Booking booking;
+        final Payment payment;
+        final CompletableFuture<Booking> future;
+
+        Checkout(Booking booking, Payment payment, CompletableFuture<Booking> future) {
+            this.booking = booking;
+            this.payment = payment;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package service;
+
+/**
+ * Yêu cầu đặt vé bị từ chối sớm: suất chiếu đã hết ghế hoặc hệ thống đang quá tải
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Reason {
+        SOLD_OUT,
+        BUSY
+    }
+
+    private final Reason reason;
+
+    public BookingRejectedException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public boolean isSoldOut() {
+        return reason == Reason.SOLD_OUT;
+    }
+
+    public boolean isBusy() {
+        return reason == Reason.BUSY;
+    }
+}
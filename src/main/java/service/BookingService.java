@@ -0,0 +1,139 @@
+package service;
+
+import dao.BookingDao;
+import model.Booking;
+import model.Payment;
+import model.SeatStatus;
+import util.ConnectionAdmission;
+import util.DatabaseConnection;
+import util.VirtualThreads;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Facade đặt vé. Mỗi yêu cầu chạy trên một virtual thread; mọi truy cập JDBC đi qua ConnectionAdmission
+ * nên số luồng chờ kết nối không vượt quá kích thước pool, và yêu cầu chờ quá lâu bị từ chối với
+ * BookingRejectedException (BUSY) thay vì treo tới connectionTimeout. BookingCommitPipeline phải dùng chung
+ * cổng đó, nên các lần commit lô cũng được tính vào số kết nối đang dùng.
+ */
+public class BookingService implements AutoCloseable {
+
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 2000;
+
+    private final SeatMapEngine seatMapEngine;
+    private final BookingCommitPipeline commitPipeline;
+    private final ConnectionAdmission admission;
+    private final ExecutorService executor;
+
+    /**
+     * Tác vụ JDBC chạy dưới sự kiểm soát của ConnectionAdmission
+     */
+    @FunctionalInterface
+    public interface JdbcCall<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Tạo pipeline xác nhận đơn và cổng kết nối có kích thước bằng pool OLTP, dùng chung cho cả hai
+     */
+    public static BookingService create(SeatMapEngine seatMapEngine, BookingDao bookingDao) {
+        ConnectionAdmission admission = new ConnectionAdmission(DatabaseConnection.getMaximumPoolSize(),
+                DEFAULT_MAX_WAIT_MILLIS);
+        return new BookingService(seatMapEngine, new BookingCommitPipeline(bookingDao, admission, 1, 100, 2),
+                admission);
+    }
+
+    /**
+     * Dùng cổng kết nối của pipeline
+     * @throws IllegalArgumentException nếu pipeline không có ConnectionAdmission
+     */
+    public BookingService(SeatMapEngine seatMapEngine, BookingCommitPipeline commitPipeline) {
+        this(seatMapEngine, commitPipeline, commitPipeline.getAdmission());
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu pipeline không dùng chính cổng admission
+     */
+    public BookingService(SeatMapEngine seatMapEngine, BookingCommitPipeline commitPipeline,
+                          ConnectionAdmission admission) {
+        if (admission == null || commitPipeline.getAdmission() != admission) {
+            throw new IllegalArgumentException("BookingCommitPipeline phải dùng chung ConnectionAdmission với BookingService");
+        }
+        this.seatMapEngine = seatMapEngine;
+        this.commitPipeline = commitPipeline;
+        this.admission = admission;
+        this.executor = VirtualThreads.newPerTaskExecutor("booking-service");
+    }
+
+    /**
+     * Chạy một tác vụ JDBC trên virtual thread sau khi được cấp permit
+     */
+    public <T> CompletableFuture<T> execute(JdbcCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> callAdmitted(call), executor);
+    }
+
+    /**
+     * Lấy sơ đồ ghế; chỉ chạm database nếu sơ đồ chưa có trong bộ nhớ
+     */
+    public CompletableFuture<ShowtimeSeatMap> getSeatMap(int showtimeId) {
+        ShowtimeSeatMap cached = seatMapEngine.get(showtimeId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return execute(() -> seatMapEngine.getOrLoad(showtimeId));
+    }
+
+    /**
+     * Giữ một nhóm ghế (tất cả hoặc không)
+     * @return Future true nếu giữ được; lỗi BookingRejectedException SOLD_OUT nếu suất chiếu hết ghế
+     */
+    public CompletableFuture<Boolean> holdSeats(int showtimeId, List<Integer> seatIds) {
+        return getSeatMap(showtimeId).thenApply(seatMap -> {
+            if (seatMap.count(SeatStatus.AVAILABLE) < seatIds.size()) {
+                throw new BookingRejectedException(BookingRejectedException.Reason.SOLD_OUT,
+                        "Suất chiếu " + showtimeId + " không còn đủ ghế trống");
+            }
+            return seatMapEngine.reserveAll(showtimeId, seatIds);
+        });
+    }
+
+    /**
+     * Xác nhận đơn đã giữ ghế qua BookingCommitPipeline (luồng commit chờ permit của cùng cổng)
+     */
+    public CompletableFuture<Booking> confirm(Booking booking, Payment payment) {
+        return commitPipeline.submit(booking, payment);
+    }
+
+    public ConnectionAdmission getAdmission() {
+        return admission;
+    }
+
+    private <T> T callAdmitted(JdbcCall<T> call) {
+        try {
+            if (!admission.acquire()) {
+                throw new BookingRejectedException(BookingRejectedException.Reason.BUSY,
+                        "Hệ thống đang bận, vui lòng thử lại sau");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        try {
+            return call.call();
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        } finally {
+            admission.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
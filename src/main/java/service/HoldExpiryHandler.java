@@ -0,0 +1,16 @@
+package service;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Xử lý một lô lượt giữ ghế đã hết hạn
+ */
+public interface HoldExpiryHandler {
+
+    /**
+     * @param holds Các lượt giữ đã hết hạn trong cùng một lần quay bánh xe
+     * @throws SQLException nếu không ghi được; scheduler sẽ thử lại sau
+     */
+    void onExpired(List<SeatHold> holds) throws SQLException;
+}
@@ -0,0 +1,252 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bộ hẹn giờ hết hạn giữ ghế dùng hierarchical timing wheel.
+ * Thêm và hủy một lượt giữ là O(1); mỗi tick chỉ duyệt đúng một ô của tầng thấp nhất,
+ * các tầng cao được hạ dần xuống khi tới lượt. Không quét bảng, không tạo timer cho từng lượt giữ.
+ */
+public class HoldExpiryScheduler implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(HoldExpiryScheduler.class.getName());
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final long tickMillis;
+    private final HoldExpiryHandler handler;
+    private final SeatHold[][] wheels = new SeatHold[LEVELS][WHEEL_SIZE];
+    private final Map<Integer, SeatHold> holdsByBooking = new HashMap<>();
+    private final List<SeatHold> overdue = new ArrayList<>();
+    private long currentTick;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * @param tickMillis Độ phân giải của bánh xe (ms)
+     * @param handler Bộ xử lý lượt giữ hết hạn
+     */
+    public HoldExpiryScheduler(long tickMillis, HoldExpiryHandler handler) {
+        this(tickMillis, handler, System.currentTimeMillis());
+    }
+
+    public HoldExpiryScheduler(long tickMillis, HoldExpiryHandler handler, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis phải lớn hơn 0");
+        }
+        this.tickMillis = tickMillis;
+        this.handler = handler;
+        this.currentTick = startMillis / tickMillis;
+        for (SeatHold[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                SeatHold sentinel = new SeatHold(0, 0, new int[0], 0, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheel[i] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Bắt đầu luồng quay bánh xe theo đồng hồ hệ thống
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "hold-expiry-ticker");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> advanceTo(System.currentTimeMillis()),
+                tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Đăng ký giữ ghế cho một đơn; thay thế lượt giữ cũ của cùng đơn nếu có
+     */
+    public SeatHold hold(int bookingId, int showtimeId, int[] seatIds, long deadlineMillis) {
+        SeatHold hold = new SeatHold(bookingId, showtimeId, seatIds, deadlineMillis,
+                (deadlineMillis + tickMillis - 1) / tickMillis);
+        synchronized (this) {
+            SeatHold previous = holdsByBooking.put(bookingId, hold);
+            if (previous != null) {
+                unlink(previous);
+            }
+            insert(hold);
+        }
+        return hold;
+    }
+
+    /**
+     * Hủy lượt giữ (ví dụ khi đơn đã được thanh toán)
+     * @return true nếu có lượt giữ để hủy
+     */
+    public synchronized boolean cancel(int bookingId) {
+        SeatHold hold = holdsByBooking.remove(bookingId);
+        if (hold == null) {
+            return false;
+        }
+        // Lượt giữ nằm trong overdue được bỏ qua khi quay bánh xe (không còn trong holdsByBooking)
+        unlink(hold);
+        return true;
+    }
+
+    /**
+     * @return Số lượt giữ đang chờ hết hạn
+     */
+    public synchronized int size() {
+        return holdsByBooking.size();
+    }
+
+    /**
+     * Quay bánh xe tới thời điểm nowMillis và xử lý các lượt giữ hết hạn trong một lô
+     * @return Số lượt giữ hết hạn
+     */
+    public int advanceTo(long nowMillis) {
+        List<SeatHold> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = nowMillis / tickMillis;
+            List<SeatHold> due = new ArrayList<>(overdue);
+            overdue.clear();
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                // Lượt giữ hạ xuống đúng tick hiện tại (delta 0) được insert đưa vào overdue: xử lý ngay trong lượt này
+                due.addAll(overdue);
+                overdue.clear();
+                drain(wheels[0][(int) (currentTick & WHEEL_MASK)], due);
+            }
+            for (SeatHold hold : due) {
+                // Lượt giữ đã bị hủy hoặc thay thế thì không còn là lượt giữ hiện hành của đơn
+                if (holdsByBooking.remove(hold.getBookingId(), hold)) {
+                    expired.add(hold);
+                }
+            }
+        }
+
+        if (!expired.isEmpty()) {
+            try {
+                handler.onExpired(expired);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Xử lý " + expired.size() + " lượt giữ hết hạn thất bại, sẽ thử lại", e);
+                retry(expired, nowMillis);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Hẹn lại các lượt giữ xử lý thất bại với độ trễ tăng dần. Đơn đã được giữ lại hoặc hủy trong lúc xử lý
+     * thì bỏ qua; lượt giữ thất bại quá MAX_ATTEMPTS lần bị bỏ và ghi log.
+     */
+    private synchronized void retry(List<SeatHold> failed, long nowMillis) {
+        for (SeatHold hold : failed) {
+            if (holdsByBooking.containsKey(hold.getBookingId())) {
+                continue;
+            }
+            if (hold.attempts + 1 >= MAX_ATTEMPTS) {
+                LOGGER.severe("Bỏ lượt giữ của đơn " + hold.getBookingId() + " sau " + MAX_ATTEMPTS + " lần xử lý thất bại");
+                continue;
+            }
+            long deadline = nowMillis + (RETRY_DELAY_MILLIS << hold.attempts);
+            SeatHold again = new SeatHold(hold.getBookingId(), hold.getShowtimeId(), hold.getSeatIds(), deadline,
+                    (deadline + tickMillis - 1) / tickMillis);
+            again.attempts = hold.attempts + 1;
+            holdsByBooking.put(again.getBookingId(), again);
+            insert(again);
+        }
+    }
+
+    /**
+     * Hạ các lượt giữ ở tầng cao xuống khi các bit thấp của tick hiện tại quay về 0.
+     * Duyệt từ tầng cao xuống để lượt giữ vừa hạ không rơi vào ô đã xử lý.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long lowerMask = (1L << (level * WHEEL_BITS)) - 1;
+            if ((currentTick & lowerMask) != 0) {
+                continue;
+            }
+            SeatHold sentinel = wheels[level][(int) ((currentTick >>> (level * WHEEL_BITS)) & WHEEL_MASK)];
+            SeatHold hold = sentinel.next;
+            sentinel.next = sentinel;
+            sentinel.prev = sentinel;
+            while (hold != sentinel) {
+                SeatHold next = hold.next;
+                insert(hold);
+                hold = next;
+            }
+        }
+    }
+
+    private void insert(SeatHold hold) {
+        long delta = hold.deadlineTick - currentTick;
+        if (delta <= 0) {
+            hold.prev = null;
+            hold.next = null;
+            overdue.add(hold);
+            return;
+        }
+
+        long slotTick = hold.deadlineTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * WHEEL_BITS))) {
+            level++;
+        }
+        if (delta >= (1L << (LEVELS * WHEEL_BITS))) {
+            // Vượt tầm bánh xe: đặt vào ô xa nhất, khi hạ xuống sẽ tính lại theo hạn thật
+            slotTick = currentTick + (1L << (LEVELS * WHEEL_BITS)) - 1;
+        }
+
+        SeatHold sentinel = wheels[level][(int) ((slotTick >>> (level * WHEEL_BITS)) & WHEEL_MASK)];
+        hold.prev = sentinel.prev;
+        hold.next = sentinel;
+        sentinel.prev.next = hold;
+        sentinel.prev = hold;
+    }
+
+    private static void unlink(SeatHold hold) {
+        if (hold.prev != null) {
+            hold.prev.next = hold.next;
+            hold.next.prev = hold.prev;
+            hold.prev = null;
+            hold.next = null;
+        }
+    }
+
+    private static void drain(SeatHold sentinel, List<SeatHold> expired) {
+        SeatHold hold = sentinel.next;
+        while (hold != sentinel) {
+            SeatHold next = hold.next;
+            hold.prev = null;
+            hold.next = null;
+            expired.add(hold);
+            hold = next;
+        }
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker = null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package service;
+
+import dao.BookingDao;
+import model.SeatStatus;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Giải phóng ghế và hủy đơn PENDING khi hết hạn giữ, ghi xuống database theo từng lô.
+ * Nếu có SeatMapEngine thì những ghế database thực sự đã trả cũng được trả về AVAILABLE trong bộ nhớ.
+ */
+public class JdbcHoldExpiryHandler implements HoldExpiryHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(JdbcHoldExpiryHandler.class.getName());
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final BookingDao bookingDao;
+    private final SeatMapEngine seatMapEngine;
+    private final int batchSize;
+
+    public JdbcHoldExpiryHandler(BookingDao bookingDao) {
+        this(bookingDao, null, DEFAULT_BATCH_SIZE);
+    }
+
+    public JdbcHoldExpiryHandler(BookingDao bookingDao, SeatMapEngine seatMapEngine, int batchSize) {
+        this.bookingDao = bookingDao;
+        this.seatMapEngine = seatMapEngine;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onExpired(List<SeatHold> holds) throws SQLException {
+        for (int from = 0; from < holds.size(); from += batchSize) {
+            List<SeatHold> batch = holds.subList(from, Math.min(from + batchSize, holds.size()));
+            Map<Integer, int[]> seatIdsByBooking = new LinkedHashMap<>();
+            for (SeatHold hold : batch) {
+                seatIdsByBooking.put(hold.getBookingId(), hold.getSeatIds());
+            }
+            Set<Integer> released = new HashSet<>(bookingDao.expireHolds(seatIdsByBooking));
+
+            if (seatMapEngine != null) {
+                // Chỉ trả trong bộ nhớ những ghế database đã trả: ghế đã thuộc đơn khác thì giữ nguyên
+                for (SeatHold hold : batch) {
+                    if (seatMapEngine.get(hold.getShowtimeId()) == null) {
+                        continue;
+                    }
+                    for (int seatId : hold.getSeatIds()) {
+                        if (released.contains(seatId)) {
+                            releaseInMemory(hold, seatId);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void releaseInMemory(SeatHold hold, int seatId) {
+        try {
+            seatMapEngine.release(hold.getShowtimeId(), seatId, SeatStatus.RESERVED);
+        } catch (IllegalArgumentException e) {
+            // Database đã commit; sơ đồ trong bộ nhớ lệch thì chỉ ghi log, không để scheduler thử lại cả lô
+            LOGGER.log(Level.WARNING, "Không trả được ghế " + seatId + " trong bộ nhớ cho đơn " + hold.getBookingId(), e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package service;
+
+import model.SeatStatus;
+import model.SeatType;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chọn và giữ dãy ghế liền nhau tốt nhất cho một nhóm khách.
+ * Số ghế ("A12", "VIP-01") được tách thành hàng/cột; mỗi hàng chia thành các đoạn ghế cùng loại có số cột liên tiếp.
+ * Các dãy ghế trống liền nhau của mỗi loại ghế nằm trong một TreeSet sắp theo (độ dài, độ lệch khỏi hàng đẹp),
+ * nên tìm dãy vừa nhất cho N ghế là một lần ceiling O(log n). Chỉ số được cập nhật qua SeatTransitionListener
+ * nên ghế bị giữ theo đường khác cũng được tính. Ghế đôi (COUPLE) bán cho hai người một ghế.
+ */
+public class SeatAllocator implements SeatTransitionListener {
+
+    private static final Pattern SEAT_NUMBER = Pattern.compile("([A-Za-z]+)-?(\\d+)");
+    private static final int MAX_ATTEMPTS = 4;
+
+    private final SeatMapEngine engine;
+    private final ConcurrentMap<Integer, Grid> grids = new ConcurrentHashMap<>();
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public SeatAllocator(SeatMapEngine engine) {
+        this.engine = engine;
+        engine.addListener(this);
+    }
+
+    /**
+     * Số ghế cần cho một nhóm khách: ghế đôi ngồi được hai người
+     */
+    public static int seatsNeeded(SeatType seatType, int guests) {
+        if (guests <= 0) {
+            throw new IllegalArgumentException("Số khách phải lớn hơn 0: " + guests);
+        }
+        return seatType == SeatType.COUPLE ? (guests + 1) / 2 : guests;
+    }
+
+    /**
+     * Tìm và giữ dãy ghế liền nhau tốt nhất trong một hàng.
+     * Ưu tiên dãy trống vừa nhất (giữ lại dãy dài cho nhóm đông), sau đó hàng gần hàng đẹp nhất
+     * (khoảng 2/3 về phía cuối phòng); trong dãy chọn vị trí gần giữa hàng nhất.
+     * @param showtimeId Mã suất chiếu
+     * @param seatType Loại ghế
+     * @param guests Số khách
+     * @return Dãy ghế đã chuyển sang RESERVED, hoặc null nếu không còn dãy nào đủ dài
+     */
+    public SeatBlock allocate(int showtimeId, SeatType seatType, int guests) throws SQLException {
+        int count = seatsNeeded(seatType, guests);
+        Grid grid = grid(showtimeId);
+        synchronized (grid) {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                Run run = grid.runs(seatType).ceiling(Run.probe(count));
+                if (run == null) {
+                    return null;
+                }
+                int start = run.segment.bestStart(run, count);
+                List<Integer> seatIds = new ArrayList<>(count);
+                for (int i = start; i < start + count; i++) {
+                    seatIds.add(grid.seatMap.getSeatId(run.segment.seats[i]));
+                }
+                // Listener cập nhật chỉ số ngay trong lời gọi này (cùng luồng, khóa reentrant)
+                if (engine.reserveAll(showtimeId, seatIds)) {
+                    allocations.increment();
+                    return grid.block(run.segment, start, count);
+                }
+                // Ghế bị giữ theo luồng khác: listener của luồng đó đang chờ khóa lưới nên chỉ số chưa được cập nhật,
+                // tự tính lại đoạn này từ sơ đồ trước khi thử lại để không chọn lại đúng dãy cũ
+                conflicts.increment();
+                grid.reindex(run.segment);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Trả dãy ghế đã giữ về AVAILABLE (khách bỏ chọn)
+     */
+    public void release(SeatBlock block) {
+        for (int seatId : block.getSeatIds()) {
+            engine.release(block.getShowtimeId(), seatId, SeatStatus.RESERVED);
+        }
+    }
+
+    /**
+     * @return Độ dài dãy ghế trống liền nhau dài nhất của loại ghế
+     */
+    public int largestBlock(int showtimeId, SeatType seatType) throws SQLException {
+        Grid grid = grid(showtimeId);
+        synchronized (grid) {
+            TreeSet<Run> runs = grid.runs(seatType);
+            return runs.isEmpty() ? 0 : runs.last().length;
+        }
+    }
+
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    /**
+     * @return Số lần giữ dãy thất bại vì ghế bị giữ theo đường khác cùng lúc
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        if (from != SeatStatus.AVAILABLE && to != SeatStatus.AVAILABLE) {
+            return;
+        }
+        Grid grid = grids.get(showtimeId);
+        if (grid == null) {
+            return;
+        }
+        synchronized (grid) {
+            int index = grid.seatMap.indexOf(seatId);
+            if (index >= 0 && grid.segmentOf[index] != null) {
+                grid.reindex(grid.segmentOf[index]);
+            }
+        }
+    }
+
+    private Grid grid(int showtimeId) throws SQLException {
+        ShowtimeSeatMap seatMap = engine.getOrLoad(showtimeId);
+        Grid grid = grids.get(showtimeId);
+        if (grid != null && grid.seatMap == seatMap) {
+            return grid;
+        }
+        // Sơ đồ được nạp lại (hoặc lần đầu): dựng lại lưới
+        return grids.compute(showtimeId, (id, current) ->
+                current != null && current.seatMap == seatMap ? current : new Grid(seatMap));
+    }
+
+    /**
+     * Lưới ghế của một suất chiếu: các đoạn ghế theo hàng và chỉ số dãy trống theo loại ghế
+     */
+    private static final class Grid {
+        final ShowtimeSeatMap seatMap;
+        final Segment[] segmentOf;
+        final Map<SeatType, TreeSet<Run>> free = new EnumMap<>(SeatType.class);
+        final String[] rowLabels;
+
+        Grid(ShowtimeSeatMap seatMap) {
+            this.seatMap = seatMap;
+            this.segmentOf = new Segment[seatMap.size()];
+            for (SeatType type : SeatType.values()) {
+                free.put(type, new TreeSet<>(Run.ORDER));
+            }
+
+            // Tách số ghế thành (hàng, cột); ghế không đúng mẫu không được xếp theo dãy
+            List<int[]> parsed = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (int i = 0; i < seatMap.size(); i++) {
+                Matcher matcher = SEAT_NUMBER.matcher(seatMap.getSeatNumber(i));
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String label = matcher.group(1).toUpperCase();
+                int row = labels.indexOf(label);
+                if (row < 0) {
+                    row = labels.size();
+                    labels.add(label);
+                }
+                parsed.add(new int[]{row, Integer.parseInt(matcher.group(2)), i});
+            }
+            // Thứ tự hàng: A..Z rồi AA..
+            String[] sorted = labels.toArray(new String[0]);
+            Arrays.sort(sorted, Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+            this.rowLabels = sorted;
+            int[] rowOrder = new int[labels.size()];
+            for (int r = 0; r < sorted.length; r++) {
+                rowOrder[labels.indexOf(sorted[r])] = r;
+            }
+            int preferredRow = Math.round((sorted.length - 1) * 2 / 3f);
+
+            int[] minColumn = new int[sorted.length];
+            int[] maxColumn = new int[sorted.length];
+            Arrays.fill(minColumn, Integer.MAX_VALUE);
+            Arrays.fill(maxColumn, Integer.MIN_VALUE);
+            for (int[] seat : parsed) {
+                seat[0] = rowOrder[seat[0]];
+                minColumn[seat[0]] = Math.min(minColumn[seat[0]], seat[1]);
+                maxColumn[seat[0]] = Math.max(maxColumn[seat[0]], seat[1]);
+            }
+            parsed.sort(Comparator.<int[]>comparingInt(s -> s[0]).thenComparingInt(s -> s[1]));
+
+            int from = 0;
+            int nextId = 0;
+            for (int i = 1; i <= parsed.size(); i++) {
+                boolean split = i == parsed.size();
+                if (!split) {
+                    int[] prev = parsed.get(i - 1);
+                    int[] seat = parsed.get(i);
+                    split = seat[0] != prev[0] || seat[1] != prev[1] + 1
+                            || seatMap.getSeatType(seat[2]) != seatMap.getSeatType(prev[2]);
+                }
+                if (split) {
+                    int[] first = parsed.get(from);
+                    int row = first[0];
+                    int[] seats = new int[i - from];
+                    for (int k = from; k < i; k++) {
+                        seats[k - from] = parsed.get(k)[2];
+                    }
+                    Segment segment = new Segment(nextId++, row, first[1], seats, seatMap.getSeatType(seats[0]),
+                            Math.abs(row - preferredRow), (minColumn[row] + maxColumn[row]) / 2.0);
+                    for (int seatIndex : seats) {
+                        segmentOf[seatIndex] = segment;
+                    }
+                    reindex(segment);
+                    from = i;
+                }
+            }
+        }
+
+        TreeSet<Run> runs(SeatType seatType) {
+            return free.get(seatType);
+        }
+
+        /**
+         * Tính lại các dãy trống của một đoạn theo trạng thái hiện tại của sơ đồ
+         */
+        void reindex(Segment segment) {
+            TreeSet<Run> runs = free.get(segment.seatType);
+            runs.removeAll(segment.runs);
+            segment.runs.clear();
+            int start = -1;
+            for (int i = 0; i <= segment.seats.length; i++) {
+                boolean available = i < segment.seats.length
+                        && seatMap.getStatus(segment.seats[i]) == SeatStatus.AVAILABLE;
+                if (available && start < 0) {
+                    start = i;
+                } else if (!available && start >= 0) {
+                    Run run = new Run(segment, start, i - start);
+                    segment.runs.add(run);
+                    runs.add(run);
+                    start = -1;
+                }
+            }
+        }
+
+        SeatBlock block(Segment segment, int start, int count) {
+            int[] seatIds = new int[count];
+            String[] seatNumbers = new String[count];
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                int index = segment.seats[start + i];
+                seatIds[i] = seatMap.getSeatId(index);
+                seatNumbers[i] = seatMap.getSeatNumber(index);
+                total += seatMap.getPrice(index);
+            }
+            return new SeatBlock(seatMap.getShowtimeId(), rowLabels[segment.row], segment.seatType,
+                    seatIds, seatNumbers, total);
+        }
+    }
+
+    /**
+     * Các ghế cùng loại, cùng hàng, số cột liên tiếp
+     */
+    private static final class Segment {
+        final int id;
+        final int row;
+        final int firstColumn;
+        final int[] seats;
+        final SeatType seatType;
+        final int rowPenalty;
+        final double rowCenter;
+        final List<Run> runs = new ArrayList<>(2);
+
+        Segment(int id, int row, int firstColumn, int[] seats, SeatType seatType, int rowPenalty, double rowCenter) {
+            this.id = id;
+            this.row = row;
+            this.firstColumn = firstColumn;
+            this.seats = seats;
+            this.seatType = seatType;
+            this.rowPenalty = rowPenalty;
+            this.rowCenter = rowCenter;
+        }
+
+        /**
+         * Vị trí bắt đầu trong dãy trống sao cho khối count ghế gần giữa hàng nhất
+         */
+        int bestStart(Run run, int count) {
+            double ideal = rowCenter - (count - 1) / 2.0 - firstColumn;
+            int start = (int) Math.round(ideal);
+            return Math.max(run.start, Math.min(start, run.start + run.length - count));
+        }
+    }
+
+    /**
+     * Một dãy ghế trống liền nhau trong một đoạn
+     */
+    private static final class Run {
+        static final Comparator<Run> ORDER = Comparator.<Run>comparingInt(r -> r.length)
+                .thenComparingInt(r -> r.penalty)
+                .thenComparingInt(r -> r.segmentId)
+                .thenComparingInt(r -> r.start);
+
+        final Segment segment;
+        final int segmentId;
+        final int start;
+        final int length;
+        final int penalty;
+
+        Run(Segment segment, int start, int length) {
+            this.segment = segment;
+            this.segmentId = segment.id;
+            this.start = start;
+            this.length = length;
+            this.penalty = segment.rowPenalty;
+        }
+
+        private Run(int length) {
+            this.segment = null;
+            this.segmentId = Integer.MIN_VALUE;
+            this.start = Integer.MIN_VALUE;
+            this.length = length;
+            this.penalty = Integer.MIN_VALUE;
+        }
+
+        /**
+         * Khóa tìm kiếm: nhỏ hơn mọi dãy có cùng độ dài
+         */
+        static Run probe(int length) {
+            return new Run(length);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package service;
+
+import model.SeatType;
+
+import java.util.Arrays;
+
+/**
+ * Một dãy ghế liền nhau cùng hàng đã được SeatAllocator giữ (RESERVED) cho một nhóm khách
+ */
+public class SeatBlock {
+    private final int showtimeId;
+    private final String rowLabel;
+    private final SeatType seatType;
+    private final int[] seatIds;
+    private final String[] seatNumbers;
+    private final long totalPrice;
+
+    SeatBlock(int showtimeId, String rowLabel, SeatType seatType, int[] seatIds, String[] seatNumbers,
+              long totalPrice) {
+        this.showtimeId = showtimeId;
+        this.rowLabel = rowLabel;
+        this.seatType = seatType;
+        this.seatIds = seatIds;
+        this.seatNumbers = seatNumbers;
+        this.totalPrice = totalPrice;
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    public String getRowLabel() {
+        return rowLabel;
+    }
+
+    public SeatType getSeatType() {
+        return seatType;
+    }
+
+    public int[] getSeatIds() {
+        return seatIds.clone();
+    }
+
+    public String[] getSeatNumbers() {
+        return seatNumbers.clone();
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    /**
+     * @return Tổng giá các ghế (đồng)
+     */
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatBlock{" +
+                "showtimeId=" + showtimeId +
+                ", seatType=" + seatType.name() +
+                ", seats=" + Arrays.toString(seatNumbers) +
+                ", totalPrice=" + totalPrice +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Một lượt giữ ghế tạm thời của đơn đặt vé PENDING, hết hạn tại deadlineMillis.
+ * Các trường liên kết dùng nội bộ cho danh sách liên kết đôi trong timing wheel.
+ */
+public class SeatHold {
+    private final int bookingId;
+    private final int showtimeId;
+    private final int[] seatIds;
+    private final long deadlineMillis;
+    final long deadlineTick;
+    int attempts;
+
+    SeatHold prev;
+    SeatHold next;
+
+    SeatHold(int bookingId, int showtimeId, int[] seatIds, long deadlineMillis, long deadlineTick) {
+        this.bookingId = bookingId;
+        this.showtimeId = showtimeId;
+        this.seatIds = seatIds.clone();
+        this.deadlineMillis = deadlineMillis;
+        this.deadlineTick = deadlineTick;
+    }
+
+    public int getBookingId() {
+        return bookingId;
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    public int[] getSeatIds() {
+        return seatIds.clone();
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "bookingId=" + bookingId +
+                ", showtimeId=" + showtimeId +
+                ", seatIds=" + Arrays.toString(seatIds) +
+                ", deadlineMillis=" + deadlineMillis +
+                '}';
+    }
+}
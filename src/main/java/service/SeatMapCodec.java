@@ -0,0 +1,302 @@
+package service;
+
+import model.SeatStatus;
+import model.SeatType;
+import util.ByteBufferPool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Mã hóa sơ đồ ghế thành khung nhị phân gọn để gửi cho client.
+ * <pre>
+ * Chung:  magic 'S' (1) | loại (1) | showtimeId (4) | version (8)
+ * FULL:   số ghế (varint) | seatId đầu tiên rồi các khoảng cách (varint)
+ *         | mỗi ghế 16 bit: hàng (5) cột (7) loại ghế (2) trạng thái (2)
+ *         | số ghế có số hiệu đặc biệt (varint), mỗi ghế: vị trí (varint), độ dài (varint), UTF-8
+ * DELTA:  baseVersion (8) | số ghế đổi (varint) | khoảng cách vị trí (varint) | trạng thái 2 bit/ghế
+ * </pre>
+ * Số hiệu ghế dạng "A12" (một chữ cái A-Z và số 0-127 không có số 0 đứng đầu) nằm gọn trong 12 bit,
+ * số hiệu khác được ghi nguyên văn ở phần cuối. Giá vé không nằm trong khung.
+ * Khung được ghi thẳng từ ShowtimeSeatMap vào direct ByteBuffer lấy từ pool, không qua đối tượng Seat;
+ * buffer lấy theo lớp kích thước vừa với cận trên của khung, nên khung DELTA vài ghế không chiếm buffer 16 KB.
+ * Gửi xong phải gọi release đúng một lần.
+ */
+public class SeatMapCodec {
+
+    private static final byte MAGIC = 'S';
+    private static final byte FULL = 1;
+    private static final byte DELTA = 2;
+    private static final int HEADER_BYTES = 14;
+    private static final int ESCAPED_ROW = 31;
+    private static final int MAX_COLUMN = 127;
+    private static final SeatType[] TYPES = SeatType.values();
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+
+    static {
+        if (TYPES.length > 4 || STATUSES.length > 4) {
+            throw new ExceptionInInitializerError("SeatType/SeatStatus không còn vừa 2 bit");
+        }
+    }
+
+    private final ByteBufferPool pool;
+
+    public SeatMapCodec() {
+        this(new ByteBufferPool(256, 16 * 1024, 64));
+    }
+
+    public SeatMapCodec(ByteBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Mã hóa toàn bộ sơ đồ
+     * @return Buffer đã flip, sẵn sàng để ghi ra channel
+     */
+    public ByteBuffer encodeSnapshot(ShowtimeSeatMap seatMap) {
+        // Đọc phiên bản trước khi đọc trạng thái: mọi thay đổi đến phiên bản này đều nằm trong khung
+        long version = seatMap.getVersion();
+        int size = seatMap.size();
+
+        // Cận trên sát với khung: độ dài varint thật của từng khoảng cách seatId, 2 byte mỗi ghế
+        int bound = HEADER_BYTES + varintSize(size) + size * 2 + 5;
+        int escaped = 0;
+        int previousId = 0;
+        for (int i = 0; i < size; i++) {
+            bound += varintSize(seatMap.getSeatId(i) - previousId);
+            previousId = seatMap.getSeatId(i);
+            if (packNumber(seatMap.getSeatNumber(i)) < 0) {
+                escaped++;
+                bound += varintSize(i) + 5 + 3 * seatMap.getSeatNumber(i).length();
+            }
+        }
+
+        ByteBuffer buffer = allocate(bound);
+        writeHeader(buffer, FULL, seatMap.getShowtimeId(), version);
+        writeVarint(buffer, size);
+        previousId = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarint(buffer, seatMap.getSeatId(i) - previousId);
+            previousId = seatMap.getSeatId(i);
+        }
+        for (int i = 0; i < size; i++) {
+            int number = packNumber(seatMap.getSeatNumber(i));
+            if (number < 0) {
+                number = ESCAPED_ROW << 7;
+            }
+            buffer.putShort((short) ((number << 4)
+                    | (seatMap.getSeatType(i).ordinal() << 2)
+                    | seatMap.getStatus(i).ordinal()));
+        }
+        writeVarint(buffer, escaped);
+        for (int i = 0; i < size && escaped > 0; i++) {
+            if (packNumber(seatMap.getSeatNumber(i)) < 0) {
+                byte[] bytes = seatMap.getSeatNumber(i).getBytes(StandardCharsets.UTF_8);
+                writeVarint(buffer, i);
+                writeVarint(buffer, bytes.length);
+                buffer.put(bytes);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Mã hóa các thay đổi kể từ phiên bản client đang có; nếu phiên bản không dùng được
+     * (khác lần nạp, quá cũ, hoặc 0) thì trả về khung FULL
+     * @return Buffer đã flip
+     */
+    public ByteBuffer encodeChanges(ShowtimeSeatMap seatMap, long sinceVersion) {
+        BitSet changed = new BitSet(seatMap.size());
+        long version = seatMap.changesSince(sinceVersion, changed);
+        if (version < 0) {
+            return encodeSnapshot(seatMap);
+        }
+
+        int count = changed.cardinality();
+        int bound = HEADER_BYTES + 8 + varintSize(count) + (count + 3) / 4;
+        int last = 0;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            bound += varintSize(i - last);
+            last = i;
+        }
+        ByteBuffer buffer = allocate(bound);
+        writeHeader(buffer, DELTA, seatMap.getShowtimeId(), version);
+        buffer.putLong(sinceVersion);
+        writeVarint(buffer, count);
+        int previous = 0;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            writeVarint(buffer, i - previous);
+            previous = i;
+        }
+        int packed = 0;
+        int shift = 0;
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            packed |= seatMap.getStatus(i).ordinal() << shift;
+            shift += 2;
+            if (shift == 8) {
+                buffer.put((byte) packed);
+                packed = 0;
+                shift = 0;
+            }
+        }
+        if (shift > 0) {
+            buffer.put((byte) packed);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Trả buffer về pool sau khi đã gửi xong
+     */
+    public void release(ByteBuffer buffer) {
+        pool.release(buffer);
+    }
+
+    /**
+     * Giải mã một khung FULL
+     */
+    public static SeatMapSnapshot decode(ByteBuffer frame) {
+        return apply(null, frame);
+    }
+
+    /**
+     * Áp một khung lên sơ đồ client đang có
+     * @param current Sơ đồ đang có (có thể null nếu khung là FULL)
+     * @return Sơ đồ mới (khung FULL) hoặc chính current đã được cập nhật (khung DELTA)
+     * @throws IllegalStateException nếu delta không dựa trên phiên bản của current
+     */
+    public static SeatMapSnapshot apply(SeatMapSnapshot current, ByteBuffer frame) {
+        ByteBuffer in = frame.duplicate();
+        if (in.get() != MAGIC) {
+            throw new IllegalArgumentException("Khung sơ đồ ghế không hợp lệ");
+        }
+        byte kind = in.get();
+        int showtimeId = in.getInt();
+        long version = in.getLong();
+
+        if (kind == FULL) {
+            return decodeFull(in, showtimeId, version);
+        }
+        if (kind != DELTA) {
+            throw new IllegalArgumentException("Loại khung không hợp lệ: " + kind);
+        }
+        long baseVersion = in.getLong();
+        if (current == null || current.getShowtimeId() != showtimeId || current.getVersion() != baseVersion) {
+            throw new IllegalStateException("Delta không khớp phiên bản đang có, cần tải lại toàn bộ sơ đồ");
+        }
+        int count = readVarint(in);
+        int[] indexes = new int[count];
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += readVarint(in);
+            indexes[i] = index;
+        }
+        for (int i = 0; i < count; i += 4) {
+            int packed = in.get() & 0xFF;
+            for (int j = i; j < Math.min(i + 4, count); j++) {
+                current.setStatus(indexes[j], STATUSES[(packed >>> ((j - i) * 2)) & 3]);
+            }
+        }
+        current.setVersion(version);
+        return current;
+    }
+
+    private static SeatMapSnapshot decodeFull(ByteBuffer in, int showtimeId, long version) {
+        int size = readVarint(in);
+        int[] seatIds = new int[size];
+        String[] seatNumbers = new String[size];
+        SeatType[] seatTypes = new SeatType[size];
+        SeatStatus[] statuses = new SeatStatus[size];
+
+        int seatId = 0;
+        for (int i = 0; i < size; i++) {
+            seatId += readVarint(in);
+            seatIds[i] = seatId;
+        }
+        for (int i = 0; i < size; i++) {
+            int word = in.getShort() & 0xFFFF;
+            int row = word >>> 11;
+            if (row != ESCAPED_ROW) {
+                seatNumbers[i] = (char) ('A' + row) + Integer.toString((word >>> 4) & MAX_COLUMN);
+            }
+            seatTypes[i] = TYPES[(word >>> 2) & 3];
+            statuses[i] = STATUSES[word & 3];
+        }
+        int escaped = readVarint(in);
+        for (int e = 0; e < escaped; e++) {
+            int i = readVarint(in);
+            byte[] bytes = new byte[readVarint(in)];
+            in.get(bytes);
+            seatNumbers[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new SeatMapSnapshot(showtimeId, version, seatIds, seatNumbers, seatTypes, statuses);
+    }
+
+    /**
+     * @return 12 bit hàng/cột, hoặc -1 nếu số hiệu không theo dạng chữ cái + số
+     */
+    static int packNumber(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2 || seatNumber.length() > 4) {
+            return -1;
+        }
+        char row = seatNumber.charAt(0);
+        if (row < 'A' || row > 'Z' || (seatNumber.charAt(1) == '0' && seatNumber.length() > 2)) {
+            return -1;
+        }
+        int column = 0;
+        for (int i = 1; i < seatNumber.length(); i++) {
+            char c = seatNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            column = column * 10 + (c - '0');
+        }
+        if (column > MAX_COLUMN) {
+            return -1;
+        }
+        return ((row - 'A') << 7) | column;
+    }
+
+    private ByteBuffer allocate(int bound) {
+        if (bound <= pool.getBufferSize()) {
+            return pool.acquire(bound);
+        }
+        return ByteBuffer.allocate(bound);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte kind, int showtimeId, long version) {
+        buffer.put(MAGIC).put(kind).putInt(showtimeId).putLong(version);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int varintSize(int value) {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,170 @@
+package service;
+
+import dao.SeatDao;
+import model.Seat;
+import model.SeatStatus;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Engine giữ sơ đồ ghế của các suất chiếu trong bộ nhớ.
+ * Chuyển trạng thái ghế bằng CAS, không khóa và không chờ JDBC;
+ * việc ghi xuống database do một SeatStatusPersister (EventJournal hoặc SeatWriteBehind) đảm nhiệm.
+ */
+public class SeatMapEngine {
+
+    private final SeatDao seatDao;
+    private final ConcurrentMap<Integer, ShowtimeSeatMap> seatMaps = new ConcurrentHashMap<>();
+    private final List<SeatTransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public SeatMapEngine() {
+        this(new SeatDao());
+    }
+
+    public SeatMapEngine(SeatDao seatDao) {
+        this.seatDao = seatDao;
+    }
+
+    /**
+     * @throws IllegalStateException nếu listener là SeatStatusPersister và engine đã có một SeatStatusPersister khác
+     */
+    public synchronized void addListener(SeatTransitionListener listener) {
+        if (listener instanceof SeatStatusPersister) {
+            for (SeatTransitionListener existing : listeners) {
+                if (existing instanceof SeatStatusPersister) {
+                    throw new IllegalStateException("Engine đã có nơi ghi trạng thái ghế: "
+                            + existing.getClass().getSimpleName());
+                }
+            }
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(SeatTransitionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Nạp (hoặc thay thế) sơ đồ ghế của suất chiếu
+     */
+    public ShowtimeSeatMap load(ShowtimeSeatMap seatMap) {
+        seatMaps.put(seatMap.getShowtimeId(), seatMap);
+        return seatMap;
+    }
+
+    /**
+     * Lấy sơ đồ ghế, nạp từ database nếu chưa có trong bộ nhớ
+     */
+    public ShowtimeSeatMap getOrLoad(int showtimeId) throws SQLException {
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap != null) {
+            return seatMap;
+        }
+        ShowtimeSeatMap loaded = ShowtimeSeatMap.of(showtimeId, seatDao.findByShowtime(showtimeId));
+        ShowtimeSeatMap existing = seatMaps.putIfAbsent(showtimeId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * @return Sơ đồ ghế hoặc null nếu chưa nạp
+     */
+    public ShowtimeSeatMap get(int showtimeId) {
+        return seatMaps.get(showtimeId);
+    }
+
+    public void evict(int showtimeId) {
+        seatMaps.remove(showtimeId);
+    }
+
+    public SeatStatus getStatus(int showtimeId, int seatId) {
+        ShowtimeSeatMap seatMap = require(showtimeId);
+        return seatMap.getStatus(requireIndex(seatMap, seatId));
+    }
+
+    /**
+     * Chuyển trạng thái một ghế theo bảng Seat.LIFECYCLE
+     * @return true nếu thành công, false nếu ghế đã bị luồng khác đổi trạng thái
+     * @throws IllegalArgumentException nếu chuyển đổi không hợp lệ (InvalidTransitionException) hoặc ghế không tồn tại
+     */
+    public boolean transition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        long start = System.nanoTime();
+        Seat.LIFECYCLE.check(from, to);
+        if (!apply(showtimeId, seatId, from, to)) {
+            return false;
+        }
+        Seat.LIFECYCLE.record(from, to, start);
+        return true;
+    }
+
+    public boolean reserve(int showtimeId, int seatId) {
+        return transition(showtimeId, seatId, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+    }
+
+    public boolean book(int showtimeId, int seatId) {
+        return transition(showtimeId, seatId, SeatStatus.RESERVED, SeatStatus.BOOKED);
+    }
+
+    public boolean release(int showtimeId, int seatId, SeatStatus from) {
+        return transition(showtimeId, seatId, from, SeatStatus.AVAILABLE);
+    }
+
+    /**
+     * Giữ tất cả ghế hoặc không giữ ghế nào
+     * @return true nếu giữ được toàn bộ ghế
+     */
+    public boolean reserveAll(int showtimeId, List<Integer> seatIds) {
+        return transitionAll(showtimeId, seatIds, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+    }
+
+    /**
+     * Chuyển toàn bộ ghế đang giữ sang BOOKED, hoặc không ghế nào
+     */
+    public boolean bookAll(int showtimeId, List<Integer> seatIds) {
+        return transitionAll(showtimeId, seatIds, SeatStatus.RESERVED, SeatStatus.BOOKED);
+    }
+
+    private boolean transitionAll(int showtimeId, List<Integer> seatIds, SeatStatus from, SeatStatus to) {
+        for (int i = 0; i < seatIds.size(); i++) {
+            if (!transition(showtimeId, seatIds.get(i), from, to)) {
+                // Hoàn tác các ghế đã chuyển trước đó (bù trừ, không theo luật chuyển thông thường)
+                for (int j = i - 1; j >= 0; j--) {
+                    apply(showtimeId, seatIds.get(j), to, from);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean apply(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        ShowtimeSeatMap seatMap = require(showtimeId);
+        long stamp = seatMap.compareAndSet(requireIndex(seatMap, seatId), from, to);
+        if (stamp < 0) {
+            return false;
+        }
+        for (SeatTransitionListener listener : listeners) {
+            listener.onTransition(showtimeId, seatId, from, to, stamp);
+        }
+        return true;
+    }
+
+    private ShowtimeSeatMap require(int showtimeId) {
+        ShowtimeSeatMap seatMap = seatMaps.get(showtimeId);
+        if (seatMap == null) {
+            throw new IllegalArgumentException("Sơ đồ ghế chưa được nạp cho suất chiếu: " + showtimeId);
+        }
+        return seatMap;
+    }
+
+    private static int requireIndex(ShowtimeSeatMap seatMap, int seatId) {
+        int index = seatMap.indexOf(seatId);
+        if (index < 0) {
+            throw new IllegalArgumentException("Ghế " + seatId + " không thuộc suất chiếu " + seatMap.getShowtimeId());
+        }
+        return index;
+    }
+}
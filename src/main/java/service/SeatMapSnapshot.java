@@ -0,0 +1,76 @@
+package service;
+
+import model.SeatStatus;
+import model.SeatType;
+
+/**
+ * Sơ đồ ghế phía client, giải mã từ SeatMapCodec. Delta được áp trực tiếp lên mảng trạng thái.
+ */
+public class SeatMapSnapshot {
+
+    private final int showtimeId;
+    private final int[] seatIds;
+    private final String[] seatNumbers;
+    private final SeatType[] seatTypes;
+    private final SeatStatus[] statuses;
+    private long version;
+
+    SeatMapSnapshot(int showtimeId, long version, int[] seatIds, String[] seatNumbers,
+                    SeatType[] seatTypes, SeatStatus[] statuses) {
+        this.showtimeId = showtimeId;
+        this.version = version;
+        this.seatIds = seatIds;
+        this.seatNumbers = seatNumbers;
+        this.seatTypes = seatTypes;
+        this.statuses = statuses;
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    /**
+     * @return Phiên bản dùng để xin delta lần sau
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public int getSeatId(int index) {
+        return seatIds[index];
+    }
+
+    public String getSeatNumber(int index) {
+        return seatNumbers[index];
+    }
+
+    public SeatType getSeatType(int index) {
+        return seatTypes[index];
+    }
+
+    public SeatStatus getStatus(int index) {
+        return statuses[index];
+    }
+
+    void setStatus(int index, SeatStatus status) {
+        statuses[index] = status;
+    }
+
+    public int count(SeatStatus status) {
+        int count = 0;
+        for (SeatStatus s : statuses) {
+            if (s == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,14 @@
+package service;
+
+/**
+ * SeatTransitionListener ghi trạng thái ghế xuống database.
+ * Có hai cách cài đặt và chúng loại trừ nhau, mỗi SeatMapEngine chỉ được gắn một:
+ * <ul>
+ *   <li>EventJournal (cùng JournalDrainer): nguồn ghi chính, lần chuyển được ghi xuống đĩa trước
+ *       rồi mới đến MySQL nên không mất khi tắt đột ngột;</li>
+ *   <li>SeatWriteBehind: dùng khi không chạy journal, thay đổi còn trong hàng đợi sẽ mất khi tắt đột ngột.</li>
+ * </ul>
+ * Gắn cả hai sẽ khiến mỗi lần chuyển được ghi hai lần và hai nguồn có thể ghi đè lẫn nhau.
+ */
+public interface SeatStatusPersister extends SeatTransitionListener {
+}
@@ -0,0 +1,28 @@
+package service;
+
+import model.SeatStatus;
+
+/**
+ * Nhận thông báo mỗi khi một ghế chuyển trạng thái thành công trong SeatMapEngine.
+ * Được gọi trên luồng thực hiện chuyển trạng thái nên cài đặt phải nhanh và không chặn.
+ */
+public interface SeatTransitionListener {
+
+    /**
+     * @param showtimeId Mã suất chiếu
+     * @param seatId Mã ghế
+     * @param from Trạng thái cũ
+     * @param to Trạng thái mới
+     */
+    void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to);
+
+    /**
+     * Như trên, kèm stamp của lần chuyển. Listener chạy sau lần CAS nên hai lần chuyển của cùng một ghế
+     * có thể đến ngược thứ tự; listener cần thứ tự thật (ví dụ EventJournal) thì so sánh stamp.
+     * @param stamp 32 bit cao là epoch của lần nạp sơ đồ, 32 bit thấp là stamp mới của ô ghế;
+     *              hai stamp chỉ so sánh được khi cùng epoch
+     */
+    default void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to, long stamp) {
+        onTransition(showtimeId, seatId, from, to);
+    }
+}
@@ -0,0 +1,157 @@
+package service;
+
+import dao.SeatDao;
+import model.SeatStatus;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ghi trạng thái ghế xuống database bất đồng bộ trên một luồng nền.
+ * Nhiều lần chuyển trạng thái của cùng một ghế được gộp lại, chỉ trạng thái cuối cùng được ghi.
+ * Listener chạy sau lần CAS nên hai lần chuyển của cùng một ghế có thể vào hàng đợi ngược thứ tự;
+ * vì vậy hàng đợi chỉ cho biết ghế nào cần ghi, còn trạng thái được đọc lại từ sơ đồ lúc ghi.
+ * Mỗi lần CAS đều được theo sau bởi một lần đưa vào hàng đợi, nên lần ghi cuối cùng luôn phản ánh
+ * trạng thái mới nhất. Nếu ghi lỗi, các thay đổi được giữ lại và thử lại ở lượt sau.
+ * Không dùng cùng EventJournal trên một engine (xem SeatStatusPersister).
+ */
+public class SeatWriteBehind implements SeatStatusPersister, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SeatWriteBehind.class.getName());
+
+    private final SeatMapEngine engine;
+    private final SeatDao seatDao;
+    private final int maxBatchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SeatWriteBehind(SeatMapEngine engine, SeatDao seatDao) {
+        this(engine, seatDao, 500, 50);
+    }
+
+    /**
+     * @param engine Engine chứa sơ đồ ghế, dùng để đọc trạng thái hiện tại lúc ghi
+     * @param seatDao DAO dùng để ghi
+     * @param maxBatchSize Số ghế tối đa mỗi batch
+     * @param flushIntervalMillis Thời gian chờ tối đa giữa hai lần ghi
+     */
+    public SeatWriteBehind(SeatMapEngine engine, SeatDao seatDao, int maxBatchSize, long flushIntervalMillis) {
+        this.engine = engine;
+        this.seatDao = seatDao;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.writer = new Thread(this::run, "seat-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onTransition(int showtimeId, int seatId, SeatStatus from, SeatStatus to) {
+        queue.offer(new Change(showtimeId, seatId, to));
+    }
+
+    /**
+     * @return Số thay đổi đang chờ ghi
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        Map<Integer, Change> pending = new LinkedHashMap<>();
+
+        while (running || !queue.isEmpty() || !pending.isEmpty()) {
+            try {
+                Change first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    pending.put(first.seatId, first);
+                    Change next;
+                    while (pending.size() < maxBatchSize && (next = queue.poll()) != null) {
+                        pending.put(next.seatId, next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (pending.isEmpty()) {
+                continue;
+            }
+            try {
+                seatDao.updateStatuses(currentStatuses(pending.values()));
+                pending.clear();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Ghi trạng thái ghế thất bại, sẽ thử lại", e);
+                if (!running) {
+                    // Đang đóng mà database không phản hồi: bỏ qua để không treo luồng đóng
+                    return;
+                }
+                sleepQuietly(flushIntervalMillis);
+            }
+        }
+    }
+
+    /**
+     * Đọc trạng thái hiện tại của các ghế trong sơ đồ thay vì tin trạng thái lúc vào hàng đợi.
+     * Sơ đồ đã bị gỡ khỏi engine thì dùng trạng thái trong hàng đợi.
+     */
+    private Map<Integer, SeatStatus> currentStatuses(Collection<Change> changes) {
+        Map<Integer, SeatStatus> statuses = new LinkedHashMap<>();
+        for (Change change : changes) {
+            SeatStatus status = change.to;
+            ShowtimeSeatMap seatMap = engine.get(change.showtimeId);
+            if (seatMap != null) {
+                int index = seatMap.indexOf(change.seatId);
+                if (index >= 0) {
+                    status = seatMap.getStatus(index);
+                }
+            }
+            statuses.put(change.seatId, status);
+        }
+        return statuses;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Dừng luồng ghi sau khi đã ghi hết các thay đổi còn lại
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            // Luồng ghi vẫn ghi nốt các thay đổi còn lại; giữ cờ interrupt cho người gọi
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Change {
+        final int showtimeId;
+        final int seatId;
+        final SeatStatus to;
+
+        Change(int showtimeId, int seatId, SeatStatus to) {
+            this.showtimeId = showtimeId;
+            this.seatId = seatId;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package service;
+
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sơ đồ ghế của một suất chiếu giữ trong bộ nhớ.
+ * Mỗi ghế là một ô int trong AtomicIntegerArray: 2 bit thấp là ordinal của SeatStatus,
+ * phần còn lại là stamp tăng sau mỗi lần chuyển trạng thái (tránh ABA, dùng cho delta).
+ * Mỗi lần chuyển thành công tăng phiên bản của sơ đồ và được ghi vào một nhật ký vòng,
+ * để biết những ghế nào đã đổi kể từ một phiên bản cũ.
+ */
+public class ShowtimeSeatMap {
+
+    private static final int STATUS_BITS = 2;
+    private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+    private static final SeatStatus[] STATUSES = SeatStatus.values();
+    private static final int INDEX_BITS = 16;
+    private static final int CHANGE_LOG_SIZE = 1024;
+    /** Số vòng chờ tối đa một ô nhật ký đang được ghi trước khi bỏ cuộc và gửi toàn bộ sơ đồ */
+    private static final int MAX_LOG_SPINS = 1 << 12;
+
+    /**
+     * Số ghế tối đa của một sơ đồ (vị trí ghế được lưu trong 16 bit của nhật ký thay đổi)
+     */
+    public static final int MAX_SEATS = 1 << INDEX_BITS;
+
+    private final int showtimeId;
+    private final int[] seatIds;
+    private final String[] seatNumbers;
+    private final SeatType[] seatTypes;
+    private final long[] prices;
+    private final AtomicIntegerArray cells;
+    private final int epoch = ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE);
+    private final AtomicLong changeCount = new AtomicLong();
+    private final AtomicLongArray changeLog = new AtomicLongArray(CHANGE_LOG_SIZE);
+
+    private ShowtimeSeatMap(int showtimeId, int size) {
+        this.showtimeId = showtimeId;
+        this.seatIds = new int[size];
+        this.seatNumbers = new String[size];
+        this.seatTypes = new SeatType[size];
+        this.prices = new long[size];
+        this.cells = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * Dựng sơ đồ ghế từ danh sách ghế đọc từ database
+     * @param showtimeId Mã suất chiếu
+     * @param seats Danh sách ghế của suất chiếu
+     * @return Sơ đồ ghế, sắp theo seatId
+     */
+    public static ShowtimeSeatMap of(int showtimeId, List<Seat> seats) {
+        if (seats.size() > MAX_SEATS) {
+            throw new IllegalArgumentException("Suất chiếu có quá nhiều ghế: " + seats.size());
+        }
+        List<Seat> sorted = new ArrayList<>(seats);
+        sorted.sort((a, b) -> Integer.compare(a.getSeatId(), b.getSeatId()));
+
+        ShowtimeSeatMap map = new ShowtimeSeatMap(showtimeId, sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            Seat seat = sorted.get(i);
+            if (i > 0 && map.seatIds[i - 1] == seat.getSeatId()) {
+                throw new IllegalArgumentException("Trùng mã ghế: " + seat.getSeatId());
+            }
+            map.seatIds[i] = seat.getSeatId();
+            map.seatNumbers[i] = seat.getSeatNumber();
+            map.seatTypes[i] = seat.getSeatType();
+            map.prices[i] = seat.getPrice();
+            map.cells.set(i, seat.getStatus().ordinal());
+        }
+        return map;
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    /**
+     * Tìm vị trí của ghế trong sơ đồ
+     * @param seatId Mã ghế
+     * @return Vị trí (>= 0) hoặc giá trị âm nếu không có
+     */
+    public int indexOf(int seatId) {
+        return Arrays.binarySearch(seatIds, seatId);
+    }
+
+    public int getSeatId(int index) {
+        return seatIds[index];
+    }
+
+    public String getSeatNumber(int index) {
+        return seatNumbers[index];
+    }
+
+    public SeatType getSeatType(int index) {
+        return seatTypes[index];
+    }
+
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    public SeatStatus getStatus(int index) {
+        return STATUSES[cells.get(index) & STATUS_MASK];
+    }
+
+    /**
+     * Stamp hiện tại của ghế, tăng mỗi lần chuyển trạng thái
+     */
+    public int getStamp(int index) {
+        return cells.get(index) >>> STATUS_BITS;
+    }
+
+    /**
+     * Phiên bản hiện tại: 32 bit cao là epoch ngẫu nhiên của lần nạp sơ đồ này,
+     * 32 bit thấp là số lần chuyển trạng thái. Phiên bản của lần nạp khác không bao giờ khớp epoch.
+     */
+    public long getVersion() {
+        return ((long) epoch << 32) | changeCount.get();
+    }
+
+    /**
+     * Đánh dấu vị trí các ghế đã đổi trạng thái sau phiên bản since.
+     * Có thể đánh dấu thừa ghế vừa đổi sau phiên bản trả về, nhưng không bỏ sót.
+     * @param since Phiên bản client đang có
+     * @param changed Nhận vị trí các ghế đã đổi
+     * @return Phiên bản mà changed phản ánh, hoặc -1 nếu since không thuộc lần nạp này
+     *         hoặc đã quá cũ so với nhật ký thay đổi, hoặc một ô nhật ký không giữ đúng phiên bản cần đọc
+     *         (cần gửi toàn bộ sơ đồ)
+     */
+    public long changesSince(long since, BitSet changed) {
+        long current = changeCount.get();
+        long from = since & 0xFFFFFFFFL;
+        if ((int) (since >>> 32) != epoch || from > current || current - from > CHANGE_LOG_SIZE) {
+            return -1;
+        }
+        for (long v = from + 1; v <= current; v++) {
+            int slot = (int) (v & (CHANGE_LOG_SIZE - 1));
+            long entry;
+            // Luồng ghi đã tăng changeCount nhưng có thể chưa kịp ghi nhật ký; luồng đó có thể bị treo lâu
+            // nên chỉ chờ có giới hạn. Ô đã bị phiên bản mới hơn ghi đè thì cũng phải gửi toàn bộ sơ đồ.
+            int spins = 0;
+            while ((entry = changeLog.get(slot)) >>> INDEX_BITS < v && spins++ < MAX_LOG_SPINS) {
+                Thread.onSpinWait();
+            }
+            if (entry >>> INDEX_BITS != v) {
+                return -1;
+            }
+            changed.set((int) (entry & (MAX_SEATS - 1)));
+        }
+        return ((long) epoch << 32) | current;
+    }
+
+    /**
+     * Đếm số ghế đang ở một trạng thái
+     */
+    public int count(SeatStatus status) {
+        int count = 0;
+        for (int i = 0; i < seatIds.length; i++) {
+            if ((cells.get(i) & STATUS_MASK) == status.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * CAS trạng thái ghế từ expected sang next. Không kiểm tra luật chuyển trạng thái,
+     * việc đó do SeatMapEngine đảm nhiệm.
+     * @return Stamp của lần chuyển: 32 bit cao là epoch của lần nạp sơ đồ, 32 bit thấp là stamp mới của ô;
+     *         -1 nếu ghế không còn ở trạng thái expected
+     */
+    long compareAndSet(int index, SeatStatus expected, SeatStatus next) {
+        while (true) {
+            int current = cells.get(index);
+            if ((current & STATUS_MASK) != expected.ordinal()) {
+                return -1;
+            }
+            int stamp = (current >>> STATUS_BITS) + 1;
+            int updated = (stamp << STATUS_BITS) | next.ordinal();
+            if (cells.compareAndSet(index, current, updated)) {
+                long version = changeCount.incrementAndGet();
+                recordChange(version, index);
+                return ((long) epoch << 32) | stamp;
+            }
+        }
+    }
+
+    /**
+     * Ghi phiên bản vào nhật ký vòng. Luồng ghi bị treo giữa lúc tăng changeCount và lúc ghi
+     * có thể tới sau phiên bản version + CHANGE_LOG_SIZE cùng ô, nên chỉ ghi khi ô đang giữ phiên bản cũ hơn.
+     */
+    private void recordChange(long version, int index) {
+        int slot = (int) (version & (CHANGE_LOG_SIZE - 1));
+        long entry = (version << INDEX_BITS) | index;
+        long current;
+        while ((current = changeLog.get(slot)) >>> INDEX_BITS < version) {
+            if (changeLog.compareAndSet(slot, current, entry)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tạo đối tượng Seat phản ánh trạng thái hiện tại của một ô
+     */
+    public Seat toSeat(int index) {
+        return new Seat(seatIds[index], showtimeId, seatNumbers[index],
+                seatTypes[index], getStatus(index), prices[index], getStamp(index));
+    }
+}
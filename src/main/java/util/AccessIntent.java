@@ -0,0 +1,9 @@
+package util;
+
+/**
+ * Mục đích sử dụng kết nối, quyết định kết nối được lấy từ primary hay replica
+ */
+public enum AccessIntent {
+    READ_ONLY,
+    READ_WRITE
+}
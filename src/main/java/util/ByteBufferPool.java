@@ -0,0 +1,148 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Pool các direct ByteBuffer theo lớp kích thước (minBufferSize, gấp đôi dần tới maxBufferSize),
+ * để mã hóa và gửi đi mà không cấp phát buffer mới mỗi lần, và khung nhỏ không chiếm buffer lớn.
+ * Mỗi lớp giữ tối đa maxPooled buffer; buffer trả về khi lớp đã đầy thì bị bỏ cho GC.
+ * Pool ghi nhận các buffer đang cho mượn nên trả một buffer hai lần bị phát hiện thay vì
+ * để hai người cùng nhận một buffer; buffer mượn mà không trả vẫn nằm trong danh sách đó (xem getLeasedCount).
+ */
+public class ByteBufferPool {
+
+    private final int[] sizes;
+    private final int maxPooled;
+    private final List<ArrayDeque<ByteBuffer>> free;
+    private final Set<ByteBuffer> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int pooled;
+
+    /**
+     * Pool một kích thước
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled) {
+        this(bufferSize, bufferSize, maxPooled);
+    }
+
+    /**
+     * @param minBufferSize Kích thước lớp nhỏ nhất
+     * @param maxBufferSize Kích thước lớp lớn nhất
+     * @param maxPooled Số buffer tối đa giữ lại cho mỗi lớp
+     */
+    public ByteBufferPool(int minBufferSize, int maxBufferSize, int maxPooled) {
+        if (minBufferSize <= 0 || maxBufferSize < minBufferSize || maxPooled < 0) {
+            throw new IllegalArgumentException("Cấu hình ByteBufferPool không hợp lệ");
+        }
+        int[] classes = new int[32];
+        int count = 0;
+        for (long size = minBufferSize; size < maxBufferSize; size *= 2) {
+            classes[count++] = (int) size;
+        }
+        classes[count++] = maxBufferSize;
+        this.sizes = Arrays.copyOf(classes, count);
+        this.maxPooled = maxPooled;
+        this.free = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            free.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * @return Buffer rỗng cỡ lớn nhất (position 0, limit = capacity)
+     */
+    public ByteBuffer acquire() {
+        return acquire(getBufferSize());
+    }
+
+    /**
+     * @param minCapacity Số byte tối thiểu cần ghi
+     * @return Buffer rỗng của lớp nhỏ nhất chứa được minCapacity (position 0, limit = capacity)
+     * @throws IllegalArgumentException nếu minCapacity lớn hơn lớp lớn nhất
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        int sizeClass = classOf(minCapacity);
+        if (sizeClass < 0) {
+            throw new IllegalArgumentException("Buffer " + minCapacity + " byte vượt quá cỡ lớn nhất của pool: "
+                    + getBufferSize());
+        }
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = free.get(sizeClass).poll();
+            if (buffer != null) {
+                pooled--;
+                leased.add(buffer);
+                return buffer;
+            }
+        }
+        buffer = ByteBuffer.allocateDirect(sizes[sizeClass]);
+        synchronized (this) {
+            leased.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Trả buffer về pool; buffer không do pool cấp (khác kích thước hoặc không phải direct) bị bỏ qua
+     * @throws IllegalStateException nếu buffer đã được trả trước đó
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        int sizeClass = Arrays.binarySearch(sizes, buffer.capacity());
+        if (sizeClass < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (!leased.remove(buffer)) {
+                throw new IllegalStateException("Buffer đã được trả về pool trước đó");
+            }
+            if (free.get(sizeClass).size() >= maxPooled) {
+                return;
+            }
+            buffer.clear();
+            free.get(sizeClass).push(buffer);
+            pooled++;
+        }
+    }
+
+    /**
+     * @return Kích thước của lớp lớn nhất
+     */
+    public int getBufferSize() {
+        return sizes[sizes.length - 1];
+    }
+
+    /**
+     * @return Số buffer đang nằm chờ trong pool
+     */
+    public synchronized int getPooledCount() {
+        return pooled;
+    }
+
+    /**
+     * @return Số buffer đã cho mượn và chưa được trả
+     */
+    public synchronized int getLeasedCount() {
+        return leased.size();
+    }
+
+    /**
+     * @return Vị trí lớp nhỏ nhất chứa được capacity, -1 nếu không có
+     */
+    private int classOf(int capacity) {
+        int slot = Arrays.binarySearch(sizes, capacity);
+        if (slot >= 0) {
+            return slot;
+        }
+        int insertion = -slot - 1;
+        return insertion < sizes.length ? insertion : -1;
+    }
+}
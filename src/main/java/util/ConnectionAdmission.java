@@ -0,0 +1,128 @@
+package util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cổng giới hạn số tác vụ JDBC chạy đồng thời bằng fair semaphore có kích thước bằng pool.
+ * Tác vụ chờ quá maxWaitMillis bị từ chối sớm thay vì chờ connectionTimeout của Hikari.
+ */
+public class ConnectionAdmission {
+
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long maxWaitMillis;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param permits Số tác vụ JDBC tối đa chạy cùng lúc (thường bằng kích thước pool)
+     * @param maxWaitMillis Thời gian chờ tối đa trước khi từ chối
+     */
+    public ConnectionAdmission(int permits, long maxWaitMillis) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Số permit phải lớn hơn 0");
+        }
+        this.permits = new Semaphore(permits, true);
+        this.maxPermits = permits;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Chờ tới lượt dùng kết nối
+     * @return true nếu được nhận, false nếu chờ quá lâu và bị từ chối
+     */
+    public boolean acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        return record(acquired, start);
+    }
+
+    /**
+     * Chờ tới lượt dùng kết nối không giới hạn thời gian, cho luồng nền không được bỏ việc
+     * (ví dụ luồng commit của BookingCommitPipeline); vẫn xếp hàng công bằng với các tác vụ khác
+     */
+    public void acquireBlocking() throws InterruptedException {
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            permits.acquire();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        record(true, start);
+    }
+
+    private boolean record(boolean acquired, long start) {
+        long waited = System.nanoTime() - start;
+        if (acquired) {
+            admitted.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        } else {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * @return Số tác vụ đang chờ permit
+     */
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    /**
+     * @return Số tác vụ đang giữ permit
+     */
+    public int getInUse() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = admitted.sum();
+        return count == 0 ? 0 : totalWaitNanos.sum() / (count * 1_000_000.0);
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionAdmission{" +
+                "inUse=" + getInUse() +
+                "/" + maxPermits +
+                ", queueDepth=" + getQueueDepth() +
+                ", admitted=" + getAdmittedCount() +
+                ", rejected=" + getRejectedCount() +
+                ", avgWaitMs=" + String.format("%.2f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.2f", getMaxWaitMillis()) +
+                '}';
+    }
+}
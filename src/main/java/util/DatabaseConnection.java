@@ -1,45 +1,139 @@
 package util;
 
-import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class DatabaseConnection {
 
-    private static final HikariDataSource dataSource;
+    public static final String OLTP = "oltp";
+    public static final String REPORTING = "reporting";
+    public static final String BATCH = "batch";
 
-    static {
-        HikariConfig config = new HikariConfig();
+    private static final PoolSettings settings = PoolSettings.load();
+    private static final ConcurrentMap<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private static volatile ReplicaRouter router;
 
-        config.setJdbcUrl(
-                "jdbc:mysql://localhost:3306/cinema_booking"
-                        + "?useSSL=false"
-                        + "&serverTimezone=UTC"
-                        + "&allowPublicKeyRetrieval=true"
-        );
+    private DatabaseConnection() {
+    }
 
-        config.setUsername("root");
-        config.setPassword("..."); //Nhap mat khau server
+    public static Connection getConnection() throws SQLException {
+        return getConnection(OLTP);
+    }
 
-        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+    /**
+     * Lấy kết nối từ pool của một profile (pool được tạo khi dùng lần đầu)
+     * @param profile Tên profile, ví dụ OLTP, REPORTING, BATCH
+     */
+    public static Connection getConnection(String profile) throws SQLException {
+        return dataSource(profile).getConnection();
+    }
 
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(600000);
-        config.setMaxLifetime(1800000);
+    /**
+     * Lấy kết nối theo mục đích: READ_ONLY được phục vụ bởi replica khỏe (nếu có cấu hình db.replicas),
+     * READ_WRITE luôn từ primary (profile OLTP)
+     */
+    public static Connection getConnection(AccessIntent intent) throws SQLException {
+        if (intent == AccessIntent.READ_WRITE) {
+            return getConnection(OLTP);
+        }
+        return router().getConnection(intent);
+    }
 
-        config.setAutoCommit(false);
+    public static ReplicaRouter getReplicaRouter() {
+        return router();
+    }
 
-        dataSource = new HikariDataSource(config);
+    public static DataSource getDataSource(String profile) {
+        return dataSource(profile);
     }
 
-    private DatabaseConnection() {
+    public static PoolProfile getProfile(String profile) {
+        return settings.getProfile(profile);
     }
 
-    public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+    public static int getMaximumPoolSize() {
+        return getMaximumPoolSize(OLTP);
+    }
+
+    public static int getMaximumPoolSize(String profile) {
+        return settings.getProfile(profile).getMaximumPoolSize();
+    }
+
+    /**
+     * Số liệu của pool; pool chưa được tạo thì mọi giá trị bằng 0
+     */
+    public static PoolMetrics getPoolMetrics(String profile) {
+        HikariDataSource dataSource = dataSources.get(profile);
+        return new PoolMetrics(profile, getMaximumPoolSize(profile),
+                dataSource != null ? dataSource.getHikariPoolMXBean() : null);
+    }
+
+    public static Map<String, PoolMetrics> getAllPoolMetrics() {
+        Map<String, PoolMetrics> metrics = new LinkedHashMap<>();
+        for (String profile : settings.getProfileNames()) {
+            metrics.put(profile, getPoolMetrics(profile));
+        }
+        return metrics;
+    }
+
+    /**
+     * Đóng toàn bộ pool
+     */
+    public static void shutdown() {
+        synchronized (DatabaseConnection.class) {
+            if (router != null) {
+                router.close();
+                router = null;
+            }
+        }
+        for (HikariDataSource dataSource : dataSources.values()) {
+            dataSource.close();
+        }
+        dataSources.clear();
+    }
+
+    private static HikariDataSource dataSource(String profile) {
+        HikariDataSource dataSource = dataSources.get(profile);
+        if (dataSource != null) {
+            return dataSource;
+        }
+        if (!settings.getProfileNames().contains(profile) && !settings.getReplicaNames().contains(profile)) {
+            throw new IllegalArgumentException("Profile pool không tồn tại: " + profile);
+        }
+        return dataSources.computeIfAbsent(profile,
+                name -> new HikariDataSource(settings.getProfile(name).toHikariConfig()));
+    }
+
+    private static ReplicaRouter router() {
+        ReplicaRouter current = router;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (router == null) {
+                Map<String, DataSource> replicas = new LinkedHashMap<>();
+                Map<String, String> lagQueries = new HashMap<>();
+                for (String name : settings.getReplicaNames()) {
+                    replicas.put(name, dataSource(name));
+                    String lagQuery = settings.get(name, "lagQuery");
+                    if (lagQuery != null) {
+                        lagQueries.put(name, lagQuery);
+                    }
+                }
+                ReplicaRouter created = new ReplicaRouter(dataSource(OLTP), replicas, lagQueries,
+                        settings.getReplicaMaxLagSeconds());
+                created.start(settings.getReplicaCheckIntervalMillis());
+                router = created;
+            }
+            return router;
+        }
     }
 }
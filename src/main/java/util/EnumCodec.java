@@ -0,0 +1,130 @@
+package util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Giải mã enum từ giá trị cột JDBC trong O(1), không cấp phát bộ nhớ.
+ * Tên hằng được băm không phân biệt hoa thường vào bảng địa chỉ mở dựng sẵn;
+ * so khớp bằng regionMatches nên không cần tạo chuỗi chữ hoa. Hỗ trợ thêm cột số
+ * (TINYINT lưu ordinal) và chỉ số ENUM của MySQL (bắt đầu từ 1).
+ */
+public final class EnumCodec<E extends Enum<E>> {
+
+    private final E[] constants;
+    private final E[] slots;
+    private final int mask;
+    private final String label;
+
+    private EnumCodec(Class<E> type, String label) {
+        this.constants = type.getEnumConstants();
+        this.label = label;
+
+        int capacity = Integer.highestOneBit(Math.max(4, constants.length * 4) - 1) << 1;
+        this.slots = Arrays.copyOf(constants, capacity);
+        Arrays.fill(slots, null);
+        this.mask = capacity - 1;
+        for (E constant : constants) {
+            int index = hash(constant.name()) & mask;
+            while (slots[index] != null) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = constant;
+        }
+    }
+
+    /**
+     * @param type Lớp enum
+     * @param label Tên hiển thị trong thông báo lỗi, ví dụ "Trạng thái ghế"
+     */
+    public static <E extends Enum<E>> EnumCodec<E> of(Class<E> type, String label) {
+        return new EnumCodec<>(type, label);
+    }
+
+    /**
+     * Chuyển từ tên (không phân biệt hoa thường) sang enum
+     * @throws IllegalArgumentException nếu null hoặc không tìm thấy
+     */
+    public E fromName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException(label + " không được null");
+        }
+        E constant = lookup(name);
+        if (constant == null) {
+            throw new IllegalArgumentException(label + " không hợp lệ: " + name);
+        }
+        return constant;
+    }
+
+    /**
+     * Chuyển từ ordinal (cột TINYINT, bắt đầu từ 0) sang enum
+     */
+    public E fromOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new IllegalArgumentException(label + " không hợp lệ: " + ordinal);
+        }
+        return constants[ordinal];
+    }
+
+    /**
+     * Chuyển từ chỉ số ENUM của MySQL (bắt đầu từ 1) sang enum
+     */
+    public E fromEnumIndex(int index) {
+        return fromOrdinal(index - 1);
+    }
+
+    /**
+     * Đọc enum từ cột kiểu ENUM/VARCHAR (tên) hoặc TINYINT (ordinal)
+     * @return enum, hoặc null nếu cột NULL
+     */
+    public E decode(ResultSet rs, String column) throws SQLException {
+        return decode(rs.getString(column));
+    }
+
+    /**
+     * Giải mã giá trị đọc từ database: bỏ khoảng trắng hai đầu (cột CHAR được đệm khoảng trắng),
+     * chuỗi bắt đầu bằng chữ số là ordinal (bắt đầu từ 0), còn lại là tên không phân biệt hoa thường.
+     * Khác fromName ở chỗ chấp nhận khoảng trắng và số; fromName giữ nguyên cách so khớp của fromString cũ.
+     * @return enum, hoặc null nếu value null
+     * @throws IllegalArgumentException nếu không tìm thấy
+     */
+    public E decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (!trimmed.isEmpty() && trimmed.charAt(0) >= '0' && trimmed.charAt(0) <= '9') {
+            try {
+                return fromOrdinal(Integer.parseInt(trimmed));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(label + " không hợp lệ: " + value, e);
+            }
+        }
+        return fromName(trimmed);
+    }
+
+    private E lookup(String name) {
+        int index = hash(name) & mask;
+        E constant;
+        while ((constant = slots[index]) != null) {
+            String candidate = constant.name();
+            if (candidate.length() == name.length() && candidate.regionMatches(true, 0, name, 0, name.length())) {
+                return constant;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Băm nhất quán với equalsIgnoreCase: mỗi ký tự được đưa về cùng một dạng chuẩn
+     */
+    private static int hash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+}
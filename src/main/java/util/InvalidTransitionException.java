@@ -0,0 +1,26 @@
+package util;
+
+/**
+ * Chuyển trạng thái không có trong bảng chuyển của StateMachine
+ */
+public class InvalidTransitionException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Enum<?> from;
+    private final Enum<?> to;
+
+    public InvalidTransitionException(String label, Enum<?> from, Enum<?> to) {
+        super("Không thể chuyển " + label + " từ " + from.name() + " sang " + to.name());
+        this.from = from;
+        this.to = to;
+    }
+
+    public Enum<?> getFrom() {
+        return from;
+    }
+
+    public Enum<?> getTo() {
+        return to;
+    }
+}
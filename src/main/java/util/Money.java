@@ -0,0 +1,90 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Phép tính tiền trên số nguyên long đơn vị đồng (VND không có đơn vị lẻ),
+ * thay cho double để không lệch khi cộng dồn và không cấp phát như BigDecimal.
+ * Mọi số tiền trong model là long; lớp này chỉ chứa các hàm tĩnh.
+ */
+public final class Money {
+
+    public static final long ZERO = 0L;
+
+    /**
+     * 1 basis point = 0.01%; 10_000 bps = 100%
+     */
+    public static final int BPS_SCALE = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Chuyển từ số thực (ví dụ cột DECIMAL đọc bằng getDouble) sang đồng, làm tròn half-up
+     */
+    public static long of(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Số tiền không hợp lệ: " + amount);
+        }
+        return Math.round(amount);
+    }
+
+    public static long of(BigDecimal amount) {
+        return amount.setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount);
+    }
+
+    /**
+     * Cộng có kiểm tra tràn số
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long multiply(long amount, int quantity) {
+        return Math.multiplyExact(amount, quantity);
+    }
+
+    /**
+     * Tính amount * bps / 10000, làm tròn half-up (với số âm làm tròn ra xa 0)
+     * @param amount Số tiền
+     * @param basisPoints Tỉ lệ theo basis point, ví dụ 1500 = 15%
+     * @throws ArithmeticException nếu tích hoặc bước làm tròn bị tràn số
+     */
+    public static long percentOf(long amount, int basisPoints) {
+        long product = Math.multiplyExact(amount, basisPoints);
+        long half = BPS_SCALE / 2;
+        return product >= 0 ? Math.addExact(product, half) / BPS_SCALE : Math.subtractExact(product, half) / BPS_SCALE;
+    }
+
+    /**
+     * Tổng một đoạn mảng. Vòng lặp đơn giản trên long[] để JIT có thể vector hóa;
+     * không kiểm tra tràn số (tổng doanh thu thực tế còn rất xa Long.MAX_VALUE).
+     */
+    public static long sum(long[] amounts, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+
+    public static long sum(long[] amounts) {
+        return sum(amounts, 0, amounts.length);
+    }
+
+    /**
+     * Định dạng hiển thị, ví dụ 50000 -> "50,000 VNĐ"
+     */
+    public static String format(long amount) {
+        return String.format("%,d VNĐ", amount);
+    }
+}
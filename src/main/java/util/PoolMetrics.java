@@ -0,0 +1,74 @@
+package util;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Ảnh chụp số liệu của một pool kết nối tại một thời điểm
+ */
+public class PoolMetrics {
+    private final String profile;
+    private final int maximumPoolSize;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingConnection;
+
+    PoolMetrics(String profile, int maximumPoolSize, HikariPoolMXBean pool) {
+        this.profile = profile;
+        this.maximumPoolSize = maximumPoolSize;
+        if (pool != null) {
+            this.activeConnections = pool.getActiveConnections();
+            this.idleConnections = pool.getIdleConnections();
+            this.totalConnections = pool.getTotalConnections();
+            this.threadsAwaitingConnection = pool.getThreadsAwaitingConnection();
+        } else {
+            this.activeConnections = 0;
+            this.idleConnections = 0;
+            this.totalConnections = 0;
+            this.threadsAwaitingConnection = 0;
+        }
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    /**
+     * @return Tỉ lệ kết nối đang dùng so với kích thước tối đa (0..1)
+     */
+    public double getUtilization() {
+        return maximumPoolSize == 0 ? 0 : (double) activeConnections / maximumPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{" +
+                "profile='" + profile + '\'' +
+                ", active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", total=" + totalConnections +
+                "/" + maximumPoolSize +
+                ", awaiting=" + threadsAwaitingConnection +
+                '}';
+    }
+}
@@ -0,0 +1,128 @@
+package util;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Cấu hình của một pool kết nối có tên (oltp, reporting, batch...)
+ */
+public class PoolProfile {
+
+    private static final String DATA_SOURCE_PREFIX = "dataSource.";
+
+    private final String name;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String driverClassName;
+    private final int maximumPoolSize;
+    private final int minimumIdle;
+    private final long connectionTimeout;
+    private final long idleTimeout;
+    private final long maxLifetime;
+    private final boolean autoCommit;
+    private final boolean readOnly;
+    private final Properties dataSourceProperties;
+
+    private PoolProfile(String name, PoolSettings settings) {
+        this.name = name;
+        this.jdbcUrl = settings.require(name, "url");
+        this.username = settings.get(name, "username");
+        this.password = settings.get(name, "password");
+        this.driverClassName = settings.get(name, "driverClassName");
+        this.maximumPoolSize = Integer.parseInt(settings.require(name, "maximumPoolSize"));
+        this.minimumIdle = Integer.parseInt(settings.require(name, "minimumIdle"));
+        this.connectionTimeout = Long.parseLong(settings.require(name, "connectionTimeout"));
+        this.idleTimeout = Long.parseLong(settings.require(name, "idleTimeout"));
+        this.maxLifetime = Long.parseLong(settings.require(name, "maxLifetime"));
+        this.autoCommit = Boolean.parseBoolean(settings.require(name, "autoCommit"));
+        this.readOnly = Boolean.parseBoolean(settings.require(name, "readOnly"));
+        this.dataSourceProperties = new Properties();
+        for (Map.Entry<String, String> entry : settings.withPrefix(name, DATA_SOURCE_PREFIX).entrySet()) {
+            dataSourceProperties.setProperty(entry.getKey(), entry.getValue());
+        }
+    }
+
+    static PoolProfile of(String name, PoolSettings settings) {
+        return new PoolProfile(name, settings);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @return Bản sao các cờ hiệu năng của driver MySQL
+     */
+    public Properties getDataSourceProperties() {
+        return (Properties) dataSourceProperties.clone();
+    }
+
+    /**
+     * Tạo HikariConfig tương ứng với profile
+     */
+    public HikariConfig toHikariConfig() {
+        HikariConfig config = new HikariConfig();
+
+        config.setPoolName("cinema-" + name);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        if (driverClassName != null) {
+            config.setDriverClassName(driverClassName);
+        }
+
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(idleTimeout);
+        config.setMaxLifetime(maxLifetime);
+
+        config.setAutoCommit(autoCommit);
+        config.setReadOnly(readOnly);
+
+        for (String key : dataSourceProperties.stringPropertyNames()) {
+            config.addDataSourceProperty(key, dataSourceProperties.getProperty(key));
+        }
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolProfile{" +
+                "name='" + name + '\'' +
+                ", jdbcUrl='" + jdbcUrl + '\'' +
+                ", maximumPoolSize=" + maximumPoolSize +
+                ", minimumIdle=" + minimumIdle +
+                ", connectionTimeout=" + connectionTimeout +
+                ", readOnly=" + readOnly +
+                ", dataSourceProperties=" + dataSourceProperties +
+                '}';
+    }
+}
@@ -0,0 +1,174 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Nạp cấu hình pool theo thứ tự ưu tiên tăng dần:
+ * giá trị mặc định trong mã -> db.properties trên classpath -> biến môi trường -> system property.
+ * Khóa db.profile.&lt;tên&gt;.&lt;thuộc tính&gt; ghi đè db.&lt;thuộc tính&gt; cho từng profile.
+ * Biến môi trường chỉ ghi đè được khóa đã có (trong mã hoặc db.properties), vì tên biến
+ * (chữ hoa, '.' -> '_') không đổi ngược lại được thành khóa: DB_PROFILE_OLTP_URL có thể là
+ * db.profile.oltp.url hay db.profile.oltp_url. Muốn thêm khóa mới (ví dụ url riêng cho một profile,
+ * hoặc một profile mới) thì khai báo trong db.properties hoặc dùng system property -Ddb....
+ */
+public class PoolSettings {
+
+    private static final String RESOURCE = "/db.properties";
+    private static final String PREFIX = "db.";
+    private static final String PROFILE_PREFIX = "db.profile.";
+
+    private final Properties properties;
+
+    PoolSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Nạp cấu hình từ classpath, môi trường và system property
+     */
+    public static PoolSettings load() {
+        return load(System.getenv(), System.getProperties());
+    }
+
+    /**
+     * Nạp cấu hình từ classpath với biến môi trường và system property cho trước
+     */
+    public static PoolSettings load(Map<String, String> env, Properties system) {
+        Properties merged = defaults();
+
+        try (InputStream in = PoolSettings.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                merged.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không đọc được " + RESOURCE, e);
+        }
+
+        applyOverrides(merged, env, system);
+        return new PoolSettings(merged);
+    }
+
+    /**
+     * Giá trị mặc định: cấu hình pool cũ và các cờ hiệu năng của Connector/J
+     */
+    static Properties defaults() {
+        Properties defaults = new Properties();
+        defaults.setProperty("db.driverClassName", "com.mysql.cj.jdbc.Driver");
+        defaults.setProperty("db.profiles", DatabaseConnection.OLTP);
+        defaults.setProperty("db.maximumPoolSize", "10");
+        defaults.setProperty("db.minimumIdle", "2");
+        defaults.setProperty("db.connectionTimeout", "30000");
+        defaults.setProperty("db.idleTimeout", "600000");
+        defaults.setProperty("db.maxLifetime", "1800000");
+        defaults.setProperty("db.autoCommit", "false");
+        defaults.setProperty("db.readOnly", "false");
+        defaults.setProperty("db.replicas", "");
+        defaults.setProperty("db.replicaMaxLagSeconds", "5");
+        defaults.setProperty("db.replicaCheckIntervalMillis", "2000");
+
+        defaults.setProperty("db.dataSource.cachePrepStmts", "true");
+        defaults.setProperty("db.dataSource.prepStmtCacheSize", "250");
+        defaults.setProperty("db.dataSource.prepStmtCacheSqlLimit", "2048");
+        defaults.setProperty("db.dataSource.useServerPrepStmts", "true");
+        defaults.setProperty("db.dataSource.rewriteBatchedStatements", "true");
+        defaults.setProperty("db.dataSource.useLocalSessionState", "true");
+        defaults.setProperty("db.dataSource.cacheResultSetMetadata", "true");
+        defaults.setProperty("db.dataSource.elideSetAutoCommits", "true");
+        return defaults;
+    }
+
+    static void applyOverrides(Properties target, Map<String, String> env, Properties system) {
+        // Biến môi trường: chỉ các khóa đã khai báo (xem Javadoc của lớp)
+        for (String key : target.stringPropertyNames()) {
+            String value = env.get(toEnvName(key));
+            if (value != null) {
+                target.setProperty(key, value);
+            }
+        }
+        // Cho phép khai báo khóa mới (ví dụ profile mới) qua system property
+        for (String key : system.stringPropertyNames()) {
+            if (key.startsWith(PREFIX)) {
+                target.setProperty(key, system.getProperty(key));
+            }
+        }
+    }
+
+    static String toEnvName(String key) {
+        return key.toUpperCase().replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * @return Tên các profile đã khai báo
+     */
+    public List<String> getProfileNames() {
+        return getList("db.profiles");
+    }
+
+    /**
+     * @return Tên các profile dùng làm replica chỉ đọc
+     */
+    public List<String> getReplicaNames() {
+        return getList("db.replicas");
+    }
+
+    public long getReplicaMaxLagSeconds() {
+        return Long.parseLong(properties.getProperty("db.replicaMaxLagSeconds"));
+    }
+
+    public long getReplicaCheckIntervalMillis() {
+        return Long.parseLong(properties.getProperty("db.replicaCheckIntervalMillis"));
+    }
+
+    private List<String> getList(String key) {
+        List<String> names = new ArrayList<>();
+        for (String name : Arrays.asList(properties.getProperty(key, "").split(","))) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+
+    public PoolProfile getProfile(String name) {
+        return PoolProfile.of(name, this);
+    }
+
+    String get(String profile, String key) {
+        String value = properties.getProperty(PROFILE_PREFIX + profile + "." + key);
+        return value != null ? value : properties.getProperty(PREFIX + key);
+    }
+
+    String require(String profile, String key) {
+        String value = get(profile, key);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu cấu hình '" + key + "' cho pool " + profile);
+        }
+        return value;
+    }
+
+    /**
+     * Các khóa có tiền tố cho trước, giá trị riêng của profile ghi đè giá trị chung
+     */
+    Map<String, String> withPrefix(String profile, String prefix) {
+        Map<String, String> result = new LinkedHashMap<>();
+        collect(PREFIX + prefix, result);
+        collect(PROFILE_PREFIX + profile + "." + prefix, result);
+        return result;
+    }
+
+    private void collect(String fullPrefix, Map<String, String> result) {
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(fullPrefix)) {
+                result.put(key.substring(fullPrefix.length()), properties.getProperty(key));
+            }
+        }
+    }
+}
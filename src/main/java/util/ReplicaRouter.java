@@ -0,0 +1,202 @@
+package util;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Định tuyến kết nối theo AccessIntent: ghi luôn vào primary, đọc chia vòng tròn cho các replica khỏe.
+ * Replica được kiểm tra định kỳ bằng lagQuery; replica lỗi hoặc trễ quá maxLagSeconds bị loại
+ * cho tới lần kiểm tra sau. Không còn replica nào khỏe thì đọc từ primary.
+ */
+public class ReplicaRouter implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    public static final String DEFAULT_LAG_QUERY = "SHOW REPLICA STATUS";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param primary DataSource của primary
+     * @param replicas tên -> DataSource của replica
+     * @param lagQueries tên -> câu truy vấn trả về độ trễ (giây); thiếu thì dùng SHOW REPLICA STATUS
+     * @param maxLagSeconds Độ trễ tối đa còn được đọc
+     */
+    public ReplicaRouter(DataSource primary, Map<String, DataSource> replicas,
+                         Map<String, String> lagQueries, long maxLagSeconds) {
+        this.primary = primary;
+        this.maxLagSeconds = maxLagSeconds;
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            String lagQuery = lagQueries.getOrDefault(entry.getKey(), DEFAULT_LAG_QUERY);
+            this.replicas.add(new Replica(entry.getKey(), entry.getValue(), lagQuery));
+        }
+    }
+
+    /**
+     * Lấy kết nối theo mục đích sử dụng
+     */
+    public Connection getConnection(AccessIntent intent) throws SQLException {
+        if (intent == AccessIntent.READ_WRITE || replicas.isEmpty()) {
+            return primary.getConnection();
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markUnhealthy(e.getMessage());
+                LOGGER.log(Level.WARNING, "Replica " + replica.name + " không kết nối được, bỏ qua", e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Kiểm tra sức khỏe và độ trễ của tất cả replica
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            replica.check(maxLagSeconds);
+        }
+    }
+
+    /**
+     * Bắt đầu kiểm tra replica định kỳ (kiểm tra ngay một lần trước khi trả về)
+     */
+    public synchronized void start(long intervalMillis) {
+        checkReplicas();
+        if (checker != null || replicas.isEmpty()) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public List<Replica> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (checker != null) {
+            checker.shutdown();
+            checker = null;
+        }
+    }
+
+    /**
+     * Trạng thái của một replica
+     */
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final String lagQuery;
+        private volatile boolean healthy;
+        private volatile long lagSeconds = -1;
+        private volatile String lastError;
+
+        Replica(String name, DataSource dataSource, String lagQuery) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.lagQuery = lagQuery;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * @return Độ trễ đo được lần gần nhất (giây), -1 nếu chưa đo được
+         */
+        public long getLagSeconds() {
+            return lagSeconds;
+        }
+
+        public String getLastError() {
+            return lastError;
+        }
+
+        void check(long maxLagSeconds) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(lagQuery);
+                 ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    markUnhealthy("Máy chủ không ở chế độ replica");
+                    return;
+                }
+                long lag = readLag(rs);
+                if (rs.wasNull()) {
+                    markUnhealthy("Replication đang dừng");
+                    return;
+                }
+                lagSeconds = lag;
+                if (lag > maxLagSeconds) {
+                    markUnhealthy("Trễ " + lag + " giây");
+                } else {
+                    healthy = true;
+                    lastError = null;
+                }
+            } catch (SQLException e) {
+                markUnhealthy(e.getMessage());
+            }
+        }
+
+        void markUnhealthy(String reason) {
+            healthy = false;
+            lastError = reason;
+        }
+
+        private static long readLag(ResultSet rs) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String column = meta.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(column)
+                        || "Seconds_Behind_Master".equalsIgnoreCase(column)) {
+                    return rs.getLong(i);
+                }
+            }
+            return rs.getLong(1);
+        }
+
+        @Override
+        public String toString() {
+            return "Replica{" +
+                    "name='" + name + '\'' +
+                    ", healthy=" + healthy +
+                    ", lagSeconds=" + lagSeconds +
+                    ", lastError='" + lastError + '\'' +
+                    '}';
+        }
+    }
+}
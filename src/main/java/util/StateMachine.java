@@ -0,0 +1,281 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Máy trạng thái dựng từ bảng chuyển: mỗi trạng thái nguồn là một bitmask các trạng thái đích,
+ * nên kiểm tra một lần chuyển chỉ là một phép AND.
+ * Chuyển trạng thái trên entity dùng CAS trên trường volatile (AtomicReferenceFieldUpdater), nên an toàn
+ * khi nhiều luồng cùng đổi một entity; hook thoát/vào trạng thái chạy sau khi CAS thành công, trên luồng đã đổi.
+ * Mỗi cặp (nguồn, đích) có bộ đếm số lần thành công, số lần bị từ chối và thời gian xử lý.
+ *
+ * @param <T> Loại entity mang trạng thái
+ * @param <S> Enum trạng thái (tối đa 64 hằng)
+ */
+public final class StateMachine<T, S extends Enum<S>> {
+
+    /**
+     * Hook chạy khi entity rời khỏi hoặc đi vào một trạng thái
+     */
+    @FunctionalInterface
+    public interface Hook<T, S> {
+        void onTransition(T entity, S from, S to);
+    }
+
+    private final Class<S> type;
+    private final S[] states;
+    private final String label;
+    private final long[] allowed;
+    private final List<Hook<T, S>>[] entryHooks;
+    private final List<Hook<T, S>>[] exitHooks;
+    private final LongAdder[] counts;
+    private final LongAdder[] rejections;
+    private final LongAdder[] totalNanos;
+    private final LongAccumulator[] maxNanos;
+
+    private StateMachine(Builder<T, S> builder) {
+        this.type = builder.type;
+        this.states = builder.type.getEnumConstants();
+        this.label = builder.label;
+        this.allowed = builder.allowed.clone();
+        this.entryHooks = hookLists(states.length);
+        this.exitHooks = hookLists(states.length);
+        for (int i = 0; i < states.length; i++) {
+            entryHooks[i].addAll(builder.entryHooks[i]);
+            exitHooks[i].addAll(builder.exitHooks[i]);
+        }
+
+        int pairs = states.length * states.length;
+        this.counts = new LongAdder[pairs];
+        this.rejections = new LongAdder[pairs];
+        this.totalNanos = new LongAdder[pairs];
+        this.maxNanos = new LongAccumulator[pairs];
+        for (int i = 0; i < pairs; i++) {
+            counts[i] = new LongAdder();
+            rejections[i] = new LongAdder();
+            totalNanos[i] = new LongAdder();
+            maxNanos[i] = new LongAccumulator(Math::max, 0);
+        }
+    }
+
+    /**
+     * @param type Lớp enum trạng thái
+     * @param label Tên dùng trong thông báo lỗi, ví dụ "ghế"
+     */
+    public static <T, S extends Enum<S>> Builder<T, S> builder(Class<S> type, String label) {
+        return new Builder<>(type, label);
+    }
+
+    public boolean canTransition(S from, S to) {
+        return (allowed[from.ordinal()] & (1L << to.ordinal())) != 0;
+    }
+
+    /**
+     * @return Các trạng thái có thể chuyển tới từ from
+     */
+    public Set<S> targetsOf(S from) {
+        EnumSet<S> targets = EnumSet.noneOf(type);
+        for (S state : states) {
+            if (canTransition(from, state)) {
+                targets.add(state);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Kiểm tra một lần chuyển, ghi nhận bị từ chối nếu không hợp lệ
+     * @throws InvalidTransitionException nếu không hợp lệ
+     */
+    public void check(S from, S to) {
+        if (!canTransition(from, to)) {
+            rejections[pair(from, to)].increment();
+            throw new InvalidTransitionException(label, from, to);
+        }
+    }
+
+    /**
+     * Chuyển entity sang trạng thái to bằng CAS, thử lại nếu luồng khác vừa đổi trạng thái
+     * @param field Trường trạng thái (volatile) của entity
+     * @return Trạng thái trước đó
+     * @throws InvalidTransitionException nếu trạng thái hiện tại không được chuyển sang to
+     */
+    public S transition(T entity, AtomicReferenceFieldUpdater<T, S> field, S to) {
+        long start = System.nanoTime();
+        while (true) {
+            S from = requireState(field.get(entity));
+            check(from, to);
+            if (field.compareAndSet(entity, from, to)) {
+                fire(entity, from, to, start);
+                return from;
+            }
+        }
+    }
+
+    /**
+     * Như transition nhưng trả false thay vì ném lỗi khi chuyển không hợp lệ
+     */
+    public boolean tryTransition(T entity, AtomicReferenceFieldUpdater<T, S> field, S to) {
+        long start = System.nanoTime();
+        while (true) {
+            S from = field.get(entity);
+            if (from == null) {
+                return false;
+            }
+            if (!canTransition(from, to)) {
+                rejections[pair(from, to)].increment();
+                return false;
+            }
+            if (field.compareAndSet(entity, from, to)) {
+                fire(entity, from, to, start);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Chuyển từ from sang to chỉ khi entity vẫn đang ở from
+     * @return false nếu trạng thái đã bị luồng khác đổi
+     * @throws InvalidTransitionException nếu from không được chuyển sang to
+     */
+    public boolean compareAndTransition(T entity, AtomicReferenceFieldUpdater<T, S> field, S from, S to) {
+        long start = System.nanoTime();
+        check(from, to);
+        if (!field.compareAndSet(entity, from, to)) {
+            return false;
+        }
+        fire(entity, from, to, start);
+        return true;
+    }
+
+    /**
+     * Ghi nhận một lần chuyển đã được thực hiện bên ngoài (ví dụ CAS trên ô của ShowtimeSeatMap),
+     * không chạy hook
+     * @param startNanos Thời điểm bắt đầu (System.nanoTime)
+     */
+    public void record(S from, S to, long startNanos) {
+        int pair = pair(from, to);
+        long elapsed = System.nanoTime() - startNanos;
+        counts[pair].increment();
+        totalNanos[pair].add(elapsed);
+        maxNanos[pair].accumulate(elapsed);
+    }
+
+    public TransitionStats getStats(S from, S to) {
+        int pair = pair(from, to);
+        return new TransitionStats(from.name(), to.name(), counts[pair].sum(), rejections[pair].sum(),
+                totalNanos[pair].sum(), maxNanos[pair].get());
+    }
+
+    /**
+     * @return Số liệu của mọi cặp đã có lần chuyển hoặc bị từ chối
+     */
+    public List<TransitionStats> getAllStats() {
+        List<TransitionStats> stats = new ArrayList<>();
+        for (S from : states) {
+            for (S to : states) {
+                int pair = pair(from, to);
+                if (counts[pair].sum() > 0 || rejections[pair].sum() > 0) {
+                    stats.add(getStats(from, to));
+                }
+            }
+        }
+        return stats;
+    }
+
+    public void resetStats() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i].reset();
+            rejections[i].reset();
+            totalNanos[i].reset();
+            maxNanos[i].reset();
+        }
+    }
+
+    private void fire(T entity, S from, S to, long startNanos) {
+        for (Hook<T, S> hook : exitHooks[from.ordinal()]) {
+            hook.onTransition(entity, from, to);
+        }
+        for (Hook<T, S> hook : entryHooks[to.ordinal()]) {
+            hook.onTransition(entity, from, to);
+        }
+        record(from, to, startNanos);
+    }
+
+    private S requireState(S state) {
+        if (state == null) {
+            throw new IllegalStateException("Chưa có trạng thái " + label);
+        }
+        return state;
+    }
+
+    private int pair(S from, S to) {
+        return from.ordinal() * states.length + to.ordinal();
+    }
+
+    /**
+     * Mảng danh sách hook rỗng theo thứ tự trạng thái (Java không cho tạo mảng kiểu generic trực tiếp)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T, S> List<Hook<T, S>>[] hookLists(int size) {
+        List<Hook<T, S>>[] lists = new List[size];
+        for (int i = 0; i < size; i++) {
+            lists[i] = new ArrayList<>();
+        }
+        return lists;
+    }
+
+    /**
+     * Khai báo bảng chuyển và hook
+     */
+    public static final class Builder<T, S extends Enum<S>> {
+        private final Class<S> type;
+        private final String label;
+        private final long[] allowed;
+        private final List<Hook<T, S>>[] entryHooks;
+        private final List<Hook<T, S>>[] exitHooks;
+
+        private Builder(Class<S> type, String label) {
+            int size = type.getEnumConstants().length;
+            if (size > Long.SIZE) {
+                throw new IllegalArgumentException("Enum trạng thái có quá nhiều hằng: " + size);
+            }
+            this.type = type;
+            this.label = label;
+            this.allowed = new long[size];
+            this.entryHooks = hookLists(size);
+            this.exitHooks = hookLists(size);
+        }
+
+        /**
+         * Cho phép chuyển từ from sang từng trạng thái trong to
+         */
+        @SafeVarargs
+        public final Builder<T, S> allow(S from, S... to) {
+            for (S target : to) {
+                allowed[from.ordinal()] |= 1L << target.ordinal();
+            }
+            return this;
+        }
+
+        public Builder<T, S> onEntry(S state, Hook<T, S> hook) {
+            entryHooks[state.ordinal()].add(hook);
+            return this;
+        }
+
+        public Builder<T, S> onExit(S state, Hook<T, S> hook) {
+            exitHooks[state.ordinal()].add(hook);
+            return this;
+        }
+
+        public StateMachine<T, S> build() {
+            return new StateMachine<>(this);
+        }
+    }
+}
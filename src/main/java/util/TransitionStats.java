@@ -0,0 +1,62 @@
+package util;
+
+/**
+ * Số liệu của một cặp chuyển trạng thái tại thời điểm lấy
+ */
+public final class TransitionStats {
+
+    private final String from;
+    private final String to;
+    private final long count;
+    private final long rejected;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    TransitionStats(String from, String to, long count, long rejected, long totalNanos, long maxNanos) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+        this.rejected = rejected;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * @return Số lần chuyển thành công
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Số lần bị từ chối vì không hợp lệ
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return Thời gian trung bình mỗi lần chuyển, kể cả hook (nano giây)
+     */
+    public double getAverageNanos() {
+        return count == 0 ? 0 : (double) totalNanos / count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s: count=%d, rejected=%d, avg=%.0fns, max=%dns",
+                from, to, count, rejected, getAverageNanos(), maxNanos);
+    }
+}
@@ -0,0 +1,58 @@
+package waitingroom;
+
+/**
+ * Trạng thái của một vé xếp hàng tại thời điểm hỏi
+ */
+public class QueueStatus {
+
+    public enum State {
+        /** Đang chờ tới lượt */
+        WAITING,
+        /** Đã được vào chọn ghế và vé chưa được dùng */
+        ADMITTED,
+        /** Đã được vào và vé đã được dùng để vào luồng đặt vé */
+        USED,
+        /** Đã được vào nhưng quá hạn mà chưa dùng vé */
+        EXPIRED,
+        /** Hàng chờ đang đóng (hết ghế hoặc bị đóng thủ công) */
+        CLOSED
+    }
+
+    private final State state;
+    private final long position;
+    private final long estimatedWaitMillis;
+
+    QueueStatus(State state, long position, long estimatedWaitMillis) {
+        this.state = state;
+        this.position = position;
+        this.estimatedWaitMillis = estimatedWaitMillis;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return Số người đứng trước (0 khi đã được vào hoặc hàng đã đóng)
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return Thời gian chờ ước tính theo tốc độ cho vào hiện tại (WAITING),
+     *         hoặc thời gian còn lại để dùng vé (ADMITTED)
+     */
+    public long getEstimatedWaitMillis() {
+        return estimatedWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueStatus{" +
+                "state=" + state +
+                ", position=" + position +
+                ", estimatedWaitMillis=" + estimatedWaitMillis +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package waitingroom;
+
+/**
+ * Vé xếp hàng đã giải mã: số thứ tự trong hàng chờ của một suất chiếu
+ */
+public class QueueToken {
+    private final int showtimeId;
+    private final int lineId;
+    private final long ticket;
+    private final long issuedAtMillis;
+
+    QueueToken(int showtimeId, int lineId, long ticket, long issuedAtMillis) {
+        this.showtimeId = showtimeId;
+        this.lineId = lineId;
+        this.ticket = ticket;
+        this.issuedAtMillis = issuedAtMillis;
+    }
+
+    public int getShowtimeId() {
+        return showtimeId;
+    }
+
+    /**
+     * @return Mã của lần mở hàng chờ; vé của lần mở trước không dùng được sau khi mở lại
+     */
+    public int getLineId() {
+        return lineId;
+    }
+
+    /**
+     * @return Số thứ tự (bắt đầu từ 1)
+     */
+    public long getTicket() {
+        return ticket;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueToken{" +
+                "showtimeId=" + showtimeId +
+                ", ticket=" + ticket +
+                ", issuedAtMillis=" + issuedAtMillis +
+                '}';
+    }
+}
@@ -0,0 +1,85 @@
+package waitingroom;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Ký và kiểm tra vé xếp hàng bằng HMAC-SHA256.
+ * Vé có dạng base64url(payload 24 byte) + "." + base64url(16 byte đầu của chữ ký),
+ * nên server không cần lưu vé và client không sửa được số thứ tự.
+ */
+final class QueueTokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_BYTES = 24;
+    private static final int SIGNATURE_BYTES = 16;
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    QueueTokenSigner(byte[] secret) {
+        if (secret == null || secret.length < 16) {
+            throw new IllegalArgumentException("Khóa ký vé phải dài ít nhất 16 byte");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        newMac();
+    }
+
+    String sign(QueueToken token) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+                .putInt(token.getShowtimeId())
+                .putInt(token.getLineId())
+                .putLong(token.getTicket())
+                .putLong(token.getIssuedAtMillis())
+                .array();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(signature(payload));
+    }
+
+    /**
+     * @throws IllegalArgumentException nếu vé sai định dạng hoặc chữ ký không khớp
+     */
+    QueueToken verify(String value) {
+        int dot = value == null ? -1 : value.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Vé xếp hàng không hợp lệ");
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(value.substring(0, dot).getBytes(StandardCharsets.US_ASCII));
+            signature = decoder.decode(value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Vé xếp hàng không hợp lệ", e);
+        }
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(signature, signature(payload))) {
+            throw new IllegalArgumentException("Chữ ký vé xếp hàng không hợp lệ");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new QueueToken(buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getLong());
+    }
+
+    private byte[] signature(byte[] payload) {
+        byte[] full = macs.get().doFinal(payload);
+        byte[] truncated = new byte[SIGNATURE_BYTES];
+        System.arraycopy(full, 0, truncated, 0, SIGNATURE_BYTES);
+        return truncated;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Không khởi tạo được " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package waitingroom;
+
+import service.AvailabilityTracker;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Phòng chờ ảo cho các suất chiếu đông khách.
+ * Khách nhận vé xếp hàng đã ký (server không lưu vé) và được cho vào chọn ghế theo thứ tự,
+ * với tốc độ của một token bucket riêng cho từng suất chiếu. Khi số ghế còn trống trong AvailabilityTracker
+ * ít hơn sức chứa của bucket, sức chứa và tốc độ giảm theo tỉ lệ, nên suất gần hết ghế chỉ cho vào nhỏ giọt.
+ * Hàng chờ chỉ đóng khi không còn ghế chưa bán (trống + đang giữ); ghế giữ hết hạn được trả lại thì hàng mở lại.
+ * Người đã được vào giữ quyền vào trong một khoảng thời gian và chỉ dùng được vé một lần.
+ * Nhờ vậy số người vào luồng đặt vé mỗi giây không phụ thuộc vào độ đông của đám đông
+ * và pool kết nối không bị dồn ứ.
+ */
+public class WaitingRoom {
+
+    private static final Logger LOGGER = Logger.getLogger(WaitingRoom.class.getName());
+    private static final long DEFAULT_ADMISSION_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final AvailabilityTracker availabilityTracker;
+    private final QueueTokenSigner signer;
+    private final ConcurrentMap<Integer, Line> lines = new ConcurrentHashMap<>();
+
+    /**
+     * @param availabilityTracker Nguồn số ghế còn trống
+     * @param secret Khóa HMAC để ký vé (ít nhất 16 byte, dùng chung giữa các server)
+     */
+    public WaitingRoom(AvailabilityTracker availabilityTracker, byte[] secret) {
+        this.availabilityTracker = availabilityTracker;
+        this.signer = new QueueTokenSigner(secret);
+    }
+
+    /**
+     * Mở (hoặc mở lại) hàng chờ cho suất chiếu. Vé của lần mở trước không còn hiệu lực.
+     * @param admitsPerSecond Số người được cho vào mỗi giây
+     * @param burst Số người tối đa được cho vào cùng lúc sau một khoảng vắng
+     */
+    public void open(int showtimeId, double admitsPerSecond, int burst) {
+        open(showtimeId, admitsPerSecond, burst, DEFAULT_ADMISSION_WINDOW_MILLIS);
+    }
+
+    /**
+     * @param admissionWindowMillis Thời gian người đã được vào còn giữ quyền vào luồng đặt vé
+     */
+    public void open(int showtimeId, double admitsPerSecond, int burst, long admissionWindowMillis) {
+        if (admitsPerSecond <= 0 || burst <= 0 || admissionWindowMillis <= 0) {
+            throw new IllegalArgumentException("Tốc độ, sức chứa và thời hạn vào của hàng chờ phải lớn hơn 0");
+        }
+        lines.put(showtimeId, new Line(ThreadLocalRandom.current().nextInt(), admitsPerSecond, burst,
+                admissionWindowMillis));
+        LOGGER.info("Mở hàng chờ suất chiếu " + showtimeId + ": " + admitsPerSecond + " người/giây");
+    }
+
+    /**
+     * Đóng hàng chờ: không nhận thêm người, vé đang chờ nhận trạng thái CLOSED.
+     * Người đã được vào vẫn giữ quyền vào tới hết hạn.
+     */
+    public void close(int showtimeId) {
+        Line line = lines.get(showtimeId);
+        if (line != null) {
+            line.close();
+        }
+    }
+
+    public boolean isOpen(int showtimeId) {
+        Line line = lines.get(showtimeId);
+        if (line == null) {
+            return false;
+        }
+        advance(line, showtimeId);
+        return line.isOpen();
+    }
+
+    /**
+     * Vào hàng chờ
+     * @return Vé xếp hàng đã ký
+     * @throws IllegalStateException nếu suất chiếu không có hàng chờ, hàng đã đóng hoặc đang hết ghế
+     */
+    public String join(int showtimeId) {
+        Line line = requireLine(showtimeId);
+        long ticket = line.join(availabilityTracker.getAvailability(showtimeId),
+                availabilityTracker.getUnsold(showtimeId));
+        if (ticket < 0) {
+            throw new IllegalStateException("Hàng chờ của suất chiếu " + showtimeId + " đã đóng");
+        }
+        return signer.sign(new QueueToken(showtimeId, line.lineId, ticket, System.currentTimeMillis()));
+    }
+
+    /**
+     * Hỏi trạng thái của vé
+     * @throws IllegalArgumentException nếu vé giả hoặc thuộc lần mở hàng chờ khác
+     */
+    public QueueStatus status(String token) {
+        QueueToken queueToken = signer.verify(token);
+        Line line = lineOf(queueToken);
+        advance(line, queueToken.getShowtimeId());
+        return line.status(queueToken.getTicket(), System.currentTimeMillis());
+    }
+
+    /**
+     * Kiểm tra nhanh (không dùng vé)
+     * @return true nếu vé hợp lệ, đã tới lượt, chưa hết hạn vào và chưa được dùng
+     */
+    public boolean isAdmitted(String token) {
+        try {
+            return status(token).getState() == QueueStatus.State.ADMITTED;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Dùng vé ở đầu luồng đặt vé. Mỗi vé chỉ vào được một lần, nên không thể chia sẻ cho người khác.
+     * @return true nếu vé hợp lệ, đã tới lượt, chưa hết hạn vào và chưa từng được dùng
+     */
+    public boolean enter(String token) {
+        try {
+            QueueToken queueToken = signer.verify(token);
+            Line line = lineOf(queueToken);
+            advance(line, queueToken.getShowtimeId());
+            return line.enter(queueToken.getTicket(), System.currentTimeMillis());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public QueueToken decode(String token) {
+        return signer.verify(token);
+    }
+
+    /**
+     * @return Số người đang chờ, 0 nếu không có hàng chờ
+     */
+    public long getWaiting(int showtimeId) {
+        Line line = lines.get(showtimeId);
+        return line == null ? 0 : line.waiting();
+    }
+
+    /**
+     * @return Số người đã được cho vào kể từ khi mở hàng chờ
+     */
+    public long getAdmitted(int showtimeId) {
+        Line line = lines.get(showtimeId);
+        return line == null ? 0 : line.admitted();
+    }
+
+    private void advance(Line line, int showtimeId) {
+        line.advance(availabilityTracker.getAvailability(showtimeId), availabilityTracker.getUnsold(showtimeId));
+    }
+
+    private Line requireLine(int showtimeId) {
+        Line line = lines.get(showtimeId);
+        if (line == null) {
+            throw new IllegalStateException("Suất chiếu " + showtimeId + " không có hàng chờ");
+        }
+        return line;
+    }
+
+    private Line lineOf(QueueToken token) {
+        Line line = lines.get(token.getShowtimeId());
+        if (line == null || line.lineId != token.getLineId()) {
+            throw new IllegalArgumentException("Vé xếp hàng đã hết hiệu lực");
+        }
+        return line;
+    }
+
+    /**
+     * Hàng chờ của một suất chiếu: số vé đã phát, số thứ tự đã được vào, token bucket
+     * và thời điểm được vào của từng đợt để tính hạn vào
+     */
+    private static final class Line {
+        final int lineId;
+        final double permitsPerNano;
+        final int burst;
+        final long admissionWindowMillis;
+        long issued;
+        long admittedUpTo;
+        double tokens;
+        long lastRefillNanos = System.nanoTime();
+        boolean closed;
+        boolean soldOut;
+        /** Số thứ tự cuối của mỗi đợt được vào -> thời điểm được vào */
+        final TreeMap<Long, Long> admittedAt = new TreeMap<>();
+        /** Các vé có số thứ tự không quá giá trị này đã hết hạn vào */
+        long expiredUpTo;
+        /** Vé đã dùng và chưa hết hạn */
+        final NavigableSet<Long> entered = new TreeSet<>();
+
+        Line(int lineId, double admitsPerSecond, int burst, long admissionWindowMillis) {
+            this.lineId = lineId;
+            this.permitsPerNano = admitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.burst = burst;
+            this.admissionWindowMillis = admissionWindowMillis;
+            this.tokens = burst;
+        }
+
+        synchronized long join(int available, int unsold) {
+            advance(available, unsold);
+            if (!isOpen()) {
+                return -1;
+            }
+            long ticket = ++issued;
+            advance(available, unsold);
+            return ticket;
+        }
+
+        /**
+         * Nạp token theo thời gian đã trôi qua và cho người đầu hàng vào
+         * @param available Số ghế còn trống, -1 nếu chưa được theo dõi (không giới hạn theo ghế)
+         * @param unsold Số ghế chưa bán (trống + đang giữ), -1 nếu chưa được theo dõi
+         */
+        synchronized void advance(int available, int unsold) {
+            expire(System.currentTimeMillis());
+            if (closed) {
+                return;
+            }
+            boolean nowSoldOut = unsold == 0;
+            if (nowSoldOut != soldOut) {
+                soldOut = nowSoldOut;
+                LOGGER.info((soldOut ? "Tạm đóng hàng chờ vì hết ghế" : "Mở lại hàng chờ vì có ghế được trả lại")
+                        + ", còn " + (issued - admittedUpTo) + " người đang chờ");
+            }
+            // Ít ghế trống hơn burst thì giảm cả sức chứa lẫn tốc độ theo tỉ lệ;
+            // ghế đều đang được giữ thì tạm ngừng cho vào nhưng không đóng hàng
+            int capacity = available < 0 ? burst : Math.min(burst, available);
+            double rate = permitsPerNano * capacity / burst;
+            long now = System.nanoTime();
+            // Khi có người chờ, token được dùng ngay lúc sinh ra nên không bị giới hạn bởi sức chứa;
+            // phần thừa sau khi hàng trống mới bị cắt về sức chứa
+            tokens += (now - lastRefillNanos) * rate;
+            lastRefillNanos = now;
+            long admit = Math.min((long) tokens, issued - admittedUpTo);
+            if (admit > 0) {
+                admittedUpTo += admit;
+                tokens -= admit;
+                admittedAt.put(admittedUpTo, System.currentTimeMillis());
+            }
+            tokens = Math.min(capacity, tokens);
+        }
+
+        /**
+         * Bỏ các đợt đã quá hạn vào cùng với các vé đã dùng thuộc những đợt đó
+         */
+        private void expire(long nowMillis) {
+            Map.Entry<Long, Long> oldest;
+            while ((oldest = admittedAt.firstEntry()) != null
+                    && nowMillis - oldest.getValue() >= admissionWindowMillis) {
+                expiredUpTo = oldest.getKey();
+                admittedAt.pollFirstEntry();
+            }
+            entered.headSet(expiredUpTo, true).clear();
+        }
+
+        synchronized QueueStatus status(long ticket, long nowMillis) {
+            expire(nowMillis);
+            if (ticket <= admittedUpTo) {
+                if (ticket <= expiredUpTo) {
+                    return new QueueStatus(QueueStatus.State.EXPIRED, 0, 0);
+                }
+                if (entered.contains(ticket)) {
+                    return new QueueStatus(QueueStatus.State.USED, 0, 0);
+                }
+                long remaining = admittedAt.ceilingEntry(ticket).getValue() + admissionWindowMillis - nowMillis;
+                return new QueueStatus(QueueStatus.State.ADMITTED, 0, remaining);
+            }
+            if (!isOpen()) {
+                return new QueueStatus(QueueStatus.State.CLOSED, 0, 0);
+            }
+            long ahead = ticket - admittedUpTo - 1;
+            double missing = Math.max(0, ahead + 1 - tokens);
+            long waitMillis = (long) Math.ceil(missing / permitsPerNano / TimeUnit.MILLISECONDS.toNanos(1));
+            return new QueueStatus(QueueStatus.State.WAITING, ahead, waitMillis);
+        }
+
+        synchronized boolean enter(long ticket, long nowMillis) {
+            return status(ticket, nowMillis).getState() == QueueStatus.State.ADMITTED && entered.add(ticket);
+        }
+
+        synchronized boolean isOpen() {
+            return !closed && !soldOut;
+        }
+
+        synchronized void close() {
+            closed = true;
+        }
+
+        synchronized long waiting() {
+            return closed ? 0 : issued - admittedUpTo;
+        }
+
+        synchronized long admitted() {
+            return admittedUpTo;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import dao.ShowtimeDao;
+import model.SeatStatus;
+import service.AvailabilityTracker;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestAvailabilityTracker {
+    public static void main(String[] args) throws Exception {
+        RecordingShowtimeDao dao = new RecordingShowtimeDao();
+        AvailabilityTracker tracker = new AvailabilityTracker(dao);
+
+        // 1. Đếm theo từng lần chuyển trạng thái
+        tracker.track(1, 100, 100);
+        for (int seatId = 1; seatId <= 30; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+        }
+        for (int seatId = 1; seatId <= 10; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.RESERVED, SeatStatus.BOOKED);
+        }
+        for (int seatId = 11; seatId <= 15; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.RESERVED, SeatStatus.AVAILABLE);
+        }
+        System.out.println("Còn trống / chưa bán (mong đợi 75 90): " + tracker.getAvailability(1) + " "
+                + tracker.getUnsold(1));
+        System.out.println("Suất chưa theo dõi (mong đợi -1 -1): " + tracker.getAvailability(9) + " " + tracker.getUnsold(9));
+
+        // 2. Nhiều luồng cùng giữ và trả ghế
+        tracker.track(2, 1000, 1000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seatId = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.onTransition(2, seatId, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+                    tracker.onTransition(2, seatId, SeatStatus.RESERVED, SeatStatus.AVAILABLE);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("Sau 160000 lần giữ/trả song song (mong đợi 1000 1000): " + tracker.getAvailability(2) + " "
+                + tracker.getUnsold(2));
+
+        // 3. Ghi xuống database: gộp theo suất chiếu, lỗi thì giữ lại để ghi lần sau
+        System.out.println("Số suất được ghi (mong đợi 2): " + tracker.flush() + " " + dao.written);
+        System.out.println("Không có thay đổi thì không ghi (mong đợi 0): " + tracker.flush());
+        tracker.onTransition(1, 50, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+        dao.failures = 1;
+        try {
+            tracker.flush();
+            System.out.println("LỖI: flush không báo lỗi");
+        } catch (SQLException e) {
+            System.out.println("Ghi lỗi: " + e.getMessage());
+        }
+        System.out.println("Ghi lại sau lỗi (mong đợi 1 {1=74}): " + tracker.flush() + " " + dao.written);
+
+        // 4. Sự kiện trùng làm bộ đếm vượt tổng số ghế: chặn lại và đánh dấu lệch
+        tracker.track(3, 10, 10);
+        System.out.println("Mới theo dõi, chưa lệch (mong đợi false): " + tracker.isOutOfSync(3));
+        tracker.onTransition(3, 1, SeatStatus.RESERVED, SeatStatus.AVAILABLE);
+        System.out.println("Phát hiện lệch khi chưa đọc số ghế (mong đợi true): " + tracker.isOutOfSync(3));
+        System.out.println("Ghế trống bị chặn ở tổng số ghế (mong đợi 10): " + tracker.getAvailability(3));
+        tracker.track(3, 10, 10);
+        System.out.println("Theo dõi lại thì hết lệch (mong đợi false): " + tracker.isOutOfSync(3));
+        tracker.track(4, 10, 0);
+        tracker.onTransition(4, 1, SeatStatus.AVAILABLE, SeatStatus.BOOKED);
+        System.out.println("Ghế trống bị chặn ở 0 (mong đợi 0 true): " + tracker.getAvailability(4) + " "
+                + tracker.isOutOfSync(4));
+    }
+
+    private static final class RecordingShowtimeDao extends ShowtimeDao {
+        Map<Integer, Integer> written = new HashMap<>();
+        int failures;
+
+        @Override
+        public void updateAvailableSeats(Map<Integer, Integer> availableSeats) throws SQLException {
+            if (failures > 0) {
+                failures--;
+                throw new SQLException("mất kết nối");
+            }
+            written = new HashMap<>(availableSeats);
+        }
+    }
+}
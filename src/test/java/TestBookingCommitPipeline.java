@@ -0,0 +1,99 @@
+import dao.BookingDao;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentMethod;
+import service.BookingCommitPipeline;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestBookingCommitPipeline {
+
+    /**
+     * BookingDao giả trong bộ nhớ: ghế đã BOOKED thì đơn xung đột; lô đầu tiên nhiều hơn một đơn lỗi SQL
+     */
+    static class InMemoryBookingDao extends BookingDao {
+        final Set<Integer> bookedSeats = new HashSet<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final List<Integer> batchSizes = new ArrayList<>();
+        boolean failNextBatch = true;
+        int nextBookingId = 1000;
+
+        @Override
+        public synchronized BitSet confirmBatch(List<Booking> bookings, List<Payment> payments) throws SQLException {
+            calls.incrementAndGet();
+            batchSizes.add(bookings.size());
+            if (failNextBatch && bookings.size() > 1) {
+                failNextBatch = false;
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            BitSet failed = new BitSet(bookings.size());
+            Set<Integer> seatsInBatch = new HashSet<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                for (Integer seatId : bookings.get(i).getSeatIds()) {
+                    if (bookedSeats.contains(seatId) || !seatsInBatch.add(seatId)) {
+                        failed.set(i);
+                    }
+                }
+            }
+            for (int i = 0; i < bookings.size(); i++) {
+                if (!failed.get(i)) {
+                    Booking booking = bookings.get(i);
+                    bookedSeats.addAll(booking.getSeatIds());
+                    booking.setBookingId(nextBookingId++);
+                    booking.setStatus(BookingStatus.CONFIRMED);
+                }
+            }
+            return failed;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        InMemoryBookingDao dao = new InMemoryBookingDao();
+        dao.bookedSeats.add(99);
+
+        // 1. Lô đầu lỗi SQL: từng đơn được chạy lại riêng, đơn xung đột ghế chỉ hỏng chính nó
+        List<CompletableFuture<Booking>> futures = new ArrayList<>();
+        try (BookingCommitPipeline pipeline = new BookingCommitPipeline(dao, 1, 50, 200)) {
+            for (int i = 0; i < 10; i++) {
+                Booking booking = new Booking(0, i + 1, 1, 50_000, BookingStatus.PENDING);
+                // Đơn 3 tranh ghế 99 đã bán, đơn 7 tranh ghế với đơn 6
+                booking.addSeatId(i == 3 ? 99 : i == 7 ? 6 : i);
+                futures.add(pipeline.submit(booking,
+                        new Payment(0, 0, 50_000, PaymentMethod.CASH, "TXN-" + i)));
+            }
+        }
+        int confirmed = 0;
+        List<Integer> failedIndexes = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                Booking booking = futures.get(i).get();
+                confirmed += booking.getStatus() == BookingStatus.CONFIRMED && booking.getBookingId() > 0 ? 1 : 0;
+            } catch (ExecutionException e) {
+                failedIndexes.add(i);
+            }
+        }
+        System.out.println("Số lần gọi DAO (mong đợi 11 = 1 lô lỗi + 10 đơn lẻ): " + dao.calls.get()
+                + ", kích thước: " + dao.batchSizes);
+        System.out.println("Đơn xác nhận (mong đợi 8): " + confirmed);
+        System.out.println("Đơn thất bại (mong đợi [3, 7]): " + failedIndexes);
+
+        // 2. Pipeline đã đóng từ chối đơn mới
+        BookingCommitPipeline closed = new BookingCommitPipeline(dao);
+        closed.close();
+        try {
+            closed.submit(new Booking(0, 1, 1, 50_000, BookingStatus.PENDING), null).get();
+            System.out.println("LỖI: pipeline đã đóng vẫn nhận đơn");
+        } catch (ExecutionException e) {
+            System.out.println("Gửi vào pipeline đã đóng (mong đợi lỗi): " + e.getCause().getMessage());
+        }
+    }
+}
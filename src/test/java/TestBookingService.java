@@ -0,0 +1,153 @@
+import dao.BookingDao;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentMethod;
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import service.BookingCommitPipeline;
+import service.BookingRejectedException;
+import service.BookingService;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+import util.ConnectionAdmission;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestBookingService {
+
+    /** Số tác vụ đang giữ kết nối cùng lúc (JDBC qua execute lẫn commit của pipeline) và mức cao nhất */
+    static final AtomicInteger connections = new AtomicInteger();
+    static final AtomicInteger maxConnections = new AtomicInteger();
+
+    static void openConnection() {
+        maxConnections.accumulateAndGet(connections.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * BookingDao giả: xác nhận mọi đơn, ghi nhận số kết nối đang mở trong lúc commit
+     */
+    static class CountingBookingDao extends BookingDao {
+        int nextBookingId = 1;
+
+        @Override
+        public synchronized BitSet confirmBatch(List<Booking> bookings, List<Payment> payments) throws SQLException {
+            openConnection();
+            try {
+                for (Booking booking : bookings) {
+                    booking.setBookingId(nextBookingId++);
+                    booking.setStatus(BookingStatus.CONFIRMED);
+                }
+                return new BitSet(bookings.size());
+            } finally {
+                connections.decrementAndGet();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Seat> seats = new ArrayList<>();
+        for (int col = 1; col <= 4; col++) {
+            seats.add(new Seat(col, 1, "A" + col, SeatType.STANDARD, SeatStatus.AVAILABLE,
+                    SeatType.STANDARD.getPrice(), 0));
+        }
+        SeatMapEngine engine = new SeatMapEngine();
+        engine.load(ShowtimeSeatMap.of(1, seats));
+
+        // 1. Pipeline không đi qua cổng kết nối thì không được dùng
+        try (BookingCommitPipeline ungated = new BookingCommitPipeline(new CountingBookingDao())) {
+            new BookingService(engine, ungated);
+            System.out.println("LỖI: chấp nhận pipeline không có ConnectionAdmission");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Từ chối pipeline không có cổng: " + e.getMessage());
+        }
+
+        ConnectionAdmission admission = new ConnectionAdmission(1, 100);
+        try (BookingCommitPipeline pipeline = new BookingCommitPipeline(new CountingBookingDao(), admission, 1, 10, 2);
+             BookingService service = new BookingService(engine, pipeline)) {
+
+            // 2. Giữ ghế trên sơ đồ trong bộ nhớ, hết ghế thì bị từ chối SOLD_OUT
+            System.out.println("Giữ A1, A2 (mong đợi true): " + service.holdSeats(1, Arrays.asList(1, 2)).get());
+            try {
+                service.holdSeats(1, Arrays.asList(3, 4, 5)).get();
+                System.out.println("LỖI: giữ được nhiều ghế hơn số ghế trống");
+            } catch (ExecutionException e) {
+                System.out.println("Giữ 3 ghế khi còn 2 (mong đợi SOLD_OUT): "
+                        + ((BookingRejectedException) e.getCause()).getReason());
+            }
+
+            // 3. Cổng một permit đang bận quá maxWait thì yêu cầu thứ hai bị từ chối BUSY
+            CountDownLatch holding = new CountDownLatch(1);
+            CompletableFuture<Integer> slow = service.execute(() -> {
+                openConnection();
+                holding.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    connections.decrementAndGet();
+                }
+                return 1;
+            });
+            holding.await();
+            try {
+                service.execute(() -> 2).get();
+                System.out.println("LỖI: vượt quá số permit");
+            } catch (ExecutionException e) {
+                System.out.println("Yêu cầu chờ quá 100ms (mong đợi BUSY): "
+                        + ((BookingRejectedException) e.getCause()).getReason());
+            }
+
+            // 4. Xác nhận đơn trong lúc cổng bận: luồng commit chờ permit thay vì mở thêm kết nối
+            Booking booking = new Booking(0, 7, 1, 100_000, BookingStatus.PENDING);
+            booking.addSeatId(1);
+            booking.addSeatId(2);
+            CompletableFuture<Booking> confirmed = service.confirm(booking,
+                    new Payment(0, 0, 100_000, PaymentMethod.CASH, "TXN-1"));
+            System.out.println("Đơn còn chờ khi cổng bận (mong đợi false): " + confirmed.isDone());
+            slow.get();
+            System.out.println("Đơn được xác nhận sau khi có permit (mong đợi true): "
+                    + (confirmed.get(2, TimeUnit.SECONDS).getStatus() == BookingStatus.CONFIRMED));
+            System.out.println("Số kết nối cùng lúc cao nhất (mong đợi 1): " + maxConnections.get());
+            System.out.println("Lượt được cấp permit gồm cả lần commit (mong đợi 2): " + admission.getAdmittedCount()
+                    + ", bị từ chối (mong đợi 1): " + admission.getRejectedCount());
+        }
+
+        // 5. Lỗi runtime khi commit làm hỏng cả lô thay vì làm chết luồng commit
+        BookingDao broken = new BookingDao() {
+            @Override
+            public BitSet confirmBatch(List<Booking> bookings, List<Payment> payments) {
+                throw new IllegalStateException("Lỗi giả lập");
+            }
+        };
+        BookingCommitPipeline failing = new BookingCommitPipeline(broken, 1, 10, 2);
+        for (int i = 0; i < 2; i++) {
+            try {
+                failing.submit(new Booking(0, 7, 1, 100_000, BookingStatus.PENDING),
+                        new Payment(0, 0, 100_000, PaymentMethod.CASH, "TXN-BROKEN-" + i)).get(2, TimeUnit.SECONDS);
+                System.out.println("LỖI: đơn được xác nhận dù commit lỗi");
+            } catch (ExecutionException e) {
+                System.out.println("Lô lỗi runtime lần " + (i + 1) + " (mong đợi Lỗi giả lập): "
+                        + e.getCause().getMessage());
+            }
+        }
+
+        // 6. Gửi sau khi đóng: future lỗi ngay, không treo
+        failing.close();
+        CompletableFuture<Booking> late = failing.submit(new Booking(0, 7, 1, 100_000, BookingStatus.PENDING),
+                new Payment(0, 0, 100_000, PaymentMethod.CASH, "TXN-LATE"));
+        System.out.println("Gửi sau khi đóng (mong đợi true Pipeline đã đóng): " + late.isCompletedExceptionally()
+                + " " + late.handle((b, e) -> e.getMessage()).get());
+    }
+}
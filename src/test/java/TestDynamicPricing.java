@@ -0,0 +1,81 @@
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import model.Showtime;
+import pricing.DynamicPricingEngine;
+import pricing.PricingRule;
+import service.ShowtimeSeatMap;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+public class TestDynamicPricing {
+    public static void main(String[] args) {
+        PricingRule weekendEvening = new PricingRule("Tối cuối tuần", PricingRule.Adjustment.PERCENT, 2000);
+        weekendEvening.setDays(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+        weekendEvening.setTimeOfDay(18 * 60, 23 * 60);
+
+        PricingRule almostFull = new PricingRule("Sắp kín chỗ", PricingRule.Adjustment.PERCENT, 1000);
+        almostFull.setOccupancy(8000, 10_000);
+        almostFull.setPriority(1);
+
+        PricingRule premiereVip = new PricingRule("VIP suất ra mắt", PricingRule.Adjustment.OVERRIDE, 200_000);
+        premiereVip.setShowtimeId(2);
+        premiereVip.setSeatType(SeatType.VIP);
+
+        DynamicPricingEngine engine = new DynamicPricingEngine();
+        long version = engine.publish(Arrays.asList(weekendEvening, almostFull, premiereVip));
+        System.out.println("Phiên bản bảng giá: " + version);
+
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            SeatType type = i <= 240 ? SeatType.STANDARD : i <= 290 ? SeatType.VIP : SeatType.COUPLE;
+            seats.add(new Seat(i, 1, "S" + i, type, i <= 250 ? SeatStatus.BOOKED : SeatStatus.AVAILABLE, 0));
+        }
+        ShowtimeSeatMap seatMap = ShowtimeSeatMap.of(1, seats);
+
+        // 2026-10-17 là thứ Bảy
+        Showtime saturdayEvening = new Showtime(1, 1, "2026-10-17", "19:30", 1);
+        long[] prices = engine.quote(saturdayEvening, seatMap);
+        System.out.println("STANDARD tối thứ Bảy, kín 83% (mong đợi 66000): " + prices[0]);
+
+        Showtime premiere = new Showtime(2, 1, "2026-10-14", "10:00", 1);
+        long[] premierePrices = engine.quote(premiere, ShowtimeSeatMap.of(2, seats));
+        System.out.println("VIP suất ra mắt (mong đợi 220000): " + premierePrices[260]);
+
+        // Sửa luật sau khi đã phát hành không làm đổi bảng giá đang dùng
+        premiereVip.setSeatType(SeatType.STANDARD);
+        System.out.println("Sửa luật sau khi phát hành (mong đợi 220000): "
+                + engine.quote(premiere, ShowtimeSeatMap.of(2, seats))[260]);
+        try {
+            almostFull.setOccupancy(8200, 10_000);
+            System.out.println("Khoảng lấp đầy lệch ô được chấp nhận (SAI)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Khoảng lấp đầy lệch ô bị từ chối: " + e.getMessage());
+        }
+        try {
+            weekendEvening.setTimeOfDay(18 * 60 + 15, 23 * 60);
+            System.out.println("Khung giờ lệch ô được chấp nhận (SAI)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Khung giờ lệch ô bị từ chối: " + e.getMessage());
+        }
+        for (long bps : new long[]{Integer.MAX_VALUE + 1L, -10_001}) {
+            try {
+                new PricingRule("Tràn số", PricingRule.Adjustment.PERCENT, bps);
+                System.out.println("Phần trăm " + bps + " được chấp nhận (SAI)");
+            } catch (IllegalArgumentException e) {
+                System.out.println("Phần trăm ngoài phạm vi bị từ chối: " + e.getMessage());
+            }
+        }
+
+        int rounds = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            engine.quote(saturdayEvening, seatMap);
+        }
+        System.out.printf("Báo giá 300 ghế: %.2f µs/lần%n", (System.nanoTime() - start) / 1000.0 / rounds);
+    }
+}
@@ -0,0 +1,100 @@
+import model.BookingStatus;
+import model.PaymentMethod;
+import model.PaymentStatus;
+import model.SeatStatus;
+import model.SeatType;
+import util.EnumCodec;
+
+import java.util.function.Function;
+
+public class TestEnumCodec {
+
+    /** Các chuỗi dùng để so fromString mới với cách so khớp cũ (vòng lặp equalsIgnoreCase, không trim) */
+    static final String[] INPUTS = {
+            "", " ", "0", "1", "-1", "X", "null", "PAID", "Credit_Card", "credit card", " VIP", "VIP ",
+            "available", "AVAILABLE", "Reserved", "bOoKeD", "maintenance", "avaılable", "STANDARD", "vip",
+            "Couple", "pending", "CONFIRMED", "cancelled", "completed", "FAILED", "refunded", "cash", "E_WALLET"
+    };
+
+    public static void main(String[] args) {
+        EnumCodec<SeatStatus> codec = SeatStatus.codec();
+
+        // 1. Tên không phân biệt hoa thường; decode bỏ khoảng trắng hai đầu, fromName thì không
+        System.out.println("fromName(\"bOoKeD\") (mong đợi BOOKED): " + codec.fromName("bOoKeD").name());
+        System.out.println("decode(\"  reserved \") (mong đợi RESERVED): " + codec.decode("  reserved ").name());
+        System.out.println("decode(\"AVAILABLE\\t\") (mong đợi AVAILABLE): " + codec.decode("AVAILABLE\t").name());
+        expectRejected("fromName(\" reserved\")", () -> codec.fromName(" reserved"));
+
+        // 2. Chuỗi số được decode hiểu là ordinal bắt đầu từ 0 (không phải chỉ số ENUM của MySQL)
+        System.out.println("decode(\"0\") (mong đợi " + SeatStatus.values()[0].name() + "): " + codec.decode("0").name());
+        System.out.println("decode(\" 1 \") (mong đợi " + SeatStatus.values()[1].name() + "): "
+                + codec.decode(" 1 ").name());
+        System.out.println("fromEnumIndex(1) (mong đợi " + SeatStatus.values()[0].name() + "): "
+                + codec.fromEnumIndex(1).name());
+        expectRejected("decode(\"" + SeatStatus.values().length + "\")",
+                () -> codec.decode(String.valueOf(SeatStatus.values().length)));
+        expectRejected("decode(\"1x\")", () -> codec.decode("1x"));
+
+        // 3. Giá trị không hợp lệ
+        System.out.println("decode(null) (mong đợi null): " + codec.decode((String) null));
+        expectRejected("decode(\"\")", () -> codec.decode(""));
+        expectRejected("decode(\"SOLD\")", () -> codec.decode("SOLD"));
+        expectRejected("fromName(null)", () -> codec.fromName(null));
+        expectRejected("fromOrdinal(-1)", () -> codec.fromOrdinal(-1));
+
+        // 4. fromString của cả năm enum khớp cách so khớp cũ trên mọi chuỗi thử
+        int mismatches = 0;
+        mismatches += compare(SeatStatus.class, SeatStatus::fromString);
+        mismatches += compare(SeatType.class, SeatType::fromString);
+        mismatches += compare(BookingStatus.class, BookingStatus::fromString);
+        mismatches += compare(PaymentStatus.class, PaymentStatus::fromString);
+        mismatches += compare(PaymentMethod.class, PaymentMethod::fromString);
+        System.out.println("fromString khác cách cũ (mong đợi 0): " + mismatches);
+    }
+
+    /**
+     * @return Số chuỗi mà fromString cho kết quả khác vòng lặp equalsIgnoreCase cũ
+     */
+    private static <E extends Enum<E>> int compare(Class<E> type, Function<String, E> fromString) {
+        int mismatches = 0;
+        for (String input : INPUTS) {
+            String expected = oldFromString(type, input);
+            String actual;
+            try {
+                actual = fromString.apply(input).name();
+            } catch (IllegalArgumentException e) {
+                actual = "lỗi";
+            }
+            if (!expected.equals(actual)) {
+                System.out.println("LỖI: " + type.getSimpleName() + ".fromString(\"" + input + "\") = " + actual
+                        + ", cách cũ = " + expected);
+                mismatches++;
+            }
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (fromString.apply(constant.name().toLowerCase()) != constant) {
+                System.out.println("LỖI: " + type.getSimpleName() + " không nhận " + constant.name().toLowerCase());
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private static <E extends Enum<E>> String oldFromString(Class<E> type, String input) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(input)) {
+                return constant.name();
+            }
+        }
+        return "lỗi";
+    }
+
+    private static void expectRejected(String call, Runnable action) {
+        try {
+            action.run();
+            System.out.println("LỖI: " + call + " không bị từ chối");
+        } catch (IllegalArgumentException e) {
+            System.out.println(call + " bị từ chối: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import dao.BookingDao;
+import dao.SeatDao;
+import journal.EventJournal;
+import journal.JdbcJournalSink;
+import journal.JournalDrainer;
+import journal.JournalEntry;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.SeatStatus;
+import service.SeatMapEngine;
+import service.SeatWriteBehind;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TestEventJournal {
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        int segmentBytes = 40 * 1000;
+
+        // 1. Nhiều luồng ghi đồng thời, mỗi lần fsync phục vụ cả nhóm
+        EventJournal journal = EventJournal.open(dir, segmentBytes, 2);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        long start = System.nanoTime();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    journal.appendAndSync(JournalEntry.seat(1, thread * 1000 + i,
+                            SeatStatus.AVAILABLE, SeatStatus.RESERVED));
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("Đã ghi và fsync (mong đợi 2000): " + journal.getDurableSeq()
+                + " trong " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        Booking booking = new Booking();
+        booking.setBookingId(7);
+        booking.setStatus(BookingStatus.PENDING);
+        journal.confirm(booking);
+        System.out.println("Xác nhận đơn được ghi (mong đợi 2001): " + journal.getDurableSeq());
+        try {
+            journal.confirm(booking);
+            System.out.println("Xác nhận lần hai: không bị chặn (SAI)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Xác nhận lần hai bị chặn: " + e.getMessage());
+        }
+        journal.close();
+
+        Booking late = new Booking();
+        late.setBookingId(8);
+        late.setStatus(BookingStatus.PENDING);
+        try {
+            journal.confirm(late);
+            System.out.println("Xác nhận sau khi đóng journal: không bị chặn (SAI)");
+        } catch (IllegalStateException e) {
+            System.out.println("Không ghi được journal, đơn giữ nguyên (mong đợi PENDING null): "
+                    + late.getStatus().name() + " " + late.getConfirmedAt());
+        }
+
+        // 2. Mở lại: toàn bộ bản ghi chưa có checkpoint phải còn
+        EventJournal reopened = EventJournal.open(dir, segmentBytes, 2);
+        System.out.println("Bản ghi chờ ghi sau khởi động lại (mong đợi 2001): " + reopened.getPendingCount());
+
+        List<JournalEntry> drained = new ArrayList<>();
+        JournalDrainer drainer = new JournalDrainer(reopened, drained::addAll, 300, 10);
+        System.out.println("Đã ghi xuống sink (mong đợi 2001): " + drainer.drainAll());
+        System.out.println("Bản ghi cuối: " + drained.get(drained.size() - 1));
+        System.out.println("Segment còn lại (mong đợi 1): " + countSegments(dir));
+
+        // 3. Ghi tiếp rồi làm hỏng bản ghi cuối: khởi động lại chỉ giữ phần hợp lệ
+        for (int i = 0; i < 10; i++) {
+            reopened.append(JournalEntry.seat(2, i, SeatStatus.RESERVED, SeatStatus.BOOKED));
+        }
+        reopened.awaitDurable(reopened.getAppendedSeq());
+        long lastSeq = reopened.getDurableSeq();
+        reopened.close();
+
+        Path tail = Files.list(dir).filter(p -> p.toString().endsWith(".seg")).sorted()
+                .reduce((a, b) -> b).orElseThrow(IllegalStateException::new);
+        try (RandomAccessFile file = new RandomAccessFile(tail.toFile(), "rw")) {
+            long offset = ((lastSeq - 1) % 1000) * 40 + 20;
+            file.seek(offset);
+            file.write(0x5A);
+        }
+
+        EventJournal recovered = EventJournal.open(dir, segmentBytes, 2);
+        System.out.println("Bản ghi chờ sau khi cắt phần hỏng (mong đợi 9): " + recovered.getPendingCount());
+        System.out.println("Seq tiếp theo (mong đợi " + lastSeq + "): "
+                + recovered.append(JournalEntry.seat(2, 99, SeatStatus.RESERVED, SeatStatus.BOOKED)));
+        recovered.close();
+
+        // 4. Hai lần chuyển của một ghế được ghi ngược thứ tự CAS: stamp lớn hơn thắng khi drain
+        EventJournal reordered = EventJournal.open(Files.createTempDirectory("journal"), segmentBytes, 2);
+        long epoch = 5L << 32;
+        reordered.append(JournalEntry.seat(3, 1, SeatStatus.RESERVED, SeatStatus.AVAILABLE, epoch | 2));
+        reordered.append(JournalEntry.seat(3, 1, SeatStatus.AVAILABLE, SeatStatus.RESERVED, epoch | 1));
+        // Sơ đồ được nạp lại (epoch khác): bản ghi sau thắng dù stamp nhỏ hơn
+        reordered.append(JournalEntry.seat(3, 2, SeatStatus.AVAILABLE, SeatStatus.RESERVED, epoch | 9));
+        reordered.append(JournalEntry.seat(3, 2, SeatStatus.AVAILABLE, SeatStatus.BOOKED, (6L << 32) | 1));
+        reordered.awaitDurable(reordered.getAppendedSeq());
+        Map<Integer, SeatStatus> written = new HashMap<>();
+        BookingDao capturing = new BookingDao() {
+            @Override
+            public void applyStatusChanges(Map<Integer, SeatStatus> seatStatuses, Collection<Booking> bookings,
+                                           Collection<Payment> payments) {
+                written.putAll(seatStatuses);
+            }
+        };
+        new JournalDrainer(reordered, new JdbcJournalSink(capturing)).drainAll();
+        System.out.println("Ghế 1 theo stamp (mong đợi AVAILABLE): " + written.get(1).name());
+        System.out.println("Ghế 2 sau khi nạp lại sơ đồ (mong đợi BOOKED): " + written.get(2).name());
+
+        // 5. Journal và SeatWriteBehind loại trừ nhau trên một engine
+        SeatMapEngine engine = new SeatMapEngine();
+        engine.addListener(reordered);
+        try (SeatWriteBehind writeBehind = new SeatWriteBehind(engine, new SeatDao())) {
+            engine.addListener(writeBehind);
+            System.out.println("LỖI: gắn được cả journal và SeatWriteBehind");
+        } catch (IllegalStateException e) {
+            System.out.println("Gắn SeatWriteBehind khi đã có journal bị từ chối: " + e.getMessage());
+        }
+        reordered.close();
+    }
+
+    private static long countSegments(Path dir) throws Exception {
+        try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import service.HoldExpiryScheduler;
+import service.SeatHold;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestHoldExpiryScheduler {
+    public static void main(String[] args) {
+        List<SeatHold> expired = new ArrayList<>();
+        long start = 1_000_000L;
+        HoldExpiryScheduler scheduler = new HoldExpiryScheduler(100, expired::addAll, start);
+
+        int holds = 1_000_000;
+        for (int i = 1; i <= holds; i++) {
+            // Hạn giữ rải từ 1 giây tới ~2.8 giờ
+            scheduler.hold(i, 1, new int[]{i}, start + 1000 + (i % 10_000) * 1000L);
+        }
+        for (int i = 1; i <= holds; i += 2) {
+            scheduler.cancel(i);
+        }
+        System.out.println("Lượt giữ còn lại (mong đợi 500000): " + scheduler.size());
+
+        scheduler.advanceTo(start + 1000);
+        System.out.println("Hết hạn sau 1 giây (mong đợi 100): "
+                + expired.size());
+
+        long lateMillis = 0;
+        long now = start;
+        while (scheduler.size() > 0) {
+            now += 500;
+            int before = expired.size();
+            scheduler.advanceTo(now);
+            for (int i = before; i < expired.size(); i++) {
+                SeatHold hold = expired.get(i);
+                lateMillis = Math.max(lateMillis, now - hold.getDeadlineMillis());
+                if (hold.getDeadlineMillis() > now) {
+                    System.out.println("Hết hạn quá sớm: " + hold);
+                }
+            }
+        }
+        System.out.println("Tổng lượt hết hạn (mong đợi 500000): " + expired.size());
+        System.out.println("Trễ tối đa so với hạn (mong đợi < 500ms): " + lateMillis);
+
+        // Handler lỗi: lượt giữ được hẹn lại, trừ đơn đã được giữ lại hoặc hủy trong lúc đó
+        List<SeatHold> handled = new ArrayList<>();
+        int[] failures = {1};
+        HoldExpiryScheduler flaky = new HoldExpiryScheduler(100, batch -> {
+            if (failures[0]-- > 0) {
+                throw new SQLException("mất kết nối");
+            }
+            handled.addAll(batch);
+        }, start);
+        flaky.hold(1, 1, new int[]{1}, start + 100);
+        flaky.hold(2, 1, new int[]{2}, start + 100);
+        flaky.advanceTo(start + 100);
+        System.out.println("Hẹn lại sau lỗi (mong đợi 2): " + flaky.size());
+        flaky.hold(2, 1, new int[]{2}, start + 60_000);
+        flaky.advanceTo(start + 1200);
+        System.out.println("Chỉ đơn 1 được xử lý lại, đơn 2 giữ hạn mới (mong đợi [1] 1): "
+                + handled.stream().map(SeatHold::getBookingId).toList() + " " + flaky.size());
+
+        // Hủy lượt giữ đã quá hạn nhưng chưa được xử lý
+        List<SeatHold> late = new ArrayList<>();
+        HoldExpiryScheduler lazy = new HoldExpiryScheduler(100, late::addAll, start);
+        lazy.hold(7, 1, new int[]{7}, start - 1000);
+        lazy.cancel(7);
+        lazy.advanceTo(start + 100);
+        System.out.println("Lượt giữ quá hạn đã hủy không bị xử lý (mong đợi 0): " + late.size());
+
+        // Hạn rơi đúng ranh giới tầng 1 (tick là bội của 256): hạ xuống với delta 0 và hết hạn ngay trong lượt advance đó
+        List<SeatHold> boundary = new ArrayList<>();
+        HoldExpiryScheduler cascading = new HoldExpiryScheduler(100, boundary::addAll, start);
+        long boundaryMillis = (start / 100 / 256 + 2) * 256 * 100;
+        cascading.hold(8, 1, new int[]{8}, boundaryMillis);
+        cascading.advanceTo(boundaryMillis);
+        System.out.println("Hết hạn đúng tick ranh giới (mong đợi 1 0): " + boundary.size() + " " + cascading.size());
+    }
+}
@@ -0,0 +1,79 @@
+import pricing.PriceCalculator;
+import util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestMoney {
+    public static void main(String[] args) {
+        // 1. Làm tròn half-up của giảm giá và phụ thu theo basis point
+        System.out.println("10% của 12345 (mong đợi 1235): " + Money.percentOf(12_345, 1_000));
+        System.out.println("10% của -12345 (mong đợi -1235): " + Money.percentOf(-12_345, 1_000));
+        System.out.println("10% của 12344 (mong đợi 1234): " + Money.percentOf(12_344, 1_000));
+        System.out.println("Giảm 15% từ 99999 (mong đợi 84999): " + PriceCalculator.applyDiscount(99_999, 1_500));
+        System.out.println("Phụ thu 5% trên 33333 (mong đợi 35000): " + PriceCalculator.applySurcharge(33_333, 500));
+        System.out.println("Giảm 0% và 100% (mong đợi 50000 0): " + PriceCalculator.applyDiscount(50_000, 0) + " "
+                + PriceCalculator.applyDiscount(50_000, Money.BPS_SCALE));
+        try {
+            PriceCalculator.applyDiscount(50_000, Money.BPS_SCALE + 1);
+            System.out.println("LỖI: chấp nhận giảm hơn 100%");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Giảm hơn 100% bị từ chối: " + e.getMessage());
+        }
+
+        // 2. Khớp với BigDecimal HALF_UP trên số ngẫu nhiên
+        Random random = new Random(42);
+        int mismatches = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long amount = random.nextInt(20_000_000) - 10_000_000L;
+            int bps = random.nextInt(Money.BPS_SCALE + 1);
+            long expected = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(bps))
+                    .divide(BigDecimal.valueOf(Money.BPS_SCALE), 0, RoundingMode.HALF_UP).longValueExact();
+            if (Money.percentOf(amount, bps) != expected) {
+                mismatches++;
+            }
+        }
+        System.out.println("Lệch so với BigDecimal trên 100000 phép tính (mong đợi 0): " + mismatches);
+        System.out.println("Từ BigDecimal 12.5 và double 12.5 (mong đợi 13 13): "
+                + Money.of(new BigDecimal("12.5")) + " " + Money.of(12.5));
+
+        // 3. Tràn số báo lỗi thay vì quay vòng
+        checkOverflow("Cộng", () -> Money.add(Long.MAX_VALUE, 1));
+        checkOverflow("Nhân số lượng", () -> Money.multiply(Long.MAX_VALUE / 2, 3));
+        checkOverflow("Phần trăm", () -> Money.percentOf(Long.MAX_VALUE / 2, Money.BPS_SCALE));
+        checkOverflow("Phụ thu", () -> PriceCalculator.applySurcharge(Long.MAX_VALUE - 10, 1));
+        try {
+            Money.of(Double.NaN);
+            System.out.println("LỖI: chấp nhận NaN");
+        } catch (IllegalArgumentException e) {
+            System.out.println("NaN bị từ chối: " + e.getMessage());
+        }
+
+        // 4. Tổng hàng loạt: đơn thứ i là đoạn [offsets[i], offsets[i + 1])
+        long[] seatPrices = {50_000, 100_000, 150_000, 50_000, 50_000, 100_000};
+        int[] offsets = {0, 2, 2, 6};
+        long[] totals = new long[3];
+        long grandTotal = PriceCalculator.bookingTotals(seatPrices, offsets, totals);
+        System.out.println("Tổng từng đơn (mong đợi [150000, 0, 350000]): " + Arrays.toString(totals));
+        System.out.println("Tổng tất cả (mong đợi 500000): " + grandTotal);
+        try {
+            PriceCalculator.bookingTotals(seatPrices, offsets, new long[2]);
+            System.out.println("LỖI: chấp nhận offsets không khớp");
+        } catch (IllegalArgumentException e) {
+            System.out.println("offsets không khớp bị từ chối: " + e.getMessage());
+        }
+        System.out.println("Báo giá 3 ghế, giảm 10%, phí 5000/ghế (mong đợi 285000): "
+                + PriceCalculator.quote(new long[]{100_000, 100_000, 100_000}, 1_000, 5_000));
+    }
+
+    private static void checkOverflow(String operation, Runnable calculation) {
+        try {
+            calculation.run();
+            System.out.println("LỖI: " + operation + " bị tràn số mà không báo lỗi");
+        } catch (ArithmeticException e) {
+            System.out.println(operation + " tràn số bị chặn: " + e.getMessage());
+        }
+    }
+}
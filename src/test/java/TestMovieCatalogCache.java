@@ -0,0 +1,81 @@
+import cache.MovieCatalogCache;
+import dao.MovieDao;
+import model.Movie;
+
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMovieCatalogCache {
+    public static void main(String[] args) throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        MovieDao fakeDao = new MovieDao() {
+            @Override
+            public Movie findById(int movieId) {
+                queries.incrementAndGet();
+                return movieId > 0 ? new Movie(movieId, "Phim " + movieId, "Hành động", 120, "") : null;
+            }
+        };
+
+        MovieCatalogCache cache = new MovieCatalogCache(fakeDao, 100, 60_000, 50_000);
+
+        // 10 phim "hot" được đọc liên tục, xen kẽ 10.000 phim chỉ đọc một lần
+        for (int i = 0; i < 10_000; i++) {
+            cache.get(1 + i % 10);
+            cache.get(1000 + i);
+        }
+        int before = queries.get();
+        for (int id = 1; id <= 10; id++) {
+            cache.get(id);
+        }
+        System.out.println("Truy vấn thêm cho phim hot (mong đợi 0): " + (queries.get() - before));
+        System.out.println("Kích thước cache (mong đợi <= 100): " + cache.size());
+
+        cache.onMovieSaved(new Movie(1, "Phim 1 (sửa)", "Hành động", 120, ""));
+        before = queries.get();
+        cache.get(1);
+        System.out.println("Truy vấn sau khi vô hiệu (mong đợi 1): " + (queries.get() - before));
+        System.out.println("Phim không tồn tại: " + cache.get(-1));
+
+        System.out.println(cache.getStats());
+        cache.close();
+
+        // Lệnh vô hiệu trong lúc đang nạp: chỉ bỏ kết quả nạp của đúng phim bị vô hiệu
+        CountDownLatch loading = new CountDownLatch(2);
+        CountDownLatch resume = new CountDownLatch(1);
+        MovieDao slowDao = new MovieDao() {
+            @Override
+            public Movie findById(int movieId) {
+                loading.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Movie(movieId, "Phim " + movieId, "Hành động", 120, "");
+            }
+        };
+        MovieCatalogCache racing = new MovieCatalogCache(slowDao, 100, 60_000, 50_000);
+        Thread first = new Thread(() -> getQuietly(racing, 1));
+        Thread second = new Thread(() -> getQuietly(racing, 2));
+        first.start();
+        second.start();
+        loading.await();
+        racing.invalidate(1);
+        resume.countDown();
+        first.join();
+        second.join();
+        System.out.println("Phim bị vô hiệu khi đang nạp không được cache (mong đợi null): " + racing.getIfPresent(1));
+        System.out.println("Phim khác vẫn được cache (mong đợi Phim 2): "
+                + (racing.getIfPresent(2) == null ? null : racing.getIfPresent(2).getTitle()));
+        racing.close();
+    }
+
+    private static void getQuietly(MovieCatalogCache cache, int movieId) {
+        try {
+            cache.get(movieId);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
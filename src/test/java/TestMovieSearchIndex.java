@@ -0,0 +1,105 @@
+import model.Movie;
+import search.MovieSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMovieSearchIndex {
+    public static void main(String[] args) throws InterruptedException {
+        MovieSearchIndex index = new MovieSearchIndex();
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie(1, "Lật Mặt 7: Một Điều Ước", "Gia Đình", 138, "Câu chuyện cảm động về tình mẫu tử"));
+        movies.add(new Movie(2, "Mai", "Tâm Lý", 131, "Phim tình cảm của Trấn Thành"));
+        movies.add(new Movie(3, "Đào, Phở và Piano", "Lịch Sử", 100, "Phim hành động lịch sử về Hà Nội năm 1946"));
+        movies.add(new Movie(4, "Nhà Bà Nữ", "Gia Đình", 102, "Phim hài gia đình"));
+        movies.add(new Movie(5, "Fast & Furious X", "Phim Hành Động", 141, "Đua xe tốc độ cao, hành động bùng nổ"));
+        movies.add(new Movie(6, "Dune: Hành Tinh Cát", "Khoa Học Viễn Tưởng", 166, "Sử thi trên hành tinh sa mạc"));
+        index.indexAll(movies);
+        System.out.println("Số phim (mong đợi 6): " + index.size());
+
+        // 1. Không dấu khớp có dấu, trường genre được ưu tiên hơn description
+        System.out.println("\"phim hanh dong \" (mong đợi Fast & Furious X trước Đào, Phở và Piano): "
+                + titles(index.search("phim hanh dong ", 10)));
+        System.out.println("\"ĐÀO PHỞ\" có dấu, hoa (mong đợi Đào, Phở và Piano): " + titles(index.search("ĐÀO PHỞ ", 10)));
+        System.out.println("\"dao pho\" không dấu (mong đợi Đào, Phở và Piano): " + titles(index.search("dao pho", 10)));
+
+        // 2. Gõ dần (từ cuối là tiền tố)
+        System.out.println("\"hanh t\" (mong đợi Dune: Hành Tinh Cát đứng đầu): " + titles(index.search("hanh t", 10)));
+        System.out.println("\"gia d\" (mong đợi hai phim Gia Đình): "
+                + titles(index.search("gia d", 10)));
+        System.out.println("Gợi ý \"h\": " + index.suggest("h", 5) + " (mong đợi hanh đầu tiên)");
+        System.out.println("\"xyz\" (mong đợi []): " + titles(index.search("xyz", 10)));
+
+        // 3. Cập nhật dần: sửa và xóa phim
+        Movie edited = new Movie(2, "Mai", "Tâm Lý", 131, "Phim hành động bất ngờ");
+        index.onMovieSaved(edited);
+        System.out.println("Sau khi sửa mô tả, \"hanh dong \" có Mai (mong đợi true): "
+                + titles(index.search("hanh dong ", 10)).contains("Mai"));
+        System.out.println("Từ cũ không còn khớp, \"tran thanh \" (mong đợi []): " + titles(index.search("tran thanh ", 10)));
+        index.onMovieDeleted(5);
+        System.out.println("Sau khi xóa phim 5, \"furious\" (mong đợi []): " + titles(index.search("furious", 10)));
+
+        // 4. Từ không còn phim nào bị xóa khỏi từ điển, mã được dùng lại
+        int terms = index.getTermCount();
+        index.index(new Movie(7, "Zorro", "Phiêu Lưu", 90, "Kiếm hiệp"));
+        index.onMovieDeleted(7);
+        System.out.println("Số từ sau khi thêm rồi xóa phim 7 (mong đợi " + terms + "): " + index.getTermCount());
+        System.out.println("Gợi ý \"zo\" sau khi xóa (mong đợi []): " + index.suggest("zo", 5));
+        System.out.println("\"hanh t\" vẫn đúng sau khi gộp cạnh trie (mong đợi Dune: Hành Tinh Cát): "
+                + titles(index.search("hanh t", 1)));
+        index.index(new Movie(8, "Zootopia", "Hoạt Hình", 108, "Thỏ cảnh sát"));
+        System.out.println("\"zoo\" sau khi dùng lại mã từ (mong đợi [Zootopia]): " + titles(index.search("zoo", 10)));
+        index.onMovieDeleted(8);
+
+        // 5. Đo thời gian truy vấn trên danh mục lớn
+        for (int i = 100; i < 20_100; i++) {
+            index.index(new Movie(i, "Phim số " + i, i % 2 == 0 ? "Hành Động" : "Hài", 90,
+                    "Mô tả ngắn cho phim thứ " + i + " với diễn viên nổi tiếng"));
+        }
+        for (int r = 0; r < 200; r++) {
+            index.search("hanh dong dien v", 10);
+        }
+        int rounds = 200;
+        long start = System.nanoTime();
+        int found = 0;
+        for (int r = 0; r < rounds; r++) {
+            found += index.search("hanh dong dien v", 10).size();
+        }
+        System.out.println("20006 phim, mỗi truy vấn: " + (System.nanoTime() - start) / rounds / 1000 + " µs, kết quả " + found / rounds);
+
+        // 6. Truy vấn song song trong lúc danh mục đang được cập nhật
+        AtomicInteger wrong = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            for (int i = 30_000; i < 32_000; i++) {
+                index.index(new Movie(i, "Phim mới " + i, "Hành Động", 90, "Diễn viên mới"));
+                index.onMovieDeleted(i - 1000);
+            }
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                for (int q = 0; q < 500; q++) {
+                    if (index.search("hanh dong dien v", 10).size() != 10) {
+                        wrong.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        System.out.println("Truy vấn song song sai kết quả (mong đợi 0): " + wrong.get());
+    }
+
+    private static List<String> titles(List<Movie> movies) {
+        List<String> titles = new ArrayList<>();
+        for (Movie movie : movies) {
+            titles.add(movie.getTitle());
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,181 @@
+import dao.PaymentDao;
+import model.Payment;
+import model.PaymentMethod;
+import model.PaymentStatus;
+import payment.IdempotencyStore;
+import payment.PaymentGatewayException;
+import payment.PaymentProcessor;
+import payment.PaymentResult;
+import payment.StubPaymentGateway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestPaymentProcessor {
+
+    /**
+     * Bảng payments giả lập trong bộ nhớ, transaction_id là UNIQUE
+     */
+    static class InMemoryPaymentDao extends PaymentDao {
+        final Map<String, Payment> rows = new ConcurrentHashMap<>();
+        final Map<String, Long> claimedAt = new ConcurrentHashMap<>();
+        final AtomicInteger ids = new AtomicInteger();
+
+        @Override
+        public boolean claim(Payment payment) {
+            Payment row = new Payment(0, payment.getBookingId(), payment.getAmount(),
+                    payment.getPaymentMethod(), payment.getTransactionId(), PaymentStatus.PENDING);
+            if (rows.putIfAbsent(payment.getTransactionId(), row) != null) {
+                return false;
+            }
+            row.setPaymentId(ids.incrementAndGet());
+            payment.setPaymentId(row.getPaymentId());
+            claimedAt.put(payment.getTransactionId(), System.currentTimeMillis());
+            return true;
+        }
+
+        @Override
+        public synchronized boolean takeOver(Payment payment, long leaseMillis) {
+            Payment row = rows.get(payment.getTransactionId());
+            long now = System.currentTimeMillis();
+            if (row == null || row.getPaymentStatus() != PaymentStatus.PENDING
+                    || claimedAt.get(payment.getTransactionId()) >= now - leaseMillis) {
+                return false;
+            }
+            claimedAt.put(payment.getTransactionId(), now);
+            payment.setPaymentId(row.getPaymentId());
+            return true;
+        }
+
+        @Override
+        public synchronized boolean release(Payment payment) {
+            for (Payment row : rows.values()) {
+                if (row.getPaymentId() == payment.getPaymentId() && row.getPaymentStatus() == PaymentStatus.PENDING) {
+                    claimedAt.put(row.getTransactionId(), 0L);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Payment findByTransactionId(String transactionId) {
+            return rows.get(transactionId);
+        }
+
+        @Override
+        public void updateStatus(Payment payment) {
+            Payment row = rows.get(payment.getTransactionId());
+            row.setPaymentStatus(payment.getPaymentStatus());
+            row.setPaymentTime(payment.getPaymentTime());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        InMemoryPaymentDao dao = new InMemoryPaymentDao();
+        StubPaymentGateway gateway = new StubPaymentGateway(30, 60, 0.2, 0);
+        PaymentProcessor processor = new PaymentProcessor(dao, gateway);
+
+        // 1. 100 giao dịch, mỗi giao dịch gửi đồng thời 10 lần
+        List<CompletableFuture<PaymentResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            for (int copy = 0; copy < 10; copy++) {
+                Payment payment = new Payment(0, i + 1, 90_000, PaymentMethod.CREDIT_CARD, "TXN-" + i);
+                futures.add(processor.process(payment));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        int mismatched = 0;
+        for (int i = 0; i < futures.size(); i += 10) {
+            PaymentResult first = futures.get(i).join();
+            for (int copy = 1; copy < 10; copy++) {
+                if (futures.get(i + copy).join() != first) {
+                    mismatched++;
+                }
+            }
+        }
+        System.out.println("Số lần gọi cổng thanh toán (mong đợi 100): " + gateway.getChargeCount());
+        System.out.println("Lần gửi trùng nhận kết quả khác (mong đợi 0): " + mismatched);
+        System.out.println("Lần gửi trùng được gộp (mong đợi 900): " + processor.getDuplicateCount());
+
+        // 2. Tiến trình mới (bộ nhớ trống) vẫn nhận lại kết quả cũ từ database
+        PaymentProcessor restarted = new PaymentProcessor(dao, gateway);
+        Payment retry = new Payment(0, 1, 90_000, PaymentMethod.CREDIT_CARD, "TXN-0");
+        PaymentResult replayed = restarted.process(retry).join();
+        System.out.println("Kết quả sau khởi động lại: " + replayed.getStatus()
+                + " (mong đợi " + futures.get(0).join().getStatus() + ")");
+        System.out.println("Số lần gọi cổng thanh toán (mong đợi 100): " + gateway.getChargeCount());
+
+        // 3. Tiến trình giữ chỗ chết giữa chừng: bản ghi PENDING quá hạn được nhận lại đúng một lần
+        PaymentProcessor leased = new PaymentProcessor(dao, gateway, new IdempotencyStore<>(60_000), 1_000);
+        Payment stale = new Payment(0, 500, 90_000, PaymentMethod.CREDIT_CARD, "TXN-STALE");
+        dao.claim(stale);
+        dao.claimedAt.put("TXN-STALE", System.currentTimeMillis() - 10_000);
+        Payment busy = new Payment(0, 501, 90_000, PaymentMethod.CREDIT_CARD, "TXN-BUSY");
+        dao.claim(busy);
+        long charges = gateway.getChargeCount();
+        PaymentResult recovered = leased.process(new Payment(0, 500, 90_000, PaymentMethod.CREDIT_CARD, "TXN-STALE")).join();
+        System.out.println("Giao dịch bỏ dở được đối soát (mong đợi không còn PENDING, 1 lần nhận lại): "
+                + recovered.getStatus().name() + ", " + leased.getTakeoverCount()
+                + ", bảng payments: " + dao.rows.get("TXN-STALE").getPaymentStatus().name());
+        try {
+            leased.process(new Payment(0, 501, 90_000, PaymentMethod.CREDIT_CARD, "TXN-BUSY")).join();
+            System.out.println("Giao dịch còn hạn giữ chỗ: bị nhận lại (SAI)");
+        } catch (CompletionException e) {
+            System.out.println("Giao dịch còn hạn giữ chỗ (mong đợi đang được xử lý): " + e.getCause().getMessage());
+        }
+        System.out.println("Số lần gọi cổng thanh toán thêm (mong đợi 1): " + (gateway.getChargeCount() - charges));
+
+        // 4. Cổng thanh toán không trả về quyết định thì không ghi FAILED và không giữ kết quả
+        AtomicInteger gatewayCalls = new AtomicInteger();
+        PaymentGatewayException[] nextError = {new PaymentGatewayException(PaymentGatewayException.Reason.TIMEOUT,
+                "Quá thời gian chờ")};
+        PaymentProcessor flaky = new PaymentProcessor(dao, payment -> {
+            gatewayCalls.incrementAndGet();
+            PaymentGatewayException error = nextError[0];
+            return error != null ? CompletableFuture.failedFuture(error)
+                    : CompletableFuture.completedFuture(PaymentResult.completed(payment));
+        }, new IdempotencyStore<>(60_000), 60_000);
+        try {
+            flaky.process(new Payment(0, 600, 90_000, PaymentMethod.CREDIT_CARD, "TXN-TIMEOUT")).join();
+            System.out.println("LỖI: timeout trả về kết quả");
+        } catch (CompletionException e) {
+            System.out.println("Timeout (mong đợi TIMEOUT, bảng payments PENDING): "
+                    + ((PaymentGatewayException) e.getCause()).getReason() + ", "
+                    + dao.rows.get("TXN-TIMEOUT").getPaymentStatus().name());
+        }
+        try {
+            flaky.process(new Payment(0, 600, 90_000, PaymentMethod.CREDIT_CARD, "TXN-TIMEOUT")).join();
+            System.out.println("LỖI: gửi lại khi còn hạn giữ chỗ lại gọi cổng thanh toán");
+        } catch (CompletionException e) {
+            System.out.println("Gửi lại khi còn hạn giữ chỗ (mong đợi đang được xử lý): " + e.getCause().getMessage());
+        }
+
+        nextError[0] = new PaymentGatewayException(PaymentGatewayException.Reason.CIRCUIT_OPEN, "Circuit đang mở");
+        try {
+            flaky.process(new Payment(0, 601, 90_000, PaymentMethod.CREDIT_CARD, "TXN-OPEN")).join();
+            System.out.println("LỖI: circuit mở trả về kết quả");
+        } catch (CompletionException e) {
+            System.out.println("Circuit mở (mong đợi CIRCUIT_OPEN, bảng payments PENDING): "
+                    + ((PaymentGatewayException) e.getCause()).getReason() + ", "
+                    + dao.rows.get("TXN-OPEN").getPaymentStatus().name());
+        }
+        nextError[0] = null;
+        PaymentResult reopened = flaky.process(new Payment(0, 601, 90_000, PaymentMethod.CREDIT_CARD, "TXN-OPEN")).join();
+        System.out.println("Gửi lại ngay sau khi circuit đóng (mong đợi COMPLETED COMPLETED): "
+                + reopened.getStatus().name() + " " + dao.rows.get("TXN-OPEN").getPaymentStatus().name());
+        System.out.println("Số lần gọi cổng thanh toán (mong đợi 3): " + gatewayCalls.get());
+
+        processor.close();
+        restarted.close();
+        leased.close();
+        flaky.close();
+        gateway.close();
+    }
+}
@@ -0,0 +1,84 @@
+import com.zaxxer.hikari.HikariConfig;
+import util.DatabaseConnection;
+import util.PoolProfile;
+import util.PoolSettings;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+public class TestPoolProfiles {
+
+    static int failures;
+
+    public static void main(String[] args) {
+        // 1. Cấu hình Hikari của từng profile trong db.properties (không có ghi đè)
+        PoolSettings settings = PoolSettings.load(new HashMap<>(), new Properties());
+        String url = settings.getProfile(DatabaseConnection.OLTP).getJdbcUrl();
+
+        HikariConfig oltp = settings.getProfile(DatabaseConnection.OLTP).toHikariConfig();
+        check("oltp maximumPoolSize", 10, oltp.getMaximumPoolSize());
+        check("oltp minimumIdle", 2, oltp.getMinimumIdle());
+        check("oltp connectionTimeout", 30000L, oltp.getConnectionTimeout());
+        check("oltp readOnly", false, oltp.isReadOnly());
+        check("oltp autoCommit", false, oltp.isAutoCommit());
+        check("oltp poolName", "cinema-oltp", oltp.getPoolName());
+        check("oltp rewriteBatchedStatements", "true",
+                oltp.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+
+        HikariConfig reporting = settings.getProfile(DatabaseConnection.REPORTING).toHikariConfig();
+        check("reporting maximumPoolSize", 3, reporting.getMaximumPoolSize());
+        check("reporting minimumIdle", 0, reporting.getMinimumIdle());
+        check("reporting readOnly", true, reporting.isReadOnly());
+        check("reporting maxLifetime", 3600000L, reporting.getMaxLifetime());
+        check("reporting useCursorFetch", "true", reporting.getDataSourceProperties().getProperty("useCursorFetch"));
+        check("reporting kế thừa cachePrepStmts", "true",
+                reporting.getDataSourceProperties().getProperty("cachePrepStmts"));
+        check("reporting dùng url chung", url, reporting.getJdbcUrl());
+
+        HikariConfig batch = settings.getProfile(DatabaseConnection.BATCH).toHikariConfig();
+        check("batch maximumPoolSize", 2, batch.getMaximumPoolSize());
+        check("batch minimumIdle", 0, batch.getMinimumIdle());
+        check("batch connectionTimeout", 60000L, batch.getConnectionTimeout());
+        check("batch idleTimeout (mặc định trong mã)", 600000L, batch.getIdleTimeout());
+
+        // 2. Thứ tự ưu tiên: db.properties < biến môi trường < system property
+        Map<String, String> env = new HashMap<>();
+        env.put("DB_PROFILE_OLTP_MAXIMUMPOOLSIZE", "20");
+        env.put("DB_PROFILE_BATCH_MAXIMUMPOOLSIZE", "4");
+        env.put("DB_PASSWORD", "env-secret");
+        // Khóa chưa khai báo: biến môi trường bị bỏ qua
+        env.put("DB_PROFILE_BATCH_URL", "jdbc:mysql://env-host/cinema_booking");
+        Properties system = new Properties();
+        system.setProperty("db.profile.oltp.maximumPoolSize", "30");
+        system.setProperty("db.profile.reporting.url", "jdbc:mysql://report-host/cinema_booking");
+        system.setProperty("other.maximumPoolSize", "99");
+        PoolSettings overridden = PoolSettings.load(env, system);
+
+        check("system property thắng biến môi trường", 30,
+                overridden.getProfile(DatabaseConnection.OLTP).getMaximumPoolSize());
+        check("biến môi trường thắng db.properties", 4,
+                overridden.getProfile(DatabaseConnection.BATCH).getMaximumPoolSize());
+        check("biến môi trường ghi đè khóa chung", "env-secret",
+                overridden.getProfile(DatabaseConnection.BATCH).toHikariConfig().getPassword());
+        check("biến môi trường không thêm khóa mới", url,
+                overridden.getProfile(DatabaseConnection.BATCH).getJdbcUrl());
+        check("system property thêm được khóa mới", "jdbc:mysql://report-host/cinema_booking",
+                overridden.getProfile(DatabaseConnection.REPORTING).getJdbcUrl());
+        check("profile khác không bị ảnh hưởng", 3,
+                overridden.getProfile(DatabaseConnection.REPORTING).getMaximumPoolSize());
+
+        PoolProfile profile = overridden.getProfile(DatabaseConnection.OLTP);
+        System.out.println(profile);
+        System.out.println(failures == 0 ? "Tất cả cấu hình khớp (mong đợi)" : "LỖI: " + failures + " cấu hình sai");
+    }
+
+    private static void check(String name, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            System.out.println("LỖI: " + name + " = " + actual + " (mong đợi " + expected + ")");
+            failures++;
+        } else {
+            System.out.println(name + " (mong đợi " + expected + "): " + actual);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import util.AccessIntent;
+import util.DatabaseConnection;
+import util.ReplicaRouter;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Chạy với H2 trên classpath (scope test trong pom.xml): hai database nhúng trong bộ nhớ đóng vai primary và replica.
+ * Đây là nơi duy nhất kiểm tra việc định tuyến đọc sang replica; các test khác dùng kết nối mặc định.
+ */
+public class TestReadWriteRouting {
+    public static void main(String[] args) throws Exception {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            System.out.println("LỖI: cần H2 trên classpath (mvn dependency:build-classpath -Dmdep.includeScope=test)");
+            System.exit(1);
+        }
+        System.setProperty("db.driverClassName", "org.h2.Driver");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.profile.oltp.url", "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+        System.setProperty("db.replicas", "replica1");
+        System.setProperty("db.profile.replica1.url", "jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+        System.setProperty("db.profile.replica1.lagQuery", "SELECT 0");
+
+        try (Connection conn = DatabaseConnection.getConnection(AccessIntent.READ_WRITE)) {
+            createNodeTable(conn, "primary");
+        }
+        try (Connection conn = DatabaseConnection.getConnection("replica1")) {
+            createNodeTable(conn, "replica1");
+        }
+
+        System.out.println("READ_WRITE đọc từ (mong đợi primary): " + whoAmI(AccessIntent.READ_WRITE));
+        System.out.println("READ_ONLY đọc từ (mong đợi replica1): " + whoAmI(AccessIntent.READ_ONLY));
+
+        ReplicaRouter router = DatabaseConnection.getReplicaRouter();
+        System.out.println(router.getReplicas());
+
+        DatabaseConnection.shutdown();
+    }
+
+    private static void createNodeTable(Connection conn, String name) throws Exception {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE node(name VARCHAR(20))");
+            st.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+        conn.commit();
+    }
+
+    private static String whoAmI(AccessIntent intent) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection(intent);
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            String name = rs.getString(1);
+            conn.commit();
+            return name;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import model.Payment;
+import model.PaymentMethod;
+import payment.GatewayPolicy;
+import payment.PaymentGateway;
+import payment.PaymentGatewayException;
+import payment.PaymentResult;
+import payment.ResilientPaymentGateway;
+import payment.StubPaymentGateway;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestResilientPaymentGateway {
+    public static void main(String[] args) {
+        StubPaymentGateway card = new StubPaymentGateway(20, 400, 0, 0);
+        StubPaymentGateway wallet = new StubPaymentGateway(50, 100, 0, 0);
+        wallet.setExtraLatencyMillis(5000);
+
+        Map<PaymentMethod, StubPaymentGateway> providers = new EnumMap<>(PaymentMethod.class);
+        providers.put(PaymentMethod.CREDIT_CARD, card);
+        providers.put(PaymentMethod.E_WALLET, wallet);
+        Map<PaymentMethod, GatewayPolicy> policies = new EnumMap<>(PaymentMethod.class);
+        policies.put(PaymentMethod.CREDIT_CARD, new GatewayPolicy(64, 64, 1000, 150, 2, 5, 10_000));
+        policies.put(PaymentMethod.E_WALLET, new GatewayPolicy(4, 4, 300, 150, 2, 3, 10_000));
+        ResilientPaymentGateway gateway = new ResilientPaymentGateway(providers, policies);
+
+        // 1. Ví điện tử treo, thẻ vẫn chạy bình thường
+        long start = System.nanoTime();
+        List<CompletableFuture<PaymentResult>> wallets = new ArrayList<>();
+        List<CompletableFuture<PaymentResult>> cards = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            wallets.add(gateway.charge(new Payment(i, i, 50_000, PaymentMethod.E_WALLET, "W-" + i)));
+            cards.add(gateway.charge(new Payment(i, i, 50_000, PaymentMethod.CREDIT_CARD, "C-" + i)));
+        }
+        CompletableFuture.allOf(cards.toArray(new CompletableFuture<?>[0])).join();
+        long cardMillis = (System.nanoTime() - start) / 1_000_000;
+        long completedCards = cards.stream().filter(f -> f.join().isSuccessful()).count();
+        System.out.println("Thanh toán thẻ thành công (mong đợi 50): " + completedCards + " trong " + cardMillis + " ms");
+
+        Map<PaymentGatewayException.Reason, Integer> walletErrors = new EnumMap<>(PaymentGatewayException.Reason.class);
+        for (CompletableFuture<PaymentResult> future : wallets) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                while (cause instanceof CompletionException) {
+                    cause = cause.getCause();
+                }
+                walletErrors.merge(((PaymentGatewayException) cause).getReason(), 1, Integer::sum);
+            }
+        }
+        System.out.println("Lỗi ví điện tử theo loại: " + walletErrors);
+        System.out.println("Circuit ví điện tử (mong đợi OPEN): " + gateway.getCircuitState(PaymentMethod.E_WALLET));
+        System.out.println("Circuit thẻ (mong đợi CLOSED): " + gateway.getCircuitState(PaymentMethod.CREDIT_CARD));
+
+        // 2. Gọi song song không làm trừ tiền hai lần
+        System.out.println("Lần gọi nhà cung cấp thẻ: " + card.getCallCount()
+                + ", giao dịch thực sự (mong đợi 50): " + card.getChargeCount());
+
+        // 3. Lần gọi song song thua cuộc lỗi sau khi đã có kết quả không làm mở circuit
+        AtomicInteger calls = new AtomicInteger();
+        PaymentGateway slowFirst = payment -> {
+            if (calls.incrementAndGet() > 1) {
+                return CompletableFuture.completedFuture(PaymentResult.completed(payment));
+            }
+            CompletableFuture<PaymentResult> slow = new CompletableFuture<>();
+            CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS).execute(() -> slow.completeExceptionally(
+                    new PaymentGatewayException(PaymentGatewayException.Reason.UNAVAILABLE, "mất kết nối")));
+            return slow;
+        };
+        ResilientPaymentGateway hedged = new ResilientPaymentGateway(
+                Map.of(PaymentMethod.CREDIT_CARD, slowFirst),
+                Map.of(PaymentMethod.CREDIT_CARD, new GatewayPolicy(4, 4, 1000, 50, 2, 1, 10_000)));
+        PaymentResult hedgedResult = hedged.charge(new Payment(1, 1, 50_000, PaymentMethod.CREDIT_CARD, "H-1")).join();
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Gọi song song thành công, circuit (mong đợi true CLOSED): "
+                + hedgedResult.isSuccessful() + " " + hedged.getCircuitState(PaymentMethod.CREDIT_CARD));
+
+        hedged.close();
+        gateway.close();
+        card.close();
+        wallet.close();
+    }
+}
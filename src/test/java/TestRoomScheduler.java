@@ -0,0 +1,97 @@
+import model.Movie;
+import model.Showtime;
+import schedule.RoomScheduler;
+import schedule.ScheduleConflict;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestRoomScheduler {
+    public static void main(String[] args) {
+        RoomScheduler scheduler = new RoomScheduler(15);
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie(1, "Mai", "Tâm lý", 131, ""));
+        movies.add(new Movie(2, "Lật Mặt 7", "Gia đình", 138, ""));
+        movies.add(new Movie(3, "Doraemon", "Hoạt hình", 95, ""));
+        scheduler.registerMovies(movies);
+
+        // 1. Kiểm tra trùng giờ
+        scheduler.add(new Showtime(1, 1, "2024-12-20", "18:00", 1));
+        List<ScheduleConflict> conflicts = scheduler.validate(List.of(
+                new Showtime(2, 3, "2024-12-20", "20:20", 1),
+                new Showtime(3, 3, "2024-12-20", "20:30", 1),
+                new Showtime(4, 3, "2024-12-20", "22:00", 1)));
+        System.out.println("Số suất trùng (mong đợi 2: suất 2 trùng suất 1, suất 4 trùng suất 3): " + conflicts.size());
+        for (ScheduleConflict conflict : conflicts) {
+            System.out.println("  " + conflict);
+        }
+        System.out.println("validate không đổi lịch (mong đợi 1): " + scheduler.size());
+        System.out.println("addAll khi có trùng thì không thêm (mong đợi 1): "
+                + (scheduler.addAll(List.of(new Showtime(2, 3, "2024-12-20", "20:20", 1))).size()) + " trùng, lịch còn " + scheduler.size());
+
+        // 2. Giờ trống sớm nhất: 18:00 + 131 + 15 phút dọn = 20:26 -> làm tròn 20:30
+        LocalDateTime free = scheduler.earliestFreeSlot(1, 3, LocalDateTime.of(2024, 12, 20, 18, 30),
+                LocalDateTime.of(2024, 12, 20, 23, 0));
+        System.out.println("Giờ trống sớm nhất phòng 1 (mong đợi 2024-12-20T20:30): " + free);
+
+        // 3. Nhập hàng loạt: 30 ngày x 10 phòng x 5 suất, mỗi phòng có một suất chen vào giữa
+        List<Showtime> batch = new ArrayList<>();
+        int id = 100;
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int day = 0; day < 30; day++) {
+            for (int room = 1; room <= 10; room++) {
+                LocalTime time = LocalTime.of(9, 0);
+                for (int slot = 0; slot < 5; slot++) {
+                    int movieId = 1 + (slot + room) % 3;
+                    batch.add(new Showtime(id++, movieId, start.plusDays(day).toString(), time.toString(), room));
+                    time = time.plusMinutes(160);
+                }
+                batch.add(new Showtime(id++, 3, start.plusDays(day).toString(), "12:00", room));
+            }
+        }
+        long begin = System.nanoTime();
+        List<ScheduleConflict> bulk = scheduler.validate(batch);
+        long millis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.println("Kiểm tra " + batch.size() + " suất mất " + millis + " ms, số suất trùng (mong đợi 300): " + bulk.size());
+
+        // 4. Tự xếp: các suất chen vào được dời sang giờ trống hoặc phòng khác
+        List<Showtime> clean = new ArrayList<>(batch);
+        List<Showtime> clashing = new ArrayList<>();
+        for (ScheduleConflict conflict : bulk) {
+            clean.remove(conflict.getShowtime());
+            clashing.add(conflict.getShowtime());
+        }
+        System.out.println("Thêm phần hợp lệ (mong đợi 0 trùng): " + scheduler.addAll(clean).size());
+        List<Showtime> unplaced = scheduler.autoPlace(clashing, List.of(11, 12), 12 * 60);
+        System.out.println("Suất không xếp được (mong đợi 0): " + unplaced.size());
+        Showtime moved = clashing.get(0);
+        System.out.println("Suất đầu tiên được xếp vào phòng " + moved.getRoomNumber() + " lúc " + moved.getShowDate()
+                + " " + moved.getShowTime() + " (mong đợi phòng 11 lúc 12:00)");
+        System.out.println("Lịch sau khi xếp không còn trùng (mong đợi 0): " + scheduler.validate(clashing).size());
+
+        // 5. Xếp lại suất đã có trong lịch: khoảng cũ của chính nó không chặn nó
+        RoomScheduler single = new RoomScheduler(15);
+        single.registerMovies(movies);
+        Showtime existing = new Showtime(500, 3, "2025-02-01", "10:00", 1);
+        single.add(existing);
+        List<Showtime> again = single.autoPlace(List.of(existing), List.of(), 60);
+        System.out.println("Xếp lại vào đúng giờ cũ (mong đợi 0 phòng 1 10:00 1): " + again.size() + " phòng "
+                + existing.getRoomNumber() + " " + existing.getShowTime() + " " + single.size());
+
+        // 6. Tỉ lệ sử dụng phòng
+        double utilization = scheduler.utilization(1, LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 2, 0, 0));
+        System.out.printf("Tỉ lệ sử dụng phòng 1 từ 9h ngày 1/1: %.1f%%%n", utilization * 100);
+        System.out.printf("Tỉ lệ sử dụng phòng 11 ngày 1/1 (chỉ có suất được dời): %.1f%%%n",
+                scheduler.utilization(11, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 2, 0, 0)) * 100);
+
+        try {
+            scheduler.add(new Showtime(9999, 42, "2025-01-01", "09:00", 20));
+            System.out.println("LỖI: chấp nhận phim chưa biết thời lượng");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Phim chưa biết thời lượng (mong đợi lỗi): " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import service.SeatAllocator;
+import service.SeatBlock;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestSeatAllocator {
+    public static void main(String[] args) throws Exception {
+        // Phòng 10 hàng A-J x 12 ghế, hàng E-F là VIP, hàng J là 6 ghế đôi
+        List<Seat> seats = new ArrayList<>();
+        int seatId = 1;
+        for (char row = 'A'; row <= 'J'; row++) {
+            int columns = row == 'J' ? 6 : 12;
+            for (int col = 1; col <= columns; col++) {
+                SeatType type = row == 'J' ? SeatType.COUPLE : row == 'E' || row == 'F' ? SeatType.VIP : SeatType.STANDARD;
+                seats.add(new Seat(seatId++, 1, row + String.valueOf(col), type, SeatStatus.AVAILABLE,
+                        type.getPrice(), 0));
+            }
+        }
+        SeatMapEngine engine = new SeatMapEngine();
+        engine.load(ShowtimeSeatMap.of(1, seats));
+        SeatAllocator allocator = new SeatAllocator(engine);
+
+        // 1. Nhóm 6 người: cùng hàng, liền nhau, giữa hàng
+        SeatBlock group = allocator.allocate(1, SeatType.STANDARD, 6);
+        System.out.println("Nhóm 6 khách: " + Arrays.toString(group.getSeatNumbers())
+                + " (mong đợi G4..G9, hàng gần 2/3 phòng)");
+        boolean reserved = true;
+        for (int id : group.getSeatIds()) {
+            reserved &= engine.getStatus(1, id) == SeatStatus.RESERVED;
+        }
+        System.out.println("Đã giữ trong sơ đồ (mong đợi true): " + reserved);
+        System.out.println("Tổng tiền (mong đợi 300000): " + group.getTotalPrice());
+
+        // 2. Cặp đôi dùng một ghế đôi
+        SeatBlock couple = allocator.allocate(1, SeatType.COUPLE, 2);
+        System.out.println("Cặp đôi (mong đợi 1 ghế J): " + Arrays.toString(couple.getSeatNumbers()));
+
+        // 3. Ghế bị giữ theo đường khác chia dãy trống; dãy vừa nhất được chọn
+        for (int col = 1; col <= 12; col++) {
+            if (col != 5 && col != 6 && col != 7) {
+                engine.reserve(1, seatIdOf(seats, "E" + col));
+            }
+        }
+        SeatBlock vip = allocator.allocate(1, SeatType.VIP, 3);
+        System.out.println("Nhóm 3 VIP (mong đợi [E5, E6, E7], dãy vừa khít): " + Arrays.toString(vip.getSeatNumbers()));
+        System.out.println("Dãy VIP dài nhất còn lại (mong đợi 12): " + allocator.largestBlock(1, SeatType.VIP));
+        System.out.println("Nhóm 13 VIP (mong đợi null): " + allocator.allocate(1, SeatType.VIP, 13));
+
+        // 4. Trả ghế làm dãy liền lại
+        allocator.release(group);
+        System.out.println("Dãy thường dài nhất sau khi trả (mong đợi 12): " + allocator.largestBlock(1, SeatType.STANDARD));
+
+        // 5. Nhiều luồng cùng chia ghế thường theo nhóm 4, không chồng chéo
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<SeatBlock>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                List<SeatBlock> blocks = new ArrayList<>();
+                SeatBlock block;
+                while ((block = allocator.allocate(1, SeatType.STANDARD, 4)) != null) {
+                    blocks.add(block);
+                }
+                return blocks;
+            }));
+        }
+        Set<Integer> taken = new HashSet<>();
+        int blocks = 0;
+        boolean overlap = false;
+        for (Future<List<SeatBlock>> future : futures) {
+            for (SeatBlock block : future.get()) {
+                blocks++;
+                for (int id : block.getSeatIds()) {
+                    overlap |= !taken.add(id);
+                }
+            }
+        }
+        executor.shutdown();
+        System.out.println("Số nhóm 4 khách (mong đợi 21 = 7 hàng thường x 3): " + blocks);
+        System.out.println("Có ghế bị chia hai lần (mong đợi false): " + overlap);
+        System.out.println("Số lần giữ: " + allocator.getAllocations() + ", xung đột: " + allocator.getConflicts());
+
+        // 6. Ghế vừa bị luồng khác giữ nhưng listener của luồng đó chưa kịp cập nhật chỉ số
+        List<Seat> row = new ArrayList<>();
+        for (int col = 1; col <= 6; col++) {
+            row.add(new Seat(100 + col, 2, "A" + col, SeatType.STANDARD, SeatStatus.AVAILABLE,
+                    SeatType.STANDARD.getPrice(), 0));
+        }
+        SeatMapEngine slowEngine = new SeatMapEngine();
+        slowEngine.load(ShowtimeSeatMap.of(2, row));
+        CountDownLatch reservedElsewhere = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        // Listener chậm đứng trước allocator nên chỉ số của allocator chưa biết A3 đã bị giữ
+        slowEngine.addListener((showtimeId, id, from, to) -> {
+            if (id != 103) {
+                return;
+            }
+            reservedElsewhere.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        SeatAllocator slowAllocator = new SeatAllocator(slowEngine);
+        slowAllocator.largestBlock(2, SeatType.STANDARD);
+        Thread other = new Thread(() -> slowEngine.reserve(2, 103));
+        other.start();
+        reservedElsewhere.await();
+        SeatBlock pair = slowAllocator.allocate(2, SeatType.STANDARD, 2);
+        resume.countDown();
+        other.join();
+        System.out.println("Nhóm 2 khách sau xung đột (mong đợi [A1, A2]): "
+                + (pair == null ? null : Arrays.toString(pair.getSeatNumbers()))
+                + ", xung đột (mong đợi 1): " + slowAllocator.getConflicts());
+    }
+
+    private static int seatIdOf(List<Seat> seats, String seatNumber) {
+        for (Seat seat : seats) {
+            if (seat.getSeatNumber().equals(seatNumber)) {
+                return seat.getSeatId();
+            }
+        }
+        throw new IllegalArgumentException(seatNumber);
+    }
+}
@@ -0,0 +1,210 @@
+import dao.BookingDao;
+import dao.SeatDao;
+import dao.SeatReservationResult;
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentMethod;
+import model.SeatStatus;
+import util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Chạy với H2 trên classpath (scope test trong pom.xml): database nhúng trong bộ nhớ ở chế độ MySQL
+ */
+public class TestSeatDaoReservation {
+
+    static final int SHOWTIME_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        try {
+            Class.forName("org.h2.Driver");
+        } catch (ClassNotFoundException e) {
+            System.out.println("LỖI: cần H2 trên classpath (mvn dependency:build-classpath -Dmdep.includeScope=test)");
+            System.exit(1);
+        }
+        System.setProperty("db.driverClassName", "org.h2.Driver");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("db.profile.oltp.url",
+                "jdbc:h2:mem:reservation;MODE=MySQL;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE");
+        createSchema();
+        SeatDao seatDao = new SeatDao();
+
+        // 1. Version client đọc đã cũ nhưng ghế còn trống: đọc lại version và giữ được ở lượt sau
+        resetSeats(4);
+        setSeat(2, SeatStatus.AVAILABLE, 5);
+        setSeat(3, SeatStatus.BOOKED, 1);
+        long start = System.nanoTime();
+        SeatReservationResult result = seatDao.reserveSeats(1, SHOWTIME_ID, Arrays.asList(1, 2, 3),
+                Arrays.asList(0, 0, 0));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Giữ được (mong đợi [1, 2]): " + result.getReservedSeatIds());
+        System.out.println("Version mới (mong đợi {1=1, 2=6}): " + result.getReservedVersions());
+        System.out.println("Mất (mong đợi [3]): " + result.getLostSeatIds());
+        System.out.println("Số lượt (mong đợi 2): " + result.getAttempts());
+        // Backoff lượt đầu ngẫu nhiên trong [5, 10] ms
+        System.out.println("Có chờ backoff trước lượt thử lại (mong đợi true): " + (elapsedMillis >= 5));
+        System.out.println("Người giữ ghế 1, 2 (mong đợi 1 1): " + heldBy(1) + " " + heldBy(2));
+
+        // 2. Hai khách cùng giữ một ghế với cùng version: đúng một người giữ được
+        int wins = 0;
+        int losses = 0;
+        for (int round = 0; round < 20; round++) {
+            resetSeats(4);
+            SeatReservationResult[] results = race(seatDao, 4);
+            for (SeatReservationResult r : results) {
+                wins += r.getReservedSeatIds().size();
+                losses += r.getLostSeatIds().size();
+            }
+        }
+        System.out.println("Sau 20 lượt tranh một ghế: giữ được (mong đợi 20) " + wins + ", mất (mong đợi 20) " + losses);
+
+        // 3. Giữ nhiều ghế khi một phần đã bị người khác giữ: phần còn lại vẫn được commit
+        resetSeats(4);
+        seatDao.reserveSeats(2, SHOWTIME_ID, Collections.singletonList(3), Collections.singletonList(0));
+        SeatReservationResult partial = seatDao.reserveSeats(1, SHOWTIME_ID, Arrays.asList(1, 2, 3, 4),
+                Arrays.asList(0, 0, 0, 0));
+        System.out.println("Giữ một phần (mong đợi [1, 2, 4] và mất [3]): " + partial.getReservedSeatIds()
+                + " " + partial.getLostSeatIds());
+        System.out.println("Ghế đã mất không đọc lại version (mong đợi 1 lượt): " + partial.getAttempts());
+
+        // 4. Ghế khách 2 đang giữ không bị đơn mới của khách 1 đặt mất; khách 2 đặt được
+        BookingDao bookingDao = new BookingDao();
+        Booking stolen = newBooking(1, 3);
+        System.out.println("Khách 1 đặt ghế khách 2 đang giữ (mong đợi true): "
+                + bookingDao.confirmBatch(Collections.singletonList(stolen),
+                Collections.singletonList(newPayment("TXN-STOLEN"))).get(0));
+        Booking own = newBooking(2, 3);
+        System.out.println("Khách 2 đặt ghế mình giữ (mong đợi false CONFIRMED): "
+                + bookingDao.confirmBatch(Collections.singletonList(own),
+                Collections.singletonList(newPayment("TXN-OWN"))).get(0) + " " + own.getStatus().name());
+        System.out.println("Ghế 3 sau khi đặt (mong đợi BOOKED null): " + status(3).name() + " " + heldBy(3));
+
+        // 5. Ghi trạng thái từ sơ đồ trong bộ nhớ không đụng tới ghế khách đang giữ, và tăng version
+        Map<Integer, SeatStatus> mirror = new LinkedHashMap<>();
+        mirror.put(1, SeatStatus.AVAILABLE);
+        mirror.put(4, SeatStatus.BOOKED);
+        System.out.println("Số ghế được ghi (mong đợi 0): " + seatDao.updateStatuses(mirror));
+        resetSeats(4);
+        System.out.println("Ghế trống được ghi BOOKED (mong đợi 1, version 1): " + seatDao.updateStatuses(mirror)
+                + ", version " + version(4));
+
+        DatabaseConnection.shutdown();
+    }
+
+    private static SeatReservationResult[] race(SeatDao seatDao, int seatId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<SeatReservationResult>> futures = new ArrayList<>();
+            for (int customer = 1; customer <= 2; customer++) {
+                int customerId = customer;
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    return seatDao.reserveSeats(customerId, SHOWTIME_ID, Collections.singletonList(seatId),
+                            Collections.singletonList(0));
+                }));
+            }
+            go.countDown();
+            return new SeatReservationResult[]{futures.get(0).get(), futures.get(1).get()};
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Booking newBooking(int customerId, int seatId) {
+        Booking booking = new Booking(0, customerId, SHOWTIME_ID, 50_000, BookingStatus.PENDING);
+        booking.addSeatId(seatId);
+        return booking;
+    }
+
+    private static Payment newPayment(String transactionId) {
+        return new Payment(0, 0, 50_000, PaymentMethod.CASH, transactionId);
+    }
+
+    private static void createSchema() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE seats(seat_id INT PRIMARY KEY, showtime_id INT, seat_number VARCHAR(10), "
+                    + "seat_type VARCHAR(20), status VARCHAR(20), price BIGINT, held_by INT, version INT, "
+                    + "created_at TIMESTAMP, updated_at TIMESTAMP)");
+            st.execute("CREATE TABLE bookings(booking_id INT AUTO_INCREMENT PRIMARY KEY, customer_id INT, "
+                    + "showtime_id INT, total_amount BIGINT, status VARCHAR(20), booking_time TIMESTAMP, "
+                    + "confirmed_at TIMESTAMP, cancelled_at TIMESTAMP, cancellation_reason VARCHAR(255))");
+            st.execute("CREATE TABLE booking_seats(booking_id INT, seat_id INT)");
+            st.execute("CREATE TABLE payments(payment_id INT AUTO_INCREMENT PRIMARY KEY, booking_id INT, "
+                    + "amount BIGINT, payment_method VARCHAR(20), transaction_id VARCHAR(64) UNIQUE, "
+                    + "payment_status VARCHAR(20), payment_time TIMESTAMP, claimed_at TIMESTAMP)");
+            conn.commit();
+        }
+    }
+
+    private static void resetSeats(int count) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement st = conn.createStatement();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO seats(seat_id, showtime_id, seat_number, "
+                     + "seat_type, status, price, version) VALUES (?, ?, ?, 'STANDARD', 'AVAILABLE', 50000, 0)")) {
+            st.execute("DELETE FROM seats");
+            st.execute("DELETE FROM booking_seats");
+            for (int i = 1; i <= count; i++) {
+                ps.setInt(1, i);
+                ps.setInt(2, SHOWTIME_ID);
+                ps.setString(3, "A" + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static void setSeat(int seatId, SeatStatus status, int version) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("UPDATE seats SET status = ?, version = ? WHERE seat_id = ?")) {
+            ps.setString(1, status.name());
+            ps.setInt(2, version);
+            ps.setInt(3, seatId);
+            ps.executeUpdate();
+            conn.commit();
+        }
+    }
+
+    private static SeatStatus status(int seatId) throws Exception {
+        return SeatStatus.valueOf(column(seatId, "status"));
+    }
+
+    private static String heldBy(int seatId) throws Exception {
+        return column(seatId, "held_by");
+    }
+
+    private static String version(int seatId) throws Exception {
+        return column(seatId, "version");
+    }
+
+    private static String column(int seatId, String column) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT " + column + " FROM seats WHERE seat_id = ?")) {
+            ps.setInt(1, seatId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                String value = rs.getString(1);
+                conn.commit();
+                return value;
+            }
+        }
+    }
+}
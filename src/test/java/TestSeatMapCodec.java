@@ -0,0 +1,96 @@
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import service.SeatMapCodec;
+import service.SeatMapEngine;
+import service.SeatMapSnapshot;
+import service.ShowtimeSeatMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestSeatMapCodec {
+    public static void main(String[] args) {
+        List<Seat> seats = new ArrayList<>();
+        int seatId = 1000;
+        for (char row = 'A'; row <= 'P'; row++) {
+            for (int col = 1; col <= 20; col++) {
+                SeatType type = row == 'P' ? SeatType.COUPLE : row >= 'F' && row <= 'J' ? SeatType.VIP : SeatType.STANDARD;
+                seats.add(new Seat(seatId++, 1, row + String.valueOf(col), type, SeatStatus.AVAILABLE,
+                        type.getPrice(), 0));
+            }
+        }
+        seats.add(new Seat(seatId, 1, "VIP-01", SeatType.VIP, SeatStatus.AVAILABLE, SeatType.VIP.getPrice(), 0));
+
+        SeatMapEngine engine = new SeatMapEngine();
+        ShowtimeSeatMap seatMap = ShowtimeSeatMap.of(1, seats);
+        engine.load(seatMap);
+        SeatMapCodec codec = new SeatMapCodec();
+
+        // 1. Khung đầy đủ
+        int textBytes = 0;
+        for (Seat seat : seats) {
+            textBytes += seat.toString().length();
+        }
+        ByteBuffer full = codec.encodeSnapshot(seatMap);
+        System.out.println("Kích thước khung FULL cho " + seats.size() + " ghế: " + full.remaining()
+                + " byte (Seat.toString: " + textBytes + " byte)");
+        SeatMapSnapshot client = SeatMapCodec.decode(full);
+        codec.release(full);
+        System.out.println("Ghế cuối (mong đợi VIP-01): " + client.getSeatNumber(client.size() - 1));
+        System.out.println("Ghế P20 (mong đợi COUPLE): " + client.getSeatType(client.size() - 2).name()
+                + " " + client.getSeatNumber(client.size() - 2));
+
+        // 2. Delta sau vài lần chuyển trạng thái
+        for (int id = 1000; id < 1010; id++) {
+            engine.reserve(1, id);
+        }
+        engine.book(1, 1000);
+        engine.release(1, 1001, SeatStatus.RESERVED);
+        ByteBuffer delta = codec.encodeChanges(seatMap, client.getVersion());
+        System.out.println("Kích thước khung DELTA cho 10 ghế: " + delta.remaining() + " byte");
+        SeatMapCodec.apply(client, delta);
+        codec.release(delta);
+        System.out.println("Phiên bản khớp server (mong đợi true): " + (client.getVersion() == seatMap.getVersion()));
+        boolean same = true;
+        for (int i = 0; i < seatMap.size(); i++) {
+            same &= client.getStatus(i) == seatMap.getStatus(i);
+        }
+        System.out.println("Trạng thái khớp server (mong đợi true): " + same);
+        System.out.println("Ghế đang giữ (mong đợi 8): " + client.count(SeatStatus.RESERVED));
+
+        // 3. Phiên bản của lần nạp khác: nhận khung FULL
+        ShowtimeSeatMap reloaded = ShowtimeSeatMap.of(1, seats);
+        ByteBuffer fallback = codec.encodeChanges(reloaded, client.getVersion());
+        SeatMapSnapshot fresh = SeatMapCodec.apply(client, fallback);
+        codec.release(fallback);
+        System.out.println("Nạp lại nhận khung FULL (mong đợi true): " + (fresh != client));
+
+        // 4. Buffer được dùng lại
+        for (int i = 0; i < 1000; i++) {
+            codec.release(codec.encodeSnapshot(seatMap));
+        }
+        System.out.println("Khung FULL đã mã hóa lại 1000 lần không lỗi");
+
+        // 5. Buffer theo cỡ khung, trả hai lần bị chặn
+        ByteBuffer small = codec.encodeChanges(seatMap, seatMap.getVersion());
+        System.out.println("Khung DELTA rỗng dùng buffer nhỏ nhất (mong đợi 256): " + small.capacity());
+        ByteBuffer snapshot = codec.encodeSnapshot(seatMap);
+        System.out.println("Khung FULL " + snapshot.remaining() + " byte dùng buffer (mong đợi 1024): "
+                + snapshot.capacity());
+        codec.release(snapshot);
+        codec.release(small);
+        try {
+            codec.release(small);
+            System.out.println("Trả hai lần không bị phát hiện");
+        } catch (IllegalStateException e) {
+            System.out.println("Trả hai lần bị chặn: " + e.getMessage());
+        }
+        ByteBuffer first = codec.encodeChanges(seatMap, seatMap.getVersion());
+        ByteBuffer second = codec.encodeChanges(seatMap, seatMap.getVersion());
+        System.out.println("Hai khung không dùng chung buffer (mong đợi true): " + (first != second));
+        codec.release(first);
+        codec.release(second);
+    }
+}
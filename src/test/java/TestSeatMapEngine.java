@@ -0,0 +1,61 @@
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import service.SeatMapEngine;
+import service.ShowtimeSeatMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSeatMapEngine {
+    public static void main(String[] args) throws Exception {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 80; i++) {
+            seats.add(new Seat(i, 1, "A" + i, SeatType.STANDARD, SeatStatus.AVAILABLE, 0));
+        }
+
+        SeatMapEngine engine = new SeatMapEngine();
+        engine.load(ShowtimeSeatMap.of(1, seats));
+
+        // 100 luồng cùng tranh ghế số 1: chỉ một luồng được giữ
+        int threads = 100;
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    if (engine.reserve(1, 1)) {
+                        winners.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        System.out.println("Số luồng giữ được ghế 1 (mong đợi 1): " + winners.get());
+
+        // Giữ nhóm ghế có ghế đã bị giữ: không ghế nào đổi trạng thái
+        boolean grouped = engine.reserveAll(1, Arrays.asList(2, 3, 1));
+        System.out.println("Giữ nhóm 2,3,1 (mong đợi false): " + grouped);
+        System.out.println("Ghế 2 sau khi hoàn tác (mong đợi AVAILABLE): " + engine.getStatus(1, 2).name());
+
+        System.out.println("Đặt ghế 1 (mong đợi true): " + engine.book(1, 1));
+        try {
+            engine.transition(1, 1, SeatStatus.BOOKED, SeatStatus.RESERVED);
+            System.out.println("BOOKED -> RESERVED: không bị chặn (SAI)");
+        } catch (IllegalArgumentException e) {
+            System.out.println("BOOKED -> RESERVED bị chặn: " + e.getMessage());
+        }
+
+        System.out.println("Ghế còn trống (mong đợi 79): " + engine.get(1).count(SeatStatus.AVAILABLE));
+    }
+}
@@ -0,0 +1,153 @@
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import push.SeatPushServer;
+import push.SeatSubscriber;
+import push.SeatUpdateHub;
+import util.VirtualThreads;
+import service.SeatMapCodec;
+import service.SeatMapEngine;
+import service.SeatMapSnapshot;
+import service.ShowtimeSeatMap;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSeatPush {
+    public static void main(String[] args) throws Exception {
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            seats.add(new Seat(1000 + i, 1, (char) ('A' + i / 20) + String.valueOf(i % 20 + 1), SeatType.STANDARD,
+                    SeatStatus.AVAILABLE, SeatType.STANDARD.getPrice(), 0));
+        }
+        SeatMapEngine engine = new SeatMapEngine();
+        ShowtimeSeatMap seatMap = ShowtimeSeatMap.of(1, seats);
+        engine.load(seatMap);
+
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("test-client");
+        try (SeatUpdateHub hub = new SeatUpdateHub(engine, new SeatMapCodec(), 75, 8);
+             SeatPushServer server = new SeatPushServer(engine, hub, new InetSocketAddress("127.0.0.1", 0))) {
+            server.start();
+            String base = "http://127.0.0.1:" + server.getPort() + "/showtimes/1/seats";
+
+            // 1. Nhiều client SSE cùng theo dõi, 200 lần giữ ghế được gộp thành ít khung
+            int clients = 5;
+            SeatMapSnapshot[] views = new SeatMapSnapshot[clients];
+            AtomicInteger[] frames = new AtomicInteger[clients];
+            CountDownLatch subscribed = new CountDownLatch(clients);
+            CountDownLatch synced = new CountDownLatch(clients);
+            List<Future<?>> readers = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int index = c;
+                frames[c] = new AtomicInteger();
+                readers.add(executor.submit(() -> {
+                    try {
+                        HttpURLConnection connection = (HttpURLConnection) new URL(base + "/stream").openConnection();
+                        try (BufferedReader reader = new BufferedReader(
+                                new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII))) {
+                            String line;
+                            while ((line = reader.readLine()) != null) {
+                                if (!line.startsWith("data: ")) {
+                                    continue;
+                                }
+                                ByteBuffer frame = ByteBuffer.wrap(Base64.getDecoder().decode(line.substring(6)));
+                                if (views[index] == null) {
+                                    views[index] = SeatMapCodec.decode(frame);
+                                    subscribed.countDown();
+                                } else {
+                                    SeatMapCodec.apply(views[index], frame);
+                                    frames[index].incrementAndGet();
+                                }
+                                if (views[index].getVersion() == seatMap.getVersion() && seatMap.count(SeatStatus.RESERVED) == 200) {
+                                    synced.countDown();
+                                    return;
+                                }
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.out.println("Lỗi client SSE: " + e);
+                    }
+                }));
+            }
+            subscribed.await();
+            System.out.println("Số người theo dõi (mong đợi 5): " + hub.getSubscriberCount(1));
+            for (int i = 0; i < 200; i++) {
+                engine.reserve(1, 1000 + i);
+                if (i % 20 == 19) {
+                    Thread.sleep(20);
+                }
+            }
+            System.out.println("Mọi client đồng bộ (mong đợi true): "
+                    + synced.await(5, TimeUnit.SECONDS));
+            int maxFrames = 0;
+            for (AtomicInteger count : frames) {
+                maxFrames = Math.max(maxFrames, count.get());
+            }
+            System.out.println("Số khung mỗi client cho 200 thay đổi (mong đợi nhỏ hơn nhiều 200): " + maxFrames);
+            for (Future<?> reader : readers) {
+                reader.cancel(true);
+            }
+
+            // 2. Người theo dõi chậm bị bỏ khung và nhận lại toàn bộ sơ đồ
+            SeatSubscriber slow = hub.subscribe(1, 0);
+            SeatMapSnapshot slowView = SeatMapCodec.decode(ByteBuffer.wrap(dataOf(slow.next(0))));
+            for (int round = 0; round < 20; round++) {
+                engine.release(1, 1000 + round, SeatStatus.RESERVED);
+                Thread.sleep(100);
+            }
+            String event = new String(slow.next(1000), StandardCharsets.US_ASCII);
+            System.out.println("Sự kiện sau khi bị tụt lại (mong đợi full): " + event.substring(7, event.indexOf('\n')));
+            slowView = SeatMapCodec.decode(ByteBuffer.wrap(dataOf(event.getBytes(StandardCharsets.US_ASCII))));
+            System.out.println("Sơ đồ khớp server (mong đợi true): " + (slowView.getVersion() == seatMap.getVersion()));
+            System.out.println("Số lần ép gửi toàn bộ (mong đợi >= 1): " + hub.getSnapshotsForced());
+            slow.close();
+
+            // 3. Long-poll: chờ đến khi có thay đổi rồi nhận khung nhị phân
+            long version = seatMap.getVersion();
+            executor.submit(() -> {
+                try {
+                    Thread.sleep(200);
+                    engine.reserve(1, 1000);
+                } catch (Exception ignored) {
+                }
+            });
+            long start = System.nanoTime();
+            HttpURLConnection connection = (HttpURLConnection) new URL(base + "?since=" + version + "&wait=5000")
+                    .openConnection();
+            byte[] body;
+            try (InputStream in = connection.getInputStream()) {
+                body = in.readAllBytes();
+            }
+            long waited = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Long-poll trả về sau thay đổi (mong đợi ~200-400 ms): " + waited + " ms");
+            System.out.println("Header X-Seat-Version khớp (mong đợi true): "
+                    + (Long.parseLong(connection.getHeaderField("X-Seat-Version")) == seatMap.getVersion()));
+            System.out.println("Kích thước khung DELTA: " + body.length + " byte");
+
+            HttpURLConnection bad = (HttpURLConnection) new URL(base + "?since=abc").openConnection();
+            System.out.println("Tham số sai (mong đợi 400): " + bad.getResponseCode());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] dataOf(byte[] event) {
+        String text = new String(event, StandardCharsets.US_ASCII);
+        int start = text.indexOf("data: ") + 6;
+        return Base64.getDecoder().decode(text.substring(start, text.indexOf('\n', start)));
+    }
+}
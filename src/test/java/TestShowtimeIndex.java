@@ -0,0 +1,125 @@
+import dao.ShowtimeDao;
+import model.Showtime;
+import search.ShowtimeIndex;
+import search.ShowtimeQuery;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestShowtimeIndex {
+    public static void main(String[] args) throws Exception {
+        // 30 ngày x 10 phòng x 6 suất/ngày, 50 phim
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 12, 1);
+        List<Showtime> showtimes = new ArrayList<>();
+        int id = 1;
+        for (int day = 0; day < 30; day++) {
+            for (int room = 1; room <= 10; room++) {
+                for (int slot = 0; slot < 6; slot++) {
+                    LocalTime time = LocalTime.of(9 + slot * 2 + random.nextInt(2), random.nextInt(4) * 15);
+                    showtimes.add(new Showtime(id++, 1 + random.nextInt(50), start.plusDays(day).toString(),
+                            time.toString(), room));
+                }
+            }
+        }
+        ShowtimeIndex index = new ShowtimeIndex();
+        index.apply(showtimes, List.of());
+        System.out.println("Số suất chiếu trong chỉ mục (mong đợi 1800): " + index.size());
+
+        // 1. Phim X, 18:00-22:00, 7 ngày tới
+        LocalDateTime from = LocalDateTime.of(2024, 12, 10, 0, 0);
+        ShowtimeQuery query = ShowtimeQuery.between(from, from.plusDays(7))
+                .movie(7).timeOfDay(LocalTime.of(18, 0), LocalTime.of(22, 0));
+        int[] found = index.search(query);
+        int[] expected = bruteForce(showtimes, from, from.plusDays(7), 7, -1, 18 * 60, 22 * 60);
+        System.out.println("Phim 7 tối 7 ngày tới: " + found.length + " suất, khớp quét tuần tự (mong đợi true): "
+                + Arrays.equals(found, expected));
+
+        // 2. Phòng 3 trong một ngày, theo thứ tự giờ
+        int[] room3 = index.search(ShowtimeQuery.between(from, from.plusDays(1).minusMinutes(1)).room(3));
+        System.out.println("Phòng 3 ngày 10/12 (mong đợi 6 suất): " + room3.length);
+        boolean ordered = true;
+        List<Showtime> resolved = index.resolve(room3);
+        for (int i = 1; i < resolved.size(); i++) {
+            ordered &= resolved.get(i - 1).getShowTime().compareTo(resolved.get(i).getShowTime()) <= 0;
+        }
+        System.out.println("Theo thứ tự giờ chiếu (mong đợi true): " + ordered);
+
+        // 3. Đo thời gian truy vấn
+        int rounds = 200_000;
+        long sink = 0;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += index.search(query).length;
+        }
+        long perQuery = (System.nanoTime() - startNanos) / rounds;
+        System.out.println("Thời gian mỗi truy vấn: " + perQuery + " ns (mong đợi vài micro giây trở xuống) " + (sink > 0));
+
+        // 4. Cập nhật dần: đổi giờ, đổi phim, xóa
+        Showtime moved = index.get(room3[0]);
+        index.put(new Showtime(moved.getShowtimeId(), 7, moved.getShowDate(), "19:30", moved.getRoomNumber()));
+        index.remove(found.length > 0 ? found[0] : 1);
+        showtimes.removeIf(s -> s.getShowtimeId() == moved.getShowtimeId() || (found.length > 0 && s.getShowtimeId() == found[0]));
+        showtimes.add(index.get(moved.getShowtimeId()));
+        int[] after = index.search(query);
+        int[] expectedAfter = bruteForce(showtimes, from, from.plusDays(7), 7, -1, 18 * 60, 22 * 60);
+        System.out.println("Sau khi sửa/xóa khớp quét tuần tự (mong đợi true): " + Arrays.equals(after, expectedAfter));
+        System.out.println("Số suất chiếu (mong đợi 1799): " + index.size());
+
+        try {
+            index.put(new Showtime(9999, 1, "2024-13-01", "25:00", 1));
+            System.out.println("LỖI: chấp nhận ngày giờ sai");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ngày giờ sai (mong đợi lỗi): " + e.getMessage() + ", số suất chiếu vẫn là " + index.size());
+        }
+
+        // 5. Đọc dần từ database: dòng commit muộn có cùng giây updated_at với dòng đã đọc vẫn được lấy
+        List<Showtime> table = new ArrayList<>();
+        ShowtimeDao fakeDao = new ShowtimeDao() {
+            @Override
+            public List<Showtime> findUpdatedSince(Timestamp since) {
+                List<Showtime> rows = new ArrayList<>();
+                for (Showtime row : table) {
+                    if (!row.getUpdatedAt().before(since)) {
+                        rows.add(row);
+                    }
+                }
+                return rows;
+            }
+        };
+        Timestamp second = Timestamp.valueOf("2024-12-01 10:00:00");
+        table.add(updatedAt(new Showtime(5001, 1, "2024-12-20", "10:00", 1), second));
+        ShowtimeIndex incremental = new ShowtimeIndex();
+        System.out.println("Lần đọc đầu (mong đợi 1): " + incremental.refresh(fakeDao));
+        table.add(updatedAt(new Showtime(5002, 2, "2024-12-20", "12:00", 1), second));
+        System.out.println("Dòng cùng giây commit muộn (mong đợi 1, dòng cũ không bị trộn lại): "
+                + incremental.refresh(fakeDao) + ", số suất chiếu (mong đợi 2): " + incremental.size());
+        System.out.println("Đọc lại không có thay đổi (mong đợi 0): " + incremental.refresh(fakeDao));
+    }
+
+    private static Showtime updatedAt(Showtime showtime, Timestamp updatedAt) {
+        showtime.setUpdatedAt(updatedAt);
+        return showtime;
+    }
+
+    private static int[] bruteForce(List<Showtime> showtimes, LocalDateTime from, LocalDateTime to,
+                                    int movieId, int room, int dayFrom, int dayTo) {
+        List<long[]> matches = new ArrayList<>();
+        for (Showtime s : showtimes) {
+            LocalDateTime at = LocalDateTime.of(LocalDate.parse(s.getShowDate()), LocalTime.parse(s.getShowTime()));
+            int minuteOfDay = at.getHour() * 60 + at.getMinute();
+            if (!at.isBefore(from) && !at.isAfter(to) && (movieId < 0 || s.getMovieId() == movieId)
+                    && (room < 0 || s.getRoomNumber() == room) && minuteOfDay >= dayFrom && minuteOfDay <= dayTo) {
+                matches.add(new long[]{ShowtimeIndex.toEpochMinute(at), s.getShowtimeId()});
+            }
+        }
+        matches.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        return matches.stream().mapToInt(m -> (int) m[1]).toArray();
+    }
+}
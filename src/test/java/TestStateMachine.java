@@ -0,0 +1,74 @@
+import model.Booking;
+import model.BookingStatus;
+import model.Payment;
+import model.PaymentMethod;
+import model.Seat;
+import model.SeatStatus;
+import model.SeatType;
+import util.InvalidTransitionException;
+import util.TransitionStats;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestStateMachine {
+    public static void main(String[] args) throws Exception {
+        // 1. 50 luồng cùng xác nhận, 50 luồng cùng hủy một đơn: đúng một lần chuyển từ PENDING
+        Booking booking = new Booking(1, 1, 1, 100_000, BookingStatus.PENDING);
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            boolean confirm = i % 2 == 0;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    if (confirm) {
+                        booking.confirm();
+                        confirmed.incrementAndGet();
+                    } else {
+                        booking.cancel();
+                    }
+                } catch (InvalidTransitionException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        System.out.println("Trạng thái cuối (mong đợi CANCELLED): " + booking.getStatus().name());
+        System.out.println("Số lần xác nhận thành công (tối đa 1): " + confirmed.get());
+        System.out.println("Số lần bị từ chối (mong đợi " + (99 - confirmed.get()) + "): " + rejected.get());
+        System.out.println("Có thời điểm hủy (mong đợi true): " + (booking.getCancelledAt() != null));
+
+        // 2. Seat.release() không còn bỏ qua luật chuyển
+        Seat seat = new Seat(1, 1, "A1", SeatType.STANDARD, SeatStatus.AVAILABLE, 0);
+        try {
+            seat.release();
+            System.out.println("Trả ghế đang trống: không bị chặn (SAI)");
+        } catch (InvalidTransitionException e) {
+            System.out.println("Trả ghế đang trống bị chặn: " + e.getMessage());
+        }
+        seat.reserve();
+        seat.book();
+        seat.release();
+        System.out.println("Ghế sau khi giữ, đặt, trả (mong đợi AVAILABLE): " + seat.getStatus().name());
+
+        // 3. Thanh toán: hoàn tiền trước khi thanh toán bị từ chối
+        Payment payment = new Payment(1, 1, 100_000, PaymentMethod.CASH, "TXN-1");
+        System.out.println("Hoàn tiền khi chưa thanh toán (mong đợi false): " + payment.refund());
+        System.out.println("Thanh toán (mong đợi true): " + payment.processPayment());
+        System.out.println("Thanh toán lần hai (mong đợi false): " + payment.processPayment());
+        System.out.println("Hoàn tiền (mong đợi true): " + payment.refund());
+
+        System.out.println("Số liệu chuyển trạng thái đơn:");
+        for (TransitionStats stats : Booking.LIFECYCLE.getAllStats()) {
+            System.out.println("  " + stats);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import export.BookingExporter;
+import export.Utf8ChannelWriter;
+import model.Booking;
+import model.BookingStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+public class TestUtf8ChannelWriter {
+    public static void main(String[] args) throws Exception {
+        // 1. Buffer nhỏ để ký tự nhiều byte nằm vắt qua lần flush
+        String text = "Phim: Mắt Biếc 🎬 — giá 90.000₫ 😀";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(bytes);
+        try (Utf8ChannelWriter out = new Utf8ChannelWriter(channel, 8)) {
+            out.append(text).append(' ').append(-1234567890123L).append(' ').append(Long.MIN_VALUE);
+        }
+        String expected = text + " -1234567890123 " + Long.MIN_VALUE;
+        System.out.println("Chuỗi ghi qua buffer 8 byte khớp (mong đợi true): "
+                + expected.equals(bytes.toString(StandardCharsets.UTF_8)));
+        System.out.println("Số byte (mong đợi " + expected.getBytes(StandardCharsets.UTF_8).length + "): " + bytes.size());
+
+        // 2. Cặp surrogate ghi từng char một vẫn là một ký tự 4 byte
+        bytes.reset();
+        try (Utf8ChannelWriter out = new Utf8ChannelWriter(channel, 8)) {
+            for (char c : "🎬😀".toCharArray()) {
+                out.append(c);
+            }
+            out.append('\uD83C').append("\uDFAC");
+        }
+        System.out.println("Ghi từng char (mong đợi 🎬😀🎬): " + bytes.toString(StandardCharsets.UTF_8));
+
+        // 3. Surrogate lẻ thành '?'
+        bytes.reset();
+        try (Utf8ChannelWriter out = new Utf8ChannelWriter(channel, 8)) {
+            out.append('\uD83C').append('a').append('\uDE00').append('\uD83C').append(7).append('\uD83C');
+        }
+        System.out.println("Surrogate lẻ (mong đợi ?a??7?): " + bytes.toString(StandardCharsets.UTF_8));
+
+        // 4. Thoát ký tự CSV và JSON
+        Booking row = new Booking(42, 7, 3, 180_000, BookingStatus.CONFIRMED);
+        row.setCustomerName("Nguyễn \"Bin\", Văn A");
+        row.setMovieTitle("Dòng 1\nDòng 2\t\\ 🎬\u0001");
+        row.setShowDate("2026-10-17");
+        row.setShowTime("19:30");
+        row.setBookingTime(Timestamp.valueOf("2026-10-10 08:00:00"));
+
+        bytes.reset();
+        try (Utf8ChannelWriter out = new Utf8ChannelWriter(channel, 16)) {
+            BookingExporter.writeCsv(row, out);
+        }
+        System.out.println("CSV (mong đợi 42,7,\"Nguyễn \"\"Bin\"\", Văn A\",3,\"Dòng 1\\nDòng 2\\t\\ 🎬\\u0001\",...): "
+                + bytes.toString(StandardCharsets.UTF_8).replace("\n", "\\n").replace("\t", "\\t")
+                .replace("\u0001", "\\u0001"));
+
+        bytes.reset();
+        try (Utf8ChannelWriter out = new Utf8ChannelWriter(channel, 16)) {
+            BookingExporter.writeJson(row, out);
+        }
+        System.out.println("JSON (mong đợi customerName \"Nguyễn \\\"Bin\\\", Văn A\", movieTitle \"Dòng 1\\nDòng 2\\t\\\\ 🎬\\u0001\", confirmedAt null):");
+        System.out.print(bytes.toString(StandardCharsets.UTF_8));
+    }
+}
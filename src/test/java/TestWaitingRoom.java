@@ -0,0 +1,100 @@
+import dao.ShowtimeDao;
+import model.SeatStatus;
+import service.AvailabilityTracker;
+import waitingroom.QueueStatus;
+import waitingroom.WaitingRoom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestWaitingRoom {
+    public static void main(String[] args) throws Exception {
+        AvailabilityTracker tracker = new AvailabilityTracker(new ShowtimeDao());
+        tracker.track(1, 200, 200);
+        tracker.track(2, 200, 200);
+        WaitingRoom room = new WaitingRoom(tracker, "khoa-bi-mat-phong-cho-2024".getBytes(StandardCharsets.UTF_8));
+
+        // 1. Đám đông 500 và 5000 người, cùng tốc độ 50 người/giây
+        room.open(1, 50, 10);
+        room.open(2, 50, 10);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tokens.add(room.join(1));
+        }
+        for (int i = 0; i < 5000; i++) {
+            room.join(2);
+        }
+        System.out.println("Vào ngay khi mở (mong đợi ~10): " + room.getAdmitted(1));
+        QueueStatus status = room.status(tokens.get(99));
+        System.out.println("Người thứ 100: " + status.getState() + ", đứng sau " + status.getPosition()
+                + " người (mong đợi ~89), chờ ước tính ~" + status.getEstimatedWaitMillis() + " ms (mong đợi ~1800)");
+
+        Thread.sleep(1000);
+        room.isOpen(1);
+        long admitted1 = room.getAdmitted(1);
+        room.isOpen(2);
+        long admitted2 = room.getAdmitted(2);
+        System.out.println("Sau 1 giây, 500 người: " + admitted1 + " được vào, 5000 người: " + admitted2
+                + " được vào (mong đợi cả hai ~60-75)");
+        System.out.println("Người thứ 10 đã được vào (mong đợi true): " + room.isAdmitted(tokens.get(9)));
+        System.out.println("Người thứ 400 đã được vào (mong đợi false): " + room.isAdmitted(tokens.get(399)));
+
+        // 2. Vé bị sửa hoặc giả
+        String forged = tokens.get(399).replace('.', 'x');
+        System.out.println("Vé giả được vào (mong đợi false): " + room.isAdmitted(forged));
+        String other = room.join(2);
+        String swapped = tokens.get(0).substring(0, tokens.get(0).indexOf('.')) + other.substring(other.indexOf('.'));
+        System.out.println("Đổi chữ ký vé khác (mong đợi false): " + room.isAdmitted(swapped));
+
+        // 3. Gần hết ghế thì cho vào nhỏ giọt; ghế đều đang được giữ thì chỉ ngừng cho vào, chưa đóng hàng
+        for (int seatId = 1; seatId <= 197; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+        }
+        long before = room.getAdmitted(1);
+        Thread.sleep(500);
+        room.isOpen(1);
+        System.out.println("Còn 3 ghế, số người vào trong 0,5 giây (mong đợi ~7, tốc độ giảm còn 15 người/giây): " + (room.getAdmitted(1) - before));
+        for (int seatId = 198; seatId <= 200; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.AVAILABLE, SeatStatus.RESERVED);
+        }
+        before = room.getAdmitted(1);
+        Thread.sleep(200);
+        System.out.println("Ghế đều đang giữ: hàng còn mở (mong đợi true): " + room.isOpen(1)
+                + ", số người vào thêm (mong đợi 0): " + (room.getAdmitted(1) - before));
+
+        // 4. Hết ghế thật thì đóng, người đã được vào vẫn giữ quyền vào
+        for (int seatId = 1; seatId <= 200; seatId++) {
+            tracker.onTransition(1, seatId, SeatStatus.RESERVED, SeatStatus.BOOKED);
+        }
+        System.out.println("Trạng thái khi hết ghế (mong đợi CLOSED): " + room.status(tokens.get(450)).getState());
+        System.out.println("Người đã vào khi hết ghế (mong đợi ADMITTED): " + room.status(tokens.get(9)).getState());
+        try {
+            room.join(1);
+            System.out.println("LỖI: vẫn vào được hàng chờ đã đóng");
+        } catch (IllegalStateException e) {
+            System.out.println("Vào hàng chờ đã đóng (mong đợi lỗi): " + e.getMessage());
+        }
+
+        // 5. Đơn bị hủy trả ghế thì hàng mở lại
+        tracker.onTransition(1, 1, SeatStatus.BOOKED, SeatStatus.AVAILABLE);
+        System.out.println("Có ghế được trả lại (mong đợi true): " + room.isOpen(1)
+                + ", trạng thái người đang chờ (mong đợi WAITING): " + room.status(tokens.get(450)).getState());
+
+        // 6. Vé chỉ dùng được một lần
+        System.out.println("Dùng vé lần đầu (mong đợi true): " + room.enter(tokens.get(0))
+                + ", lần hai (mong đợi false): " + room.enter(tokens.get(0))
+                + ", trạng thái (mong đợi USED): " + room.status(tokens.get(0)).getState());
+        System.out.println("Dùng vé chưa tới lượt (mong đợi false): " + room.enter(tokens.get(499))
+                + ", vé giả (mong đợi false): " + room.enter(forged));
+
+        // 7. Quá hạn vào mà chưa dùng vé thì vé hết hiệu lực
+        tracker.track(3, 100, 100);
+        room.open(3, 50, 5, 300);
+        String early = room.join(3);
+        System.out.println("Vừa được vào (mong đợi ADMITTED): " + room.status(early).getState());
+        Thread.sleep(400);
+        System.out.println("Sau hạn vào (mong đợi EXPIRED false): " + room.status(early).getState()
+                + " " + room.enter(early));
+    }
+}